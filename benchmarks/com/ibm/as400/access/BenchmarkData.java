@@ -0,0 +1,76 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: BenchmarkData.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+/**
+Canned data shared by the benchmarks.
+**/
+final class BenchmarkData
+{
+  private static final String SINGLE_BYTE = "The quick brown fox jumps over the lazy dog 0123456789. ";
+  // Katakana and kanji, which are in CCSID 300 and the double-byte part of CCSID 930.
+  private static final String DOUBLE_BYTE = "\u30A2\u30A4\u30A6\u30A8\u30AA\u65E5\u672C\u8A9E\u6587\u5B57";
+  private static final String MIXED = "ORDER \u65E5\u672C 12345 \u6587\u5B57 ";
+
+  private BenchmarkData()
+  {
+  }
+
+  /**
+  Returns a string of length characters that can be converted by the CCSID.
+  **/
+  static String text(int ccsid, int length)
+  {
+    String pattern;
+    switch (ccsid)
+    {
+      case 300:
+        pattern = DOUBLE_BYTE;
+        break;
+      case 930:
+      case 1208:
+        pattern = MIXED;
+        break;
+      default:
+        pattern = SINGLE_BYTE;
+    }
+    StringBuffer buffer = new StringBuffer(length);
+    while (buffer.length() < length)
+    {
+      buffer.append(pattern);
+    }
+    buffer.setLength(length);
+    return buffer.toString();
+  }
+
+  /**
+  Returns bytes that mimic a block of fixed length result set rows: mostly
+  blank padded text and zero filled numbers, which RLE compresses well.
+  **/
+  static byte[] rows(int length)
+  {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; ++i)
+    {
+      int column = i % 100;
+      if (column < 10)
+        bytes[i] = (byte)(0xC1 + (i / 100) % 9);  // EBCDIC letters.
+      else if (column < 60)
+        bytes[i] = 0x40;                           // EBCDIC blanks.
+      else
+        bytes[i] = 0x00;
+    }
+    return bytes;
+  }
+}
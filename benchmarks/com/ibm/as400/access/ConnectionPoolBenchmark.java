@@ -0,0 +1,78 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: ConnectionPoolBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures borrowing a connection from an AS400ConnectionPool and returning
+it, with the maintenance thread sweeping the pool at the same time.  The
+pool is filled from a HostServerSimulator, so no connections are created
+while measuring.  Run it with -t 1, 4, 16, 64 and 256 to see how it scales
+with the number of threads.
+**/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionPoolBenchmark
+{
+  @Param({ "16", "256" })
+  public int connections;
+
+  private HostServerSimulator simulator_;
+  private AS400ConnectionPool pool_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    simulator_ = new HostServerSimulator();
+    simulator_.start();
+    simulator_.getSystem();  // Sets the service ports for localhost.
+    pool_ = new AS400ConnectionPool();
+    pool_.setMaxConnections(-1);
+    pool_.setCleanupInterval(10);
+    pool_.fill("localhost", HostServerSimulator.USER_ID, HostServerSimulator.PASSWORD, AS400.COMMAND, connections);
+  }
+
+  @TearDown
+  public void tearDown()
+  {
+    pool_.close();
+    simulator_.stop();
+  }
+
+  @Benchmark
+  public AS400 borrowAndReturn() throws Exception
+  {
+    AS400 system = pool_.getConnection("localhost", HostServerSimulator.USER_ID, HostServerSimulator.PASSWORD, AS400.COMMAND);
+    pool_.returnConnectionToPool(system);
+    return system;
+  }
+}
@@ -0,0 +1,73 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: ConvTableBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures CCSID conversion in ConvTable for a single-byte CCSID (37),
+a double-byte CCSID (300), a mixed CCSID (930), and UTF-8 (1208).
+The host bytes are produced once from a canned string, so nothing is
+read from a system.
+**/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConvTableBenchmark
+{
+  @Param({ "37", "300", "930", "1208" })
+  public int ccsid;
+
+  @Param({ "16", "256", "4096" })
+  public int length;
+
+  private ConvTable table_;
+  private String string_;
+  private byte[] bytes_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    table_ = ConvTable.getTable(ccsid, null);
+    string_ = BenchmarkData.text(ccsid, length);
+    bytes_ = table_.stringToByteArray(string_);
+  }
+
+  @Benchmark
+  public String byteArrayToString()
+  {
+    return table_.byteArrayToString(bytes_, 0, bytes_.length);
+  }
+
+  @Benchmark
+  public byte[] stringToByteArray()
+  {
+    return table_.stringToByteArray(string_);
+  }
+}
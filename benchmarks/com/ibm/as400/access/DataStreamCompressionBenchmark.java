@@ -0,0 +1,69 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: DataStreamCompressionBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures the RLE compression used by the database host server data
+streams on a canned block of rows.
+**/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataStreamCompressionBenchmark
+{
+  @Param({ "4096", "32768", "262144" })
+  public int length;
+
+  private byte[] decompressed_;
+  private byte[] compressed_;
+  private byte[] destination_;
+
+  @Setup
+  public void setup()
+  {
+    decompressed_ = BenchmarkData.rows(length);
+    compressed_ = DataStreamCompression.compressRLE(decompressed_, 0, length, DataStreamCompression.DEFAULT_ESCAPE);
+    destination_ = new byte[length];
+  }
+
+  @Benchmark
+  public byte[] compress()
+  {
+    return DataStreamCompression.compressRLE(decompressed_, 0, length, DataStreamCompression.DEFAULT_ESCAPE);
+  }
+
+  @Benchmark
+  public byte[] decompress()
+  {
+    DataStreamCompression.decompressRLE(compressed_, 0, compressed_.length, destination_, 0, DataStreamCompression.DEFAULT_ESCAPE, false);
+    return destination_;
+  }
+}
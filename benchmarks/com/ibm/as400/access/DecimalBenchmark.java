@@ -0,0 +1,98 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: DecimalBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures AS400PackedDecimal and AS400ZonedDecimal conversion of a
+DECIMAL(15,2) value, both through BigDecimal and through the long
+decoder used by AS400JDBCResultSet.getLong().
+**/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecimalBenchmark
+{
+  private static final int DIGITS = 15;
+  private static final int SCALE = 2;
+
+  private final AS400PackedDecimal packed_ = new AS400PackedDecimal(DIGITS, SCALE);
+  private final AS400ZonedDecimal zoned_ = new AS400ZonedDecimal(DIGITS, SCALE);
+  private final BigDecimal value_ = new BigDecimal("-1234567890123.45");
+  private byte[] packedBytes_;
+  private byte[] zonedBytes_;
+  private byte[] output_;
+
+  @Setup
+  public void setup()
+  {
+    packedBytes_ = packed_.toBytes(value_);
+    zonedBytes_ = zoned_.toBytes(value_);
+    output_ = new byte[DIGITS];
+  }
+
+  @Benchmark
+  public Object packedToObject()
+  {
+    return packed_.toObject(packedBytes_, 0);
+  }
+
+  @Benchmark
+  public long packedToLong()
+  {
+    return AS400PackedDecimal.toLong(packedBytes_, 0, DIGITS, SCALE);
+  }
+
+  @Benchmark
+  public byte[] packedToBytes()
+  {
+    packed_.toBytes(value_, output_, 0);
+    return output_;
+  }
+
+  @Benchmark
+  public Object zonedToObject()
+  {
+    return zoned_.toObject(zonedBytes_, 0);
+  }
+
+  @Benchmark
+  public long zonedToLong()
+  {
+    return AS400ZonedDecimal.toLong(zonedBytes_, 0, DIGITS, SCALE);
+  }
+
+  @Benchmark
+  public byte[] zonedToBytes()
+  {
+    zoned_.toBytes(value_, output_, 0);
+    return output_;
+  }
+}
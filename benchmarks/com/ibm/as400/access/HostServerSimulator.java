@@ -0,0 +1,396 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: HostServerSimulator.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Vector;
+
+/**
+An in-process stand-in for the host servers of an IBM i system, so the
+throughput and latency of the toolbox can be measured without one.
+
+<p>The simulator listens on loopback ports for the signon, database,
+record level access (DDM), file and remote command servers.  It speaks
+enough of each protocol to let the toolbox sign on and then:
+<ul>
+<li>run any query through JDBC and get back a synthetic result set,
+<li>open any physical file through record level access and read
+    synthetic records,
+<li>read any IFS file as synthetic data, and write IFS files, which
+    are discarded,
+<li>run any CL command through CommandCall, which always succeeds.
+</ul>
+Passwords are not checked and nothing is kept between requests.
+
+<p>Every reply can be delayed by a fixed latency and paced to a given
+bandwidth, so the effect of the network on the toolbox can be measured
+on a single machine.  Replies on one connection are delayed, not the
+server, so requests that are pipelined by the toolbox overlap as they
+would on a real network.
+
+<p>Use the AS400 object returned by {@link #getSystem getSystem}, or
+call {@link #configure configure} to point an existing AS400 object at
+the simulator:
+<pre>
+HostServerSimulator simulator = new HostServerSimulator();
+simulator.setLatency(500);              // Half a millisecond per reply.
+simulator.setBandwidth(100000000 / 8);  // 100 megabit.
+simulator.start();
+AS400 system = simulator.getSystem();
+Connection connection = new AS400JDBCDriver().connect(system, new Properties(), null);
+</pre>
+**/
+public class HostServerSimulator
+{
+  /**
+  The user ID that the simulator reports as signed on.
+  **/
+  public static final String USER_ID  = "SIMUSER";
+  /**
+  A password for the user ID.  Any password is accepted.
+  **/
+  public static final String PASSWORD = "SIMPASS";
+
+  // The record format of the files served through record level access.
+  static final String RECORD_FORMAT_NAME = "SIMREC";
+  static final int RECORD_LENGTH = 64;
+
+  // The services served, in the order of the server sockets in serverSockets_.
+  private static final int[] SERVICES = { AS400.SIGNON, AS400.DATABASE, AS400.RECORDACCESS, AS400.FILE, AS400.COMMAND };
+
+  private long latency_ = 0;      // Nanoseconds.
+  private long bandwidth_ = 0;    // Bytes per second, 0 for no limit.
+  private int rowCount_ = 10000;
+  private int recordCount_ = 10000;
+  private long fileSize_ = 16 * 1024 * 1024;
+
+  private ServerSocket[] serverSockets_;
+  private final Vector connections_ = new Vector();
+  private volatile boolean running_ = false;
+
+  /**
+  Constructs a HostServerSimulator object.  The simulator does not
+  accept connections until it is started.
+  **/
+  public HostServerSimulator()
+  {
+  }
+
+  /**
+  Sets the time added to every reply before it is sent.  This is the
+  round trip time that the toolbox sees for each request.
+  @param  latency  The latency, in microseconds.  The default is 0.
+  **/
+  public void setLatency(long latency)
+  {
+    if (latency < 0) throw new ExtendedIllegalArgumentException("latency", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    latency_ = latency * 1000;
+  }
+
+  /**
+  Returns the time added to every reply before it is sent.
+  @return  The latency, in microseconds.
+  **/
+  public long getLatency()
+  {
+    return latency_ / 1000;
+  }
+
+  /**
+  Sets the rate at which replies are sent on each connection.
+  @param  bandwidth  The bandwidth, in bytes per second, or 0 for no
+                     limit.  The default is 0.
+  **/
+  public void setBandwidth(long bandwidth)
+  {
+    if (bandwidth < 0) throw new ExtendedIllegalArgumentException("bandwidth", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    bandwidth_ = bandwidth;
+  }
+
+  /**
+  Returns the rate at which replies are sent on each connection.
+  @return  The bandwidth, in bytes per second, or 0 for no limit.
+  **/
+  public long getBandwidth()
+  {
+    return bandwidth_;
+  }
+
+  /**
+  Sets the number of rows in the result set of every query.
+  @param  rowCount  The number of rows.  The default is 10000.
+  **/
+  public void setRowCount(int rowCount)
+  {
+    if (rowCount < 0) throw new ExtendedIllegalArgumentException("rowCount", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    rowCount_ = rowCount;
+  }
+
+  /**
+  Returns the number of rows in the result set of every query.
+  @return  The number of rows.
+  **/
+  public int getRowCount()
+  {
+    return rowCount_;
+  }
+
+  /**
+  Sets the number of records in every file opened through record level
+  access.
+  @param  recordCount  The number of records.  The default is 10000.
+  **/
+  public void setRecordCount(int recordCount)
+  {
+    if (recordCount < 0) throw new ExtendedIllegalArgumentException("recordCount", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    recordCount_ = recordCount;
+  }
+
+  /**
+  Returns the number of records in every file opened through record
+  level access.
+  @return  The number of records.
+  **/
+  public int getRecordCount()
+  {
+    return recordCount_;
+  }
+
+  /**
+  Sets the size of every IFS file that is read.
+  @param  fileSize  The size, in bytes.  The default is 16 megabytes.
+  **/
+  public void setFileSize(long fileSize)
+  {
+    if (fileSize < 0) throw new ExtendedIllegalArgumentException("fileSize", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    fileSize_ = fileSize;
+  }
+
+  /**
+  Returns the size of every IFS file that is read.
+  @return  The size, in bytes.
+  **/
+  public long getFileSize()
+  {
+    return fileSize_;
+  }
+
+  /**
+  Returns the record format of every file opened through record level
+  access.  Set it on the file before it is opened, for example with
+  {@link SequentialFile#setRecordFormat(RecordFormat) SequentialFile.setRecordFormat()}.
+  The fields are ID, a 4 byte binary record number, NAME, CHAR(20),
+  AMOUNT, DECIMAL(11,2), the record number times 1.25, and NOTE, CHAR(34).
+  @return  The record format.
+  **/
+  public RecordFormat getRecordFormat()
+  {
+    RecordFormat format = new RecordFormat(RECORD_FORMAT_NAME);
+    format.addFieldDescription(new BinaryFieldDescription(new AS400Bin4(), "ID"));
+    format.addFieldDescription(new CharacterFieldDescription(new AS400Text(20, 37), "NAME"));
+    format.addFieldDescription(new PackedDecimalFieldDescription(new AS400PackedDecimal(11, 2), "AMOUNT"));
+    format.addFieldDescription(new CharacterFieldDescription(new AS400Text(34, 37), "NOTE"));
+    return format;
+  }
+
+  /**
+  Starts accepting connections.  Each service listens on a free loopback
+  port.
+  @exception  IOException  If a port cannot be opened.
+  **/
+  public synchronized void start() throws IOException
+  {
+    if (running_) return;
+    serverSockets_ = new ServerSocket[SERVICES.length];
+    try
+    {
+      for (int i = 0; i < SERVICES.length; ++i)
+      {
+        serverSockets_[i] = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+      }
+    }
+    catch (IOException e)
+    {
+      closeServerSockets();
+      throw e;
+    }
+    running_ = true;
+    for (int i = 0; i < SERVICES.length; ++i)
+    {
+      final int service = SERVICES[i];
+      final ServerSocket serverSocket = serverSockets_[i];
+      Thread acceptor = new Thread("HostServerSimulator-" + AS400.getServerName(service))
+      {
+        public void run()
+        {
+          accept(service, serverSocket);
+        }
+      };
+      acceptor.setDaemon(true);
+      acceptor.start();
+    }
+  }
+
+  /**
+  Stops accepting connections and closes all open connections.
+  **/
+  public synchronized void stop()
+  {
+    if (!running_) return;
+    running_ = false;
+    closeServerSockets();
+    synchronized (connections_)
+    {
+      for (int i = 0; i < connections_.size(); ++i)
+      {
+        ((SimulatorConnection)connections_.elementAt(i)).close();
+      }
+      connections_.removeAllElements();
+    }
+  }
+
+  /**
+  Returns the port on which a service listens.
+  @param  service  The service, for example AS400.DATABASE.
+  @return  The port, or -1 if the service is not simulated or the
+           simulator is not started.
+  **/
+  public int getServicePort(int service)
+  {
+    if (!running_) return -1;
+    for (int i = 0; i < SERVICES.length; ++i)
+    {
+      if (SERVICES[i] == service) return serverSockets_[i].getLocalPort();
+    }
+    return -1;
+  }
+
+  /**
+  Points an AS400 object at the simulator, by setting the ports of the
+  simulated services.  The system name of the AS400 object must be
+  "localhost".
+  @param  system  The AS400 object.
+  **/
+  public void configure(AS400 system)
+  {
+    if (!running_) throw new ExtendedIllegalStateException("running", ExtendedIllegalStateException.PROPERTY_NOT_SET);
+    for (int i = 0; i < SERVICES.length; ++i)
+    {
+      system.setServicePort(SERVICES[i], serverSockets_[i].getLocalPort());
+    }
+  }
+
+  /**
+  Returns a new AS400 object that connects to the simulator.
+  @return  The AS400 object.
+  **/
+  public AS400 getSystem()
+  {
+    AS400 system = new AS400("localhost", USER_ID, PASSWORD);
+    try
+    {
+      system.setGuiAvailable(false);
+    }
+    catch (java.beans.PropertyVetoException e)
+    {
+      // Not vetoed, no listeners.
+    }
+    configure(system);
+    return system;
+  }
+
+  // Returns the latency, in nanoseconds.
+  long getLatencyNanos()
+  {
+    return latency_;
+  }
+
+  void removeConnection(SimulatorConnection connection)
+  {
+    connections_.removeElement(connection);
+  }
+
+  private void accept(int service, ServerSocket serverSocket)
+  {
+    while (running_)
+    {
+      Socket socket;
+      try
+      {
+        socket = serverSocket.accept();
+      }
+      catch (IOException e)
+      {
+        if (running_) Trace.log(Trace.ERROR, "Simulator failed to accept a connection:", e);
+        return;
+      }
+      try
+      {
+        socket.setTcpNoDelay(true);
+        SimulatorConnection connection;
+        switch (service)
+        {
+          case AS400.SIGNON:
+            connection = new SimulatorSignonConnection(this, socket);
+            break;
+          case AS400.DATABASE:
+            connection = new SimulatorDatabaseConnection(this, socket);
+            break;
+          case AS400.RECORDACCESS:
+            connection = new SimulatorDDMConnection(this, socket);
+            break;
+          case AS400.FILE:
+            connection = new SimulatorFileConnection(this, socket);
+            break;
+          default:
+            connection = new SimulatorCommandConnection(this, socket);
+            break;
+        }
+        connections_.addElement(connection);
+        connection.start(AS400.getServerName(service));
+      }
+      catch (IOException e)
+      {
+        Trace.log(Trace.ERROR, "Simulator failed to start a connection:", e);
+        try
+        {
+          socket.close();
+        }
+        catch (IOException e2)
+        {
+        }
+      }
+    }
+  }
+
+  private void closeServerSockets()
+  {
+    for (int i = 0; i < serverSockets_.length; ++i)
+    {
+      if (serverSockets_[i] != null)
+      {
+        try
+        {
+          serverSockets_[i].close();
+        }
+        catch (IOException e)
+        {
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,111 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: IFSStreamBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures streaming an IFS file from and to a HostServerSimulator whose
+latency stands in for a wide area network, with the read-ahead of
+IFSFileInputStream and the write-behind of IFSFileOutputStream set to each
+of the <i>outstanding</i> values.  The sockets have TCP no delay set, as
+both need.
+**/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IFSStreamBenchmark
+{
+  // Round trip time, in microseconds.
+  @Param({ "1000", "30000" })
+  public long latency;
+
+  // Requests kept outstanding, 0 for one request at a time.
+  @Param({ "0", "4", "16" })
+  public int outstanding;
+
+  private static final int FILE_SIZE = 64 * 1024 * 1024;
+
+  private HostServerSimulator simulator_;
+  private AS400 system_;
+  private byte[] buffer_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    System.setProperty(SystemProperties.IFS_READ_AHEAD, Integer.toString(outstanding));
+    System.setProperty(SystemProperties.IFS_WRITE_BEHIND, Integer.toString(outstanding));
+    simulator_ = new HostServerSimulator();
+    simulator_.setFileSize(FILE_SIZE);
+    simulator_.start();
+    system_ = new AS400("localhost", HostServerSimulator.USER_ID, HostServerSimulator.PASSWORD);
+    system_.setGuiAvailable(false);
+    SocketProperties socketProperties = new SocketProperties();
+    socketProperties.setTcpNoDelay(true);
+    system_.setSocketProperties(socketProperties);
+    simulator_.configure(system_);
+    system_.connectService(AS400.FILE);
+    buffer_ = new byte[32 * 1024];
+    simulator_.setLatency(latency);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception
+  {
+    system_.disconnectAllServices();
+    simulator_.stop();
+  }
+
+  @Benchmark
+  public long read() throws Exception
+  {
+    long total = 0;
+    IFSFileInputStream in = new IFSFileInputStream(system_, "/home/simuser/data.bin");
+    for (int count = in.read(buffer_); count > 0; count = in.read(buffer_))
+    {
+      total += count;
+    }
+    in.close();
+    return total;
+  }
+
+  @Benchmark
+  public long write() throws Exception
+  {
+    long total = 0;
+    IFSFileOutputStream out = new IFSFileOutputStream(system_, "/home/simuser/copy.bin");
+    for (; total < FILE_SIZE; total += buffer_.length)
+    {
+      out.write(buffer_);
+    }
+    out.close();
+    return total;
+  }
+}
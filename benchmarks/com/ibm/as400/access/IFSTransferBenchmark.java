@@ -0,0 +1,100 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: IFSTransferBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures IFSTransfer downloading and uploading a file from and to a
+HostServerSimulator whose latency stands in for a wide area network, over
+each of the <i>streams</i> numbers of connections.
+**/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IFSTransferBenchmark
+{
+  // Round trip time, in microseconds.
+  @Param({ "1000", "30000" })
+  public long latency;
+
+  @Param({ "1", "4", "8" })
+  public int streams;
+
+  private static final int FILE_SIZE = 64 * 1024 * 1024;
+
+  private HostServerSimulator simulator_;
+  private AS400[] systems_;
+  private IFSTransfer transfer_;
+  private File localFile_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    simulator_ = new HostServerSimulator();
+    simulator_.setFileSize(FILE_SIZE);
+    simulator_.start();
+    systems_ = new AS400[streams];
+    for (int i = 0; i < systems_.length; ++i)
+    {
+      systems_[i] = simulator_.getSystem();
+      systems_[i].connectService(AS400.FILE);
+    }
+    transfer_ = new IFSTransfer(systems_);
+    transfer_.setRangeSize(4 * 1024 * 1024);
+    localFile_ = File.createTempFile("IFSTransferBenchmark", ".bin");
+    transfer_.download("/home/simuser/data.bin", localFile_);
+    simulator_.setLatency(latency);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception
+  {
+    for (int i = 0; i < systems_.length; ++i)
+    {
+      systems_[i].disconnectAllServices();
+    }
+    simulator_.stop();
+    localFile_.delete();
+  }
+
+  @Benchmark
+  public long download() throws Exception
+  {
+    return transfer_.download("/home/simuser/data.bin", localFile_);
+  }
+
+  @Benchmark
+  public long upload() throws Exception
+  {
+    return transfer_.upload(localFile_, "/home/simuser/copy.bin");
+  }
+}
@@ -0,0 +1,118 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDServerRowDecodeBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+Measures the column decoding that JDServerRow.getSQLData() does for
+each column of a fetched row: SQLData.convertFromRawBytes() followed by
+the getter.  A JDServerRow needs a connection for its converters, so the
+SQLData objects are driven directly over a canned row with a CHAR(20),
+a VARCHAR(40), a DECIMAL(11,2), a NUMERIC(9,0) and an INTEGER column.
+The direct decoders used by AS400JDBCResultSet.getCharSequence() and
+getLong() are measured on the same row.
+**/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JDServerRowDecodeBenchmark
+{
+  private static final int CHAR_OFFSET = 0;
+  private static final int VARCHAR_OFFSET = CHAR_OFFSET + 20;
+  private static final int DECIMAL_OFFSET = VARCHAR_OFFSET + 42;
+  private static final int NUMERIC_OFFSET = DECIMAL_OFFSET + 6;
+  private static final int INTEGER_OFFSET = NUMERIC_OFFSET + 9;
+  private static final int ROW_LENGTH = INTEGER_OFFSET + 4;
+
+  private ConvTable converter_;
+  private byte[] row_;
+  private SQLData char_;
+  private SQLData varchar_;
+  private SQLData decimal_;
+  private SQLData numeric_;
+  private SQLData integer_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    converter_ = ConvTable.getTable(37, null);
+    JDProperties properties = new JDProperties();
+    SQLConversionSettings settings = new SQLConversionSettings(properties);
+    int vrm = JDUtilities.vrm710;
+
+    char_ = new SQLChar(20, settings);
+    varchar_ = new SQLVarchar(40, settings);
+    decimal_ = new SQLDecimal(11, 2, settings, vrm, properties);
+    numeric_ = new SQLNumeric(9, 0, settings, vrm, properties);
+    integer_ = new SQLInteger(vrm, settings);
+
+    row_ = new byte[ROW_LENGTH];
+    char_.set("PART NUMBER 12", null, -1);
+    char_.convertToRawBytes(row_, CHAR_OFFSET, converter_);
+    varchar_.set("WIDGET, BLUE, LARGE", null, -1);
+    varchar_.convertToRawBytes(row_, VARCHAR_OFFSET, converter_);
+    decimal_.set(new BigDecimal("123456789.01"), null, -1);
+    decimal_.convertToRawBytes(row_, DECIMAL_OFFSET, converter_);
+    numeric_.set(new BigDecimal("987654321"), null, -1);
+    numeric_.convertToRawBytes(row_, NUMERIC_OFFSET, converter_);
+    integer_.set(Integer.valueOf(4711), null, -1);
+    integer_.convertToRawBytes(row_, INTEGER_OFFSET, converter_);
+  }
+
+  @Benchmark
+  public void decodeRow(Blackhole blackhole) throws Exception
+  {
+    char_.convertFromRawBytes(row_, CHAR_OFFSET, converter_);
+    blackhole.consume(char_.getString());
+    varchar_.convertFromRawBytes(row_, VARCHAR_OFFSET, converter_);
+    blackhole.consume(varchar_.getString());
+    decimal_.convertFromRawBytes(row_, DECIMAL_OFFSET, converter_);
+    blackhole.consume(decimal_.getBigDecimal(-1));
+    numeric_.convertFromRawBytes(row_, NUMERIC_OFFSET, converter_);
+    blackhole.consume(numeric_.getLong());
+    integer_.convertFromRawBytes(row_, INTEGER_OFFSET, converter_);
+    blackhole.consume(integer_.getInt());
+  }
+
+  @Benchmark
+  public void decodeRowDirect(Blackhole blackhole) throws Exception
+  {
+    ConvTableSingleMap table = (ConvTableSingleMap)converter_;
+    CharSequence chars = new JDSingleByteCharSequence(table, row_, CHAR_OFFSET, 20);
+    blackhole.consume(chars.charAt(0));
+    int varcharLength = BinaryConverter.byteArrayToUnsignedShort(row_, VARCHAR_OFFSET);
+    chars = new JDSingleByteCharSequence(table, row_, VARCHAR_OFFSET + 2, varcharLength);
+    blackhole.consume(chars.charAt(varcharLength - 1));
+    blackhole.consume(AS400PackedDecimal.toLong(row_, DECIMAL_OFFSET, 11, 2));
+    blackhole.consume(AS400ZonedDecimal.toLong(row_, NUMERIC_OFFSET, 9, 0));
+    blackhole.consume(BinaryConverter.byteArrayToInt(row_, INTEGER_OFFSET));
+  }
+}
@@ -0,0 +1,147 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: LoopbackBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures the toolbox end to end against a HostServerSimulator on the
+loopback interface: a JDBC query that fetches every row, a sequential
+read of a file through record level access, an IFS file read, and
+CommandCall.  The latency and bandwidth of the simulator stand in for the
+network between the client and the system.
+**/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoopbackBenchmark
+{
+  // Round trip time, in microseconds.
+  @Param({ "0", "500" })
+  public long latency;
+
+  // Bytes per second, 0 for no limit.
+  @Param({ "0", "12500000" })
+  public long bandwidth;
+
+  private static final int ROWS = 10000;
+  private static final int RECORDS = 10000;
+  private static final int FILE_SIZE = 4 * 1024 * 1024;
+
+  private HostServerSimulator simulator_;
+  private AS400 system_;
+  private Connection connection_;
+  private SequentialFile file_;
+  private CommandCall command_;
+  private byte[] buffer_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    simulator_ = new HostServerSimulator();
+    simulator_.setRowCount(ROWS);
+    simulator_.setRecordCount(RECORDS);
+    simulator_.setFileSize(FILE_SIZE);
+    simulator_.start();
+    system_ = simulator_.getSystem();
+    connection_ = new AS400JDBCDriver().connect(system_, new Properties(), null);
+    file_ = new SequentialFile(system_, "/QSYS.LIB/SIMLIB.LIB/ORDERS.FILE");
+    file_.setRecordFormat(simulator_.getRecordFormat());
+    command_ = new CommandCall(system_);
+    buffer_ = new byte[64 * 1024];
+    // Connect every service before the latency applies.
+    command_.run("QSYS/CHKOBJ OBJ(QSYS/QSYS) OBJTYPE(*LIB)");
+    system_.connectService(AS400.FILE);
+    system_.connectService(AS400.RECORDACCESS);
+    simulator_.setLatency(latency);
+    simulator_.setBandwidth(bandwidth);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception
+  {
+    connection_.close();
+    system_.disconnectAllServices();
+    simulator_.stop();
+  }
+
+  @Benchmark
+  public long jdbcFetch() throws Exception
+  {
+    long sum = 0;
+    Statement statement = connection_.createStatement();
+    ResultSet resultSet = statement.executeQuery("SELECT ID, NAME, AMOUNT, NOTE, CREATED FROM SIMLIB.ORDERS");
+    while (resultSet.next())
+    {
+      sum += resultSet.getInt(1);
+      sum += resultSet.getString(2).length();
+      sum += resultSet.getBigDecimal(3).scale();
+    }
+    resultSet.close();
+    statement.close();
+    return sum;
+  }
+
+  @Benchmark
+  public long recordLevelRead() throws Exception
+  {
+    long sum = 0;
+    file_.open(AS400File.READ_ONLY, 1000, AS400File.COMMIT_LOCK_LEVEL_NONE);
+    for (Record record = file_.readNext(); record != null; record = file_.readNext())
+    {
+      sum += ((Integer)record.getField(0)).intValue();
+    }
+    file_.close();
+    return sum;
+  }
+
+  @Benchmark
+  public long ifsRead() throws Exception
+  {
+    long total = 0;
+    IFSFileInputStream in = new IFSFileInputStream(system_, "/home/simuser/data.bin");
+    for (int count = in.read(buffer_); count > 0; count = in.read(buffer_))
+    {
+      total += count;
+    }
+    in.close();
+    return total;
+  }
+
+  @Benchmark
+  public boolean commandCall() throws Exception
+  {
+    return command_.run("QSYS/CHKOBJ OBJ(QSYS/QSYS) OBJTYPE(*LIB)");
+  }
+}
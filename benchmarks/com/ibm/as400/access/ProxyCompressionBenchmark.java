@@ -0,0 +1,160 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: ProxyCompressionBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures writing and reading a proxy server reply, with and without
+compressed frames, for replies like those of JDBC, record-level access
+and IFS traffic.  The number of bytes each reply takes on the wire is
+printed when the benchmark is set up.
+**/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProxyCompressionBenchmark
+{
+  @Param({ "jdbc", "record", "ifs" })
+  public String traffic;
+
+  @Param({ "none", "deflate" })
+  public String compression;
+
+  private PxDictionary writeDictionary_;
+  private PxDSFactory factory_;
+  private PxCompression compression_;
+  private Object value_;
+  private ByteArrayOutputStream output_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    writeDictionary_ = new PxDictionary();
+    writeDictionary_.setEnabled(true);
+    PxDictionary readDictionary = new PxDictionary();
+
+    factory_ = new PxDSFactory();
+    factory_.register(new PxIntParm());
+    factory_.register(new PxBooleanParm());
+    factory_.register(new PxStringParm());
+    factory_.register(new PxNullParm());
+    factory_.register(new PxSerializedObjectParm());
+    factory_.register(new PxValueParm());
+    factory_.register(new PxRecordParm(readDictionary));
+    factory_.register(new PxRecordFormatParm(readDictionary));
+    factory_.register(new PxReturnRepCV());
+
+    if (compression.equals("deflate"))
+      compression_ = new PxCompression(ProxyConstants.COMPRESSION_DEFLATE, PxCompression.DEFAULT_THRESHOLD_);
+
+    if (traffic.equals("jdbc"))
+      value_ = rows(200);
+    else if (traffic.equals("record"))
+      value_ = records(200);
+    else
+      value_ = BenchmarkData.rows(32768);
+
+    output_ = new ByteArrayOutputStream();
+    write();
+    System.out.println(traffic + "/" + compression + ": " + output_.size() + " bytes on the wire");
+    read();
+  }
+
+  /**
+  Returns rows of column values like those of a JDBC result set.
+  **/
+  private static Vector rows(int count)
+  {
+    Vector rows = new Vector(count);
+    for (int i = 0; i < count; ++i)
+    {
+      Object[] row = new Object[4];
+      row[0] = new Integer(i);
+      row[1] = BenchmarkData.text(37, 30);
+      row[2] = new BigDecimal("1234.56").add(new BigDecimal(i));
+      row[3] = (i % 10 == 0) ? null : "ACTIVE    ";
+      rows.addElement(row);
+    }
+    return rows;
+  }
+
+  /**
+  Returns records like those read with record-level access.
+  **/
+  private static Record[] records(int count) throws Exception
+  {
+    RecordFormat format = new RecordFormat("CUSTREC");
+    format.addFieldDescription(new ZonedDecimalFieldDescription(new AS400ZonedDecimal(9, 0), "CUSNUM"));
+    format.addFieldDescription(new CharacterFieldDescription(new AS400Text(30, 37), "NAME"));
+    format.addFieldDescription(new CharacterFieldDescription(new AS400Text(40, 37), "ADDRESS"));
+    format.addFieldDescription(new PackedDecimalFieldDescription(new AS400PackedDecimal(11, 2), "BALANCE"));
+    format.addFieldDescription(new BinaryFieldDescription(new AS400Bin4(), "ORDERS"));
+
+    Record source = format.getNewRecord();
+    source.setField("NAME", "JOHN Q. CUSTOMER");
+    source.setField("ADDRESS", "123 MAIN STREET");
+    source.setField("BALANCE", new BigDecimal("1234.56"));
+    source.setField("ORDERS", Integer.valueOf(17));
+
+    Record[] records = new Record[count];
+    for (int i = 0; i < count; ++i)
+    {
+      source.setField("CUSNUM", new BigDecimal(i));
+      records[i] = new Record(format, source.getContents(), "CUSTREC");
+    }
+    return records;
+  }
+
+  private void write() throws Exception
+  {
+    output_.reset();
+    PxReturnRepSV reply = new PxReturnRepSV(null, writeDictionary_, value_, new Object[0], new boolean[0]);
+    if (compression_ != null)
+      compression_.writeTo(reply, output_);
+    else
+      reply.writeTo(output_);
+  }
+
+  private Object read() throws Exception
+  {
+    return factory_.getNextDS(new ByteArrayInputStream(output_.toByteArray()));
+  }
+
+  @Benchmark
+  public Object roundTrip() throws Exception
+  {
+    write();
+    return read();
+  }
+}
@@ -0,0 +1,85 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: RecordBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures Record.setContents/getContents and field access for a
+record format like those used with record-level access.
+**/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordBenchmark
+{
+  private Record record_;
+  private byte[] contents_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    RecordFormat format = new RecordFormat("CUSTREC");
+    format.addFieldDescription(new ZonedDecimalFieldDescription(new AS400ZonedDecimal(9, 0), "CUSNUM"));
+    format.addFieldDescription(new CharacterFieldDescription(new AS400Text(30, 37), "NAME"));
+    format.addFieldDescription(new CharacterFieldDescription(new AS400Text(40, 37), "ADDRESS"));
+    format.addFieldDescription(new PackedDecimalFieldDescription(new AS400PackedDecimal(11, 2), "BALANCE"));
+    format.addFieldDescription(new BinaryFieldDescription(new AS400Bin4(), "ORDERS"));
+
+    Record source = format.getNewRecord();
+    source.setField("CUSNUM", new BigDecimal("123456"));
+    source.setField("NAME", "JOHN Q. CUSTOMER");
+    source.setField("ADDRESS", "123 MAIN STREET");
+    source.setField("BALANCE", new BigDecimal("1234.56"));
+    source.setField("ORDERS", Integer.valueOf(17));
+    contents_ = source.getContents();
+
+    record_ = format.getNewRecord();
+  }
+
+  @Benchmark
+  public Object setContentsAndGetFields() throws Exception
+  {
+    record_.setContents(contents_);
+    Object last = null;
+    for (int i = 0; i < 5; ++i)
+    {
+      last = record_.getField(i);
+    }
+    return last;
+  }
+
+  @Benchmark
+  public byte[] getContents() throws Exception
+  {
+    record_.setContents(contents_);
+    record_.setField(3, new BigDecimal("99.01"));
+    return record_.getContents();
+  }
+}
@@ -0,0 +1,97 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: SimulatorCommandConnection.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+A connection to the simulated remote command server.  Every command
+completes without messages.  Programs complete without messages and
+return their output parameters filled with zeros.
+**/
+class SimulatorCommandConnection extends SimulatorConnection
+{
+  // The data stream level of the server, which selects Unicode commands.
+  private static final int DATA_STREAM_LEVEL = 10;
+
+  SimulatorCommandConnection(HostServerSimulator simulator, Socket socket) throws IOException
+  {
+    super(simulator, socket);
+  }
+
+  String getJobName()
+  {
+    return "123456/QUSER/QZRCSRVS";
+  }
+
+  void handleRequest(int requestId, byte[] request) throws IOException
+  {
+    switch (requestId)
+    {
+      case 0x1001:  // Exchange attributes.
+        {
+          byte[] reply = newReply(request, 36, 0, 0x8001);
+          BinaryConverter.intToByteArray(37, reply, 22);           // CCSID.
+          System.arraycopy(toEbcdic("2924", 4), 0, reply, 26, 4);  // NLV.
+          BinaryConverter.intToByteArray(1, reply, 30);            // Server version.
+          BinaryConverter.unsignedShortToByteArray(DATA_STREAM_LEVEL, reply, 34);
+          send(reply);
+        }
+        break;
+      case 0x1002:  // Run command.
+        // Return code 0 and no messages.
+        send(newReply(request, 24, 0, 0x8002));
+        break;
+      case 0x1003:  // Call program.
+        callProgram(request);
+        break;
+      case 0x1004:  // End server, there is no reply.
+        break;
+      default:
+        unsupported(requestId, request);
+        break;
+    }
+  }
+
+  // The request has the program and library names, a message option and
+  // the parameter count in its template, followed by one parameter per
+  // code point 0x1103.  The reply has no messages, followed by the output
+  // parameters, which are returned with zeros.
+  private void callProgram(byte[] request)
+  {
+    ReplyBuilder reply = new ReplyBuilder(request, 0, 0x8003);
+    reply.add16(0);  // Return code.
+    reply.add16(0);  // Number of messages.
+    int offset = HEADER_LENGTH + getTemplateLength(request);
+    while (offset + 12 <= request.length)
+    {
+      int ll = BinaryConverter.byteArrayToInt(request, offset);
+      if (ll < 6) break;
+      if (BinaryConverter.byteArrayToUnsignedShort(request, offset + 4) == 0x1103)
+      {
+        int maxLength = BinaryConverter.byteArrayToInt(request, offset + 6);
+        int usage = BinaryConverter.byteArrayToUnsignedShort(request, offset + 10);
+        // Output is 2 and input-output is 3.  Adding 10 or 20 to the usage
+        // allows compression, which the simulator does not use.
+        if (usage != ProgramParameter.NULL && (usage % 10 == 2 || usage % 10 == 3))
+        {
+          reply.add32(12 + maxLength).add16(0x1103).add32(maxLength).add16(usage % 10).skip(maxLength);
+        }
+      }
+      offset += ll;
+    }
+    send(reply.toByteArray());
+  }
+}
@@ -0,0 +1,438 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: SimulatorConnection.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+One connection to a HostServerSimulator.  A reader thread receives the
+requests and passes them to the subclass for the service.  The replies
+are queued and written by a sender thread, which holds each reply until
+the latency of the simulator has passed and paces the writes to the
+bandwidth of the simulator.
+
+<p>This class handles the framing of the client access data streams
+and the exchange of random seeds and start server requests that begin
+every connection to a server other than the signon server.
+**/
+abstract class SimulatorConnection implements Runnable
+{
+  // Header layout of the client access data streams.
+  static final int HEADER_LENGTH = 20;
+
+  // Replies are written in chunks of this size when the bandwidth is limited.
+  private static final int PACING_CHUNK = 16 * 1024;
+
+  // Marks the end of the reply queue.
+  private static final Object END = new Object();
+
+  final HostServerSimulator simulator_;
+  private final Socket socket_;
+  private final InputStream in_;
+  private final OutputStream out_;
+  private final LinkedBlockingQueue replies_ = new LinkedBlockingQueue();
+  private volatile boolean closed_ = false;
+  private long nextWrite_ = 0;    // When the link is free again, when the bandwidth is limited.
+
+  SimulatorConnection(HostServerSimulator simulator, Socket socket) throws IOException
+  {
+    simulator_ = simulator;
+    socket_ = socket;
+    in_ = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+    out_ = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+  }
+
+  void start(String name)
+  {
+    Thread reader = new Thread(this, "HostServerSimulator-" + name + "-reader");
+    reader.setDaemon(true);
+    Thread sender = new Thread("HostServerSimulator-" + name + "-sender")
+    {
+      public void run()
+      {
+        sendReplies();
+      }
+    };
+    sender.setDaemon(true);
+    sender.start();
+    reader.start();
+  }
+
+  public void run()
+  {
+    try
+    {
+      while (!closed_)
+      {
+        byte[] request = readRequest(in_);
+        if (request == null) break;
+        handle(request);
+      }
+    }
+    catch (IOException e)
+    {
+      if (!closed_ && Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Simulator connection ended:", e);
+    }
+    catch (RuntimeException e)
+    {
+      Trace.log(Trace.ERROR, "Simulator failed to process a request:", e);
+    }
+    finally
+    {
+      // Let the queued replies go out before the socket is closed.
+      replies_.offer(END);
+    }
+  }
+
+  void close()
+  {
+    closed_ = true;
+    simulator_.removeConnection(this);
+    try
+    {
+      socket_.close();
+    }
+    catch (IOException e)
+    {
+    }
+  }
+
+  /**
+  Reads the next request from the client.
+  @return  The request, or null at the end of the stream.
+  **/
+  byte[] readRequest(InputStream in) throws IOException
+  {
+    byte[] lengthBytes = new byte[4];
+    if (!readFully(in, lengthBytes, 0, 4)) return null;
+    int length = BinaryConverter.byteArrayToInt(lengthBytes, 0);
+    if (length < HEADER_LENGTH) throw new IOException("Request length not valid: " + length);
+    byte[] request = new byte[length];
+    System.arraycopy(lengthBytes, 0, request, 0, 4);
+    if (!readFully(in, request, 4, length - 4)) return null;
+    return request;
+  }
+
+  static boolean readFully(InputStream in, byte[] buffer, int offset, int length) throws IOException
+  {
+    while (length > 0)
+    {
+      int count = in.read(buffer, offset, length);
+      if (count < 0) return false;
+      offset += count;
+      length -= count;
+    }
+    return true;
+  }
+
+  /**
+  Processes a request.  The default implementation answers the exchange
+  of random seeds, the start server request and pings, and passes all other
+  requests to handleRequest().
+  **/
+  void handle(byte[] request) throws IOException
+  {
+    int requestId = getRequestId(request);
+    switch (requestId)
+    {
+      case 0x7001:  // Exchange random seeds.
+        {
+          byte[] reply = newReply(request, 32, 0, 0xF001);
+          BinaryConverter.longToByteArray(System.nanoTime(), reply, 24);
+          send(reply);
+        }
+        break;
+      case 0x7002:  // Start server.
+        {
+          byte[] user = toEbcdic(HostServerSimulator.USER_ID, 10);
+          byte[] job = toEbcdic(getJobName(), 26);
+          ReplyBuilder reply = new ReplyBuilder(request, 0, 0xF002);
+          reply.add32(0);  // Return code.
+          reply.add32(20).add16(0x1104).add32(37).add(user);
+          reply.add32(10 + job.length).add16(0x111F).add32(37).add(job);
+          send(reply.toByteArray());
+        }
+        break;
+      case 0x7FFE:  // Ping, the reply is discarded.
+        send(newReply(request, 24, 0, 0xFFFE));
+        break;
+      default:
+        handleRequest(requestId, request);
+        break;
+    }
+  }
+
+  /**
+  Processes a request for the service.
+  **/
+  abstract void handleRequest(int requestId, byte[] request) throws IOException;
+
+  /**
+  Returns the name of the server job for the connection.
+  **/
+  String getJobName()
+  {
+    return "123456/QUSER/QZSOSIGN";
+  }
+
+  /**
+  Queues a reply to be sent after the latency of the simulator.
+  **/
+  void send(byte[] reply)
+  {
+    send(reply, reply.length);
+  }
+
+  void send(byte[] reply, int length)
+  {
+    replies_.offer(new Object[] { Long.valueOf(System.nanoTime() + simulator_.getLatencyNanos()), reply, Integer.valueOf(length) });
+  }
+
+  /**
+  Logs a request that the simulator does not handle.  The client gets
+  no reply.
+  **/
+  void unsupported(int requestId, byte[] request)
+  {
+    Trace.log(Trace.ERROR, "Simulator request not supported: " + Integer.toHexString(requestId), request, 0, Math.min(request.length, 128));
+  }
+
+  private void sendReplies()
+  {
+    try
+    {
+      while (true)
+      {
+        Object next = replies_.take();
+        if (next == END) break;
+        Object[] entry = (Object[])next;
+        long due = ((Long)entry[0]).longValue();
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0)
+        {
+          // Flush the earlier replies, which are already due, before waiting.
+          out_.flush();
+          LockSupport.parkNanos(wait);
+        }
+        write((byte[])entry[1], ((Integer)entry[2]).intValue());
+        if (replies_.isEmpty()) out_.flush();
+      }
+      out_.flush();
+    }
+    catch (InterruptedException e)
+    {
+    }
+    catch (IOException e)
+    {
+      if (!closed_ && Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Simulator failed to send a reply:", e);
+    }
+    finally
+    {
+      close();
+    }
+  }
+
+  private void write(byte[] reply, int length) throws IOException
+  {
+    long bandwidth = simulator_.getBandwidth();
+    if (bandwidth <= 0)
+    {
+      out_.write(reply, 0, length);
+      return;
+    }
+    for (int offset = 0; offset < length; offset += PACING_CHUNK)
+    {
+      int chunk = Math.min(PACING_CHUNK, length - offset);
+      long now = System.nanoTime();
+      if (nextWrite_ > now)
+      {
+        out_.flush();
+        LockSupport.parkNanos(nextWrite_ - now);
+        now = System.nanoTime();
+      }
+      out_.write(reply, offset, chunk);
+      nextWrite_ = Math.max(now, nextWrite_) + chunk * 1000000000L / bandwidth;
+    }
+  }
+
+  static int getRequestId(byte[] request)
+  {
+    return BinaryConverter.byteArrayToUnsignedShort(request, 18);
+  }
+
+  static int getTemplateLength(byte[] request)
+  {
+    return BinaryConverter.byteArrayToUnsignedShort(request, 16);
+  }
+
+  /**
+  Returns a reply of the given length for a request.  The header is
+  filled in with the server ID, instance and correlation of the request.
+  **/
+  static byte[] newReply(byte[] request, int length, int templateLength, int replyId)
+  {
+    byte[] reply = new byte[length];
+    setHeader(reply, request, length, templateLength, replyId);
+    return reply;
+  }
+
+  static void setHeader(byte[] reply, byte[] request, int length, int templateLength, int replyId)
+  {
+    BinaryConverter.intToByteArray(length, reply, 0);
+    reply[4] = 0;
+    reply[5] = 0;
+    // Server ID, CS instance and correlation.
+    System.arraycopy(request, 6, reply, 6, 10);
+    BinaryConverter.unsignedShortToByteArray(templateLength, reply, 16);
+    BinaryConverter.unsignedShortToByteArray(replyId, reply, 18);
+  }
+
+  /**
+  Returns the CCSID 37 bytes of a string, padded with blanks.
+  **/
+  static byte[] toEbcdic(String value, int length)
+  {
+    return new AS400Text(length, 37).toBytes(value);
+  }
+
+  static String fromEbcdic(byte[] data, int offset, int length)
+  {
+    return (String)new AS400Text(length, 37).toObject(data, offset);
+  }
+
+  /**
+  A growing reply.  The header is written when the reply is complete.
+  **/
+  static final class ReplyBuilder
+  {
+    private final byte[] request_;
+    private final int templateLength_;
+    private final int replyId_;
+    private byte[] data_ = new byte[256];
+    private int length_ = HEADER_LENGTH;
+
+    ReplyBuilder(byte[] request, int templateLength, int replyId)
+    {
+      request_ = request;
+      templateLength_ = templateLength;
+      replyId_ = replyId;
+    }
+
+    int length()
+    {
+      return length_;
+    }
+
+    ReplyBuilder add8(int value)
+    {
+      ensure(1);
+      data_[length_++] = (byte)value;
+      return this;
+    }
+
+    ReplyBuilder add16(int value)
+    {
+      ensure(2);
+      BinaryConverter.unsignedShortToByteArray(value, data_, length_);
+      length_ += 2;
+      return this;
+    }
+
+    ReplyBuilder add32(int value)
+    {
+      ensure(4);
+      BinaryConverter.intToByteArray(value, data_, length_);
+      length_ += 4;
+      return this;
+    }
+
+    ReplyBuilder add64(long value)
+    {
+      ensure(8);
+      BinaryConverter.longToByteArray(value, data_, length_);
+      length_ += 8;
+      return this;
+    }
+
+    ReplyBuilder add(byte[] value)
+    {
+      return add(value, 0, value.length);
+    }
+
+    ReplyBuilder add(byte[] value, int offset, int length)
+    {
+      ensure(length);
+      System.arraycopy(value, offset, data_, length_, length);
+      length_ += length;
+      return this;
+    }
+
+    // Adds length bytes of zeros.
+    ReplyBuilder skip(int length)
+    {
+      ensure(length);
+      length_ += length;
+      return this;
+    }
+
+    void set16(int offset, int value)
+    {
+      BinaryConverter.unsignedShortToByteArray(value, data_, offset);
+    }
+
+    void set32(int offset, int value)
+    {
+      BinaryConverter.intToByteArray(value, data_, offset);
+    }
+
+    // Gives direct access to the reply, to fill in a part that was skipped.
+    byte[] getData()
+    {
+      return data_;
+    }
+
+    // Fills in the header and returns the length of the reply, which can
+    // then be sent from getData() without a copy.
+    int complete()
+    {
+      setHeader(data_, request_, length_, templateLength_, replyId_);
+      return length_;
+    }
+
+    byte[] toByteArray()
+    {
+      byte[] reply = new byte[length_];
+      System.arraycopy(data_, 0, reply, 0, length_);
+      setHeader(reply, request_, length_, templateLength_, replyId_);
+      return reply;
+    }
+
+    private void ensure(int length)
+    {
+      if (length_ + length > data_.length)
+      {
+        byte[] data = new byte[Math.max(data_.length * 2, length_ + length)];
+        System.arraycopy(data_, 0, data, 0, length_);
+        data_ = data;
+      }
+    }
+  }
+}
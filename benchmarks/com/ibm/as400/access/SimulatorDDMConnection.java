@@ -0,0 +1,528 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: SimulatorDDMConnection.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.Hashtable;
+
+/**
+A connection to the simulated DDM server.  Every physical file exists,
+has the record count of the simulator and records of the format returned
+by {@link HostServerSimulator#getRecordFormat HostServerSimulator.getRecordFormat()}.
+Files can be opened and read sequentially or by record number.
+**/
+class SimulatorDDMConnection extends SimulatorConnection
+{
+  // The DDM data stream header is 6 bytes.  A data stream longer than
+  // 32767 bytes is split into segments.
+  private static final int DDM_HEADER_LENGTH = 6;
+  private static final int MAX_SEGMENT_LENGTH = 0x7FFF;
+  private static final int CONTINUED = 0x8000;
+
+  // Data stream types.
+  private static final int REPLY = 2;
+  private static final int OBJECT = 3;
+  private static final int CHAINED = 0x40;
+
+  // The layout of each record in an S38BUF: the record data, a gap, the
+  // record number and the null field byte map.
+  private static final int RECORD_LENGTH = HostServerSimulator.RECORD_LENGTH;
+  private static final int RECORD_NUMBER_OFFSET = RECORD_LENGTH + 2;
+  private static final int NULL_MAP_OFFSET = RECORD_LENGTH + 6;
+  private static final int RECORD_INCREMENT = NULL_MAP_OFFSET + 4;
+
+  // The lengths of the open feedback and I/O feedback areas.
+  private static final int OPEN_FEEDBACK_LENGTH = 130;
+  private static final int IO_FEEDBACK_LENGTH = 64;
+
+  // The get types of the S38OPTL.
+  private static final int GET_FIRST = 1;
+  private static final int GET_LAST = 2;
+  private static final int GET_NEXT = 3;
+  private static final int GET_PREVIOUS = 4;
+
+  // The constant parts of every record, in CCSID 37.
+  private static final byte[] NAME = toEbcdic("CUSTOMER", 20);
+  private static final byte[] NOTE = toEbcdic("Synthetic record ", 34);
+
+  // The position of each open file, the record number of the current
+  // record, by declared name.
+  private final Hashtable openFiles_ = new Hashtable();
+
+  SimulatorDDMConnection(HostServerSimulator simulator, Socket socket) throws IOException
+  {
+    super(simulator, socket);
+  }
+
+  String getJobName()
+  {
+    return "123456/QUSER/QRWTSRVR";
+  }
+
+  // A DDM data stream has a 6 byte header.  Long data streams are split
+  // into segments that each start with a 2 byte length.
+  byte[] readRequest(InputStream in) throws IOException
+  {
+    byte[] header = new byte[DDM_HEADER_LENGTH];
+    if (!readFully(in, header, 0, DDM_HEADER_LENGTH)) return null;
+    int length = BinaryConverter.byteArrayToUnsignedShort(header, 0);
+    if ((length & CONTINUED) == 0)
+    {
+      if (length < DDM_HEADER_LENGTH) throw new IOException("Request length not valid: " + length);
+      byte[] request = new byte[length];
+      System.arraycopy(header, 0, request, 0, DDM_HEADER_LENGTH);
+      if (!readFully(in, request, DDM_HEADER_LENGTH, length - DDM_HEADER_LENGTH)) return null;
+      return request;
+    }
+    length &= MAX_SEGMENT_LENGTH;
+    java.io.ByteArrayOutputStream request = new java.io.ByteArrayOutputStream(2 * length);
+    request.write(header, 0, DDM_HEADER_LENGTH);
+    byte[] segment = new byte[MAX_SEGMENT_LENGTH];
+    if (!readFully(in, segment, 0, length - DDM_HEADER_LENGTH)) return null;
+    request.write(segment, 0, length - DDM_HEADER_LENGTH);
+    while (true)
+    {
+      if (!readFully(in, header, 0, 2)) return null;
+      length = BinaryConverter.byteArrayToUnsignedShort(header, 0);
+      boolean last = length != 0xFFFF;
+      length = (last ? length : MAX_SEGMENT_LENGTH) - 2;
+      if (!readFully(in, segment, 0, length)) return null;
+      request.write(segment, 0, length);
+      if (last) return request.toByteArray();
+    }
+  }
+
+  void handle(byte[] request) throws IOException
+  {
+    handleRequest(BinaryConverter.byteArrayToUnsignedShort(request, 8), request);
+  }
+
+  void handleRequest(int codePoint, byte[] request) throws IOException
+  {
+    switch (codePoint)
+    {
+      case DDMTerm.EXCSAT:
+        {
+          byte[] job = toEbcdic(getJobName(), 26);
+          DDMReply reply = new DDMReply(DDMTerm.EXCSATRD);
+          reply.add16(4 + job.length).add16(DDMTerm.EXTNAM).add(job);
+          send(request, reply, OBJECT, false);
+        }
+        break;
+      case DDMTerm.ACCSEC:
+        {
+          DDMReply reply = new DDMReply(DDMTerm.ACCSECRD);
+          reply.add16(6).add16(DDMTerm.SECMEC).add16(DDMTerm.USRSBSPWD);
+          reply.add16(12).add16(DDMTerm.SECTKN).add64(System.nanoTime());
+          send(request, reply, OBJECT, false);
+        }
+        break;
+      case DDMTerm.SECCHK:
+        {
+          // Every user ID and password is accepted.
+          DDMReply reply = new DDMReply(DDMTerm.SECCHKRD);
+          reply.add16(6).add16(DDMTerm.SVRCOD).add16(0);
+          reply.add16(5).add16(DDMTerm.SECCHKCD).add8(0);
+          send(request, reply, REPLY, false);
+        }
+        break;
+      case DDMTerm.S38OPEN:
+        open(request);
+        break;
+      case DDMTerm.S38GET:
+      case DDMTerm.S38GETM:
+        get(request, codePoint == DDMTerm.S38GETM ? getNumberOfRecords(request) : 1);
+        break;
+      case DDMTerm.S38GETD:
+        getByRecordNumber(request);
+        break;
+      case DDMTerm.S38CLOSE:
+        openFiles_.remove(getDeclaredName(request));
+        sendMessage(request, null, 0, false);
+        break;
+      default:
+        unsupported(codePoint, request);
+        sendMessage(request, "CPF9898", 40, false);
+        break;
+    }
+  }
+
+  private void open(byte[] request)
+  {
+    // The user file control block follows the declared name, and starts
+    // with the file, library and member names.
+    String file = fromEbcdic(request, 26, 10);
+    String library = fromEbcdic(request, 38, 10);
+    String member = fromEbcdic(request, 50, 10);
+    if (library.startsWith("*")) library = "SIMLIB";
+    if (member.startsWith("*")) member = file;
+    openFiles_.put(getDeclaredName(request), new int[] { 0 });
+
+    DDMReply reply = new DDMReply(DDMTerm.S38OPNFB);
+    int offset = reply.length();
+    reply.skip(OPEN_FEEDBACK_LENGTH);
+    byte[] data = reply.getData();
+    data[offset] = 64;  // Open type, read only.
+    System.arraycopy(toEbcdic(file, 10), 0, data, offset + 1, 10);
+    System.arraycopy(toEbcdic(library, 10), 0, data, offset + 11, 10);
+    System.arraycopy(toEbcdic(member, 10), 0, data, offset + 21, 10);
+    BinaryConverter.unsignedShortToByteArray(RECORD_LENGTH, data, offset + 31);
+    BinaryConverter.intToByteArray(simulator_.getRecordCount(), data, offset + 43);
+    System.arraycopy(toEbcdic("AR", 2), 0, data, offset + 47, 2);  // Arrival sequence.
+    data[offset + 49] = (byte)0xE4;  // Unique keys.
+    data[offset + 50] = (byte)0xD5;  // Not a source file.
+    BinaryConverter.unsignedShortToByteArray(0x7FFF, data, offset + 61);  // Maximum blocked records.
+    BinaryConverter.unsignedShortToByteArray(RECORD_INCREMENT, data, offset + 63);
+    BinaryConverter.unsignedShortToByteArray(NULL_MAP_OFFSET, data, offset + 80);
+    BinaryConverter.unsignedShortToByteArray(37, data, offset + 88);
+    send(request, reply, OBJECT, false);
+  }
+
+  // Reads a number of records forward or backward from the current record.
+  private void get(byte[] request, int count)
+  {
+    int[] position = (int[])openFiles_.get(getDeclaredName(request));
+    if (position == null)
+    {
+      sendMessage(request, "CPF5129", 40, false);
+      return;
+    }
+    int recordCount = simulator_.getRecordCount();
+    int start;
+    int direction = 1;
+    switch (request[26])
+    {
+      case GET_FIRST:
+        start = 1;
+        break;
+      case GET_LAST:
+        start = recordCount;
+        direction = -1;
+        break;
+      case GET_PREVIOUS:
+        start = position[0] - 1;
+        direction = -1;
+        break;
+      case GET_NEXT:
+        start = position[0] + 1;
+        break;
+      default:
+        start = position[0];
+        break;
+    }
+    if (start < 1 || start > recordCount)
+    {
+      // Position the file before the first or after the last record.
+      position[0] = (start < 1) ? 0 : recordCount + 1;
+      sendEndOfFile(request);
+      return;
+    }
+    if (direction > 0)
+    {
+      count = Math.min(count, recordCount - start + 1);
+    }
+    else
+    {
+      count = Math.min(count, start);
+    }
+    position[0] = start + (count - 1) * direction;
+    sendRecords(request, start, direction, count);
+  }
+
+  private void getByRecordNumber(byte[] request)
+  {
+    int[] position = (int[])openFiles_.get(getDeclaredName(request));
+    int recordNumber = getControlListValue(request, 2, 0);
+    if (position == null || recordNumber < 1 || recordNumber > simulator_.getRecordCount())
+    {
+      sendEndOfFile(request);
+      return;
+    }
+    position[0] = recordNumber;
+    sendRecords(request, recordNumber, 1, 1);
+  }
+
+  // Sends an S38BUF with the records, followed by the S38IOFB.
+  private void sendRecords(byte[] request, int start, int direction, int count)
+  {
+    int bufferLength = count * RECORD_INCREMENT;
+    DDMReply reply = new DDMReply();
+    if (bufferLength + 4 <= MAX_SEGMENT_LENGTH)
+    {
+      reply.add16(4 + bufferLength).add16(DDMTerm.S38BUF);
+    }
+    else
+    {
+      // The length does not fit, it follows the code point.
+      reply.add16(0x8004).add16(DDMTerm.S38BUF).add32(bufferLength);
+    }
+    int offset = reply.length();
+    reply.skip(bufferLength);
+    byte[] data = reply.getData();
+    for (int i = 0; i < count; ++i, offset += RECORD_INCREMENT)
+    {
+      int recordNumber = start + i * direction;
+      BinaryConverter.intToByteArray(recordNumber, data, offset);
+      System.arraycopy(NAME, 0, data, offset + 4, 20);
+      setPacked(data, offset + 24, 6, recordNumber * 125L);
+      System.arraycopy(NOTE, 0, data, offset + 30, 34);
+      setZoned(data, offset + 47, 10, recordNumber);
+      BinaryConverter.intToByteArray(recordNumber, data, offset + RECORD_NUMBER_OFFSET);
+      for (int j = 0; j < 4; ++j)
+      {
+        data[offset + NULL_MAP_OFFSET + j] = (byte)0xF0;  // Not null.
+      }
+    }
+    addIOFeedback(reply, count, start + (count - 1) * direction);
+    send(request, reply, OBJECT, false);
+  }
+
+  // At the end of the file, the S38IOFB is followed by message CPF5001.
+  private void sendEndOfFile(byte[] request)
+  {
+    DDMReply reply = new DDMReply();
+    addIOFeedback(reply, 0, 0);
+    send(request, reply, OBJECT, true);
+    sendMessage(request, "CPF5001", 0, false);
+  }
+
+  private static void addIOFeedback(DDMReply reply, int count, int recordNumber)
+  {
+    reply.add16(4 + IO_FEEDBACK_LENGTH).add16(DDMTerm.S38IOFB);
+    int offset = reply.length();
+    reply.skip(IO_FEEDBACK_LENGTH);
+    byte[] data = reply.getData();
+    System.arraycopy(toEbcdic(HostServerSimulator.RECORD_FORMAT_NAME, 10), 0, data, offset, 10);
+    BinaryConverter.intToByteArray(RECORD_LENGTH, data, offset + 10);
+    BinaryConverter.unsignedShortToByteArray(count, data, offset + 14);
+    BinaryConverter.intToByteArray(recordNumber, data, offset + 55);
+  }
+
+  // Sends an S38MSGRM with one message.  A null message ID sends only the
+  // severity.
+  private void sendMessage(byte[] request, String messageId, int severity, boolean chained)
+  {
+    DDMReply reply = new DDMReply(DDMTerm.S38MSGRM);
+    reply.add16(6).add16(DDMTerm.SVRCOD).add16(severity);
+    if (messageId != null)
+    {
+      String text = messageId.equals("CPF5001") ? "End of file reached." : "Request not supported by the simulator.";
+      reply.add16(4 + messageId.length()).add16(DDMTerm.S38MID).add(toEbcdic(messageId, messageId.length()));
+      reply.add16(6 + text.length()).add16(DDMTerm.S38MTEXT).add16(text.length()).add(toEbcdic(text, text.length()));
+    }
+    send(request, reply, REPLY, chained);
+  }
+
+  // Sends a reply with the correlation of the request.  A reply that is
+  // longer than a segment is split.
+  private void send(byte[] request, DDMReply reply, int type, boolean chained)
+  {
+    byte[] data = reply.complete();
+    int length = reply.length();
+    data[2] = (byte)0xD0;
+    data[3] = (byte)(type | (chained ? CHAINED : 0));
+    data[4] = request[4];
+    data[5] = request[5];
+    if (length <= MAX_SEGMENT_LENGTH)
+    {
+      BinaryConverter.unsignedShortToByteArray(length, data, 0);
+      send(data, length);
+      return;
+    }
+    // The first segment has the header, with the continuation bit set in
+    // the length.  Each following segment has a 2 byte length, 0xFFFF for
+    // a full segment that is not the last.
+    int segmentData = MAX_SEGMENT_LENGTH - 2;
+    byte[] split = new byte[length + 2 * ((length - MAX_SEGMENT_LENGTH) / segmentData + 1)];
+    BinaryConverter.unsignedShortToByteArray(CONTINUED | MAX_SEGMENT_LENGTH, data, 0);
+    System.arraycopy(data, 0, split, 0, MAX_SEGMENT_LENGTH);
+    int from = MAX_SEGMENT_LENGTH;
+    int to = MAX_SEGMENT_LENGTH;
+    while (from < length)
+    {
+      int chunk = Math.min(segmentData, length - from);
+      boolean last = from + chunk == length;
+      BinaryConverter.unsignedShortToByteArray(last ? chunk + 2 : 0xFFFF, split, to);
+      System.arraycopy(data, from, split, to + 2, chunk);
+      from += chunk;
+      to += chunk + 2;
+    }
+    send(split, to);
+  }
+
+  private static String getDeclaredName(byte[] request)
+  {
+    // The declared name follows the LL and code point of the DCLNAM.
+    return new String(request, 14, 8, java.nio.charset.StandardCharsets.ISO_8859_1);
+  }
+
+  private static int getNumberOfRecords(byte[] request)
+  {
+    return Math.max(1, getControlListValue(request, 0x10, 1));
+  }
+
+  // Returns a value of the S38CTLL control list of a request.  Each entry
+  // is an ID, a 2 byte length and the value.
+  private static int getControlListValue(byte[] request, int id, int defaultValue)
+  {
+    int offset = 10;
+    while (offset + 4 <= request.length)
+    {
+      int ll = BinaryConverter.byteArrayToUnsignedShort(request, offset);
+      if (ll < 4) break;
+      if (BinaryConverter.byteArrayToUnsignedShort(request, offset + 2) == DDMTerm.S38CTLL)
+      {
+        int end = offset + ll;
+        offset += 4;
+        while (offset + 3 <= end && (request[offset] & 0xFF) != 0xFF)
+        {
+          int length = BinaryConverter.byteArrayToUnsignedShort(request, offset + 1);
+          if ((request[offset] & 0xFF) == id)
+          {
+            return length == 2 ? BinaryConverter.byteArrayToUnsignedShort(request, offset + 3) : BinaryConverter.byteArrayToInt(request, offset + 3);
+          }
+          offset += 3 + length;
+        }
+        break;
+      }
+      offset += ll;
+    }
+    return defaultValue;
+  }
+
+  // Sets a positive packed decimal value.
+  private static void setPacked(byte[] data, int offset, int length, long value)
+  {
+    data[offset + length - 1] = (byte)((value % 10) << 4 | 0x0F);
+    value /= 10;
+    for (int i = length - 2; i >= 0; --i)
+    {
+      data[offset + i] = (byte)((value / 10 % 10) << 4 | value % 10);
+      value /= 100;
+    }
+  }
+
+  // Sets a positive number as CCSID 37 digits.
+  private static void setZoned(byte[] data, int offset, int length, long value)
+  {
+    for (int i = length - 1; i >= 0; --i)
+    {
+      data[offset + i] = (byte)(0xF0 | value % 10);
+      value /= 10;
+    }
+  }
+
+  /**
+  A growing DDM reply, made of one object.  The header is written when
+  the reply is sent.
+  **/
+  private static final class DDMReply
+  {
+    private byte[] data_ = new byte[256];
+    private int length_ = DDM_HEADER_LENGTH;
+    private final boolean outerTerm_;
+
+    DDMReply()
+    {
+      outerTerm_ = false;
+    }
+
+    // Starts the reply with a term that holds the rest of the reply.
+    DDMReply(int codePoint)
+    {
+      outerTerm_ = true;
+      length_ += 4;
+      BinaryConverter.unsignedShortToByteArray(codePoint, data_, DDM_HEADER_LENGTH + 2);
+    }
+
+    int length()
+    {
+      return length_;
+    }
+
+    DDMReply add8(int value)
+    {
+      ensure(1);
+      data_[length_++] = (byte)value;
+      return this;
+    }
+
+    DDMReply add16(int value)
+    {
+      ensure(2);
+      BinaryConverter.unsignedShortToByteArray(value, data_, length_);
+      length_ += 2;
+      return this;
+    }
+
+    DDMReply add32(int value)
+    {
+      ensure(4);
+      BinaryConverter.intToByteArray(value, data_, length_);
+      length_ += 4;
+      return this;
+    }
+
+    DDMReply add64(long value)
+    {
+      ensure(8);
+      BinaryConverter.longToByteArray(value, data_, length_);
+      length_ += 8;
+      return this;
+    }
+
+    DDMReply add(byte[] value)
+    {
+      ensure(value.length);
+      System.arraycopy(value, 0, data_, length_, value.length);
+      length_ += value.length;
+      return this;
+    }
+
+    DDMReply skip(int length)
+    {
+      ensure(length);
+      length_ += length;
+      return this;
+    }
+
+    byte[] getData()
+    {
+      return data_;
+    }
+
+    // Sets the length of the outer term, when there is one, and returns
+    // the data.
+    byte[] complete()
+    {
+      if (outerTerm_)
+      {
+        BinaryConverter.unsignedShortToByteArray(length_ - DDM_HEADER_LENGTH, data_, DDM_HEADER_LENGTH);
+      }
+      return data_;
+    }
+
+    private void ensure(int length)
+    {
+      if (length_ + length > data_.length)
+      {
+        byte[] data = new byte[Math.max(data_.length * 2, length_ + length)];
+        System.arraycopy(data_, 0, data, 0, length_);
+        data_ = data;
+      }
+    }
+  }
+}
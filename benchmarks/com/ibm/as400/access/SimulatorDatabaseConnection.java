@@ -0,0 +1,355 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: SimulatorDatabaseConnection.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.Socket;
+import java.util.Hashtable;
+
+/**
+A connection to the simulated database server.  Every query returns the
+same synthetic result set, with the row count of the simulator and the
+columns:
+<ul>
+<li>ID INTEGER, the row number, starting at 1,
+<li>NAME CHAR(20),
+<li>AMOUNT DECIMAL(11,2), the row number times 1.25,
+<li>NOTE VARCHAR(32),
+<li>CREATED TIMESTAMP.
+</ul>
+Every other statement succeeds and updates one row for each row of
+parameter values.  Parameter markers are described as VARCHAR, so any
+value can be set.
+**/
+class SimulatorDatabaseConnection extends SimulatorConnection
+{
+  // The functional level of the server.  Level 14 and up would let the
+  // client ask for variable length field compression, which the
+  // simulator does not do.
+  private static final String FUNCTIONAL_LEVEL = "V7R5M00010";
+  private static final int CCSID = 37;
+
+  // Operational result set bits.
+  private static final int ORS_RETURN_DATA = 0x80000000;
+  private static final int ORS_DATA_FORMAT = 0x08000000;
+  private static final int ORS_RESULT_DATA = 0x04000000;
+  private static final int ORS_SQLCA = 0x02000000;
+  private static final int ORS_SERVER_ATTRIBUTES = 0x01000000;
+  private static final int ORS_PARAMETER_MARKER_FORMAT = 0x00800000;
+
+  // The format of the result set.
+  private static final String[] COLUMN_NAMES = { "ID", "NAME", "AMOUNT", "NOTE", "CREATED" };
+  private static final int[] COLUMN_TYPES = { 496, 452, 484, 448, 392 };
+  private static final int[] COLUMN_LENGTHS = { 4, 20, 6, 34, 26 };
+  private static final int[] COLUMN_PRECISIONS = { 10, 20, 11, 32, 26 };
+  private static final int[] COLUMN_SCALES = { 0, 0, 2, 0, 6 };
+  private static final int ROW_SIZE = 90;
+  private static final int INDICATOR_SIZE = 2;
+  // The length of a field description in the original data format.
+  private static final int FIELD_LENGTH = 54;
+  // The length of a parameter marker, described as VARCHAR(256).
+  private static final int MARKER_LENGTH = 258;
+  // The number of bytes of rows in a block when the client does not ask
+  // for a blocking factor or buffer size.
+  private static final int DEFAULT_BLOCK_SIZE = 32 * 1024;
+
+  // The constant parts of every row, in CCSID 37.
+  private static final byte[] NAME = toEbcdic("CUSTOMER", 20);
+  private static final byte[] NOTE = toEbcdic("Synthetic row ", 14);
+  private static final byte[] CREATED = toEbcdic("2018-01-01-12.00.00.000000", 26);
+
+  // The statements on the connection, by request parameter block handle.
+  private final Hashtable statements_ = new Hashtable();
+
+  SimulatorDatabaseConnection(HostServerSimulator simulator, Socket socket) throws IOException
+  {
+    super(simulator, socket);
+  }
+
+  String getJobName()
+  {
+    return "123456/QUSER/QZDASOINIT";
+  }
+
+  void handleRequest(int requestId, byte[] request) throws IOException
+  {
+    int ors = BinaryConverter.byteArrayToInt(request, 20);
+    Integer handle = Integer.valueOf(BinaryConverter.byteArrayToUnsignedShort(request, 34));
+    Statement statement = (Statement)statements_.get(handle);
+    if (statement == null)
+    {
+      statement = new Statement();
+      statements_.put(handle, statement);
+    }
+    // The statement text may come with the request parameter block, a
+    // prepare or a combined request.
+    String text = getStatementText(request);
+    if (text != null) statement.setText(text);
+
+    int errorClass = 0;
+    int returnCode = 0;
+    int sqlCode = 0;
+    int updateCount = 0;
+    int firstRow = 0;
+    int rows = 0;
+    switch (requestId)
+    {
+      case 0x1D02:  // Delete request parameter block.
+        statements_.remove(handle);
+        break;
+      case 0x1804:  // Open and describe.
+      case 0x180E:  // Open, describe and fetch.
+      case 0x1812:  // Execute or open and describe.
+        statement.nextRow_ = 0;
+        if (requestId == 0x1812 && !statement.query_) updateCount = getParameterRowCount(request);
+        break;
+      case 0x1805:  // Execute.
+      case 0x1806:  // Execute immediate.
+      case 0x180D:  // Prepare and execute.
+        updateCount = statement.query_ ? 0 : getParameterRowCount(request);
+        break;
+      case 0x180A:  // Close.
+        statement.nextRow_ = -1;
+        break;
+      default:
+        break;
+    }
+    if ((ors & ORS_RESULT_DATA) != 0 && statement.query_ && statement.nextRow_ >= 0)
+    {
+      firstRow = statement.nextRow_;
+      rows = Math.min(getBlockRows(request), simulator_.getRowCount() - firstRow);
+      statement.nextRow_ += rows;
+      if (statement.nextRow_ >= simulator_.getRowCount())
+      {
+        // The end of the data, the cursor is closed by the server.
+        statement.nextRow_ = -1;
+        errorClass = 2;
+        returnCode = 700;
+        sqlCode = 100;
+      }
+    }
+    if ((ors & ORS_RETURN_DATA) == 0) return;
+
+    ReplyBuilder reply = new ReplyBuilder(request, 20, 0x2800);
+    reply.skip(20);
+    reply.set16(30, requestId);
+    reply.set16(34, errorClass);
+    reply.set32(36, returnCode);
+    if ((ors & ORS_SERVER_ATTRIBUTES) != 0) addServerAttributes(reply);
+    if ((ors & ORS_DATA_FORMAT) != 0 && statement.query_) addDataFormat(reply);
+    if ((ors & ORS_PARAMETER_MARKER_FORMAT) != 0 && statement.markers_ > 0) addParameterMarkerFormat(reply, statement.markers_);
+    if (rows > 0) addResultData(reply, firstRow, rows);
+    if ((ors & ORS_SQLCA) != 0) addSQLCA(reply, sqlCode, updateCount);
+    int length = reply.complete();
+    send(reply.getData(), length);
+  }
+
+  private void addServerAttributes(ReplyBuilder reply)
+  {
+    byte[] attributes = new byte[140];
+    System.arraycopy(toEbcdic("", 18), 0, attributes, 0, 18);  // Formats and separators.
+    BinaryConverter.unsignedShortToByteArray(CCSID, attributes, 19);
+    System.arraycopy(toEbcdic("2924ENUQ", 8), 0, attributes, 21, 8);  // NLSS, language.
+    System.arraycopy(toEbcdic("", 21), 0, attributes, 29, 21);
+    System.arraycopy(toEbcdic(FUNCTIONAL_LEVEL, 10), 0, attributes, 50, 10);
+    System.arraycopy(toEbcdic("SIMULATOR", 18), 0, attributes, 60, 18);  // Relational database.
+    System.arraycopy(toEbcdic("QGPL", 10), 0, attributes, 78, 10);
+    System.arraycopy(toEbcdic(getJobName(), 26), 0, attributes, 88, 26);
+    reply.add32(8 + attributes.length).add16(0x3804).add16(CCSID).add(attributes);
+  }
+
+  private void addDataFormat(ReplyBuilder reply)
+  {
+    reply.add32(6 + 8 + COLUMN_NAMES.length * FIELD_LENGTH).add16(0x3805);
+    reply.add32(1).add16(COLUMN_NAMES.length).add16(ROW_SIZE);
+    for (int i = 0; i < COLUMN_NAMES.length; ++i)
+    {
+      addField(reply, COLUMN_NAMES[i], COLUMN_TYPES[i], COLUMN_LENGTHS[i], COLUMN_PRECISIONS[i], COLUMN_SCALES[i]);
+    }
+  }
+
+  private void addParameterMarkerFormat(ReplyBuilder reply, int markers)
+  {
+    reply.add32(6 + 8 + markers * FIELD_LENGTH).add16(0x3808);
+    reply.add32(1).add16(markers).add16(markers * MARKER_LENGTH);
+    for (int i = 0; i < markers; ++i)
+    {
+      addField(reply, "", 449, MARKER_LENGTH, MARKER_LENGTH - 2, 0);
+    }
+  }
+
+  private static void addField(ReplyBuilder reply, String name, int type, int length, int precision, int scale)
+  {
+    reply.add16(FIELD_LENGTH).add16(type).add16(length).add16(scale).add16(precision);
+    reply.add16(type == 496 || type == 484 ? 0 : CCSID);
+    reply.add8(0xF0).skip(7);  // Parameter type and reserved.
+    reply.add16(name.length()).add16(CCSID).add(toEbcdic(name, 30));
+  }
+
+  // Adds a block of rows.  Only the row number changes from row to row,
+  // so the constant parts are copied.
+  private static void addResultData(ReplyBuilder reply, int firstRow, int rows)
+  {
+    reply.add32(6 + 14 + rows * (COLUMN_NAMES.length * INDICATOR_SIZE + ROW_SIZE)).add16(0x3806);
+    reply.add32(1).add32(rows).add16(COLUMN_NAMES.length).add16(INDICATOR_SIZE).add16(ROW_SIZE);
+    reply.skip(rows * COLUMN_NAMES.length * INDICATOR_SIZE);  // No nulls.
+    int offset = reply.length();
+    reply.skip(rows * ROW_SIZE);
+    byte[] data = reply.getData();
+    for (int i = 0; i < rows; ++i, offset += ROW_SIZE)
+    {
+      int id = firstRow + i + 1;
+      BinaryConverter.intToByteArray(id, data, offset);
+      System.arraycopy(NAME, 0, data, offset + 4, 20);
+      setPacked(data, offset + 24, 6, id * 125L);
+      BinaryConverter.unsignedShortToByteArray(24, data, offset + 30);
+      System.arraycopy(NOTE, 0, data, offset + 32, 14);
+      setZoned(data, offset + 46, 10, id);
+      System.arraycopy(CREATED, 0, data, offset + 64, 26);
+    }
+  }
+
+  private void addSQLCA(ReplyBuilder reply, int sqlCode, int updateCount)
+  {
+    reply.add32(6 + 136).add16(0x3807);
+    int offset = reply.length();
+    reply.skip(136);
+    byte[] data = reply.getData();
+    System.arraycopy(toEbcdic("SQLCA", 8), 0, data, offset, 8);
+    BinaryConverter.intToByteArray(136, data, offset + 8);
+    BinaryConverter.intToByteArray(sqlCode, data, offset + 12);
+    System.arraycopy(toEbcdic("", 8), 0, data, offset + 88, 8);  // Error program.
+    BinaryConverter.intToByteArray(updateCount, data, offset + 104);  // Third errd, the update count.
+    System.arraycopy(toEbcdic("", 11), 0, data, offset + 120, 11);  // Warnings.
+    System.arraycopy(toEbcdic(sqlCode == 100 ? "02000" : "00000", 5), 0, data, offset + 131, 5);
+  }
+
+  // Returns the number of rows in a block, from the blocking factor or
+  // the buffer size of the request.
+  private static int getBlockRows(byte[] request)
+  {
+    int offset = findCodePoint(request, 0x380C);  // Blocking factor.
+    if (offset >= 0)
+    {
+      int rows = BinaryConverter.byteArrayToInt(request, offset + 6);
+      if (rows > 0) return rows;
+    }
+    int bufferSize = DEFAULT_BLOCK_SIZE;
+    offset = findCodePoint(request, 0x3834);  // Buffer size.
+    if (offset >= 0) bufferSize = BinaryConverter.byteArrayToInt(request, offset + 6);
+    return Math.max(1, bufferSize / (ROW_SIZE + COLUMN_NAMES.length * INDICATOR_SIZE));
+  }
+
+  // Returns the number of rows of parameter values in the request, at
+  // least 1.
+  private static int getParameterRowCount(byte[] request)
+  {
+    int offset = findCodePoint(request, 0x381F);  // Extended parameter marker data.
+    if (offset < 0) offset = findCodePoint(request, 0x3811);
+    if (offset < 0) return 1;
+    return Math.max(1, BinaryConverter.byteArrayToInt(request, offset + 10));
+  }
+
+  private static String getStatementText(byte[] request) throws IOException
+  {
+    int offset = findCodePoint(request, 0x3831);  // Extended statement text.
+    if (offset >= 0)
+    {
+      return toString(request, BinaryConverter.byteArrayToUnsignedShort(request, offset + 6), offset + 12, BinaryConverter.byteArrayToInt(request, offset + 8));
+    }
+    offset = findCodePoint(request, 0x3807);  // Statement text.
+    if (offset >= 0)
+    {
+      return toString(request, BinaryConverter.byteArrayToUnsignedShort(request, offset + 6), offset + 10, BinaryConverter.byteArrayToUnsignedShort(request, offset + 8));
+    }
+    return null;
+  }
+
+  private static String toString(byte[] data, int ccsid, int offset, int length) throws UnsupportedEncodingException
+  {
+    return ConvTable.getTable(ccsid, null).byteArrayToString(data, offset, length);
+  }
+
+  // Returns the offset of a code point in the request, or -1.
+  private static int findCodePoint(byte[] request, int codePoint)
+  {
+    int offset = HEADER_LENGTH + 20;
+    while (offset + 6 <= request.length)
+    {
+      int ll = BinaryConverter.byteArrayToInt(request, offset);
+      if (ll < 6) break;
+      if (BinaryConverter.byteArrayToUnsignedShort(request, offset + 4) == codePoint) return offset;
+      offset += ll;
+    }
+    return -1;
+  }
+
+  // Sets a positive packed decimal value.
+  private static void setPacked(byte[] data, int offset, int length, long value)
+  {
+    data[offset + length - 1] = (byte)((value % 10) << 4 | 0x0F);
+    value /= 10;
+    for (int i = length - 2; i >= 0; --i)
+    {
+      data[offset + i] = (byte)((value / 10 % 10) << 4 | value % 10);
+      value /= 100;
+    }
+  }
+
+  // Sets a positive number as CCSID 37 digits.
+  private static void setZoned(byte[] data, int offset, int length, long value)
+  {
+    for (int i = length - 1; i >= 0; --i)
+    {
+      data[offset + i] = (byte)(0xF0 | value % 10);
+      value /= 10;
+    }
+  }
+
+  /**
+  A prepared statement, and its cursor.
+  **/
+  private static final class Statement
+  {
+    boolean query_ = false;
+    int markers_ = 0;
+    int nextRow_ = -1;    // The next row of the cursor, or -1 when it is closed.
+
+    void setText(String text)
+    {
+      String start = text.trim().toUpperCase();
+      query_ = start.startsWith("SELECT") || start.startsWith("WITH") || start.startsWith("VALUES") || start.startsWith("(");
+      // Count the parameter markers outside of literals.
+      markers_ = 0;
+      char quote = 0;
+      for (int i = 0; i < text.length(); ++i)
+      {
+        char c = text.charAt(i);
+        if (quote != 0)
+        {
+          if (c == quote) quote = 0;
+        }
+        else if (c == '\'' || c == '"')
+        {
+          quote = c;
+        }
+        else if (c == '?')
+        {
+          ++markers_;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,224 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: SimulatorFileConnection.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Hashtable;
+
+/**
+A connection to the simulated file server.  Every file that is opened
+for reading exists and has the file size of the simulator.  Data that
+is written is discarded.
+**/
+class SimulatorFileConnection extends SimulatorConnection
+{
+  // The highest data stream level the simulator supports.  Level 16 has
+  // the 8 byte file sizes and offsets.
+  private static final int DATA_STREAM_LEVEL = 16;
+  // The largest write request the client may send.
+  private static final int MAX_DATA_BLOCK = 1024 * 1024;
+
+  private static final int UNICODE_CCSID = 1200;
+
+  // Return codes.
+  private static final int INVALID_HANDLE = 6;
+  private static final int NO_MORE_DATA = 22;
+  private static final int REQUEST_NOT_SUPPORTED = 23;
+
+  // The data of every file is this pattern, repeated.
+  private static final byte[] PATTERN = new byte[64 * 1024];
+  static
+  {
+    for (int i = 0; i < PATTERN.length; ++i)
+    {
+      PATTERN[i] = (byte)(' ' + i % 95);
+    }
+  }
+
+  private int dataStreamLevel_ = 0;
+  private int nextHandle_ = 1;
+  // The size of each open file, by handle.
+  private final Hashtable openFiles_ = new Hashtable();
+
+  SimulatorFileConnection(HostServerSimulator simulator, Socket socket) throws IOException
+  {
+    super(simulator, socket);
+  }
+
+  String getJobName()
+  {
+    return "123456/QUSER/QPWFSERVSO";
+  }
+
+  void handleRequest(int requestId, byte[] request) throws IOException
+  {
+    switch (requestId)
+    {
+      case 0x0016:  // Exchange attributes.
+        exchangeAttributes(request);
+        break;
+      case 0x0002:  // Open.
+        open(request);
+        break;
+      case 0x0003:  // Read.
+        read(request);
+        break;
+      case 0x0004:  // Write.
+        write(request);
+        break;
+      case 0x0006:  // Commit.
+        sendReturnCode(request, 0);
+        break;
+      case 0x000A:  // List attributes.
+        listAttributes(request);
+        break;
+      case 0x0009:  // Close.
+        {
+          openFiles_.remove(Integer.valueOf(BinaryConverter.byteArrayToInt(request, 22)));
+          send(newReply(request, 24, 2, 0x8004));
+        }
+        break;
+      default:
+        unsupported(requestId, request);
+        sendReturnCode(request, REQUEST_NOT_SUPPORTED);
+        break;
+    }
+  }
+
+  private void exchangeAttributes(byte[] request)
+  {
+    dataStreamLevel_ = Math.min(DATA_STREAM_LEVEL, BinaryConverter.byteArrayToUnsignedShort(request, 22));
+    byte[] reply = newReply(request, 38, 16, 0x8009);
+    BinaryConverter.unsignedShortToByteArray(dataStreamLevel_, reply, 22);
+    BinaryConverter.intToByteArray(MAX_DATA_BLOCK, reply, 26);
+    // The preferred CCSIDs, only UTF-16.
+    BinaryConverter.intToByteArray(8, reply, 30);
+    BinaryConverter.unsignedShortToByteArray(0x000A, reply, 34);
+    BinaryConverter.unsignedShortToByteArray(UNICODE_CCSID, reply, 36);
+    send(reply);
+  }
+
+  private void open(byte[] request)
+  {
+    // Access intent 1 is read.  Files opened for writing start empty.
+    int access = BinaryConverter.byteArrayToUnsignedShort(request, 30);
+    long size = (access == 1) ? simulator_.getFileSize() : 0;
+    int handle = nextHandle_++;
+    openFiles_.put(Integer.valueOf(handle), Long.valueOf(size));
+
+    long now = System.currentTimeMillis();
+    byte[] reply = newReply(request, dataStreamLevel_ >= 16 ? 97 : 89, 0, 0x8002);
+    BinaryConverter.intToByteArray(handle, reply, 22);
+    BinaryConverter.longToByteArray(handle, reply, 26);  // File ID.
+    BinaryConverter.unsignedShortToByteArray(0xFFFF, reply, 34);  // Data CCSID unknown.
+    BinaryConverter.unsignedShortToByteArray(1, reply, 36);  // Action taken, opened.
+    for (int offset = 38; offset <= 54; offset += 8)
+    {
+      // Creation, modification and access dates, in seconds and microseconds.
+      BinaryConverter.intToByteArray((int)(now / 1000), reply, offset);
+      BinaryConverter.intToByteArray((int)(now % 1000) * 1000, reply, offset + 4);
+    }
+    if (dataStreamLevel_ >= 16)
+    {
+      BinaryConverter.longToByteArray(size, reply, 89);
+    }
+    else
+    {
+      BinaryConverter.intToByteArray((int)size, reply, 62);
+    }
+    send(reply);
+  }
+
+  private void read(byte[] request)
+  {
+    Long size = (Long)openFiles_.get(Integer.valueOf(BinaryConverter.byteArrayToInt(request, 22)));
+    if (size == null)
+    {
+      sendReturnCode(request, INVALID_HANDLE);
+      return;
+    }
+    long offset = getOffset(request, 30, 50);
+    int length = BinaryConverter.byteArrayToInt(request, 34);
+    if (offset >= size.longValue() || length <= 0)
+    {
+      sendReturnCode(request, NO_MORE_DATA);
+      return;
+    }
+    int count = (int)Math.min(length, size.longValue() - offset);
+    byte[] reply = newReply(request, 30 + count, 2, 0x8003);
+    BinaryConverter.unsignedShortToByteArray(0xFFFF, reply, 22);  // CCSID.
+    BinaryConverter.intToByteArray(6 + count, reply, 24);
+    BinaryConverter.unsignedShortToByteArray(0x0001, reply, 28);
+    for (int filled = 0; filled < count; )
+    {
+      int start = (int)((offset + filled) % PATTERN.length);
+      int chunk = Math.min(count - filled, PATTERN.length - start);
+      System.arraycopy(PATTERN, start, reply, 30 + filled, chunk);
+      filled += chunk;
+    }
+    send(reply);
+  }
+
+  // Only the attributes of an open file, by handle, are listed.
+  private void listAttributes(byte[] request)
+  {
+    Long size = (Long)openFiles_.get(Integer.valueOf(BinaryConverter.byteArrayToInt(request, 22)));
+    if (size == null)
+    {
+      sendReturnCode(request, INVALID_HANDLE);
+      return;
+    }
+    byte[] reply = newReply(request, 92, 72, 0x8005);
+    BinaryConverter.intToByteArray((int)Math.min(size.longValue(), 0xFFFFFFFFL), reply, 46);
+    BinaryConverter.unsignedShortToByteArray(1, reply, 54);  // Object type, file.
+    BinaryConverter.longToByteArray(size.longValue(), reply, 81);
+    send(reply);
+  }
+
+  private void write(byte[] request)
+  {
+    Integer handle = Integer.valueOf(BinaryConverter.byteArrayToInt(request, 22));
+    Long size = (Long)openFiles_.get(handle);
+    if (size == null)
+    {
+      sendReturnCode(request, INVALID_HANDLE);
+      return;
+    }
+    long offset = getOffset(request, 30, 46);
+    int length = request.length - HEADER_LENGTH - getTemplateLength(request) - 6;
+    openFiles_.put(handle, Long.valueOf(Math.max(size.longValue(), offset + length)));
+    byte[] reply = newReply(request, 32, 2, 0x800B);
+    BinaryConverter.intToByteArray((int)size.longValue(), reply, 24);  // Previous file size.
+    send(reply);
+  }
+
+  // Returns the offset of a read or write request.  Below data stream
+  // level 16 the offset is 4 bytes, from level 16 on it is 8 bytes.
+  private long getOffset(byte[] request, int offset, int largeOffset)
+  {
+    if (dataStreamLevel_ >= 16 && request.length >= largeOffset + 8)
+    {
+      return BinaryConverter.byteArrayToLong(request, largeOffset);
+    }
+    return BinaryConverter.byteArrayToInt(request, offset) & 0xFFFFFFFFL;
+  }
+
+  private void sendReturnCode(byte[] request, int returnCode)
+  {
+    byte[] reply = newReply(request, 24, 2, 0x8001);
+    BinaryConverter.unsignedShortToByteArray(returnCode, reply, 22);
+    send(reply);
+  }
+}
@@ -0,0 +1,85 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: SimulatorSignonConnection.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Calendar;
+
+/**
+A connection to the simulated signon server.  Every user ID and password
+is accepted.
+**/
+class SimulatorSignonConnection extends SimulatorConnection
+{
+  // The release that the simulator reports, V7R5M0.
+  static final int VRM = 0x00070500;
+  // The signon server level.
+  private static final int SERVER_LEVEL = 10;
+
+  SimulatorSignonConnection(HostServerSimulator simulator, Socket socket) throws IOException
+  {
+    super(simulator, socket);
+  }
+
+  void handleRequest(int requestId, byte[] request) throws IOException
+  {
+    switch (requestId)
+    {
+      case 0x7003:  // Exchange attributes.
+        {
+          byte[] job = toEbcdic(getJobName(), 26);
+          ReplyBuilder reply = new ReplyBuilder(request, 0, 0xF003);
+          reply.add32(0);  // Return code.
+          reply.add32(10).add16(0x1101).add32(VRM);
+          reply.add32(8).add16(0x1102).add16(SERVER_LEVEL);
+          reply.add32(14).add16(0x1103).add64(System.nanoTime());
+          // Password level 0, so the client encrypts the password with DES.
+          reply.add32(7).add16(0x1119).add8(0);
+          reply.add32(10 + job.length).add16(0x111F).add32(37).add(job);
+          send(reply.toByteArray());
+        }
+        break;
+      case 0x7004:  // Retrieve signon information.
+        {
+          Calendar now = Calendar.getInstance();
+          ReplyBuilder reply = new ReplyBuilder(request, 0, 0xF004);
+          reply.add32(0);  // Return code.
+          addDate(reply, 0x1106, now);  // Current signon date.
+          addDate(reply, 0x1107, now);  // Last signon date.
+          reply.add32(10).add16(0x1114).add32(37);  // Server CCSID.
+          reply.add32(20).add16(0x1104).add32(37).add(toEbcdic(HostServerSimulator.USER_ID, 10));
+          send(reply.toByteArray());
+        }
+        break;
+      case 0x7006:  // End server, there is no reply.
+        break;
+      default:
+        unsupported(requestId, request);
+        break;
+    }
+  }
+
+  private static void addDate(ReplyBuilder reply, int codePoint, Calendar date)
+  {
+    reply.add32(14).add16(codePoint);
+    reply.add16(date.get(Calendar.YEAR));
+    reply.add8(date.get(Calendar.MONTH) + 1);
+    reply.add8(date.get(Calendar.DAY_OF_MONTH));
+    reply.add8(date.get(Calendar.HOUR_OF_DAY));
+    reply.add8(date.get(Calendar.MINUTE));
+    reply.add8(date.get(Calendar.SECOND));
+    reply.add8(0);
+  }
+}
@@ -0,0 +1,75 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: StructureBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+Measures AS400Structure conversion of a typical program parameter:
+a binary count, a character name, and a packed amount.
+**/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StructureBenchmark
+{
+  private AS400Structure structure_;
+  private Object[] value_;
+  private byte[] bytes_;
+
+  @Setup
+  public void setup()
+  {
+    structure_ = new AS400Structure(new AS400DataType[] {
+      new AS400Bin4(),
+      new AS400Text(30, 37),
+      new AS400PackedDecimal(11, 2),
+      new AS400Text(10, 37)
+    });
+    value_ = new Object[] {
+      Integer.valueOf(42),
+      "CUSTOMER NAME",
+      new BigDecimal("123456.78"),
+      "QGPL"
+    };
+    bytes_ = structure_.toBytes(value_);
+  }
+
+  @Benchmark
+  public Object toObject()
+  {
+    return structure_.toObject(bytes_, 0);
+  }
+
+  @Benchmark
+  public byte[] toBytes()
+  {
+    return structure_.toBytes(value_);
+  }
+}
@@ -0,0 +1,89 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PcmlParseBenchmark.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.data;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.as400.access.AS400;
+
+/**
+Measures parsing of a PCML source document held in memory, without
+calling a system.  The document describes a call to QUSRJOBI with a
+JOBI0100 receiver.
+**/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PcmlParseBenchmark
+{
+  private static final String DOCUMENT =
+    "<pcml version=\"4.0\">\n" +
+    "  <struct name=\"jobi0100\">\n" +
+    "    <data name=\"bytesReturned\"  type=\"int\"  length=\"4\" usage=\"output\"/>\n" +
+    "    <data name=\"bytesAvailable\" type=\"int\"  length=\"4\" usage=\"output\"/>\n" +
+    "    <data name=\"jobName\"        type=\"char\" length=\"10\" usage=\"output\"/>\n" +
+    "    <data name=\"userName\"       type=\"char\" length=\"10\" usage=\"output\"/>\n" +
+    "    <data name=\"jobNumber\"      type=\"char\" length=\"6\" usage=\"output\"/>\n" +
+    "    <data name=\"internalJobId\"  type=\"byte\" length=\"16\" usage=\"output\"/>\n" +
+    "    <data name=\"jobStatus\"      type=\"char\" length=\"10\" usage=\"output\"/>\n" +
+    "    <data name=\"jobType\"        type=\"char\" length=\"1\" usage=\"output\"/>\n" +
+    "    <data name=\"jobSubtype\"     type=\"char\" length=\"1\" usage=\"output\"/>\n" +
+    "    <data name=\"reserved\"       type=\"byte\" length=\"2\" usage=\"output\"/>\n" +
+    "    <data name=\"runPriority\"    type=\"int\"  length=\"4\" usage=\"output\"/>\n" +
+    "    <data name=\"timeSlice\"      type=\"int\"  length=\"4\" usage=\"output\"/>\n" +
+    "    <data name=\"defaultWait\"    type=\"int\"  length=\"4\" usage=\"output\"/>\n" +
+    "    <data name=\"purge\"          type=\"char\" length=\"10\" usage=\"output\"/>\n" +
+    "  </struct>\n" +
+    "  <program name=\"qusrjobi\" path=\"/QSYS.LIB/QUSRJOBI.PGM\">\n" +
+    "    <data name=\"receiver\"       type=\"struct\" struct=\"jobi0100\" usage=\"output\"/>\n" +
+    "    <data name=\"receiverLength\" type=\"int\"  length=\"4\" usage=\"input\" init=\"86\"/>\n" +
+    "    <data name=\"format\"         type=\"char\" length=\"8\" usage=\"input\" init=\"JOBI0100\"/>\n" +
+    "    <data name=\"qualifiedJob\"   type=\"char\" length=\"26\" usage=\"input\" init=\"*\"/>\n" +
+    "    <data name=\"internalJob\"    type=\"byte\" length=\"16\" usage=\"input\" init=\"0\"/>\n" +
+    "  </program>\n" +
+    "</pcml>\n";
+
+  private byte[] document_;
+  private AS400 system_;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    document_ = DOCUMENT.getBytes("UTF-8");
+    // The system is never connected; it only supplies the CCSID for conversions.
+    system_ = new AS400();
+  }
+
+  @Benchmark
+  public ProgramCallDocument parse() throws Exception
+  {
+    return new ProgramCallDocument(system_, "qusrjobi", new ByteArrayInputStream(document_),
+                                   null, null, ProgramCallDocument.SOURCE_PCML);
+  }
+}
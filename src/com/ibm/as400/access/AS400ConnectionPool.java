@@ -20,6 +20,9 @@ import java.util.Hashtable;
 import java.util.Locale;
 import java.util.Vector;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.io.Serializable;
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -94,7 +97,9 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
    **/
   public static final int CCSID_DEFAULT = ConnectionPool.CCSID_DEFAULT;
 
-  private transient Hashtable as400ConnectionPool_;
+  // Lists of connections, keyed by systemName/userID.  This is not locked while the lists
+  // are swept, so that getConnection() does not wait for the maintenance thread.
+  private transient ConcurrentHashMap as400ConnectionPool_;
   // Hashtable of lists of connections that have been marked invalid by the user
   // by calling removeFromPool().
   private transient Hashtable removedAS400ConnectionPool_;  //@A6A
@@ -125,23 +130,21 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
    **/
   void cleanupConnections()
   {
-    synchronized (as400ConnectionPool_)
+    // Each list sweeps itself without blocking the threads getting or returning connections.
+    Iterator entries = as400ConnectionPool_.entrySet().iterator();
+    while (entries.hasNext())
     {
-      Enumeration keys = as400ConnectionPool_.keys();
-      while (keys.hasMoreElements())
+      Map.Entry entry = (Map.Entry)entries.next();
+      try
       {
-        String key = (String)keys.nextElement();
-        try
-        {
-          ConnectionList connList = (ConnectionList)as400ConnectionPool_.get(key);
-          connList.removeExpiredConnections(poolListeners_);  
-        }
-        catch (Exception e)
-        {
-          log(e, key);
-        }
+        ConnectionList connList = (ConnectionList)entry.getValue();
+        connList.removeExpiredConnections(poolListeners_);  
       }
-    } 
+      catch (Exception e)
+      {
+        log(e, (String)entry.getKey());
+      }
+    }
     if (poolListeners_ != null)
     {
       ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(this, ConnectionPoolEvent.MAINTENANCE_THREAD_RUN);
@@ -258,7 +261,7 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
       connections = (ConnectionList)as400ConnectionPool_.get(key);
       for (int j = 0; j < numberOfConnections; j++)
       {
-        connections.findElement((AS400)newAS400Connections.elementAt(j)).setInUse(false);
+        connections.release(connections.findElement((AS400)newAS400Connections.elementAt(j)));
       }
       if (Trace.traceOn_ && locale != null)
         log(Trace.INFORMATION, "Created " + numberOfConnections + "with a locale.");
@@ -270,7 +273,7 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
       ConnectionList connections = (ConnectionList)as400ConnectionPool_.get(key);
       for (int k = 0; k < newAS400Connections.size(); k++)
       {
-        connections.findElement((AS400)newAS400Connections.elementAt(k)).setInUse(false); 
+        connections.release(connections.findElement((AS400)newAS400Connections.elementAt(k))); 
       }
       if (maintenance_ != null && maintenance_.isRunning())
         cleanupConnections();
@@ -284,7 +287,7 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
       ConnectionList connections = (ConnectionList)as400ConnectionPool_.get(key);      
       for (int k = 0; k < newAS400Connections.size(); k++)
       { 
-        connections.findElement((AS400)newAS400Connections.elementAt(k)).setInUse(false); 
+        connections.release(connections.findElement((AS400)newAS400Connections.elementAt(k))); 
       } 
       if (maintenance_ != null && maintenance_.isRunning())
         cleanupConnections();                     
@@ -356,7 +359,7 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
       connections = (ConnectionList)as400ConnectionPool_.get(key);
       for (int j = 0; j < numberOfConnections; j++)
       {
-        connections.findElement((AS400)newAS400Connections.elementAt(j)).setInUse(false);
+        connections.release(connections.findElement((AS400)newAS400Connections.elementAt(j)));
       }
       if (Trace.traceOn_ && locale != null)
         log(Trace.INFORMATION, "Created " + numberOfConnections + "with a locale.");
@@ -368,7 +371,7 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
       ConnectionList connections = (ConnectionList)as400ConnectionPool_.get(key);
       for (int k = 0; k < newAS400Connections.size(); k++)
       {
-        connections.findElement((AS400)newAS400Connections.elementAt(k)).setInUse(false); 
+        connections.release(connections.findElement((AS400)newAS400Connections.elementAt(k))); 
       }
       if (maintenance_ != null && maintenance_.isRunning())
         cleanupConnections();
@@ -383,7 +386,7 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
       ConnectionList connections = (ConnectionList)as400ConnectionPool_.get(key);      
       for (int k = 0; k < newAS400Connections.size(); k++)
       {                                          //@A2A
-        connections.findElement((AS400)newAS400Connections.elementAt(k)).setInUse(false); 
+        connections.release(connections.findElement((AS400)newAS400Connections.elementAt(k))); 
       }                                          //@A2A
       if (maintenance_ != null && maintenance_.isRunning())
         cleanupConnections();                               //@A2A
@@ -1362,7 +1365,7 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
     // implementations of the Log interface) uses a java.io.PrintWriter object which is 
     // not serializable.  Therefore, log_ was changed to be transient and the user
     // will need to reset log_ after a serialization of the pool.
-    as400ConnectionPool_ = new Hashtable();
+    as400ConnectionPool_ = new ConcurrentHashMap();
     removedAS400ConnectionPool_ = new Hashtable();   //@A5A
     lastRun_ = System.currentTimeMillis();
     connectionHasBeenCreated_ = false;
@@ -1579,7 +1582,7 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
         // Before making the connection available for re-use, see if it's expired.
         boolean removed = connections.removeIfExpired(poolItem, poolListeners_);
         if (!removed) {
-          poolItem.setInUse(false); // indicate that this connection is available
+          connections.release(poolItem); // indicate that this connection is available
         }
         if (log_ != null || Trace.traceOn_)
         {
@@ -1048,6 +1048,107 @@ abstract public class AS400File implements Serializable
         return r;
     }
 
+    /**
+     *Opens the file and returns an enumeration that reads all of its records a
+     *block at a time.  Used by SequentialFile.readAllRecords() and
+     *KeyedFile.readAllRecords().
+     *@param fileType The type of file.  Valid values are: key or seq
+     *@param blockingFactor The number of records in each block, or 0 to calculate it.
+     *@param readAhead The number of blocks that may be requested before they are needed.
+     *@return An enumeration of the records of the file.
+     **/
+    RecordEnumeration readAllRecords(String fileType, int blockingFactor, int readAhead)
+      throws AS400Exception,
+    AS400SecurityException,
+    InterruptedException,
+    IOException
+    {
+        if (isOpen_)
+        {
+            throw new ExtendedIllegalStateException(ExtendedIllegalStateException.OBJECT_CAN_NOT_BE_OPEN);
+        }
+        if (recordFormat_ == null)
+        {
+            throw new ExtendedIllegalStateException("recordFormat", ExtendedIllegalStateException.PROPERTY_NOT_SET);
+        }
+        if (blockingFactor < 0)
+        {
+            throw new ExtendedIllegalArgumentException("blockingFactor", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        }
+        if (readAhead < 1)
+        {
+            throw new ExtendedIllegalArgumentException("readAhead", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        }
+        chooseImpl();
+
+        // Before we calculate, make sure the record format has had
+        // its text objects initialized.
+        recordFormat_.initializeTextObjects(system_);
+
+        int bf = blockingFactor;
+        if (bf == 0)
+        {
+            // Use the same blocking factor as readAll().
+            bf = 2048/(recordFormat_.getNewRecord().getRecordLength() + 16);
+            if (bf <= 1) bf = 100;
+        }
+        // We can only retrieve 16Mb of record data per GET so limit the
+        // blocking factor appropriately.
+        int recordIncrement = recordFormat_.getNewRecord().getRecordLength() +
+          recordFormat_.getNumberOfFields() +
+          recordFormat_.getNumberOfKeyFields() + 16;
+        bf = (bf * recordIncrement >= 16777216 ? 16777216 / recordIncrement : bf);
+
+        impl_.doIt("beginReadAll", new Class[] { String.class, Integer.TYPE, Integer.TYPE }, new Object[] { fileType, Integer.valueOf(bf), Integer.valueOf(readAhead) });
+        return new RecordEnumeration(this, longRecordNumber);
+    }
+
+    /**
+     *Returns the next block of records for a RecordEnumeration.
+     *@param longRecordNumbers true to set the record numbers with setRecordNumberLong().
+     *@param reuse The records of the previous block to reuse, or null to create new records.
+     *Records are only reused when the file is accessed through a remote connection.
+     *@return The records read, or null if the end of file was reached.
+     **/
+    Record[] readAllNext(boolean longRecordNumbers, Record[] reuse)
+      throws AS400Exception,
+    AS400SecurityException,
+    InterruptedException,
+    IOException
+    {
+        Record[] recs;
+        if (reuse != null && impl_ instanceof AS400FileImplRemote)
+        {
+            // The records of the previous block are repointed at the records of this one.
+            recs = ((AS400FileImplRemote)impl_).readAllNext(longRecordNumbers, reuse);
+            if (recs == reuse) return recs;
+        }
+        else
+        {
+            recs = impl_.doItRecordArray("readAllNext", new Class[] { Boolean.TYPE }, new Object[] { Boolean.valueOf(longRecordNumbers) });
+        }
+        if (recs != null)
+        {
+            for (int i=0; i<recs.length; ++i)
+            {
+                recs[i] = fillInRecord(recs[i]);
+            }
+        }
+        return recs;
+    }
+
+    /**
+     *Closes the file for a RecordEnumeration.
+     **/
+    void endReadAll()
+      throws AS400Exception,
+    AS400SecurityException,
+    InterruptedException,
+    IOException
+    {
+        doIt("endReadAll");
+    }
+
     /**
      *Closes the file when this object is garbage collected.
      *@exception Throwable If an exception is thrown while cleaning up.
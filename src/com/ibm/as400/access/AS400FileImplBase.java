@@ -3149,6 +3149,52 @@ throws AS400Exception, AS400SecurityException, InterruptedException,   IOExcepti
   public abstract Record[] readAllLong(String fileType, int bf) 
           throws AS400Exception, AS400SecurityException, InterruptedException, IOException;
 
+  /**
+   *Opens the file to read all of its records a block at a time.  The blocks are
+   *retrieved by readAllNext() and the file is closed by endReadAll().  Subclasses
+   *that can request blocks ahead of when they are needed override these methods.
+   *@param fileType The type of file.  Valid values are: key or seq
+   *@param bf The blocking factor.
+   *@param readAhead The number of blocks that may be requested before they are needed.
+   *@exception AS400Exception If the server returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the server.
+   **/
+  public void beginReadAll(String fileType, int bf, int readAhead)
+  throws AS400Exception, AS400SecurityException, InterruptedException, IOException
+  {
+    openFile2(AS400File.READ_ONLY, bf, AS400File.COMMIT_LOCK_LEVEL_NONE, fileType);
+  }
+
+  /**
+   *Returns the next block of records of a file opened by beginReadAll().
+   *@param longRecordNumbers true to set the record numbers with setRecordNumberLong().
+   *@return The records read, or null if the end of file was reached.
+   *@exception AS400Exception If the server returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the server.
+   **/
+  public Record[] readAllNext(boolean longRecordNumbers)
+  throws AS400Exception, AS400SecurityException, InterruptedException, IOException
+  {
+    return (longRecordNumbers)? readRecordsLong(DDMRecordCache.FORWARD) : readRecords(DDMRecordCache.FORWARD);
+  }
+
+  /**
+   *Closes a file opened by beginReadAll().
+   *@exception AS400Exception If the server returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the server.
+   **/
+  public void endReadAll()
+  throws AS400Exception, AS400SecurityException, InterruptedException, IOException
+  {
+    close();
+  }
+
   /**
    *Reads the first record before the record with the specified record number.
    *The file must be open when invoking this method.
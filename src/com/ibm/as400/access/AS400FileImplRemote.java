@@ -56,6 +56,12 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
   // Server
   transient AS400Server server_ = null;
 
+  // The correlation ids of the blocks requested by beginReadAll() and not
+  // yet received, oldest first.  Null when no such read is in progress.
+  transient private Vector readAhead_ = null;
+  // Indicates that beginReadAll() reached the end of file.
+  transient private boolean readAllDone_ = false;
+
   // @B1A
   private static int lastCorrelationId_ = 0; //@B6C
   private static Object correlationIdLock_ = new Object(); //@B6A
@@ -1373,14 +1379,53 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
   InterruptedException,
   IOException
   {
-    Record[] returned = null;  // Will contain the records read.
+    RecordCollector collector = (discardRecords)? null : new RecordCollector(null);
+    processReadReply(replys, false, null, collector);
+    return (collector == null)? null : collector.records_;
+  }
+
+  //@RBA
+  public Record[] processReadReplyLong(Vector replys, boolean discardRecords)  // @A1A
+      throws AS400Exception,
+      AS400SecurityException,
+      InterruptedException,
+      IOException
+      {
+        RecordCollector collector = (discardRecords)? null : new RecordCollector(null);
+        processReadReply(replys, true, null, collector);
+        return (collector == null)? null : collector.records_;
+      }
+
+  /**
+   *Processes the <i>replys</i> vector for records read and passes each record
+   *to <i>handler</i>.  Each record is passed in a new Record object, unless
+   *<i>flyweights</i> has a Record at the position of the record in the block; that
+   *Record is then repointed at the record instead, so that nothing is allocated for it.
+   *Throws exceptions in error cases.
+   *@param replys The reply datastream(s) containing the record(s) read.
+   *@param longRecordNumbers true to set the record numbers with setRecordNumberLong().
+   *@param flyweights The records to repoint at the records read, or null.
+   *@param handler The handler for the records read, or null to discard them.
+   *@return The number of records read, 0 if they were discarded, or -1 if the end
+   *of file was reached or the record was not found.
+   *@exception AS400Exception If the server returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the server.
+  **/
+  int processReadReply(Vector replys, boolean longRecordNumbers, Record[] flyweights, RecordHandler handler)
+  throws AS400Exception,
+  AS400SecurityException,
+  InterruptedException,
+  IOException
+  {
     int recordIncrement = openFeedback_.getRecordIncrement();
 
     // The format of the reply(s) should be one or more S38BUF objects
     // followed by an S38IOFB.  However if the end of file was reached or
     // if the record to be read was not found in the file, an S38IOFB followed
     // be an S38MSGRM indicating CPF5006 or CPF5001 will be returned.  If this is
-    // the case, we return null instead of throwing an exception.
+    // the case, we return -1 instead of throwing an exception.
     // If an error occurs we may get an S38IOFB followed by S38MSGRM objects indicating
     // the server errors that occurred.  In that case we throw an exception via
     // handleErrorReply.  If we only get an S38IOFB back, we also throw an
@@ -1397,8 +1442,8 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
           DDMAS400MessageReply err = new DDMAS400MessageReply(system_, ((DDMDataStream)replys.elementAt(1)).data_);
           String msgId = err.getAS400Message().getID();
           if (msgId.equals("CPF5006") || msgId.equals("CPF5001"))
-          { // End of file reached or record not found; return null record
-            return returned;
+          { // End of file reached or record not found
+            return -1;
           }
           else
           { // Error occurred
@@ -1417,9 +1462,9 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
     }
     else if (codePoint == DDMTerm.S38BUF)
     {
-      if (discardRecords)
+      if (handler == null)
       {  // @A1A
-        return returned;   // @A1A
+        return 0;   // @A1A
       }                      // @A1A
 
       // Records were read. Extract format them
@@ -1456,7 +1501,6 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
       // code, we know that there was at least one record returned.
       // The S38IOFB contains the number of records read.
       int numberOfRecords = ioFeedback.getNumberOfRecordsReturned();
-      returned = new Record[numberOfRecords];
 
       // if (largeBuffer), the S38BUF CP is followed by 4 bytes of record length info,
       // then the record data; otherwise the record data follows the code point
@@ -1477,7 +1521,16 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
 
       for (int i = 0; i < numberOfRecords; ++i)
       { // Extract the records from the datastream reply.
-        returned[i] = recordFormat_.getNewRecord(reply.data_, recordOffset + i * recordIncrement);
+        Record record;
+        if (flyweights == null || i >= flyweights.length || flyweights[i] == null)
+        {
+          record = recordFormat_.getNewRecord(reply.data_, recordOffset + i * recordIncrement);
+        }
+        else
+        {
+          record = flyweights[i];
+          record.load(reply.data_, recordOffset + i * recordIncrement);
+        }
         // Set any null fields to null
         if (isNullCapable)
         { // File has null capable fields
@@ -1485,7 +1538,7 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
           { // 0xF1 = field is null, 0xF0 = field is not null
             if (reply.data_[nullFieldMapOffset + j + i * recordIncrement] == (byte)0xF1)
             {
-              returned[i].setField(j, null);
+              record.setField(j, null);
             }
           }
         }
@@ -1493,162 +1546,63 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
         // record data and is four bytes long.
         try
         {
-          returned[i].setRecordNumber(BinaryConverter.byteArrayToInt(reply.data_, recordNumberOffset + i * recordIncrement));
+          if (longRecordNumbers)
+          {
+            record.setRecordNumberLong(BinaryConverter.byteArrayToUnsignedInt(reply.data_, recordNumberOffset + i * recordIncrement));
+          }
+          else
+          {
+            record.setRecordNumber(BinaryConverter.byteArrayToInt(reply.data_, recordNumberOffset + i * recordIncrement));
+          }
         }
         catch (PropertyVetoException e)
         { // We created the Record objects.  There is no one to veto anything
 
         } // so this is here to quit the compiler
+        handler.handleRecord(record, i, numberOfRecords);
       }
+      return numberOfRecords;
     }
     else
     { // Error occurred
       handleErrorReply(replys, 0);
     }
-    return returned;
+    return -1;
   }
 
-  //@RBA
-  public Record[] processReadReplyLong(Vector replys, boolean discardRecords)  // @A1A
-      throws AS400Exception,
-      AS400SecurityException,
-      InterruptedException,
-      IOException
-      {
-        Record[] returned = null;  // Will contain the records read.
-        int recordIncrement = openFeedback_.getRecordIncrement();
-
-        // The format of the reply(s) should be one or more S38BUF objects
-        // followed by an S38IOFB.  However if the end of file was reached or
-        // if the record to be read was not found in the file, an S38IOFB followed
-        // be an S38MSGRM indicating CPF5006 or CPF5001 will be returned.  If this is
-        // the case, we return null instead of throwing an exception.
-        // If an error occurs we may get an S38IOFB followed by S38MSGRM objects indicating
-        // the server errors that occurred.  In that case we throw an exception via
-        // handleErrorReply.  If we only get an S38IOFB back, we also throw an
-        // exception as an error must have occurred.  This case should not happen.
-        int codePoint = ((DDMDataStream)replys.elementAt(0)).getCodePoint();
-        if (codePoint == DDMTerm.S38IOFB)
-        { // The end of file was reached, the record to be read was not found or an
-          // error occurred.
-          if (replys.size() > 1)
-          {
-            codePoint = ((DDMDataStream)replys.elementAt(1)).getCodePoint();
-            if (codePoint == DDMTerm.S38MSGRM)
-            { // Check for end of file or record not found messages
-              DDMAS400MessageReply err = new DDMAS400MessageReply(system_, ((DDMDataStream)replys.elementAt(1)).data_);
-              String msgId = err.getAS400Message().getID();
-              if (msgId.equals("CPF5006") || msgId.equals("CPF5001"))
-              { // End of file reached or record not found; return null record
-                return returned;
-              }
-              else
-              { // Error occurred
-                handleErrorReply(replys, 1);
-              }
-            }
-            else
-            { // Some other error (other than an error) occurred
-              handleErrorReply(replys, 1);
-            }
-          }
-          else
-          { // Only an S38IOFB object was returned.  Error situation.  Should not occur.
-            handleErrorReply(replys, 0);
-          }
-        }
-        else if (codePoint == DDMTerm.S38BUF)
-        {
-          if (discardRecords)
-          {  // @A1A
-            return returned;   // @A1A
-          }                      // @A1A
-
-          // Records were read. Extract format them
-          // Extract the returned records and the io feedback info
-          // The S38IOFB will be the last object in the reply(s)
-          DDMDataStream reply = (DDMDataStream)replys.elementAt(0);
-          DDMS38IOFB ioFeedback;
-          boolean largeBuffer;
-          // If the length of the S38BUF term is greater than 0x7FFF, there
-          // will be an extra 4 bytes after the S38BUF code point which indicate the length of
-          // the S38BUF data.  We need to special handle these instances, so we use largeBuffer
-          // to indicate when such a case has occurred.
-          largeBuffer = (reply.get16bit(6) <= 0x7FFF)? false : true;
-          if (reply.isChained())
-          { // The IO feedback is in the next reply.  The S38IOFB data starts at offset
-            // 10 in the next reply.
-            ioFeedback = new DDMS38IOFB(((DDMDataStream)replys.elementAt(1)).data_, 10);
-          }
-          else
-          { // The io feedback info is in this reply.
-            // if (largeBuffer)
-            //   The length of the record data is in the 4 bytes following the S38BUF
-            //   code point.  The S38IOFB data will start at that length + 6 for the header,
-            //   + 8 for the S38BUF LL-CP-extra LL, + 4 for the S38IOFB LL-CP.
-            // else
-            //   The length of the record data is contained in the LL preceding
-            //   the S38BUF codepoint.  The S38IOFB data will start at that length + 6
-            //   for the header, + 4 for the LL-CP of the S38BUF, + 4 for the S38IOFB LL-CP.
-            int offset = (largeBuffer)? reply.get32bit(10) + 18 : reply.get16bit(6) + 10;
-            ioFeedback = new DDMS38IOFB(reply.data_, offset);
-          }
+  /**
+   *Receives the records that processReadReply() extracts from a read reply.
+  **/
+  interface RecordHandler
+  {
+    /**
+     *Handles one record of the records read.
+     *@param record The record.
+     *@param index The position of the record in the records read.
+     *@param count The number of records read.
+     *@exception IOException If an error occurs while handling the record.
+    **/
+    void handleRecord(Record record, int index, int count) throws IOException;
+  }
 
-          // Extract the record(s) returned; because we are in the if (S38BUF code point found)
-          // code, we know that there was at least one record returned.
-          // The S38IOFB contains the number of records read.
-          int numberOfRecords = ioFeedback.getNumberOfRecordsReturned();
-          returned = new Record[numberOfRecords];
-
-          // if (largeBuffer), the S38BUF CP is followed by 4 bytes of record length info,
-          // then the record data; otherwise the record data follows the code point
-          int recordOffset = (largeBuffer)? 14 : 10;
-          // Determine the offset of the record number within the S38BUF for each record.
-          // The S38IOFB contains the record length for the record(s).  The record length
-          // consists of the length of the data plus a variable size gap plus the null byte
-          // field map.  The record number offset is 2 bytes more than the record length.
-          int recordNumberOffset = recordOffset + ioFeedback.getRecordLength() + 2;
-          // Determine the null byte field map offset.  When we opened the file, the
-          // the S38OPNFB reply contained the offset of the null byte field map in a record.
-          int nullFieldMapOffset = recordOffset + openFeedback_.getNullFieldByteMapOffset();
-          // Determine the number of fields in a record from the RecordFormat for this file.
-          int numFields = recordFormat_.getNumberOfFields();
-          // If the file has null capable fields, we will need to check the null byte field
-          // map and set the fields within the Record object as appropriate.
-          boolean isNullCapable = openFeedback_.isNullCapable();
-
-          for (int i = 0; i < numberOfRecords; ++i)
-          { // Extract the records from the datastream reply.
-            returned[i] = recordFormat_.getNewRecord(reply.data_, recordOffset + i * recordIncrement);
-            // Set any null fields to null
-            if (isNullCapable)
-            { // File has null capable fields
-              for (int j = 0; j < numFields; ++j)
-              { // 0xF1 = field is null, 0xF0 = field is not null
-                if (reply.data_[nullFieldMapOffset + j + i * recordIncrement] == (byte)0xF1)
-                {
-                  returned[i].setField(j, null);
-                }
-              }
-            }
-            // Set the record number.  The record number is two bytes after the end of the
-            // record data and is four bytes long.
-            try
-            {
-              returned[i].setRecordNumberLong(BinaryConverter.byteArrayToUnsignedInt(reply.data_, recordNumberOffset + i * recordIncrement));
-            }
-            catch (PropertyVetoException e)
-            { // We created the Record objects.  There is no one to veto anything
+  // Collects the records read into an array.  The array of the records being reused
+  // is filled again when the block has as many records as it does.
+  private static final class RecordCollector implements RecordHandler
+  {
+    private Record[] reuse_;
+    Record[] records_;
 
-            } // so this is here to quit the compiler
-          }
-        }
-        else
-        { // Error occurred
-          handleErrorReply(replys, 0);
-        }
-        return returned;
-      }
+    RecordCollector(Record[] reuse)
+    {
+      reuse_ = reuse;
+    }
+
+    public void handleRecord(Record record, int index, int count)
+    {
+      if (index == 0) records_ = (reuse_ != null && reuse_.length == count)? reuse_ : new Record[count];
+      records_[index] = record;
+    }
+  }
 
   /**
    Process replys.
@@ -2043,6 +1997,143 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
 
         return recArray;
       }
+
+  /**
+   *Opens the file to read all of its records a block at a time, and sends the
+   *requests for the first <i>readAhead</i> blocks.  Each call to readAllNext()
+   *receives the oldest block requested and requests one more, so the system
+   *reads the next blocks while the caller processes the current one.  At most
+   *<i>readAhead</i> blocks are requested and not yet processed at any time.
+   *The blocks are read with the same S38 extensions as readAll().
+   *@param fileType The type of file.  Valid values are: key or seq
+   *@param bf The blocking factor.
+   *@param readAhead The number of blocks that may be requested before they are needed.
+   *@exception AS400Exception If the server returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the server.
+  **/
+  public void beginReadAll(String fileType, int bf, int readAhead)
+  throws AS400Exception,
+  AS400SecurityException,
+  InterruptedException,
+  IOException
+  {
+    // We are not synchronized for the whole read as readAll() is, so the
+    // file must not be used otherwise until endReadAll().
+    openFile2(AS400File.READ_ONLY, bf, AS400File.COMMIT_LOCK_LEVEL_NONE, fileType);
+    readAhead_ = new Vector();
+    readAllDone_ = false;
+    sendReadAhead(TYPE_GET_FIRST);
+    while (readAhead_.size() < readAhead)
+    {
+      sendReadAhead(TYPE_GET_NEXT);
+    }
+  }
+
+  /**
+   *Returns the next block of records of a file opened by beginReadAll().
+   *@param longRecordNumbers true to set the record numbers with setRecordNumberLong().
+   *@return The records read, or null if the end of file was reached.
+   *@exception AS400Exception If the server returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the server.
+  **/
+  public Record[] readAllNext(boolean longRecordNumbers)
+  throws AS400Exception,
+  AS400SecurityException,
+  InterruptedException,
+  IOException
+  {
+    return readAllNext(longRecordNumbers, null);
+  }
+
+  /**
+   *Returns the next block of records of a file opened by beginReadAll(), reusing
+   *the records of a previous block.  The records in <i>reuse</i> are repointed at
+   *the records read instead of new Record objects being created, and <i>reuse</i>
+   *itself is returned if the block has as many records.
+   *@param longRecordNumbers true to set the record numbers with setRecordNumberLong().
+   *@param reuse The records of the previous block, or null.
+   *@return The records read, or null if the end of file was reached.
+   *@exception AS400Exception If the server returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the server.
+  **/
+  Record[] readAllNext(boolean longRecordNumbers, Record[] reuse)
+  throws AS400Exception,
+  AS400SecurityException,
+  InterruptedException,
+  IOException
+  {
+    if (readAllDone_ || readAhead_ == null || readAhead_.isEmpty())
+    {
+      return null;
+    }
+    int correlationId = ((Integer)readAhead_.elementAt(0)).intValue();
+    readAhead_.removeElementAt(0);
+    Vector replys = receiveReplies(correlationId);
+    if (((DDMDataStream)replys.elementAt(0)).getCodePoint() == DDMTerm.S38BUF)
+    { // Request the next block before processing this one.  The requests
+      // after the end of file get an end of file reply, which endReadAll()
+      // discards.
+      sendReadAhead(TYPE_GET_NEXT);
+    }
+    else
+    { // End of file or an error; processReadReply() tells which.
+      readAllDone_ = true;
+    }
+    RecordCollector collector = new RecordCollector(reuse);
+    processReadReply(replys, longRecordNumbers, reuse, collector);
+    Record[] returned = collector.records_;
+    if (returned == null)
+    {
+      readAllDone_ = true;
+    }
+    return returned;
+  }
+
+  /**
+   *Closes a file opened by beginReadAll().  The replies to any blocks that
+   *were requested but not processed are discarded first.
+   *@exception AS400Exception If the server returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the server.
+  **/
+  public void endReadAll()
+  throws AS400Exception,
+  AS400SecurityException,
+  InterruptedException,
+  IOException
+  {
+    try
+    {
+      while (readAhead_ != null && !readAhead_.isEmpty())
+      {
+        int correlationId = ((Integer)readAhead_.elementAt(0)).intValue();
+        readAhead_.removeElementAt(0);
+        receiveReplies(correlationId);
+      }
+    }
+    finally
+    {
+      readAhead_ = null;
+      close();
+    }
+  }
+
+  // Sends the S38GET for the next block of beginReadAll() without waiting
+  // for the reply.
+  private void sendReadAhead(int type)
+  throws InterruptedException, IOException, AS400SecurityException
+  {
+    int correlationId = newCorrelationId();
+    sendRequest(DDMRequestDataStream.getRequestS38GET(dclName_, type, SHR_READ_NORM, DATA_DTA_DTARCD), correlationId);
+    readAhead_.addElement(Integer.valueOf(correlationId));
+  }
   /**
    *Reads the first record with the specified key based on the specified type of read.
    *@param key The values that make up the key with which to find the record.
@@ -2425,6 +2516,60 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
     return replys;
   }
 
+  /**
+   *Sends a request without waiting for its reply.  The replies are
+   *received later with receiveReplies(), and requests of other files
+   *using the connection may be sent and received in the meantime.
+  **/
+  private void sendRequest(DDMDataStream req, int correlationId)
+  throws InterruptedException, IOException, AS400SecurityException
+  {
+    connect();
+    try
+    {
+      synchronized(server_)
+      {
+        server_.send(req, correlationId);
+      }
+    }
+    catch (ConnectionDroppedException e)
+    {
+      // Connection dropped.  Disconnect server and rethrow.
+      Trace.log(Trace.ERROR, "ConnectionDroppedException:", e);
+      system_.disconnectServer(server_);
+      resetState();
+      throw e;
+    }
+  }
+
+  /**
+   *Receives the replies to a request sent with sendRequest().
+  **/
+  private Vector receiveReplies(int correlationId)
+  throws InterruptedException, IOException
+  {
+    Vector replys = new Vector();
+    try
+    {
+      DDMDataStream reply = (DDMDataStream)server_.receive(correlationId);
+      while (reply.isChained())
+      {
+        replys.addElement(reply);
+        reply = (DDMDataStream)server_.receive(correlationId);
+      }
+      replys.addElement(reply);
+    }
+    catch (ConnectionDroppedException e)
+    {
+      // Connection dropped.  Disconnect server and rethrow.
+      Trace.log(Trace.ERROR, "ConnectionDroppedException:", e);
+      system_.disconnectServer(server_);
+      resetState();
+      throw e;
+    }
+    return replys;
+  }
+
 
   /**
    *Sets the declared file name (DCLNAM). The declared file name for each
@@ -35,6 +35,7 @@ import java.security.spec.InvalidKeySpecException;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.Vector;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -62,6 +63,11 @@ public class AS400ImplRemote implements AS400Impl {
   // PRINT, COMMAND, DATAQUEUE, DATABASE, RECORDACCESS, CENTRAL.
   private Vector[] serverPool_ = { new Vector(), new Vector(), new Vector(),
       new Vector(), new Vector(), new Vector(), new Vector() };
+  // Replaces the monitor of this object around connecting and signing on when
+  // AS400Server.virtualThreads_ is set, so that virtual threads doing the
+  // socket I/O do not pin their carrier threads.
+  private final ReentrantLock connectionLock_ = AS400Server.virtualThreads_ ? new ReentrantLock()
+      : null;
 
   // System name.
   private String systemName_ = "";
@@ -633,9 +639,18 @@ public class AS400ImplRemote implements AS400Impl {
         }
       }
       Vector serverList = serverPool_[service];
-      synchronized (serverList) {
-        while (!serverList.isEmpty()) {
-          disconnectServer((AS400Server) serverList.elementAt(0));
+      if (connectionLock_ != null) {
+        // Do not hold the monitor of the list while the servers are ended.
+        AS400Server server = firstServer(serverList);
+        while (server != null) {
+          disconnectServer(server);
+          server = firstServer(serverList);
+        }
+      } else {
+        synchronized (serverList) {
+          while (!serverList.isEmpty()) {
+            disconnectServer((AS400Server) serverList.elementAt(0));
+          }
         }
       }
     }
@@ -644,6 +659,13 @@ public class AS400ImplRemote implements AS400Impl {
           AS400.getServerName(service));
   }
 
+  private static AS400Server firstServer(Vector serverList) {
+    synchronized (serverList) {
+      return serverList.isEmpty() ? null : (AS400Server) serverList
+          .elementAt(0);
+    }
+  }
+
   // Disconnect all services.
   void disconnectAllServices() {
     if (Trace.traceOn_)
@@ -1023,7 +1045,21 @@ public class AS400ImplRemote implements AS400Impl {
   }
 
   // Get connection for FTP.
-  synchronized Socket getConnection(int port) throws IOException {
+  Socket getConnection(int port) throws IOException {
+    if (connectionLock_ != null) {
+      connectionLock_.lock();
+      try {
+        return getConnectionLocked(port);
+      } finally {
+        connectionLock_.unlock();
+      }
+    }
+    synchronized (this) {
+      return getConnectionLocked(port);
+    }
+  }
+
+  private Socket getConnectionLocked(int port) throws IOException {
     Socket socket = new Socket((systemNameLocal_) ? "localhost" : systemName_,
         port);
     try {
@@ -1074,7 +1110,22 @@ public class AS400ImplRemote implements AS400Impl {
   // Note: The 'dhcp' argument is a dummy argument, whose sole purpose is to
   // differentiate this method from getConnection(int port). The value of 'dhcp'
   // is ignored.
-  synchronized Socket getConnection(int dhcp, int port)
+  Socket getConnection(int dhcp, int port)
+      throws AS400SecurityException, IOException {
+    if (connectionLock_ != null) {
+      connectionLock_.lock();
+      try {
+        return getConnectionLocked(dhcp, port);
+      } finally {
+        connectionLock_.unlock();
+      }
+    }
+    synchronized (this) {
+      return getConnectionLocked(dhcp, port);
+    }
+  }
+
+  private Socket getConnectionLocked(int dhcp, int port)
       throws AS400SecurityException, IOException {
     if (Trace.traceOn_)
       Trace.log(Trace.DIAGNOSTIC, "Establishing connection to system at port:",
@@ -1171,7 +1222,22 @@ public class AS400ImplRemote implements AS400Impl {
   // is ignored.
   // @N5A Add this interface for L1C for DHCP already listens on 942 of
   // localhost for STRTCPSVR
-  synchronized Socket getConnection(int dhcp, int port,
+  Socket getConnection(int dhcp, int port,
+      boolean forceNonLocalhost) throws AS400SecurityException, IOException {
+    if (connectionLock_ != null) {
+      connectionLock_.lock();
+      try {
+        return getConnectionLocked(dhcp, port, forceNonLocalhost);
+      } finally {
+        connectionLock_.unlock();
+      }
+    }
+    synchronized (this) {
+      return getConnectionLocked(dhcp, port, forceNonLocalhost);
+    }
+  }
+
+  private Socket getConnectionLocked(int dhcp, int port,
       boolean forceNonLocalhost) throws AS400SecurityException, IOException {
     if (Trace.traceOn_)
       Trace.log(Trace.DIAGNOSTIC, "Establishing connection to system at port:",
@@ -1299,7 +1365,25 @@ public class AS400ImplRemote implements AS400Impl {
 
   // Get AS400Server object connected to indicated service. You can get either
   // an existing connection or ask for a new connection.
-  synchronized AS400Server getConnection(int service, int overridePort,
+  AS400Server getConnection(int service, int overridePort,
+      boolean forceNewConnection, boolean skipSignonServer )
+      throws AS400SecurityException, IOException {
+    if (connectionLock_ != null) {
+      connectionLock_.lock();
+      try {
+        return getConnectionLocked(service, overridePort, forceNewConnection,
+            skipSignonServer);
+      } finally {
+        connectionLock_.unlock();
+      }
+    }
+    synchronized (this) {
+      return getConnectionLocked(service, overridePort, forceNewConnection,
+          skipSignonServer);
+    }
+  }
+
+  private AS400Server getConnectionLocked(int service, int overridePort,
       boolean forceNewConnection, boolean skipSignonServer )
       throws AS400SecurityException, IOException {
     if (Trace.traceOn_)
@@ -1330,9 +1414,15 @@ public class AS400ImplRemote implements AS400Impl {
       }
     }
 
+    // DDM replies are not framed the same way as the client access replies, so
+    // record level access always uses its own read thread.
+    // Virtual threads make the read thread per connection cheap, so the
+    // multiplexed reader is not used with them.
+    boolean multiplexed = threadUsed_ && service != AS400.RECORDACCESS
+        && AS400MultiplexedReader.isEnabled() && !AS400Server.virtualThreads_;
     SocketContainer socketContainer = PortMapper.getServerSocket(
         (systemNameLocal_) ? "localhost" : systemName_, service, overridePort, 
-        useSSLConnection_, socketProperties_, mustUseNetSockets_);
+        useSSLConnection_, socketProperties_, mustUseNetSockets_, multiplexed);
     int connectionID = socketContainer.hashCode();
     String jobString = "";
 
@@ -1497,7 +1587,10 @@ public class AS400ImplRemote implements AS400Impl {
     // the AS400Server object before passing it back to the caller.
 
     // Construct a new server...
-    if (threadUsed_) {
+    if (multiplexed && socketContainer.getChannel() != null) {
+      server = new AS400MultiplexedServer(this, service, socketContainer,
+          jobString);
+    } else if (threadUsed_) {
       server = new AS400ThreadedServer(this, service, socketContainer,
           jobString);
     } else {
@@ -3380,7 +3473,22 @@ public class AS400ImplRemote implements AS400Impl {
   }
 
   // Connect to sign-on server.
-  private synchronized void signonConnect() throws AS400SecurityException,
+  private void signonConnect() throws AS400SecurityException, IOException {
+    if (connectionLock_ != null) {
+      connectionLock_.lock();
+      try {
+        signonConnectLocked();
+      } finally {
+        connectionLock_.unlock();
+      }
+      return;
+    }
+    synchronized (this) {
+      signonConnectLocked();
+    }
+  }
+
+  private void signonConnectLocked() throws AS400SecurityException,
       IOException {
 
     if (signonServer_ == null) {
@@ -3465,7 +3573,22 @@ public class AS400ImplRemote implements AS400Impl {
   }
 
   // Disconnect from sign-on server.
-  private synchronized void signonDisconnect() {
+  private void signonDisconnect() {
+    if (connectionLock_ != null) {
+      connectionLock_.lock();
+      try {
+        signonDisconnectLocked();
+      } finally {
+        connectionLock_.unlock();
+      }
+      return;
+    }
+    synchronized (this) {
+      signonDisconnectLocked();
+    }
+  }
+
+  private void signonDisconnectLocked() {
     if (signonServer_ != null) {
       try {
         if (Trace.traceOn_)
@@ -798,6 +798,19 @@ implements Connection
     throws SQLException;
 
 
+    //@SCA
+    /**
+    Offers a prepared statement that the application has closed to the
+    statement cache.  The statement has already been closed with
+    closeCached().  If the cache does not keep it, or keeps it in place
+    of another statement, the statement left out is closed on the system.
+
+    @param   statement   The statement.
+    **/
+     abstract     void cacheStatement (AS400JDBCPreparedStatementImpl statement)
+    throws SQLException;
+
+
     // @A3D - Moved this logic up into AS400JDBCDriver:
     //    private void open ()
     //        throws SQLException
@@ -1305,6 +1318,22 @@ implements Connection
     abstract DBReplyRequestedDS receiveMoreData()
     throws SQLException;
 
+    // Sends a request without waiting for its reply.  The reply
+    // is later retrieved using receiveDeferred() and the returned
+    // correlation id.  Requests from other statements may be sent
+    // and received in the meantime; the system still replies to
+    // them in the order they were sent.
+    abstract int sendAndDeferReceive (DBBaseRequestDS request, int id)
+    throws SQLException;
+
+    // Receives the reply to a request sent with sendAndDeferReceive().
+    abstract DBReplyRequestedDS receiveDeferred (int correlationId)
+    throws SQLException;
+
+    // Discards the reply to a request sent with sendAndDeferReceive(),
+    // without waiting for it.
+    abstract void discardDeferred (int correlationId);
+
 
     // @E4C
     /**
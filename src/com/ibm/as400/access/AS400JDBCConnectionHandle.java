@@ -762,6 +762,18 @@ implements Connection //@A5A
     connection_.notifyClose(statement, id);
   }
 
+  /**
+  *  Offers a closed prepared statement to the statement cache of the connection.
+  *
+  *  @param   statement   The statement.
+  **/
+  void cacheStatement (AS400JDBCPreparedStatementImpl statement)
+  throws SQLException
+  {
+    validateConnection();
+    connection_.cacheStatement(statement);
+  }
+
   /**
   *  Posts a warning for the connection.
   *
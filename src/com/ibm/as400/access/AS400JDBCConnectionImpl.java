@@ -225,6 +225,8 @@ extends AS400JDBCConnection
 
     //counter to keep track of number of open statements
     private int statementCount_ = 0;                                    //@K1A
+    // prepared statements kept open after close, when "statement cache size" is set
+    private JDPreparedStatementCache statementCache_;                   //@SCA
     private boolean thousandStatements_ = false;                        //@K1A
 
     private String qaqqiniLibrary_ = null;                              //@K2A
@@ -557,6 +559,24 @@ extends AS400JDBCConnection
         // partial close (moved rollback and closing of all the statements).     @E1
         pseudoClose();
 
+        // Close the cached statements on the system.                           @SCA
+        if (statementCache_ != null)                                             //@SCA
+        {                                                                        //@SCA
+            AS400JDBCPreparedStatementImpl[] cached = statementCache_.removeAll(); //@SCA
+            for (int i = 0; i < cached.length; ++i)                              //@SCA
+            {                                                                    //@SCA
+                try                                                              //@SCA
+                {                                                                //@SCA
+                    cached[i].closeUncached();                                   //@SCA
+                }                                                                //@SCA
+                catch (SQLException e)                                           //@SCA
+                {                                                                //@SCA
+                    if (JDTrace.isTraceOn())                                     //@SCA
+                        JDTrace.logInformation (this, "Closing cached statement while closing connection failed: " + e.getMessage()); //@SCA
+                }                                                                //@SCA
+            }                                                                    //@SCA
+        }                                                                        //@SCA
+
         // Disconnect from the system.
         if (server_ != null)
         {
@@ -1817,6 +1837,45 @@ throws SQLException
 
 
 
+    //@SCA
+    /**
+    Offers a prepared statement that the application has closed to the
+    statement cache.  While the connection is being closed, and when the
+    cache does not keep the statement, it is closed on the system.
+
+    @param   statement   The statement.
+    @exception  SQLException    If an error occurs closing a statement.
+    **/
+    void cacheStatement (AS400JDBCPreparedStatementImpl statement)
+    throws SQLException
+    {
+        AS400JDBCPreparedStatementImpl uncached = statement;
+        if (statementCache_ != null && !closing_)
+            uncached = statementCache_.put(statement.cacheKey_, statement);
+        if (uncached != null)
+            uncached.closeUncached();
+    }
+
+
+
+    //@SCA
+    /**
+    Returns the statement cache, or null if the "statement cache size"
+    property is 0.
+    **/
+    private JDPreparedStatementCache getStatementCache ()
+    {
+        if (statementCache_ == null)
+        {
+            int size = properties_.getInt(JDProperties.STATEMENT_CACHE_SIZE);
+            if (size > 0)
+                statementCache_ = new JDPreparedStatementCache(size);
+        }
+        return statementCache_;
+    }
+
+
+
     /**
     Notifies the connection that a statement in its context has
     been closed.
@@ -2273,6 +2332,32 @@ throws SQLException
         if (!checkHoldabilityConstants(resultSetHoldability))                   //@F3A
             JDError.throwSQLException (this, JDError.EXC_ATTRIBUTE_VALUE_INVALID);    //@F3A
 
+        // Reuse a statement that is still prepared on the system.             @SCA
+        String cacheKey = null;                                                  //@SCA
+        JDPreparedStatementCache statementCache = getStatementCache();           //@SCA
+        if (statementCache != null && sql != null)                               //@SCA
+        {                                                                        //@SCA
+            cacheKey = JDPreparedStatementCache.getKey(sql, resultSetType, resultSetConcurrency, resultSetHoldability); //@SCA
+            AS400JDBCPreparedStatementImpl cached = statementCache.remove(cacheKey); //@SCA
+            if (cached != null)                                                  //@SCA
+            {                                                                    //@SCA
+                // The application gets a new object; the one it closed stays closed. @SCA
+                AS400JDBCPreparedStatementImpl statement = cached.checkOutCached(); //@SCA
+                synchronized (statements_)                                       //@SCA
+                {                                                                //@SCA
+                    int index = statements_.indexOf(cached);                     //@SCA
+                    if (index >= 0)                                              //@SCA
+                        statements_.setElementAt(statement, index);              //@SCA
+                    else                                                         //@SCA
+                    {                                                            //@SCA
+                        statements_.addElement(statement);                       //@SCA
+                        statementCount_++;                                       //@SCA
+                    }                                                            //@SCA
+                }                                                                //@SCA
+                return statement;                                                //@SCA
+            }                                                                    //@SCA
+        }                                                                        //@SCA
+
         // Create the statement.
         JDSQLStatement sqlStatement = new JDSQLStatement (sql,
                                                           properties_.getString (JDProperties.DECIMAL_SEPARATOR), true,
@@ -2287,6 +2372,9 @@ throws SQLException
                                                                                properties_.getString (JDProperties.PACKAGE_CRITERIA),
                                                                                resultSetType, resultSetConcurrency, resultSetHoldability, //@G4A
                                                                                AS400JDBCStatement.GENERATED_KEYS_NOT_SPECIFIED);                        //@G4A
+        statement.cacheKey_ = cacheKey;                         //@SCA
+        if (cacheKey != null)                                   //@SCA
+            statement.setPoolable(true);  // setPoolable(false) keeps it out of the cache. @SCA
         statements_.addElement(statement);                      // @DAC
         statementCount_++;                           //@K1A
         if(thousandStatements_ == false && statementCount_ == 1000)              //@K1A
@@ -3207,6 +3295,97 @@ throws SQLException
         return(DBReplyRequestedDS) reply;
     }
 
+    // Sends a request without waiting for its reply.  This is used to
+    // overlap the next fetch of a result set with the processing of
+    // the current block.
+    int sendAndDeferReceive (DBBaseRequestDS request, int id)
+    throws SQLException
+    {
+        checkCancel();
+        checkOpen();
+
+        int correlationId = 0;
+
+        try
+        {
+            request.setBasedOnORSHandle (0);
+
+            if (dataCompression_ == DATA_COMPRESSION_RLE_ && !disableCompression_)
+            {
+                request.addOperationResultBitmap(DBBaseRequestDS.ORS_BITMAP_REQUEST_RLE_COMPRESSION);
+                request.addOperationResultBitmap(DBBaseRequestDS.ORS_BITMAP_REPLY_RLE_COMPRESSION);
+                request.compress();
+            }
+
+            DataStream actualRequest;
+            synchronized(heldRequestsLock_)
+            {
+                if (heldRequests_ != null)
+                    actualRequest = new DBConcatenatedRequestDS(heldRequests_, request);
+                else
+                    actualRequest = request;
+                heldRequests_ = null;
+
+                correlationId = server_.send(actualRequest);
+            }
+
+            if (DEBUG_COMM_TRACE_ > 0)
+                debug (request);
+        }
+        catch (IOException e)
+        {
+            server_ = null;
+            JDError.throwSQLException (this, JDError.EXC_COMMUNICATION_LINK_FAILURE, e);
+        }
+        catch (Exception e)
+        {
+            JDError.throwSQLException (this, JDError.EXC_INTERNAL, e);
+        }
+
+        return correlationId;
+    }
+
+    // Receives the reply to a request sent with sendAndDeferReceive().
+    // The lock is not held while waiting, so other statements can use
+    // the connection; replies are matched by correlation id.
+    DBReplyRequestedDS receiveDeferred (int correlationId)
+    throws SQLException
+    {
+        checkOpen();
+
+        DBReplyRequestedDS reply = null;
+
+        try
+        {
+            reply = (DBReplyRequestedDS)server_.receive(correlationId);
+            reply.parse(dataCompression_);
+
+            if (DEBUG_COMM_TRACE_ > 0)
+                debug (reply);
+        }
+        catch (IOException e)
+        {
+            server_ = null;
+            JDError.throwSQLException (this, JDError.EXC_COMMUNICATION_LINK_FAILURE, e);
+        }
+        catch (Exception e)
+        {
+            JDError.throwSQLException (this, JDError.EXC_INTERNAL, e);
+        }
+
+        return reply;
+    }
+
+    // Discards the reply to a request sent with sendAndDeferReceive().
+    // The reply is dropped by the server when it arrives, so this does
+    // not wait for it, and can be called from a finalizer.
+    void discardDeferred (int correlationId)
+    {
+        AS400Server server = server_;
+        if (server != null)
+            server.discardReply(correlationId);
+    }
+
     //@DA2 - sew added new receive method.
     public DBReplyRequestedDS receiveMoreData()
     throws SQLException{
@@ -6166,6 +6345,8 @@ endif */
     }
     newConnection.statements_ = statements_; 
     statements_ = new Vector(); 
+    newConnection.statementCache_ = statementCache_;   //@SCA
+    statementCache_ = null;                            //@SCA
     
     
     
@@ -1240,6 +1240,20 @@ endif */
 
   }
 
+  synchronized void cacheStatement(AS400JDBCPreparedStatementImpl statement)
+      throws SQLException {
+    boolean retryOperation = true;
+    while (retryOperation) {
+      try {
+        currentConnection_.cacheStatement(statement);
+        retryOperation = false;
+      } catch (SQLException e) {
+        retryOperation = handleException(e);
+      }
+    }
+
+  }
+
   public synchronized void notifyClose(AS400JDBCStatement statement, int id)
       throws SQLException {
     boolean retryOperation = true;
@@ -1722,6 +1736,21 @@ endif */
 
   }
 
+  // A deferred reply can only be received from the connection the request was
+  // sent on, so these are not retried after a reroute.  The receive is not
+  // synchronized so that other statements can use the connection while waiting.
+  synchronized int sendAndDeferReceive(DBBaseRequestDS request, int id) throws SQLException {
+    return currentConnection_.sendAndDeferReceive(request, id);
+  }
+
+  DBReplyRequestedDS receiveDeferred(int correlationId) throws SQLException {
+    return currentConnection_.receiveDeferred(correlationId);
+  }
+
+  void discardDeferred(int correlationId) {
+    currentConnection_.discardDeferred(correlationId);
+  }
+
   public synchronized DBReplyRequestedDS receiveMoreData() throws SQLException {
     boolean retryOperation = true;
     while (retryOperation) {
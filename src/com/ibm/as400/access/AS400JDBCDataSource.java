@@ -1350,6 +1350,17 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
         return properties_.getString(JDProperties.SORT_WEIGHT);
     }
 
+    /**
+    *  Returns the number of closed prepared statements each connection keeps
+    *  prepared for reuse.
+    *  @return The statement cache size.
+    *  The default value is 0, which means that statements are not cached.
+    **/
+    public int getStatementCacheSize()
+    {
+        return properties_.getInt(JDProperties.STATEMENT_CACHE_SIZE);
+    }
+
     /**
     *  Returns the time format used in time literals with SQL statements.
     *  @return The time format.
@@ -1730,6 +1741,17 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
         return properties_.getBoolean(JDProperties.DATA_TRUNCATION);
     }
 
+    /**
+    *  Indicates whether the parameters of a prepared statement batch are
+    *  converted to the system format when addBatch() is called.
+    *  @return true if the parameters are converted by addBatch(); false otherwise.
+    *  The default value is false.
+    **/
+    public boolean isEncodedBatch()
+    {
+        return properties_.getBoolean(JDProperties.ENCODED_BATCH);
+    }
+
     /**
     *  Indicates whether extended dynamic support is used.  Extended dynamic
     *  support provides a mechanism for caching dynamic SQL statements on
@@ -1828,6 +1850,27 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
         return properties_.getBoolean(JDProperties.JVM16_SYNCHRONIZE);
     }
 
+    /**
+    *  Indicates whether the block size of each cursor is tuned while rows are fetched.
+    *  @return true if the block size is tuned; false otherwise.
+    *  The default value is false.
+    **/
+    public boolean isAdaptiveBlockSize()
+    {
+        return properties_.getBoolean(JDProperties.ADAPTIVE_BLOCK_SIZE);
+    }
+
+    /**
+    *  Indicates whether the next block of rows of a forward-only result set is
+    *  requested while the application processes the current block.
+    *  @return true if the next block is fetched in the background; false otherwise.
+    *  The default value is false.
+    **/
+    public boolean isAsyncPrefetch()
+    {
+        return properties_.getBoolean(JDProperties.ASYNC_PREFETCH);
+    }
+
     // @A1A
     /**
     *  Indicates whether to delay closing cursors until subsequent requests.
@@ -2907,6 +2950,34 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
             JDTrace.logInformation (this, property + ": " + errors);  //@A8C
     }
 
+    /**
+    *  Sets whether the parameters of a prepared statement batch are converted
+    *  to the system format when addBatch() is called.  The batch then holds
+    *  no objects for its rows, and it is sent to the system each time it
+    *  reaches the maximum number of rows of a blocked insert, so that rows
+    *  added by addBatch() afterwards are sent while the application produces
+    *  them.  An error while sending a part of the batch is reported by
+    *  addBatch() and clears the batch.  The property only has an effect on
+    *  statements that can be sent as a blocked insert, update or delete.
+    *  @param encodedBatch true to convert the parameters in addBatch(); false otherwise.
+    *  The default value is false.
+    **/
+    public void setEncodedBatch(boolean encodedBatch)
+    {
+        Boolean oldValue = new Boolean(isEncodedBatch());
+        Boolean newValue = new Boolean(encodedBatch);
+
+        if (encodedBatch)
+            properties_.setString(JDProperties.ENCODED_BATCH, TRUE_);
+        else
+            properties_.setString(JDProperties.ENCODED_BATCH, FALSE_);
+
+        changes_.firePropertyChange("encodedBatch", oldValue, newValue);
+
+        if (JDTrace.isTraceOn())
+            JDTrace.logInformation (this, "encodedBatch: " + encodedBatch);
+    }
+
     /**
     *  Sets whether to use extended dynamic support.  Extended dynamic
     *  support provides a mechanism for caching dynamic SQL statements on
@@ -3105,6 +3176,55 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
             JDTrace.logInformation (this, property + ": " + value);      
     }
 
+    /**
+    *  Sets whether the block size of each cursor is tuned while rows are fetched.
+    *  The "block size" property is used for the first block.  After each
+    *  block, the size is adjusted from the observed bytes per row and the
+    *  round trip time of the fetch, between 8 and 512 kilobytes.  The
+    *  property has no effect when the "block size" property is 0.
+    *  @param adaptiveBlockSize true to tune the block size; false otherwise.
+               The default value is false.
+    **/
+    public void setAdaptiveBlockSize(boolean adaptiveBlockSize)
+    {
+        Boolean oldValue = new Boolean(isAdaptiveBlockSize());
+        Boolean newValue = new Boolean(adaptiveBlockSize);
+
+        if (adaptiveBlockSize)
+            properties_.setString(JDProperties.ADAPTIVE_BLOCK_SIZE, TRUE_);
+        else
+            properties_.setString(JDProperties.ADAPTIVE_BLOCK_SIZE, FALSE_);
+
+        changes_.firePropertyChange("adaptiveBlockSize", oldValue, newValue);
+
+        if (JDTrace.isTraceOn())
+            JDTrace.logInformation (this, "adaptiveBlockSize: " + adaptiveBlockSize);
+    }
+
+    /**
+    *  Sets whether the next block of rows of a forward-only result set is
+    *  requested while the application processes the current block.  This
+    *  hides the network round trip of each fetch on high latency links.
+    *  The property only has an effect when rows are fetched in blocks.
+    *  @param asyncPrefetch true to fetch the next block in the background; false otherwise.
+               The default value is false.
+    **/
+    public void setAsyncPrefetch(boolean asyncPrefetch)
+    {
+        Boolean oldValue = new Boolean(isAsyncPrefetch());
+        Boolean newValue = new Boolean(asyncPrefetch);
+
+        if (asyncPrefetch)
+            properties_.setString(JDProperties.ASYNC_PREFETCH, TRUE_);
+        else
+            properties_.setString(JDProperties.ASYNC_PREFETCH, FALSE_);
+
+        changes_.firePropertyChange("asyncPrefetch", oldValue, newValue);
+
+        if (JDTrace.isTraceOn())
+            JDTrace.logInformation (this, "asyncPrefetch: " + asyncPrefetch);
+    }
+
     // @A1A
     /**
     *  Sets whether to delay closing cursors until subsequent requests.
@@ -4174,6 +4294,33 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
             JDTrace.logInformation (this, property + ": " + sortWeight);  //@A8C
     }
 
+    /**
+    *  Sets the number of closed prepared statements each connection keeps
+    *  prepared for reuse.  When an application closes a prepared statement,
+    *  the connection keeps it prepared on the system.  A later prepareStatement()
+    *  with the same SQL text and result set attributes returns it without a
+    *  request to the system.  When more statements are closed than the cache
+    *  holds, the least recently closed statement is closed on the system.
+    *  Statements created with auto-generated keys or column lists, and callable
+    *  statements, are not cached.  A statement must not be used after it is closed.
+    *  @param statementCacheSize The statement cache size.  The default value is 0,
+    *  which means that statements are not cached.
+    **/
+    public void setStatementCacheSize(int statementCacheSize)
+    {
+        String property = "statementCacheSize";
+        if (statementCacheSize < 0)
+            throw new ExtendedIllegalArgumentException(property, ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+        int old = getStatementCacheSize();
+        properties_.setString(JDProperties.STATEMENT_CACHE_SIZE, Integer.toString(statementCacheSize));
+
+        changes_.firePropertyChange(property, old, statementCacheSize);
+
+        if (JDTrace.isTraceOn())
+            JDTrace.logInformation (this, property + ": " + statementCacheSize);
+    }
+
     /**
     *  Sets whether a thread is used.
     *  @param threadUsed true if a thread is used; false otherwise.
@@ -804,6 +804,38 @@ enableSeamlessFailover .setConstrained(false);
 enableSeamlessFailover .setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_ENABLE_SEAMLESS_FAILOVER",null));                
 enableSeamlessFailover .setShortDescription(AS400JDBCDriver.getResource("ENABLE_SEAMLESS_FAILOVER_DESC",null));                
 
+PropertyDescriptor adaptiveBlockSize  = 
+new PropertyDescriptor("adaptiveBlockSize", beanClass, 
+    "isAdaptiveBlockSize","setAdaptiveBlockSize"); 
+adaptiveBlockSize.setBound(true);                                                                        
+adaptiveBlockSize .setConstrained(false);                                                                 
+adaptiveBlockSize .setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_ADAPTIVE_BLOCK_SIZE",null));                
+adaptiveBlockSize .setShortDescription(AS400JDBCDriver.getResource("ADAPTIVE_BLOCK_SIZE_DESC",null));                
+
+PropertyDescriptor statementCacheSize  = 
+new PropertyDescriptor("statementCacheSize", beanClass, 
+    "getStatementCacheSize","setStatementCacheSize"); 
+statementCacheSize.setBound(true);                                                                        
+statementCacheSize .setConstrained(false);                                                                 
+statementCacheSize .setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_STATEMENT_CACHE_SIZE",null));                
+statementCacheSize .setShortDescription(AS400JDBCDriver.getResource("STATEMENT_CACHE_SIZE_DESC",null));                
+
+PropertyDescriptor encodedBatch  = 
+new PropertyDescriptor("encodedBatch", beanClass, 
+    "isEncodedBatch","setEncodedBatch"); 
+encodedBatch.setBound(true);                                                                        
+encodedBatch .setConstrained(false);                                                                 
+encodedBatch .setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_ENCODED_BATCH",null));                
+encodedBatch .setShortDescription(AS400JDBCDriver.getResource("ENCODED_BATCH_DESC",null));                
+
+PropertyDescriptor asyncPrefetch  = 
+new PropertyDescriptor("asyncPrefetch", beanClass, 
+    "isAsyncPrefetch","setAsyncPrefetch"); 
+asyncPrefetch.setBound(true);                                                                        
+asyncPrefetch .setConstrained(false);                                                                 
+asyncPrefetch .setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_ASYNC_PREFETCH",null));                
+asyncPrefetch .setShortDescription(AS400JDBCDriver.getResource("ASYNC_PREFETCH_DESC",null));                
+
 
 
             
@@ -823,7 +855,8 @@ enableSeamlessFailover .setShortDescription(AS400JDBCDriver.getResource("ENABLE_
                 timestampFormat , useDrdaMetadataVersion , portNumber, 
                 enableClientAffinitiesList,clientRerouteAlternateServerName,
                 clientRerouteAlternatePortNumber, affinityFailbackInterval, 
-                maxRetriesForClientReroute, retryIntervalForClientReroute, enableSeamlessFailover
+                maxRetriesForClientReroute, retryIntervalForClientReroute, enableSeamlessFailover,
+                asyncPrefetch, adaptiveBlockSize, statementCacheSize, encodedBatch
             }; //@540 @550 //@DFA //@pdc //@AC1 //@igwrn //@pw3 //@cc1 //@dmy //@STIMEOUT
 
         
@@ -1553,6 +1553,17 @@ static final String copyright = "Copyright (C) 2005-2010 International Business
     return properties_.getString(JDProperties.SORT_WEIGHT);
   }
 
+  /**
+   Returns the number of closed prepared statements each connection keeps
+   prepared for reuse.
+   @return The statement cache size.
+   The default value is 0, which means that statements are not cached.
+   **/
+  public int getStatementCacheSize()
+  {
+    return properties_.getInt(JDProperties.STATEMENT_CACHE_SIZE);
+  }
+
   /**
    Returns the time format used in time literals with SQL statements.
    @return The time format.
@@ -2060,6 +2071,17 @@ static final String copyright = "Copyright (C) 2005-2010 International Business
     return properties_.getBoolean(JDProperties.DATA_TRUNCATION);
   }
 
+  /**
+   Indicates whether the parameters of a prepared statement batch are
+   converted to the system format when addBatch() is called.
+   @return true if the parameters are converted by addBatch(); false otherwise.
+   The default value is false.
+   **/
+  public boolean isEncodedBatch()
+  {
+    return properties_.getBoolean(JDProperties.ENCODED_BATCH);
+  }
+
   /**
    Indicates whether extended dynamic support is used.  Extended dynamic
    support provides a mechanism for caching dynamic SQL statements on
@@ -2186,6 +2208,27 @@ static final String copyright = "Copyright (C) 2005-2010 International Business
       return properties_.getBoolean(JDProperties.JVM16_SYNCHRONIZE);
   }
   
+  /**
+   Indicates whether the block size of each cursor is tuned while rows are fetched.
+   @return true if the block size is tuned; false otherwise.
+   The default value is false.
+   **/
+  public boolean isAdaptiveBlockSize()
+  {
+    return properties_.getBoolean(JDProperties.ADAPTIVE_BLOCK_SIZE);
+  }
+
+  /**
+   Indicates whether the next block of rows of a forward-only result set is
+   requested while the application processes the current block.
+   @return true if the next block is fetched in the background; false otherwise.
+   The default value is false.
+   **/
+  public boolean isAsyncPrefetch()
+  {
+    return properties_.getBoolean(JDProperties.ASYNC_PREFETCH);
+  }
+
   /**
    Indicates whether to delay closing cursors until subsequent requests.
    @return true to delay closing cursors until subsequent requests; false otherwise.
@@ -3087,6 +3130,23 @@ static final String copyright = "Copyright (C) 2005-2010 International Business
     properties_.setString(JDProperties.ERRORS, errors);
   }
 
+  /**
+   Sets whether the parameters of a prepared statement batch are converted
+   to the system format when addBatch() is called.  The batch then holds
+   no objects for its rows, and it is sent to the system each time it
+   reaches the maximum number of rows of a blocked insert.  An error while
+   sending a part of the batch is reported by addBatch() and clears the batch.
+   @param encodedBatch true to convert the parameters in addBatch(); false otherwise.
+   The default value is false.
+   **/
+  public void setEncodedBatch(boolean encodedBatch)
+  {
+    if (encodedBatch)
+      properties_.setString(JDProperties.ENCODED_BATCH, TRUE_);
+    else
+      properties_.setString(JDProperties.ENCODED_BATCH, FALSE_);
+  }
+
   /**
    Sets whether to use extended dynamic support.  Extended dynamic
    support provides a mechanism for caching dynamic SQL statements on
@@ -3231,6 +3291,39 @@ static final String copyright = "Copyright (C) 2005-2010 International Business
           properties_.setString(JDProperties.JVM16_SYNCHRONIZE, FALSE_);      
   }
 
+  /**
+   Sets whether the block size of each cursor is tuned while rows are fetched.
+   The "block size" property is used for the first block.  After each
+   block, the size is adjusted from the observed bytes per row and the
+   round trip time of the fetch, between 8 and 512 kilobytes.  The
+   property has no effect when the "block size" property is 0.
+   @param adaptiveBlockSize true to tune the block size; false otherwise.
+   The default value is false.
+   **/
+  public void setAdaptiveBlockSize(boolean adaptiveBlockSize)
+  {
+    if (adaptiveBlockSize)
+      properties_.setString(JDProperties.ADAPTIVE_BLOCK_SIZE, TRUE_);
+    else
+      properties_.setString(JDProperties.ADAPTIVE_BLOCK_SIZE, FALSE_);
+  }
+
+  /**
+   Sets whether the next block of rows of a forward-only result set is
+   requested while the application processes the current block.  This
+   hides the network round trip of each fetch on high latency links.
+   The property only has an effect when rows are fetched in blocks.
+   @param asyncPrefetch true to fetch the next block in the background; false otherwise.
+   The default value is false.
+   **/
+  public void setAsyncPrefetch(boolean asyncPrefetch)
+  {
+    if (asyncPrefetch)
+      properties_.setString(JDProperties.ASYNC_PREFETCH, TRUE_);
+    else
+      properties_.setString(JDProperties.ASYNC_PREFETCH, FALSE_);
+  }
+
   /**
    Sets whether to delay closing cursors until subsequent requests.
    @param lazyClose true to delay closing cursors until subsequent requests; false otherwise.
@@ -4180,6 +4273,25 @@ static final String copyright = "Copyright (C) 2005-2010 International Business
     properties_.setString(JDProperties.SORT_WEIGHT, sortWeight);
   }
 
+  /**
+   Sets the number of closed prepared statements each connection keeps
+   prepared for reuse.  When an application closes a prepared statement,
+   the connection keeps it prepared on the system.  A later prepareStatement()
+   with the same SQL text and result set attributes returns it without a
+   request to the system.  Pooled connections keep their cached statements
+   while they are in the pool.  A statement must not be used after it is closed.
+   @param statementCacheSize The statement cache size.  The default value is 0,
+   which means that statements are not cached.
+   **/
+  public void setStatementCacheSize(int statementCacheSize)
+  {
+    final String property = "statementCacheSize";
+    if (statementCacheSize < 0)
+      throw new ExtendedIllegalArgumentException(property, ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+    properties_.setString(JDProperties.STATEMENT_CACHE_SIZE, Integer.toString(statementCacheSize));
+  }
+
   /**
    Sets whether a thread is used.
    @param threadUsed true if a thread is used; false otherwise.
@@ -100,7 +100,7 @@ import java.util.Vector;
 // so don't do anything in that case. Also, the database supports returning
 // only integers so the metadata will always be an SQLInteger.
 //
-public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement  {
+public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement implements Cloneable {
   static final String copyright2 = "Copyright (C) 1997-2006 International Business Machines Corporation and others.";
 
   private int descriptorHandle_;
@@ -130,7 +130,17 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
                                 // header
   boolean[] parameterSet_; // private protected
   private boolean prepared_;
+  // The key in the statement cache of the connection, or null if the
+  // statement is not cached when it is closed.
+  String cacheKey_; // @SCA
   private JDServerRow resultRow_;
+  // @CBA The rows of the current batch that are already converted to the
+  // parameter marker data format, when the "encoded batch" property is set.
+  private JDBatchBuffer batchBuffer_;
+  private boolean batchEncoding_ = false; // Rows added to the batch go to batchBuffer_
+  private boolean flushingBatchBuffer_ = false; // commonExecuteBefore() sends batchBuffer_
+  private int batchRowsFlushed_ = 0; // Rows of the current batch already executed
+  private int batchUpdateCount_ = 0; // The update count of those rows
   SQLInteger returnValueParameter_; // private protected @F2A
   JDSQLStatement sqlStatement_; // @G4c (used by callable statement)
   boolean useReturnValueParameter_; // private protected @F2A
@@ -380,6 +390,12 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
   public void addBatch() throws SQLException {
     synchronized (internalLock_) {
       checkOpen();
+      // @CBA Convert the row right away if the batch can be sent that way.
+      if (isBatchEmpty())
+        batchEncoding_ = canEncodeBatch();
+      if (batchEncoding_ && addEncodedBatch())
+        return;
+
       Object[] parameters = new Object[parameterCount_];
       for (int i = 0; i < parameterCount_; ++i) {
         // Statements with output or inout parameters are not allowed in the
@@ -452,6 +468,296 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
     }
   }
 
+  // @CBA
+  /**
+   * Converts the parameters to the current batch, in the format of the
+   * parameter marker data.
+   * 
+   * @return true if the row was added; false if the value of a parameter does
+   *         not fit the parameter descriptor. The batch is then no longer
+   *         encoded, and the row must be added as an object array.
+   * @exception SQLException
+   *              If an input parameter has not been set, a value can not be
+   *              converted, or the batch is full and can not be executed.
+   **/
+  private boolean addEncodedBatch() throws SQLException {
+    for (int i = 0; i < parameterCount_; ++i) {
+      if (!parameterSet_[i])
+        JDError.throwSQLException(this, JDError.EXC_PARAMETER_COUNT_MISMATCH);
+    }
+
+    int rowOffset = batchBuffer_.startRow();
+    byte[] data = batchBuffer_.getData();
+    boolean compressed = batchBuffer_.isCompressed();
+    int offset = rowOffset;
+    int variableLength = 0;
+    for (int i = 0; i < parameterCount_; ++i) {
+      SQLData sqlData = parameterRow_.getSQLData(i + 1);
+      if (!compressed)
+        offset = rowOffset + parameterOffsets_[i];
+
+      if (parameterNulls_[i] || parameterDefaults_[i] || parameterUnassigned_[i]) {
+        if (parameterNulls_[i])
+          batchBuffer_.setIndicator(i, INDICATOR_NULL);
+        else if (parameterDefaults_[i])
+          batchBuffer_.setIndicator(i, INDICATOR_DEFAULT);
+        else
+          batchBuffer_.setIndicator(i, INDICATOR_UNASSIGNED);
+
+        // The row was set to zero by startRow().
+        if (compressed && sqlData instanceof SQLVariableCompressible) {
+          offset += 2;
+          variableLength += 2;
+        } else {
+          offset += parameterLengths_[i];
+        }
+      } else {
+        batchBuffer_.setIndicator(i, (short) 0);
+        ConvTable ccsidConverter = connection_.getConverter(parameterRow_
+            .getCCSID(i + 1));
+        int parameterOffset = offset;
+        try {
+          if (compressed && sqlData instanceof SQLVariableCompressible) {
+            int written = ((SQLVariableCompressible) sqlData)
+                .convertToCompressedBytes(data, offset, ccsidConverter);
+            offset += written;
+            variableLength += written;
+          } else {
+            sqlData.convertToRawBytes(data, offset, ccsidConverter);
+            offset += parameterLengths_[i];
+          }
+        } catch (SQLException e) {
+          // The descriptor must be changed for this value. That is done by
+          // commonExecuteBefore() for rows that are not encoded.
+          if (e.getSQLState().trim().equals("HY000")
+              && e.getMessage().indexOf("Change Descriptor") != -1) {
+            if (JDTrace.isTraceOn())
+              JDTrace.logInformation(this, "Parameter " + (i + 1)
+                  + " does not fit the descriptor, the rest of the batch is not encoded");
+            batchEncoding_ = false;
+            return false;
+          }
+          throw e;
+        }
+
+        if (testDataTruncation(i + 1, sqlData))
+          sqlData.validateRawTruncatedData(data, parameterOffset, ccsidConverter);
+      }
+    }
+    batchBuffer_.endRow(compressed ? offset - rowOffset : parameterTotalSize_,
+        variableLength);
+
+    if (JDTrace.isTraceOn())
+      JDTrace.logInformation(this, "addBatch()");
+
+    // Send the rows as soon as there are enough for one request.
+    if (batchBuffer_.getRowCount() >= connection_.getMaximumBlockedInputRows())
+      flushBatchBuffer();
+    return true;
+  }
+
+  // @CBA
+  /**
+   * Indicates if the parameter rows of a batch can be converted when they are
+   * added, instead of when the batch is executed.
+   * 
+   * @return true if the rows can be converted; false otherwise.
+   * @exception SQLException
+   *              If an error occurs.
+   **/
+  private boolean canEncodeBatch() throws SQLException {
+    if (!connection_.getProperties().getBoolean(JDProperties.ENCODED_BATCH)
+        || !prepared_ || parameterCount_ == 0 || !sqlStatement_.canBatch()
+        || useReturnValueParameter_ || parameterRow_.containsArray_
+        || containsLocator_ == LOCATOR_FOUND)
+      return false;
+
+    for (int i = 0; i < parameterCount_; ++i) {
+      if (parameterRow_.isOutput(i + 1) || !parameterRow_.isInput(i + 1))
+        return false;
+      int sqlType = parameterRow_.getSQLData(i + 1).getSQLType();
+      if (sqlType == SQLData.CLOB_LOCATOR || sqlType == SQLData.BLOB_LOCATOR
+          || sqlType == SQLData.DBCLOB_LOCATOR
+          || sqlType == SQLData.NCLOB_LOCATOR
+          || sqlType == SQLData.XML_LOCATOR) {
+        containsLocator_ = LOCATOR_FOUND;
+        return false;
+      }
+    }
+    containsLocator_ = LOCATOR_NOT_FOUND;
+
+    // The offsets and lengths are set by the first execute. Set them the same
+    // way if the statement has not been executed yet.
+    if (descriptorHandle_ == 0) {
+      parameterTotalSize_ = 0;
+      for (int i = 0; i < parameterCount_; ++i) {
+        parameterLengths_[i] = parameterRow_.getLength(i + 1);
+        parameterOffsets_[i] = parameterTotalSize_;
+        parameterTotalSize_ += parameterLengths_[i];
+      }
+    }
+
+    boolean compressed = connection_.useExtendedFormats()
+        && useVariableFieldInsertCompression();
+    if (batchBuffer_ == null
+        || batchBuffer_.getColumnCount() != parameterCount_
+        || batchBuffer_.getRowSize() != parameterTotalSize_
+        || batchBuffer_.isCompressed() != compressed)
+      batchBuffer_ = new JDBatchBuffer(parameterCount_, parameterTotalSize_,
+          compressed);
+    return true;
+  }
+
+  // @CBA
+  /**
+   * Clears the encoded rows of the current batch.
+   **/
+  private void clearBatchBuffer() {
+    if (batchBuffer_ != null)
+      batchBuffer_.clear();
+    batchEncoding_ = false;
+    batchRowsFlushed_ = 0;
+    batchUpdateCount_ = 0;
+  }
+
+  // @CBA
+  /**
+   * Executes the encoded rows of the current batch. If this fails, the whole
+   * batch is cleared.
+   * 
+   * @exception SQLException
+   *              If an error occurs.
+   **/
+  private void flushBatchBuffer() throws SQLException {
+    int rowCount = batchBuffer_.getRowCount();
+    if (JDTrace.isTraceOn())
+      JDTrace.logInformation(this, "Begin batching via server-side with "
+          + rowCount + " encoded rows.");
+    batchExecute_ = true;
+    flushingBatchBuffer_ = true;
+    executingBatchedStatement_ = true;
+    rowsInserted_ = 0;
+    try {
+      commonExecute(sqlStatement_, resultRow_);
+      if (resultSet_ != null) {
+        closeResultSet(JDCursor.REUSE_YES);
+        JDError.throwSQLException(this, JDError.EXC_CURSOR_STATE_INVALID);
+      }
+      batchRowsFlushed_ += rowCount;
+      batchUpdateCount_ += updateCount_;
+    } catch (SQLException e) {
+      // As in executeBatch(), the host server only reports how many rows
+      // were inserted before the error.
+      int[] counts = new int[batchRowsFlushed_ + rowsInserted_];
+      for (int i = 0; i < counts.length; i++)
+        counts[i] = Statement.SUCCESS_NO_INFO;
+      clearBatchBuffer();
+      if (batch_ != null)
+        batch_.removeAllElements();
+      throw newBatchUpdateException(e, counts);
+    } finally {
+      batchExecute_ = false;
+      flushingBatchBuffer_ = false;
+      executingBatchedStatement_ = false;
+      batchBuffer_.clear();
+    }
+  }
+
+  // @CBA
+  /**
+   * Indicates if no rows have been added to the current batch.
+   * 
+   * @return true if the batch is empty; false otherwise.
+   **/
+  private boolean isBatchEmpty() {
+    return (batch_ == null || batch_.size() == 0) && batchRowsFlushed_ == 0
+        && (batchBuffer_ == null || batchBuffer_.getRowCount() == 0);
+  }
+
+  // @CBA
+  /**
+   * Returns a BatchUpdateException for an error that occurred while executing
+   * a batch.
+   * 
+   * @param e
+   *          The error.
+   * @param counts
+   *          The update counts of the statements that were executed.
+   * @return The exception.
+   **/
+  private static BatchUpdateException newBatchUpdateException(SQLException e,
+      int[] counts) {
+    BatchUpdateException batchUpdateException = new BatchUpdateException(
+        e.getMessage(), e.getSQLState(), e.getErrorCode(), counts);
+    try {
+      batchUpdateException.initCause(e);
+    } catch (java.lang.NoSuchMethodError e2) {
+    }
+    return batchUpdateException;
+  }
+
+  // @CBA
+  /**
+   * Writes the encoded rows of the current batch as the parameter marker data
+   * of an execute request.
+   * 
+   * @param request
+   *          The execute request.
+   * @exception DBDataStreamException
+   *              If there is not enough space in the request.
+   * @exception SQLException
+   *              If an error occurs.
+   **/
+  private void writeBatchBuffer(DBSQLRequestDS request)
+      throws DBDataStreamException, SQLException {
+    int rowCount = batchBuffer_.getRowCount();
+    DBData parameterMarkerData;
+    if (connection_.useExtendedFormats())
+      parameterMarkerData = new DBExtendedData(rowCount, parameterCount_, 2,
+          parameterTotalSize_);
+    else
+      parameterMarkerData = new DBOriginalData(rowCount, parameterCount_, 2,
+          parameterTotalSize_);
+
+    int requestLengthOffset = 0;
+    if (batchBuffer_.isCompressed()) {
+      requestLengthOffset = request
+          .setParameterMarkerDataReserve(parameterMarkerData);
+      ((DBExtendedData) parameterMarkerData)
+          .setParameterMarkerInputCompression(true);
+    } else {
+      request.setParameterMarkerData(parameterMarkerData);
+    }
+    parameterMarkerData.setConsistencyToken(1);
+
+    int dataOffset = parameterMarkerData.getRowDataOffset(0);
+    batchBuffer_.copyTo(parameterMarkerData.getRawBytes(), dataOffset);
+
+    if (batchBuffer_.isCompressed()) {
+      int parametersLength = dataOffset
+          - ((DBExtendedData) parameterMarkerData).getRawOffset()
+          + batchBuffer_.getDataLength();
+      request.updateLength(requestLengthOffset, parametersLength);
+      // Same as for rows that are not encoded. //@L9A
+      if (batchBuffer_.getVariableDataLength() > (80 * parametersLength / 100))
+        disableRllCompression_ = true;
+    }
+  }
+
+  // @CBA
+  /**
+   * Clears the current batch of parameter sets.
+   * 
+   * @exception SQLException
+   *              If the statement is not open.
+   **/
+  public void clearBatch() throws SQLException {
+    synchronized (internalLock_) {
+      super.clearBatch();
+      clearBatchBuffer();
+    }
+  }
+
   // JDBC 2.0
   /**
    * Adds an SQL statement to the current batch of SQL statements.
@@ -645,6 +951,12 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
       if (isClosed())
         return;
 
+      // @SCA Keep the statement prepared if the connection caches statements.
+      if (cacheKey_ != null && closeCached()) {
+        connection_.cacheStatement(this);
+        return;
+      }
+
       // If a descriptor was created somewhere along
       // the lines, then delete it now.
       if (descriptorHandle_ != 0) {
@@ -679,10 +991,72 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
         descriptorHandle_ = 0;
       }
 
+      clearBatchBuffer(); // @CBA
+      batchBuffer_ = null; // @CBA
       super.close();
     }
   }
 
+  // @SCA
+  /**
+   * Checks out a statement taken from the statement cache of the connection.
+   * The application gets a copy, so the object it closed earlier stays
+   * closed and cannot reach the statement of the next owner.
+   * 
+   * @return The reopened copy of this statement.
+   **/
+  AS400JDBCPreparedStatementImpl checkOutCached() {
+    synchronized (internalLock_) {
+      AS400JDBCPreparedStatementImpl statement;
+      try {
+        statement = (AS400JDBCPreparedStatementImpl) clone();
+      } catch (CloneNotSupportedException e) {
+        throw new InternalErrorException(InternalErrorException.UNEXPECTED_EXCEPTION);
+      }
+      cacheKey_ = null;
+      statement.reopenCached();
+      return statement;
+    }
+  }
+
+  // @SCA
+  /**
+   * Reopens a statement taken from the statement cache of the connection.
+   * The parameters and the batch are cleared.
+   **/
+  void reopenCached() {
+    synchronized (internalLock_) {
+      super.reopenCached();
+      try {
+        clearParameters();
+        clearBatch();
+      } catch (SQLException e) {
+        // Not thrown; the statement is open.
+        if (JDTrace.isTraceOn())
+          JDTrace.logException(this, "reopenCached caught exception", e);
+      }
+      batchExecute_ = false;
+      if (JDTrace.isTraceOn())
+        JDTrace.logInformation(this, "Statement reused from the statement cache");
+    }
+  }
+
+  // @SCA
+  /**
+   * Closes a statement that the statement cache of the connection does not
+   * keep.  The statement is closed on the system.
+   * 
+   * @exception SQLException
+   *              If an error occurs.
+   **/
+  void closeUncached() throws SQLException {
+    synchronized (internalLock_) {
+      cacheKey_ = null;
+      super.reopenCached();
+      close();
+    }
+  }
+
   /**
    * Performs common operations needed after an execute.
    * 
@@ -893,6 +1267,12 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
             descriptorChangeNeeded = false; // Reset our flag every time through
                                             // the loop.
 
+            // @CBA The rows of an encoded batch are already converted.
+            if (flushingBatchBuffer_) {
+              writeBatchBuffer(request);
+              break;
+            }
+
             // Allocate the space for the Extended Parameter Marker Data @G9A
             // This is the amount of space for all of the rows' data and
             // indicators @G9A
@@ -1529,6 +1909,10 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
     synchronized (internalLock_) { // @F1A
       checkOpen();
 
+      if (batchRowsFlushed_ > 0
+          || (batchBuffer_ != null && batchBuffer_.getRowCount() > 0)) // @CBA
+        return executeEncodedBatch();
+
       if (batch_ == null || batch_.size() == 0)
         return new int[0];
 
@@ -1771,6 +2155,49 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
     }
   }
 
+  // @CBA
+  /**
+   * Runs the current batch when its rows were encoded by addBatch(). The rows
+   * that have not been sent yet are sent, followed by the rows that were
+   * added after the batch could no longer be encoded.
+   * 
+   * @return The update counts.
+   * @exception SQLException
+   *              If an error occurs.
+   **/
+  private int[] executeEncodedBatch() throws SQLException {
+    if (batchBuffer_.getRowCount() > 0)
+      flushBatchBuffer();
+
+    // See executeBatch() for the update counts.
+    int rowCount = batchRowsFlushed_;
+    int updateCount = Statement.SUCCESS_NO_INFO;
+    if (rowCount == batchUpdateCount_ && sqlStatement_.isInsert_)
+      updateCount = 1;
+    clearBatchBuffer();
+    executed_ = true;
+
+    int[] remaining;
+    try {
+      remaining = executeBatch();
+    } catch (BatchUpdateException e) {
+      int[] counts = e.getUpdateCounts();
+      int[] allCounts = new int[rowCount + counts.length];
+      for (int i = 0; i < rowCount; ++i)
+        allCounts[i] = updateCount;
+      System.arraycopy(counts, 0, allCounts, rowCount, counts.length);
+      throw newBatchUpdateException(e, allCounts);
+    }
+
+    int[] updateCounts = new int[rowCount + remaining.length];
+    for (int i = 0; i < rowCount; ++i)
+      updateCounts[i] = updateCount;
+    System.arraycopy(remaining, 0, updateCounts, rowCount, remaining.length);
+    if (JDTrace.isTraceOn())
+      JDTrace.logInformation(this, "Done batching.");
+    return updateCounts;
+  }
+
   /**
    * Runs the SQL statement that returns a single result set. This closes the
    * current result set and clears warnings before executing the SQL statement
@@ -19,6 +19,7 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.Clob;
@@ -2705,6 +2706,82 @@ implements ResultSet
 
 
 
+    /**
+    Returns the value of a column as a read-only ByteBuffer that
+    views the bytes in the reply from the system, without copying them.
+    The values are in their native IBM i format, as returned by getBytes().
+    For varying length types, the view starts after the length and
+    contains only the bytes of the value.
+
+    <p>The view is only valid until the cursor is moved or the result
+    set is closed, because the reply buffer is then reused.  Copy the
+    bytes out of the view to keep them.
+
+    <p>When the value cannot be viewed in place (for example, for a
+    result set returned by a DatabaseMetaData object, an updated value,
+    or a LOB), the bytes returned by getBytes() are wrapped instead.
+
+    <p>This method is an IBM extension; use ResultSet.unwrap() to reach it
+    from a pooled or proxied result set.
+
+    @param  columnIndex     The column index (1-based).
+    @return                 The column value or null if the value is SQL NULL.
+
+    @exception  SQLException    If the result set is not open,
+                                the cursor is not positioned on a row,
+                                the column index is not valid, or the
+                                requested conversion is not valid.
+    **/
+    public ByteBuffer getBytesView (int columnIndex)
+    throws SQLException
+    {
+        synchronized(internalLock_)
+        {
+            JDServerRow directRow = getDirectRow (columnIndex);
+            if(directRow != null)
+            {
+                int sqlType = directRow.getSQLType (columnIndex).getSQLType ();
+                if(sqlType != SQLData.BLOB && sqlType != SQLData.BLOB_LOCATOR
+                   && sqlType != SQLData.CLOB_LOCATOR && sqlType != SQLData.DBCLOB_LOCATOR
+                   && sqlType != SQLData.NCLOB_LOCATOR && sqlType != SQLData.XML_LOCATOR
+                   && sqlType != SQLData.ROWID)
+                {
+                    ByteBuffer view = directRow.getBytesView (columnIndex);
+                    if(view != null)
+                        return view;
+                }
+            }
+
+            byte[] value = getBytes (columnIndex);
+            return (value == null) ? null : ByteBuffer.wrap (value).asReadOnlyBuffer ();
+        }
+    }
+
+
+
+    /**
+    Returns the value of a column as a read-only ByteBuffer that
+    views the bytes in the reply from the system, without copying them.
+    To perform a case-sensitive search use a quoted String
+    for columnName as in: ResultSet.getBytesView("\"MixedCase\"").
+
+    @param  columnName  The column name.
+    @return             The column value or null if the value is SQL NULL.
+
+    @exception  SQLException    If the result set is not open,
+                                the cursor is not positioned on a row,
+                                the column name is not found, or the
+                                requested conversion is not valid.
+    @see #getBytesView(int)
+    **/
+    public ByteBuffer getBytesView (String columnName)
+    throws SQLException
+    {
+        return getBytesView (findColumn (columnName));
+    }
+
+
+
     // JDBC 2.0
     /**
     Returns the value of a column as a character stream.
@@ -2765,6 +2842,72 @@ implements ResultSet
 
 
 
+    /**
+    Returns the value of a column as a CharSequence.  For CHAR,
+    VARCHAR and LONG VARCHAR columns with a single-byte CCSID, the
+    characters are translated from the reply as they are read, so no
+    String is created.  This suits values that are only compared or
+    copied to another destination.  The value is the same as the value
+    returned by getString().
+
+    <p>A sequence that views the reply is only valid until the cursor is
+    moved or the result set is closed, because the reply buffer is then
+    reused.  Call toString() on it to keep the value.
+
+    <p>Other columns return the String returned by getString().
+
+    <p>This method is an IBM extension; use ResultSet.unwrap() to reach it
+    from a pooled or proxied result set.
+
+    @param  columnIndex     The column index (1-based).
+    @return                 The column value or null if the value is SQL NULL.
+
+    @exception  SQLException    If the result set is not open,
+                                the cursor is not positioned on a row,
+                                the column index is not valid, or the
+                                requested conversion is not valid.
+    **/
+    public CharSequence getCharSequence (int columnIndex)
+    throws SQLException
+    {
+        synchronized(internalLock_)
+        {
+            JDServerRow directRow = getDirectRow (columnIndex);
+            if(directRow != null)
+            {
+                int maxFieldSize = (statement_ == null) ? 0 : statement_.getMaxFieldSize ();
+                CharSequence value = directRow.getCharSequence (columnIndex, maxFieldSize);
+                if(value != null)
+                    return value;
+            }
+            return getString (columnIndex);
+        }
+    }
+
+
+
+    /**
+    Returns the value of a column as a CharSequence.
+    To perform a case-sensitive search use a quoted String
+    for columnName as in: ResultSet.getCharSequence("\"MixedCase\"").
+
+    @param  columnName  The column name.
+    @return             The column value or null if the value is SQL NULL.
+
+    @exception  SQLException    If the result set is not open,
+                                the cursor is not positioned on a row,
+                                the column name is not found, or the
+                                requested conversion is not valid.
+    @see #getCharSequence(int)
+    **/
+    public CharSequence getCharSequence (String columnName)
+    throws SQLException
+    {
+        return getCharSequence (findColumn (columnName));
+    }
+
+
+
     // JDBC 2.0
     /**
     Returns the value of a column as a Clob object.
@@ -3124,6 +3267,21 @@ implements ResultSet
     {
         synchronized(internalLock_)
         {                                            // @D1A
+            // DECIMAL and NUMERIC values that fit are decoded straight
+            // from the packed or zoned bytes, without a BigDecimal.
+            JDServerRow directRow = getDirectRow (columnIndex);
+            if(directRow != null && directRow.isDirectLong (columnIndex))
+            {
+                try
+                {
+                    return directRow.getLong (columnIndex);
+                }
+                catch(NumberFormatException e)
+                {
+                    // Not valid decimal data, report it the usual way below.
+                }
+            }
+
             // Get the data and check for SQL NULL.
             SQLData data = getValue (columnIndex);
             long value = (data == null) ? 0 : data.getLong ();
@@ -3762,19 +3920,8 @@ implements ResultSet
     private SQLData getValue (int columnIndex)
     throws SQLException
     {
-        checkOpen ();
-        clearCurrentValue ();
-
-        // Check that there is a current row.
-        if((positionValid_ == false) && (positionInsert_ == false))
-            JDError.throwSQLException (JDError.EXC_CURSOR_POSITION_INVALID);
+        checkValue (columnIndex);
 
-        // Validate The column index.
-        if(columnIndex < 1)
-            JDError.throwSQLException (JDError.EXC_DESCRIPTOR_INDEX_INVALID, columnIndex+"<1");
-        if (columnIndex > columnCount_)
-          JDError.throwSQLException (JDError.EXC_DESCRIPTOR_INDEX_INVALID, columnIndex+">"+columnCount_);
-          
         // Check if an update was made or we are on the insert
         // row.
         if(concurrency_ == CONCUR_UPDATABLE)
@@ -3814,6 +3961,64 @@ implements ResultSet
 
 
 
+    /**
+    Checks that a column of the current row can be read.
+
+    @param  columnIndex   The column index (1-based).
+
+    @exception  SQLException    If the result set is not open,
+                                the cursor is not positioned on a row,
+                                or the column index is not valid.
+    **/
+    private void checkValue (int columnIndex)
+    throws SQLException
+    {
+        checkOpen ();
+        clearCurrentValue ();
+
+        // Check that there is a current row.
+        if((positionValid_ == false) && (positionInsert_ == false))
+            JDError.throwSQLException (JDError.EXC_CURSOR_POSITION_INVALID);
+
+        // Validate The column index.
+        if(columnIndex < 1)
+            JDError.throwSQLException (JDError.EXC_DESCRIPTOR_INDEX_INVALID, columnIndex+"<1");
+        if (columnIndex > columnCount_)
+          JDError.throwSQLException (JDError.EXC_DESCRIPTOR_INDEX_INVALID, columnIndex+">"+columnCount_);
+    }
+
+
+
+    /**
+    Returns the row when the value of a column can be decoded directly
+    from the reply, without an SQLData object.  This is the case for a
+    row fetched from the system that is not SQL NULL, has no data mapping
+    error, and was not changed by an update method.
+
+    @param  columnIndex   The column index (1-based).
+    @return               The row, or null if getValue() must be used.
+
+    @exception  SQLException    If the result set is not open,
+                                the cursor is not positioned on a row,
+                                or the column index is not valid.
+    **/
+    private JDServerRow getDirectRow (int columnIndex)
+    throws SQLException
+    {
+        if(!(row_ instanceof JDServerRow) || concurrency_ == CONCUR_UPDATABLE || positionInsert_)
+            return null;
+
+        checkValue (columnIndex);
+
+        wasNull_ = row_.isNull (columnIndex);
+        wasDataMappingError_ = row_.isDataMappingError(columnIndex);
+        if(wasNull_ || wasDataMappingError_)
+            return null;
+        return (JDServerRow)row_;
+    }
+
+
+
     /**
     Tests if a DataTruncation occurred on the read of a piece of
     data and posts a DataTruncation warning if so.
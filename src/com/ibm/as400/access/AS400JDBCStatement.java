@@ -673,6 +673,94 @@ implements Statement
 
     }
 
+    //@SCA
+    /**
+    Closes the statement so that it can be kept in the statement cache of
+    the connection.  The result sets are closed, but the RPB and ORS are not
+    deleted and the connection is not notified, so the statement stays
+    prepared on the system.  reopenCached() makes it usable again.
+
+    @return     true if the statement was closed for the cache; false if it
+                must be closed normally.
+    @exception  SQLException    If an error occurs.
+    **/
+    boolean closeCached ()
+    throws SQLException
+    {
+        synchronized(internalLock_)
+        {
+            if(isClosed() || connectionReset_ || isAssociatedWithLocators() || ! isPoolable_)
+                return false;
+
+            // Closing the result set must not close the statement again.
+            closeOnCompletion_ = false;
+            closeResultSet (JDCursor.REUSE_YES);
+            if(numberOfResults_ > 1)
+            {
+                getMoreResults ();
+                cursor_.close (JDCursor.REUSE_NO);
+            }
+            numberOfResults_ = 0;
+
+            if(generatedKeys_ != null)
+            {
+                generatedKeys_.close();
+                generatedKeys_ = null;
+            }
+
+            if (commonExecuteReply != null)  { commonExecuteReply.returnToPool(); commonExecuteReply = null; }
+            if (connectReply != null)        { connectReply.returnToPool(); connectReply = null; }
+            if (execImmediateReply != null)  { execImmediateReply.returnToPool(); execImmediateReply = null; }
+            if (normalPrepareReply != null)  { normalPrepareReply.returnToPool(); normalPrepareReply = null; }
+            if (getMoreResultsReply != null) { getMoreResultsReply.returnToPool(); getMoreResultsReply = null; }
+            closed_ = true;
+
+            if(JDTrace.isTraceOn())
+                JDTrace.logInformation (this, "Statement kept open in the statement cache");
+            return true;
+        }
+    }
+
+    //@SCA
+    /**
+    Reopens a statement that was closed by closeCached().  The attributes
+    an application can set on a statement are returned to their defaults;
+    those kept in the RPB are sent again with the next execute.
+    **/
+    void reopenCached ()
+    {
+        synchronized(internalLock_)
+        {
+            cancelled_          = false;
+            closeOnCompletion_  = false;
+            escapeProcessing_   = true;
+            fetchDirection_     = ResultSet.FETCH_FORWARD;
+            fetchSize_          = 0;
+            isPoolable_         = true;     // Only poolable statements are cached.
+            maxFieldSize_       = 0;
+            maxRows_            = 0;
+            longMaxRows_        = 0;
+            resultSet_          = null;
+            sqlWarning_         = null;
+            updateCount_        = -1;
+
+            if(queryTimeout_ != 0 || queryTimeoutSet_)
+            {
+                queryTimeout_ = 0;
+                queryTimeoutSet_ = false;
+                rpbSyncNeeded_ = true;
+                rpbQueryTimeoutChanged_ = true;
+            }
+            if(! cursorDefaultName_.equals (cursor_.getName ()))
+            {
+                cursor_.setName (cursorDefaultName_);
+                rpbSyncNeeded_ = true;
+            }
+            cancelThread_ = null;
+            closed_ = false;
+        }
+    }
+
     /**
     Closes the result set and cursor.
 
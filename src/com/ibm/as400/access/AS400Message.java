@@ -16,12 +16,15 @@ package com.ibm.as400.access;
 import java.beans.PropertyVetoException;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Calendar;
 import java.util.Date;                   // @C1A
+import java.util.TimeZone;
 
 /**
  Represents a message returned from an IBM i system.  A Java program does not normally
@@ -443,6 +446,121 @@ public class AS400Message implements Serializable
       
     }
 
+    // Writes this message in the compact form used by the proxy datastreams.  All of the fields that are serialized are written, including the transient fields that writeObject() adds to the substitution data.
+    // @param  output  The output stream.
+    // @param  dictionary  The dictionary of the proxy connection.
+    // @exception  IOException  If an error occurs.
+    void writeCompact(DataOutputStream output, PxDictionary dictionary) throws IOException
+    {
+        dictionary.writeString(output, id_);
+        output.writeInt(type_);
+        output.writeInt(severity_);
+        dictionary.writeString(output, text_);
+        dictionary.writeString(output, help_);
+        dictionary.writeString(output, fileName_);
+        dictionary.writeString(output, libraryName_);
+        dictionary.writeString(output, defaultReply_);
+        dictionary.writeString(output, dateSent_);
+        dictionary.writeString(output, timeSent_);
+        output.writeInt(textCcsid_);
+        output.writeInt(substitutionDataCcsid_);
+        writeBytes(output, substitutionData_);
+        if (date_ == null)
+        {
+            output.writeBoolean(false);
+        }
+        else
+        {
+            output.writeBoolean(true);
+            output.writeLong(date_.getTime().getTime());
+            dictionary.writeString(output, date_.getTimeZone().getID());
+        }
+        output.writeLong(createDate_ == null ? Long.MIN_VALUE : createDate_.getTime());
+        output.writeLong(modificationDate_ == null ? Long.MIN_VALUE : modificationDate_.getTime());
+
+        writeBytes(output, key_);
+        dictionary.writeString(output, messageFileLibrarySpecified_);
+        dictionary.writeString(output, sendingProgramName_);
+        dictionary.writeString(output, sendingProgramInstructionNumber_);
+        dictionary.writeString(output, receivingProgramName_);
+        dictionary.writeString(output, receivingProgramInstructionNumber_);
+        dictionary.writeString(output, sendingType_);
+        dictionary.writeString(output, receivingType_);
+        output.writeInt(textCcsidConversionStatusIndicator_);
+        output.writeInt(dataCcsidConversionStatusIndicator_);
+        dictionary.writeString(output, alertOption_);
+    }
+
+    // Reads a message written by writeCompact().
+    // @param  input  The input stream.
+    // @param  dictionary  The dictionary of the proxy connection.
+    // @return  The message.
+    // @exception  IOException  If an error occurs.
+    static AS400Message readCompact(DataInputStream input, PxDictionary dictionary) throws IOException
+    {
+        AS400Message message = new AS400Message();
+        message.id_ = dictionary.readString(input);
+        message.type_ = input.readInt();
+        message.severity_ = input.readInt();
+        message.text_ = dictionary.readString(input);
+        message.help_ = dictionary.readString(input);
+        message.fileName_ = dictionary.readString(input);
+        message.libraryName_ = dictionary.readString(input);
+        message.defaultReply_ = dictionary.readString(input);
+        message.dateSent_ = dictionary.readString(input);
+        message.timeSent_ = dictionary.readString(input);
+        message.textCcsid_ = input.readInt();
+        message.substitutionDataCcsid_ = input.readInt();
+        message.substitutionData_ = readBytes(input);
+        if (input.readBoolean())
+        {
+            long time = input.readLong();
+            message.date_ = Calendar.getInstance(TimeZone.getTimeZone(dictionary.readString(input)));
+            message.date_.setTime(new Date(time));
+        }
+        long createDate = input.readLong();
+        if (createDate != Long.MIN_VALUE) message.createDate_ = new Date(createDate);
+        long modificationDate = input.readLong();
+        if (modificationDate != Long.MIN_VALUE) message.modificationDate_ = new Date(modificationDate);
+
+        message.key_ = readBytes(input);
+        message.messageFileLibrarySpecified_ = dictionary.readString(input);
+        message.sendingProgramName_ = dictionary.readString(input);
+        message.sendingProgramInstructionNumber_ = dictionary.readString(input);
+        message.receivingProgramName_ = dictionary.readString(input);
+        message.receivingProgramInstructionNumber_ = dictionary.readString(input);
+        message.sendingType_ = dictionary.readString(input);
+        message.receivingType_ = dictionary.readString(input);
+        message.textCcsidConversionStatusIndicator_ = input.readInt();
+        message.dataCcsidConversionStatusIndicator_ = input.readInt();
+        message.alertOption_ = dictionary.readString(input);
+        return message;
+    }
+
+    // Writes a byte array which may be null, preceded by its length.
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException
+    {
+        if (bytes == null)
+        {
+            output.writeInt(-1);
+        }
+        else
+        {
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    // Reads a byte array written by writeBytes().
+    private static byte[] readBytes(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return bytes;
+    }
+
     
     
     /**
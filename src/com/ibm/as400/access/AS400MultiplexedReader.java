@@ -0,0 +1,227 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: AS400MultiplexedReader.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Vector;
+
+// A selector driven reader thread that receives the replies for many AS400MultiplexedServer connections.
+// Instead of one "AS400 Read Daemon" thread per host server connection, a small, fixed number of these readers is shared by all the connections in the JVM.
+// Each reader owns one Selector.  Connections are assigned to the readers round robin.
+final class AS400MultiplexedReader implements Runnable
+{
+    // Size of the buffer each reader thread uses to drain its sockets.  The buffer is shared by all connections of the reader.
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    // Maximum number of reads done for one connection before the other ready connections get their turn.
+    private static final int MAX_READS_PER_SELECT = 16;
+
+    private static boolean enabled_ = false;
+    private static int readerCount_ = 1;
+
+    private static AS400MultiplexedReader[] readers_ = null;
+    private static int nextReader_ = 0;
+    private static final Object readersLock_ = new Object();
+
+    static
+    {
+        // Get the "multiplexed reader" property.
+        String propVal = SystemProperties.getProperty(SystemProperties.AS400_MULTIPLEXED_READER);
+        if (propVal != null)
+        {
+            try
+            {
+                enabled_ = Boolean.valueOf(propVal).booleanValue();
+            }
+            catch (Exception e)
+            {
+                Trace.log(Trace.WARNING, "Error retrieving multiplexedReader property value:", e);
+            }
+        }
+
+        // Get the "multiplexed reader threads" property.
+        propVal = SystemProperties.getProperty(SystemProperties.AS400_MULTIPLEXED_READER_THREADS);
+        if (propVal != null)
+        {
+            try
+            {
+                int count = Integer.parseInt(propVal.trim());
+                if (count > 0) readerCount_ = count;
+            }
+            catch (Exception e)
+            {
+                Trace.log(Trace.WARNING, "Error retrieving multiplexedReaderThreads property value:", e);
+            }
+        }
+    }
+
+    private final Selector selector_;
+    private final Thread thread_;
+    private final ByteBuffer readBuffer_ = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    // Connections waiting to be registered with the selector.  Registration must happen on the reader thread, otherwise it blocks while the thread is selecting.
+    private final Vector pendingRegistrations_ = new Vector();
+
+    private AS400MultiplexedReader(int id) throws IOException
+    {
+        selector_ = Selector.open();
+        thread_ = new Thread(this, "AS400 Multiplexed Read Daemon-" + id);
+        thread_.setDaemon(true);
+        thread_.start();
+    }
+
+    // Indicates if the multiplexed reader was requested for host server connections.
+    static boolean isEnabled()
+    {
+        return enabled_;
+    }
+
+    // Returns the reader to be used for the next connection, starting the reader threads on first use.
+    static AS400MultiplexedReader getReader() throws IOException
+    {
+        synchronized (readersLock_)
+        {
+            if (readers_ == null)
+            {
+                AS400MultiplexedReader[] readers = new AS400MultiplexedReader[readerCount_];
+                for (int i = 0; i < readers.length; ++i)
+                {
+                    readers[i] = new AS400MultiplexedReader(i + 1);
+                }
+                readers_ = readers;
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Started multiplexed read daemons:", readers.length);
+            }
+            AS400MultiplexedReader reader = readers_[nextReader_];
+            nextReader_ = (nextReader_ + 1) % readers_.length;
+            return reader;
+        }
+    }
+
+    // Queues the connection for registration.  The channel must already be in non-blocking mode.
+    void register(AS400MultiplexedServer server)
+    {
+        pendingRegistrations_.addElement(server);
+        selector_.wakeup();
+    }
+
+    // Stops receiving for the connection.  The caller closes the channel.
+    void deregister(AS400MultiplexedServer server)
+    {
+        pendingRegistrations_.removeElement(server);
+        SelectionKey key = server.getChannel().keyFor(selector_);
+        if (key != null) key.cancel();
+        selector_.wakeup();
+    }
+
+    public void run()
+    {
+        while (true)
+        {
+            try
+            {
+                selector_.select();
+                registerPending();
+
+                Iterator keys = selector_.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    SelectionKey key = (SelectionKey)keys.next();
+                    keys.remove();
+                    AS400MultiplexedServer server = (AS400MultiplexedServer)key.attachment();
+                    try
+                    {
+                        if (key.isValid() && key.isReadable()) read(server);
+                    }
+                    catch (CancelledKeyException e)
+                    {
+                        // The connection was disconnected while we were selecting.
+                        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Key cancelled for connection:", server.getConnectionID());
+                    }
+                    catch (IOException e)
+                    {
+                        key.cancel();
+                        server.readFailed(e);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        key.cancel();
+                        server.readFailed(e);
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                // The selector itself failed, this should never happen.
+                Trace.log(Trace.ERROR, "run(): Selector failed:", e);
+            }
+            catch (RuntimeException e)
+            {
+                Trace.log(Trace.ERROR, "run(): Caught RuntimeException:", e);
+            }
+        }
+    }
+
+    private void registerPending()
+    {
+        while (!pendingRegistrations_.isEmpty())
+        {
+            AS400MultiplexedServer server;
+            try
+            {
+                server = (AS400MultiplexedServer)pendingRegistrations_.remove(0);
+            }
+            catch (ArrayIndexOutOfBoundsException e)
+            {
+                return;  // Removed by a concurrent deregister.
+            }
+            try
+            {
+                server.getChannel().register(selector_, SelectionKey.OP_READ, server);
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "registerPending(): Registered connection:", server.getConnectionID());
+            }
+            catch (IOException e)
+            {
+                server.readFailed(e);
+            }
+            catch (RuntimeException e)
+            {
+                server.readFailed(e);
+            }
+        }
+    }
+
+    // Drains the socket into the shared buffer and hands the bytes to the connection for framing.
+    private void read(AS400MultiplexedServer server) throws IOException
+    {
+        SocketChannel channel = server.getChannel();
+        for (int i = 0; i < MAX_READS_PER_SELECT; ++i)
+        {
+            readBuffer_.clear();
+            int bytesRead = channel.read(readBuffer_);
+            if (bytesRead < 0)
+            {
+                throw new ConnectionDroppedException(ConnectionDroppedException.CONNECTION_DROPPED);
+            }
+            if (bytesRead == 0) return;
+            readBuffer_.flip();
+            server.consume(readBuffer_);
+            // A partial buffer means the socket has been drained.
+            if (bytesRead < READ_BUFFER_SIZE) return;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: AS400MultiplexedServer.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Hashtable;
+
+// An AS400Server that does not own a read thread.
+// The replies are read by a shared AS400MultiplexedReader, framed here, and handed to the waiting callers by correlation ID, the same way AS400ThreadedServer does.
+// Only client access host servers (not DDM) over non-SSL Internet domain sockets are serviced this way; see AS400ImplRemote.getConnection().
+final class AS400MultiplexedServer extends AS400Server
+{
+    private AS400ImplRemote system_;
+    private int service_;
+    private String jobString_;
+    private boolean disconnecting_ = false;
+
+    private SocketContainer socket_;
+    private SocketChannel channel_;
+    private OutputStream outStream_;
+    private AS400MultiplexedReader reader_;
+    private int soTimeout_ = 0;
+
+    private Hashtable replyStreams_;
+    private Hashtable instanceReplyStreams_ = new Hashtable();
+
+    // Set by the reader thread and by receive() on a timeout, and tested by the requesting threads without a lock.
+    private volatile IOException readException_ = null;
+    private volatile RuntimeException unlikelyException_ = null;
+
+    private DataStream exchangeAttrReply_ = null;
+
+    private final AS400ThreadedServer.ReplyList replyList_ = new AS400ThreadedServer.ReplyList();
+    private final AS400ThreadedServer.DiscardList discardList_ = new AS400ThreadedServer.DiscardList();
+
+    // Frame currently being assembled by the reader thread.
+    private final byte[] lengthBytes_ = new byte[4];
+    private int lengthBytesRead_ = 0;
+    private byte[] frame_ = null;
+    private int frameLength_ = 0;
+    private int frameBytesRead_ = 0;
+
+    private int lastCorrelationId_ = 0;
+    private class CorrelationIdLock extends Object {}
+    private class ReceiveLock extends Object {}
+
+    private final CorrelationIdLock correlationIdLock_ = new CorrelationIdLock();
+    private final ReceiveLock receiveLock_ = new ReceiveLock();
+
+    AS400MultiplexedServer(AS400ImplRemote system, int service, SocketContainer socket, String jobString) throws IOException
+    {
+        system_ = system;
+        service_ = service;
+        jobString_ = jobString;
+
+        socket_ = socket;
+        channel_ = socket.getChannel();
+        connectionID_ = socket_.hashCode();
+        soTimeout_ = socket_.getSoTimeout();
+
+        replyStreams_ = AS400Server.replyStreamsHashTables[service];
+
+        discardList_.setReplyList(replyList_);
+        replyList_.setDiscardList(discardList_);
+
+        // The sign-on and start server flows are complete, from here on the channel is only read by the selector.
+        channel_.configureBlocking(false);
+        outStream_ = new ChannelOutputStream(channel_);
+
+        reader_ = AS400MultiplexedReader.getReader();
+        reader_.register(this);
+    }
+
+    final SocketChannel getChannel()
+    {
+        return channel_;
+    }
+
+    // Print is the only service that uses this method.
+    final void addInstanceReplyStream(DataStream replyStream)
+    {
+        instanceReplyStreams_.put(replyStream, replyStream);
+    }
+
+    // Print is the only service that uses this method.
+    final void clearInstanceReplyStreams()
+    {
+        instanceReplyStreams_.clear();
+    }
+
+    // Called by the reader thread with the bytes drained from the socket.  Assembles complete data streams and queues them for the receivers.
+    final void consume(ByteBuffer buffer)
+    {
+        while (buffer.hasRemaining())
+        {
+            if (frame_ == null)
+            {
+                // Collect the 4 byte length that starts every client access data stream.
+                while (lengthBytesRead_ < 4 && buffer.hasRemaining())
+                {
+                    lengthBytes_[lengthBytesRead_++] = buffer.get();
+                }
+                if (lengthBytesRead_ < 4) return;
+
+                int length = BinaryConverter.byteArrayToInt(lengthBytes_, 0);
+                if (length < ClientAccessDataStream.HEADER_LENGTH)
+                {
+                    if (Trace.traceOn_) Trace.log(Trace.ERROR, "Incorrect data stream length received:", length);
+                    throw new InternalErrorException(InternalErrorException.DATA_STREAM_UNKNOWN);
+                }
+                // The frame is copied into the reply data stream by deliver(), so it can be taken from the buffer arena.
+                frame_ = DataStreamBufferArena.isEnabled() ? DataStreamBufferArena.get(length) : new byte[length];
+                frameLength_ = length;
+                System.arraycopy(lengthBytes_, 0, frame_, 0, 4);
+                frameBytesRead_ = 4;
+                lengthBytesRead_ = 0;
+            }
+
+            int count = Math.min(frameLength_ - frameBytesRead_, buffer.remaining());
+            buffer.get(frame_, frameBytesRead_, count);
+            frameBytesRead_ += count;
+
+            if (frameBytesRead_ == frameLength_)
+            {
+                byte[] frame = frame_;
+                frame_ = null;
+                frameBytesRead_ = 0;
+                try
+                {
+                    deliver(frame, frameLength_);
+                }
+                finally
+                {
+                    if (DataStreamBufferArena.isEnabled()) DataStreamBufferArena.release(frame);
+                }
+            }
+        }
+    }
+
+    private void deliver(byte[] frame, int length)
+    {
+        DataStream reply;
+        try
+        {
+            reply = ClientAccessDataStream.construct(new ByteArrayInputStream(frame, 0, length), instanceReplyStreams_, replyStreams_, system_, connectionID_);
+        }
+        catch (IOException e)
+        {
+            // Cannot happen reading from memory, other than for a malformed data stream.
+            readFailed(e);
+            return;
+        }
+
+        int correlation = reply.getCorrelation();
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "deliver(): Adding reply:", correlation);
+        replyList_.add(reply);
+        synchronized (receiveLock_)
+        {
+            receiveLock_.notifyAll();  // Notify all waiting threads.
+        }
+    }
+
+    // Called by the reader thread when the connection cannot be read anymore.
+    final void readFailed(Exception e)
+    {
+        if (e instanceof IOException)
+        {
+            if (Trace.traceOn_)
+            {
+                if (disconnecting_) Trace.log(Trace.DIAGNOSTIC, "readFailed(): Caught exception during disconnect:", e);
+                else Trace.log(Trace.ERROR, "readFailed(): Caught IOException:", e);
+            }
+            if (readException_ == null) readException_ = (IOException)e;
+        }
+        else
+        {
+            if (Trace.traceOn_) Trace.log(Trace.ERROR, "readFailed(): Caught RuntimeException:", e);
+            if (unlikelyException_ == null) unlikelyException_ = (RuntimeException)e;
+        }
+        synchronized (receiveLock_)
+        {
+            receiveLock_.notifyAll();
+        }
+    }
+
+    final void forceDisconnect()
+    {
+        disconnecting_ = true;
+        if (readException_ == null)
+        {
+            readException_ = new ConnectionDroppedException(ConnectionDroppedException.DISCONNECT_RECEIVED);
+        }
+
+        if (service_ == AS400.DATABASE || service_ == AS400.COMMAND || service_ == AS400.CENTRAL)
+        {
+            AS400EndJobDS endjob = new AS400EndJobDS(AS400Server.getServerId(service_));
+            if (Trace.traceOn_) endjob.setConnectionID(connectionID_);
+            try
+            {
+                endjob.write(outStream_);
+            }
+            catch (IOException e)
+            {
+                Trace.log(Trace.ERROR, "Send end job data stream failed:", e);
+            }
+        }
+
+        reader_.deregister(this);
+        try
+        {
+            socket_.close();
+        }
+        catch (IOException e)
+        {
+            Trace.log(Trace.ERROR, "Socket close failed:", e);
+        }
+
+        synchronized (receiveLock_)
+        {
+            receiveLock_.notifyAll();
+        }
+    }
+
+    public final DataStream getExchangeAttrReply()
+    {
+        return exchangeAttrReply_;
+    }
+
+    final String getJobString()
+    {
+        return jobString_;
+    }
+
+    final int getService()
+    {
+        return service_;
+    }
+
+    final boolean isConnected()
+    {
+        return readException_ == null && unlikelyException_ == null;
+    }
+
+    final int newCorrelationId()
+    {
+        synchronized (correlationIdLock_)
+        {
+            // Don't allow 0 as a valid correlation ID.
+            if (++lastCorrelationId_ == 0) lastCorrelationId_ = 1;
+            return lastCorrelationId_;
+        }
+    }
+
+    final DataStream receive(int correlationId) throws IOException, InterruptedException
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "AS400Server.receive");
+        long timeoutTime = (soTimeout_ > 0) ? System.currentTimeMillis() + soTimeout_ : 0;
+        synchronized (receiveLock_)
+        {
+            while (true)
+            {
+                // Give priority to exceptions, so that they are not lost.
+                if (readException_ != null)
+                {
+                    Trace.log(Trace.ERROR, "receive(): Read exception:", readException_);
+                    throw readException_;
+                }
+                if (unlikelyException_ != null)
+                {
+                    Trace.log(Trace.ERROR, "receive(): Read exception:", unlikelyException_);
+                    throw unlikelyException_;
+                }
+                DataStream ds = replyList_.remove(correlationId);
+                if (ds != null)
+                {
+                    if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "receive(): Valid reply found:", correlationId);
+                    if (DBDSPool.monitor)
+                    {
+                        if (ds instanceof DBReplyRequestedDS)
+                        {
+                            ((DBReplyRequestedDS)ds).setAllocatedLocation();
+                        }
+                    }
+                    return ds;
+                }
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "receive(): Reply not found. Waiting...");
+                if (timeoutTime == 0)
+                {
+                    receiveLock_.wait();
+                }
+                else
+                {
+                    long remaining = timeoutTime - System.currentTimeMillis();
+                    if (remaining <= 0)
+                    {
+                        // Same outcome as a read timeout on the socket of an AS400ThreadedServer: the connection is no longer usable.
+                        readException_ = new SocketTimeoutException("Read timed out");
+                        continue;
+                    }
+                    receiveLock_.wait(remaining);
+                }
+            }
+        }
+    }
+
+    final int send(DataStream requestStream) throws IOException
+    {
+        int correlationID = newCorrelationId();
+        send(requestStream, correlationID);
+        return correlationID;
+    }
+
+    final void send(DataStream requestStream, int correlationId) throws IOException
+    {
+        if (Trace.traceOn_)
+        {
+            Trace.log(Trace.DIAGNOSTIC, "send(): send request...");
+            requestStream.setConnectionID(connectionID_);
+        }
+        if (readException_ != null)
+        {
+            Trace.log(Trace.ERROR, "Read exception:", readException_);
+            throw readException_;
+        }
+        if (unlikelyException_ != null)
+        {
+            Trace.log(Trace.ERROR, "Read exception:", unlikelyException_);
+            throw unlikelyException_;
+        }
+        requestStream.setCorrelation(correlationId);
+        requestStream.write(outStream_);
+    }
+
+    final void sendAndDiscardReply(DataStream requestStream) throws IOException
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "send and discard(): ...");
+        int correlationID = send(requestStream);
+        discardList_.add(correlationID);
+    }
+
+    final void sendAndDiscardReply(DataStream requestStream, int correlationID) throws IOException
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "send and discard(): ...");
+        send(requestStream, correlationID);
+        discardList_.add(correlationID);
+    }
+
+    final void discardReply(int correlationID)
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "discard reply(): ...", correlationID);
+        discardList_.add(correlationID);
+    }
+
+    public final DataStream sendAndReceive(DataStream requestStream) throws IOException, InterruptedException
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "send and receive(): ...");
+        int correlationID = send(requestStream);
+        return receive(correlationID);
+    }
+
+    public final synchronized DataStream sendExchangeAttrRequest(DataStream req) throws IOException, InterruptedException
+    {
+        if (exchangeAttrReply_ == null)
+        {
+            exchangeAttrReply_ = sendAndReceive(req);
+        }
+        return exchangeAttrReply_;
+    }
+
+    // The socket timeout does not apply to a non-blocking channel, so it is applied to receive() instead.
+    int getSoTimeout() throws SocketException
+    {
+        return soTimeout_;
+    }
+
+    void setSoTimeout(int timeout) throws SocketException
+    {
+        soTimeout_ = timeout;
+    }
+
+    // Writes to the non-blocking channel.  DataStream.write() synchronizes on this stream, so writes from different threads are not interleaved.
+    private static final class ChannelOutputStream extends OutputStream
+    {
+        private final SocketChannel channel_;
+        private final byte[] oneByte_ = new byte[1];
+
+        ChannelOutputStream(SocketChannel channel)
+        {
+            channel_ = channel;
+        }
+
+        public void write(int b) throws IOException
+        {
+            oneByte_[0] = (byte)b;
+            write(oneByte_, 0, 1);
+        }
+
+        public void write(byte[] data, int offset, int length) throws IOException
+        {
+            ByteBuffer buffer;
+            if (DataStreamBufferArena.isDirectEnabled())
+            {
+                // Write from a pooled direct buffer, so the channel does not copy the data into a temporary direct buffer of its own.
+                buffer = DataStreamBufferArena.getDirect(length);
+                buffer.put(data, offset, length);
+                buffer.flip();
+            }
+            else
+            {
+                buffer = ByteBuffer.wrap(data, offset, length);
+            }
+            Selector writeSelector = null;
+            try
+            {
+                while (buffer.hasRemaining())
+                {
+                    if (channel_.write(buffer) == 0)
+                    {
+                        // The socket send buffer is full, wait until it drains.
+                        if (writeSelector == null)
+                        {
+                            writeSelector = Selector.open();
+                            channel_.register(writeSelector, SelectionKey.OP_WRITE);
+                        }
+                        writeSelector.select();
+                        writeSelector.selectedKeys().clear();
+                    }
+                }
+            }
+            finally
+            {
+                if (writeSelector != null) writeSelector.close();
+                if (buffer.isDirect()) DataStreamBufferArena.releaseDirect(buffer);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.io.OutputStream;
 import java.net.SocketException;
 import java.util.Hashtable;
 import java.util.Vector;
+import java.util.concurrent.locks.ReentrantLock;
 
 class AS400NoThreadServer extends AS400Server
 {
@@ -45,6 +46,11 @@ class AS400NoThreadServer extends AS400Server
 
     private boolean closed_ = false;
 
+    // Used instead of the monitors of this object when AS400Server.virtualThreads_ is set, because receive() reads the socket while holding its lock.
+    private ReentrantLock receiveLock_ = null;
+    private ReentrantLock writeLock_ = null;
+    private ReentrantLock exchangeAttrLock_ = null;
+
     AS400NoThreadServer(AS400ImplRemote system, int service, SocketContainer socket, String jobString) throws IOException
     {
         system_ = system;
@@ -57,6 +63,13 @@ class AS400NoThreadServer extends AS400Server
         outStream_ = socket.getOutputStream();
 
         replyStreams_ = AS400Server.replyStreamsHashTables[service];
+
+        if (AS400Server.virtualThreads_)
+        {
+            receiveLock_ = new ReentrantLock();
+            writeLock_ = new ReentrantLock();
+            exchangeAttrLock_ = new ReentrantLock();
+        }
     }
 
     int getService()
@@ -84,7 +97,27 @@ class AS400NoThreadServer extends AS400Server
         return exchangeAttrReply_;
     }
 
-    public synchronized DataStream sendExchangeAttrRequest(DataStream req) throws IOException
+    public DataStream sendExchangeAttrRequest(DataStream req) throws IOException
+    {
+        if (exchangeAttrLock_ != null)
+        {
+            exchangeAttrLock_.lock();
+            try
+            {
+                return sendExchangeAttrRequestLocked(req);
+            }
+            finally
+            {
+                exchangeAttrLock_.unlock();
+            }
+        }
+        synchronized (this)
+        {
+            return sendExchangeAttrRequestLocked(req);
+        }
+    }
+
+    private DataStream sendExchangeAttrRequestLocked(DataStream req) throws IOException
     {
         if (exchangeAttrReply_ == null)
         {
@@ -124,6 +157,24 @@ class AS400NoThreadServer extends AS400Server
         send(requestStream,correlationID);
         discardList_.addElement(new Integer(correlationID));
     }
+
+    void discardReply(int correlationID)
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "discard reply(): ...", correlationID);
+        // The reply may already have been read while receiving another one.
+        synchronized (replyList_)
+        {
+            for (int i = 0; i < replyList_.size(); i++)
+            {
+                if (((DataStream)replyList_.elementAt(i)).getCorrelation() == correlationID)
+                {
+                    replyList_.removeElementAt(i);
+                    return;
+                }
+            }
+            discardList_.addElement(Integer.valueOf(correlationID));
+        }
+    }
     
     int send(DataStream requestStream) throws IOException
     {
@@ -133,7 +184,7 @@ class AS400NoThreadServer extends AS400Server
       }
         int correlationID = newCorrelationId();
         requestStream.setCorrelation(correlationID);
-        requestStream.write(outStream_);
+        write(requestStream);
         return correlationID;
     }
 
@@ -153,10 +204,43 @@ class AS400NoThreadServer extends AS400Server
         requestStream.setConnectionID(connectionID_);
       }
         requestStream.setCorrelation(correlationId);
-        requestStream.write(outStream_);
+        write(requestStream);
     }
 
-    synchronized DataStream receive(int correlationId) throws IOException
+    // Writes the request to the socket.
+    private void write(DataStream requestStream) throws IOException
+    {
+        if (writeLock_ != null)
+        {
+            AS400Server.writeUnpinned(requestStream, outStream_, writeLock_);
+        }
+        else
+        {
+            requestStream.write(outStream_);
+        }
+    }
+
+    DataStream receive(int correlationId) throws IOException
+    {
+        if (receiveLock_ != null)
+        {
+            receiveLock_.lock();
+            try
+            {
+                return receiveLocked(correlationId);
+            }
+            finally
+            {
+                receiveLock_.unlock();
+            }
+        }
+        synchronized (this)
+        {
+            return receiveLocked(correlationId);
+        }
+    }
+
+    private DataStream receiveLocked(int correlationId) throws IOException
     {
         if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "AS400Server receive"); //@pdc
         DataStream reply = null;
@@ -199,20 +283,23 @@ class AS400NoThreadServer extends AS400Server
 
                 boolean keepDataStream = true;
                 int correlation = ds.getCorrelation();
-                for (int i = 0; i < discardList_.size(); i++)
+                synchronized (replyList_)
                 {
-                    if (((Integer)discardList_.elementAt(i)).intValue() == correlation)
+                    for (int i = 0; i < discardList_.size(); i++)
                     {
-                        discardList_.removeElementAt(i);
-                        keepDataStream = false;
-                        break;
+                        if (((Integer)discardList_.elementAt(i)).intValue() == correlation)
+                        {
+                            discardList_.removeElementAt(i);
+                            keepDataStream = false;
+                            break;
+                        }
                     }
-                }
 
-                if (keepDataStream)
-                {
-                    if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "adding reply...", correlation);
-                    replyList_.addElement(ds); // Save off the reply.
+                    if (keepDataStream)
+                    {
+                        if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "adding reply...", correlation);
+                        replyList_.addElement(ds); // Save off the reply.
+                    }
                 }
             }
             else
@@ -609,6 +609,49 @@ public class AS400PackedDecimal implements AS400DataType
      return new BigDecimal(new BigInteger(new String(outputData)), this.scale_);
     }
 
+    // Decodes the integer part of a packed decimal value, dropping any
+    // fraction as BigDecimal.longValue() does, without creating a BigDecimal.
+    // The caller must make sure that numDigits - numDecimalPositions is at most 18.
+    static long toLong(byte[] as400Value, int offset, int numDigits, int numDecimalPositions)
+    {
+      int inputSize = numDigits/2+1;
+
+      boolean negative = false;
+      int nibble = (as400Value[offset+inputSize-1] & 0x0F);
+      switch (nibble)
+      {
+          case 0x0B: // valid negative sign bits
+          case 0x0D:
+            negative = true;
+            break;
+          case 0x0A: // valid positive sign bits
+          case 0x0C:
+          case 0x0E:
+          case 0x0F:
+            break;
+          default: // others invalid
+            throwNumberFormatException(LOW_NIBBLE, offset+inputSize-1,
+                                       as400Value[offset+inputSize-1] & 0xFF,
+                                       as400Value);
+      }
+
+      // An even number of digits has a leading zero nibble.
+      int digitNibbles = inputSize*2 - 1;
+      int integerNibbles = digitNibbles - numDecimalPositions;
+      long value = 0;
+      for (int i = 0; i < digitNibbles; ++i)
+      {
+        int byteValue = as400Value[offset + (i >>> 1)] & 0xFF;
+        boolean highNibble = ((i & 1) == 0);
+        nibble = highNibble ? (byteValue >>> 4) : (byteValue & 0x0F);
+        if (nibble > 0x09) {
+          throwNumberFormatException(highNibble, offset + (i >>> 1), byteValue, as400Value);
+        }
+        if (i < integerNibbles) value = value * 10 + nibble;
+      }
+      return negative ? -value : value;
+    }
+
     static final void throwNumberFormatException(boolean highNibble, int byteOffset, int byteValue, byte[] fieldBytes) throws NumberFormatException
     {
       String text;
@@ -13,9 +13,13 @@
 
 package com.ibm.as400.access;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
 import java.net.SocketException;
 import java.util.Hashtable;
+import java.util.concurrent.locks.ReentrantLock;
 
 /** Abstract class representing an IBM i server job.
  *  Designed for use only by this driver. 
@@ -24,6 +28,66 @@ public abstract class AS400Server
 {
     protected int connectionID_;
 
+    // Indicates that the servers and AS400ImplRemote use ReentrantLocks instead of monitors around blocking operations, so that callers running on virtual threads do not pin their carrier threads.
+    static boolean virtualThreads_ = false;
+
+    static
+    {
+        // Get the "virtual threads" property.
+        String propVal = SystemProperties.getProperty(SystemProperties.AS400_VIRTUAL_THREADS);
+        if (propVal != null)
+        {
+            try
+            {
+                virtualThreads_ = Boolean.valueOf(propVal).booleanValue();
+            }
+            catch (Exception e)
+            {
+                Trace.log(Trace.WARNING, "Error retrieving virtualThreads property value:", e);
+            }
+        }
+    }
+
+    // Creates an unstarted daemon thread.  When virtual threads are requested and the JVM supports them (Java 21 and later), a virtual thread is created, otherwise a platform thread.
+    static Thread newDaemonThread(Runnable runnable, String name)
+    {
+        if (virtualThreads_)
+        {
+            try
+            {
+                Object builder = Thread.class.getMethod("ofVirtual", new Class[0]).invoke(null, new Object[0]);
+                Class builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", new Class[] { String.class }).invoke(builder, new Object[] { name });
+                Method unstarted = builderClass.getMethod("unstarted", new Class[] { Runnable.class });
+                return (Thread)unstarted.invoke(builder, new Object[] { runnable });
+            }
+            catch (Exception e)
+            {
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Virtual threads are not available, using a platform thread:", e);
+            }
+        }
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Writes the data stream without holding a monitor while the socket blocks.  DataStream.write() synchronizes on the stream it writes to, so the request is assembled in memory first, then copied to the socket under the lock.
+    static void writeUnpinned(DataStream requestStream, OutputStream out, ReentrantLock writeLock) throws IOException
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(requestStream.getLength(), 32));
+        requestStream.write(buffer);
+        writeLock.lock();
+        try
+        {
+            buffer.writeTo(out);
+            out.flush();
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
     // Returns the connection ID for this AS400Server object.
     // @return  The connection ID.
     final int getConnectionID()
@@ -117,6 +181,8 @@ public abstract class AS400Server
     public abstract DataStream sendAndReceive(DataStream requestStream) throws IOException, InterruptedException;
     abstract void sendAndDiscardReply(DataStream requestStream) throws IOException;
     abstract void sendAndDiscardReply(DataStream requestStream,int correlationId) throws IOException;//@M8A
+    // Discards the reply to a request that was already sent, when it arrives, without waiting for it.
+    abstract void discardReply(int correlationId);
     abstract int send(DataStream requestStream) throws IOException;
     abstract int newCorrelationId();
     abstract void send(DataStream requestStream, int correlationId) throws IOException;
@@ -18,6 +18,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketException;
 import java.util.Hashtable;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 final class AS400ThreadedServer extends AS400Server implements Runnable
 {
@@ -36,15 +38,16 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
     private Hashtable instanceReplyStreams_ = new Hashtable();
 
     private Thread readDaemon_ = null;
-    private IOException readDaemonException_ = null;
-    private RuntimeException unlikelyException_ = null;
+    // Set by the read daemon and tested by the requesting threads without a lock.
+    private volatile IOException readDaemonException_ = null;
+    private volatile RuntimeException unlikelyException_ = null;
 
     private DataStream exchangeAttrReply_ = null;
 
     // Vectors are slow, but Object arrays are big, so we implement our own hashtables to compromise.
     private final ReplyList replyList_ = new ReplyList();
 
-    private static final class DataStreamCollection
+    static final class DataStreamCollection
     {
         DataStream[] chain_;
         DataStreamCollection(DataStream ds)
@@ -53,7 +56,8 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         }
     }
 
-    private static final class ReplyList
+    // Also used by AS400MultiplexedServer, which shares the same reply bookkeeping.
+    static final class ReplyList
     {
         final DataStreamCollection[] streams_ = new DataStreamCollection[16];
         private DiscardList discardList_;
@@ -132,7 +136,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
 
     private final DiscardList discardList_ = new DiscardList();
 
-    private static final class DiscardList
+    static final class DiscardList
     {
         int[] ids_ = new int[8];
         final Object idsLock_ = new Object();
@@ -192,6 +196,13 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
     private final CorrelationIdLock correlationIdLock_ = new CorrelationIdLock();
     private final ReceiveLock receiveLock_ = new ReceiveLock();
 
+    // Used instead of the monitors above when AS400Server.virtualThreads_ is set, so that waiting and blocking I/O do not pin the carrier of a virtual thread.
+    private ReentrantLock correlationIdReentrantLock_ = null;
+    private ReentrantLock receiveReentrantLock_ = null;
+    private Condition replyArrived_ = null;
+    private ReentrantLock writeLock_ = null;
+    private ReentrantLock exchangeAttrLock_ = null;
+
     AS400ThreadedServer(AS400ImplRemote system, int service, SocketContainer socket, String jobString) throws IOException
     {
         system_ = system;
@@ -208,12 +219,20 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         discardList_.setReplyList(replyList_);
         replyList_.setDiscardList(discardList_);
 
+        if (AS400Server.virtualThreads_)
+        {
+            correlationIdReentrantLock_ = new ReentrantLock();
+            receiveReentrantLock_ = new ReentrantLock();
+            replyArrived_ = receiveReentrantLock_.newCondition();
+            writeLock_ = new ReentrantLock();
+            exchangeAttrLock_ = new ReentrantLock();
+        }
+
         String jobID;
         if (jobString != null && jobString.length() != 0) jobID = jobString;
         else jobID = AS400.getServerName(service) + "/" + (++threadCount_);
 
-        readDaemon_ = new Thread(this, "AS400 Read Daemon [system:"+system.getSystemName() + ";job:" + jobID + "]");
-        readDaemon_.setDaemon(true);
+        readDaemon_ = AS400Server.newDaemonThread(this, "AS400 Read Daemon [system:"+system.getSystemName() + ";job:" + jobID + "]");
         readDaemon_.start();
     }
 
@@ -243,7 +262,8 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
             if (Trace.traceOn_) endjob.setConnectionID(connectionID_);
             try
             {
-                endjob.write(outStream_);
+                // Under the write lock, so the end job request is not interleaved with a request another thread is writing.
+                write(endjob);
             }
             catch (IOException e)
             {
@@ -295,6 +315,19 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
 
     final int newCorrelationId()
     {
+        if (correlationIdReentrantLock_ != null)
+        {
+            correlationIdReentrantLock_.lock();
+            try
+            {
+                if (++lastCorrelationId_ == 0) lastCorrelationId_ = 1;
+                return lastCorrelationId_;
+            }
+            finally
+            {
+                correlationIdReentrantLock_.unlock();
+            }
+        }
         synchronized (correlationIdLock_)
         {
             // Don't allow 0 as a valid correlation ID.
@@ -306,9 +339,39 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
     final DataStream receive(int correlationId) throws IOException, InterruptedException
     {
         if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "AS400Server.receive");
+        if (receiveReentrantLock_ != null)
+        {
+            receiveReentrantLock_.lock();
+            try
+            {
+                while (true)
+                {
+                    DataStream ds = findReply(correlationId);
+                    if (ds != null) return ds;
+                    if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "receive(): Reply not found. Waiting...");
+                    replyArrived_.await();
+                }
+            }
+            finally
+            {
+                receiveReentrantLock_.unlock();
+            }
+        }
         synchronized (receiveLock_)
         {
       while (true) {
+        DataStream ds = findReply(correlationId);
+        if (ds != null) return ds;
+        if (Trace.traceOn_)
+          Trace.log(Trace.DIAGNOSTIC, "receive(): Reply not found. Waiting...");
+        receiveLock_.wait();
+            }
+        }
+    }
+
+    // Returns the reply for the correlation ID if it has arrived, or null.  Called while holding the receive lock.
+    private DataStream findReply(int correlationId) throws IOException
+    {
         // Changed March 2018 to give priority to exceptions.. 
         // Otherwise exceptions are being lost. 
         if (readDaemonException_ != null) {
@@ -336,10 +399,41 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
             return ds;
           }
         }
-        if (Trace.traceOn_)
-          Trace.log(Trace.DIAGNOSTIC, "receive(): Reply not found. Waiting...");
-        receiveLock_.wait();
+        return null;
+    }
+
+    // Wakes up the threads waiting in receive().
+    private void notifyReceivers()
+    {
+        if (receiveReentrantLock_ != null)
+        {
+            receiveReentrantLock_.lock();
+            try
+            {
+                replyArrived_.signalAll();
+            }
+            finally
+            {
+                receiveReentrantLock_.unlock();
             }
+            return;
+        }
+        synchronized (receiveLock_)
+        {
+            receiveLock_.notifyAll();  // Notify all waiting threads.
+        }
+    }
+
+    // Writes the request to the socket.
+    private void write(DataStream requestStream) throws IOException
+    {
+        if (writeLock_ != null)
+        {
+            AS400Server.writeUnpinned(requestStream, outStream_, writeLock_);
+        }
+        else
+        {
+            requestStream.write(outStream_);
         }
     }
 
@@ -369,10 +463,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Adding reply:", correlation);
                 replyList_.add(reply);
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Notifying threads.");
-                synchronized (receiveLock_)
-                {
-                    receiveLock_.notifyAll();  // Notify all waiting threads.
-                }
+                notifyReceivers();
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Threads notified.");
             }
             catch (IOException e)
@@ -394,10 +485,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
                     readDaemonException_ = e;
                 }
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Notifying threads after IOException.");
-                synchronized (receiveLock_)
-                {
-                    receiveLock_.notifyAll();  // Notify all waiting threads.
-                }
+                notifyReceivers();
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Threads notified after IOException.");
             }
             catch (RuntimeException e)
@@ -408,10 +496,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
                     unlikelyException_ = e;
                 }
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Notifying threads after RuntimeException.");
-                synchronized (receiveLock_)
-                {
-                    receiveLock_.notifyAll();
-                }
+                notifyReceivers();
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Threads notified after RuntimeException.");
             }
             //@socket2 removed finally close because we were doing double closes. 
@@ -448,7 +533,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         }
         int correlationID = newCorrelationId();
         requestStream.setCorrelation(correlationID);
-        requestStream.write(outStream_);
+        write(requestStream);
         return correlationID;
     }
 
@@ -469,7 +554,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
             throw unlikelyException_;
         }
         requestStream.setCorrelation(correlationId);
-        requestStream.write(outStream_);
+        write(requestStream);
     }
 
     final void sendAndDiscardReply(DataStream requestStream) throws IOException
@@ -487,6 +572,12 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         discardList_.add(correlationID);
     }
 
+    final void discardReply(int correlationID)
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "discard reply(): ...", correlationID);
+        discardList_.add(correlationID);
+    }
+
     public final DataStream sendAndReceive(DataStream requestStream) throws IOException, InterruptedException
     {
         if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "send and receive(): ...");
@@ -494,7 +585,27 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         return receive(correlationID);
     }
 
-    public final synchronized DataStream sendExchangeAttrRequest(DataStream req) throws IOException, InterruptedException
+    public final DataStream sendExchangeAttrRequest(DataStream req) throws IOException, InterruptedException
+    {
+        if (exchangeAttrLock_ != null)
+        {
+            exchangeAttrLock_.lock();
+            try
+            {
+                return sendExchangeAttrRequestLocked(req);
+            }
+            finally
+            {
+                exchangeAttrLock_.unlock();
+            }
+        }
+        synchronized (this)
+        {
+            return sendExchangeAttrRequestLocked(req);
+        }
+    }
+
+    private DataStream sendExchangeAttrRequestLocked(DataStream req) throws IOException, InterruptedException
     {
         if (exchangeAttrReply_ == null)
         {
@@ -514,6 +514,45 @@ public class AS400ZonedDecimal implements AS400DataType
      return new BigDecimal(new BigInteger(new String(outputData)), this.scale);
     }
 
+    // Decodes the integer part of a zoned decimal value, dropping any
+    // fraction as BigDecimal.longValue() does, without creating a BigDecimal.
+    // The caller must make sure that numDigits - numDecimalPositions is at most 18.
+    static long toLong(byte[] as400Value, int offset, int numDigits, int numDecimalPositions)
+    {
+      boolean negative = false;
+      int nibble = (as400Value[offset+numDigits-1] & 0xFF) >>> 4;
+      switch (nibble)
+      {
+          case 0x000B: // valid negative sign bits
+          case 0x000D:
+            negative = true;
+            break;
+          case 0x000A: // valid positive sign bits
+          case 0x000C:
+          case 0x000E:
+          case 0x000F:
+            break;
+          default: // others invalid
+            throwNumberFormatException(HIGH_NIBBLE, offset+numDigits-1,
+                                       as400Value[offset+numDigits-1] & 0xFF,
+                                       as400Value);
+      }
+
+      int integerDigits = numDigits - numDecimalPositions;
+      long value = 0;
+      for (int i = 0; i < numDigits; ++i)
+      {
+        nibble = as400Value[offset+i] & 0x000F;
+        if (nibble > 0x0009) {
+          throwNumberFormatException(LOW_NIBBLE, offset+i,
+                                     as400Value[offset+i] & 0x00FF,
+                                     as400Value);
+        }
+        if (i < integerDigits) value = value * 10 + nibble;
+      }
+      return negative ? -value : value;
+    }
+
     static final void throwNumberFormatException(boolean highNibble, int byteOffset, int byteValue, byte[] fieldBytes) throws NumberFormatException
     {
       String text;
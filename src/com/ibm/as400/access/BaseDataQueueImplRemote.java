@@ -222,7 +222,9 @@ class BaseDataQueueImplRemote implements BaseDataQueueImpl
                 case 0x8003:  // DQReadNormalReplyDataStream.
                     DQReadNormalReplyDataStream reply = (DQReadNormalReplyDataStream)baseReply;
                     byte[] senderInformationBytes = reply.getSenderInformation();
-                    return new DQReceiveRecord(senderInformationBytes[0] == 0x40 ? null : converter_.byteArrayToString(senderInformationBytes), reply.getEntry(), reply.getKey());
+                    DQReceiveRecord record = new DQReceiveRecord(senderInformationBytes[0] == 0x40 ? null : converter_.byteArrayToString(senderInformationBytes), reply.getEntry(), reply.getKey());
+                    reply.releaseBuffer();
+                    return record;
                 case 0x8002:  // DQCommonReplyDataStream.
                     DQCommonReplyDataStream commonReply = (DQCommonReplyDataStream)baseReply;
                     int rc = commonReply.getRC();
@@ -38,6 +38,9 @@ public class ClientAccessDataStream extends DataStream
   boolean inUse_; //@P0A 
   private CADSPool fromPool_ = null;
   private int fromPoolIndex_ = 0;
+  // Indicates that data_ was taken from the DataStreamBufferArena.  The array may then be
+  // longer than the data stream, so the length in the header must be used instead of data_.length.
+  private boolean arenaBuffer_ = false;
 
 
   // Note: The following method is called by AS400ThreadedServer and AS400NoThreadServer.
@@ -199,11 +202,18 @@ public class ClientAccessDataStream extends DataStream
       // 
       // TODO:   Restructure this code so that a new byte array is not always allocated.
       // 
-      newDataStream.data_ = new byte[nowLength];
+      if (DataStreamBufferArena.isEnabled() && newDataStream.usesBufferArena())
+      {
+        newDataStream.allocateBuffer(nowLength);
+      }
+      else
+      {
+        newDataStream.data_ = new byte[nowLength];
+      }
       System.arraycopy(baseDataStream.data_, 0, newDataStream.data_, 0, HEADER_LENGTH);
 
       
-      if (newDataStream.data_.length - HEADER_LENGTH > 0)
+      if (nowLength - HEADER_LENGTH > 0)
       {
         // Receive any remaining bytes.
     	// The number of bytes to read is calculated from newDataStream.data_.length - HEADER_LENGTH 
@@ -238,6 +248,42 @@ public class ClientAccessDataStream extends DataStream
     fromPool_ = pool; 
     fromPoolIndex_ = poolIndex; 
   }
+  // Indicates whether replies of this type are received into buffers from the DataStreamBufferArena.
+  // A sub-class that returns true must not depend on data_.length, and should give the buffer back with
+  // releaseBuffer() once the data has been copied out of the reply.
+  // @return  true if the reply is received into an arena buffer.
+  boolean usesBufferArena()
+  {
+    return false;
+  }
+
+  // Replace data_ with a buffer of at least length bytes from the DataStreamBufferArena.
+  // @param  length  The length of the data stream.
+  final void allocateBuffer(int length)
+  {
+    releaseBuffer();
+    data_ = DataStreamBufferArena.get(length);
+    arenaBuffer_ = true;
+  }
+
+  // Give the DataStreamBufferArena buffer of this data stream back to the arena.  This does nothing if data_ did not come from the arena.
+  // The data of the data stream cannot be used afterwards.
+  final void releaseBuffer()
+  {
+    if (arenaBuffer_)
+    {
+      arenaBuffer_ = false;
+      byte[] buffer = data_;
+      data_ = null;
+      DataStreamBufferArena.release(buffer);
+    }
+  }
+
+  int getDataLength()
+  {
+    return arenaBuffer_ ? getLength() : data_.length;
+  }
+
   // Retrieve the request correlation for this data stream.  The return value may be invalid if it has not been set.
   // @return  The request correlation number.
   int getCorrelation()
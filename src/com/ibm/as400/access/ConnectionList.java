@@ -16,15 +16,24 @@
 
 package com.ibm.as400.access;
 
-import java.util.Vector;    // Java 2
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Locale;      //@B2A
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** 
   *  ConnectionList is a list of connections specific to an IBM i system and userID.  The 
   *  connection list is used to create new connections and get connections from the pool.
   *  The connection list can remove connections that have exceeded inactivity time and 
   *  replace connections that have exceeded the maximum use count or maximum lifetime.
+  *  <p>
+  *  The list does not lock itself.  Every connection is in a map keyed by its AS400 object,
+  *  and the available ones are also in a deque, most recently returned first.  Borrowers,
+  *  returners and the maintenance sweep agree on a connection by changing the state of its
+  *  PoolItem, so the sweep never blocks a borrower, and connections are disconnected
+  *  without holding anything that other threads wait for.
  **/
 final class ConnectionList 
 {
@@ -41,7 +50,9 @@ final class ConnectionList
   private String userID_;
   private ConnectionPoolProperties properties_;
   private Log log_;
-  private Vector connectionList_ = new Vector(); 
+  private final ConcurrentHashMap items_ = new ConcurrentHashMap();          // AS400 -> PoolItem, for every connection in the list.
+  private final ConcurrentLinkedDeque available_ = new ConcurrentLinkedDeque();  // PoolItems that may be IDLE, most recently returned first.
+  private final AtomicInteger count_ = new AtomicInteger();                  // Connections in the list, plus those being created.
 
   // Handles loading the appropriate resource bundle
 //@CRS  private static ResourceBundleLoader loader_;
@@ -118,21 +129,76 @@ final class ConnectionList
   {
     if (log_ != null || Trace.traceOn_)
       log(ResourceBundleLoader.getText("CL_CLEANUP", new String[] {systemName_, userID_} ));
-    synchronized (connectionList_) 
+    Iterator items = items_.values().iterator();
+    while (items.hasNext())
     {
-      int size = connectionList_.size();  //@A5M
-      for (int i=0; i<size; i++)
+      PoolItem p = (PoolItem)items.next();
+      if (p.markRemoved())
       {
-        PoolItem p = (PoolItem)connectionList_.elementAt(i); 
+        removed(p);
         p.getAS400Object().disconnectAllServices();
       }
-      connectionList_.removeAllElements();   
     }
     if (log_ != null || Trace.traceOn_)
       log(ResourceBundleLoader.getText("CL_CLEANUPCOMP"));
   }
 
 
+  /**
+   *  Allocates an available connection that matches the request.
+   *
+   *  @param service The service the connection must already be connected to, or -1 for any connection.
+   *  @param secure  If true a secure AS400 object was requested.
+   *  @param locale The locale of the AS400 object.
+   *  @return The allocated pool item, or null if none is available.
+   **/
+  private PoolItem allocate(int service, boolean secure, Locale locale)
+  {
+    boolean pretestConnections = properties_.isPretestConnections();
+    Iterator available = available_.iterator();
+    while (available.hasNext())
+    {
+      PoolItem item = (PoolItem)available.next();
+      if (item.isRemoved())
+      {
+        available.remove();  // Left behind by a removal that raced with a return.
+        continue;
+      }
+      // check to see if that connection is in use
+      if (item.isInUse()) continue;
+
+      //@B2A Add a check for locales.  If the user did not specify a locale at
+      //creation time, item.getLocale() will be null.  If the user did 
+      // not pass in a locale on their getConnection(), locale will be null.
+      AS400 system = item.getAS400Object();
+      if (secure != (system instanceof SecureAS400)) continue;
+      if (!(item.getLocale() == null ? locale == null : item.getLocale().equals(locale))) continue;  //@C1C
+      if (service >= 0 && !system.isConnected(service)) continue;
+
+      // Another borrower may have taken it since it was checked.  It is taken
+      // before the pretest, so that nobody else uses it while it is tested.
+      if (!item.allocate()) continue;
+      available.remove();
+
+      if (pretestConnections && !isConnectionAlive(item))
+      {
+        // Drop this connection, since it's no longer valid.
+        if (item.markRemoved(PoolItem.IN_USE))
+        {
+          removed(item);
+          if (Trace.traceOn_) {
+            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection because it has failed a validation pretest.");
+          }
+          item.getAS400Object().disconnectAllServices();
+        }
+        continue;
+      }
+      return item;
+    }
+    return null;
+  }
+
+
   //@A5C  Changed method to private.
   /**
    *  Return a connection, which can connect to a service.
@@ -155,8 +221,9 @@ final class ConnectionList
     if (log_ != null || Trace.traceOn_)
       log(ResourceBundleLoader.getText("CL_CREATING", new String[] {systemName_, userID_} ));
 
-    if ((properties_.getMaxConnections() > 0) && 
-        (getConnectionCount() >= properties_.getMaxConnections()))
+    // Reserve a place for the new connection, so that threads creating
+    // connections at the same time cannot exceed the maximum between them.
+    if (!reserve())
     {
       if (log_ != null || Trace.traceOn_)
         log(ResourceBundleLoader.getText("CL_CLEANUPEXP"));
@@ -164,13 +231,13 @@ final class ConnectionList
       removeExpiredConnections(poolListeners);  
 
       // if that didn't do the trick, try shutting down unused connections
-      if (getConnectionCount() >= properties_.getMaxConnections())
+      if (!reserve())
       {
         if (log_ != null || Trace.traceOn_)
           log(ResourceBundleLoader.getText("CL_CLEANUPOLD"));
         shutDownOldest(); 
         // if not enough connections were freed, throw an exception!
-        if (getConnectionCount() >= properties_.getMaxConnections())
+        if (!reserve())
         {
           throw new ConnectionPoolException(ConnectionPoolException.MAX_CONNECTIONS_REACHED); //@A1C
         }
@@ -179,27 +246,30 @@ final class ConnectionList
 
     boolean threadUse = properties_.isThreadUsed();
     // create a new connection
-    PoolItem sys = new PoolItem (systemName_, userID_, poolAuth, secure, locale, service, connect, threadUse, socketProperties, ccsid);    //@B2C //@B4C //@C1C
-    //@B4D if (connect)
-    //@B4D {
-    //@B4D 	sys.getAS400Object().connectService(service);
-    //@B4D }
-
-    //@B4D if (!properties_.isThreadUsed())						//@A2A
-    //@B4D {									//@A2A
-    //@B4D 	try
-    //@B4D 	{							  //@A2A						   //@A2A		
-    //@B4D 		sys.getAS400Object().setThreadUsed(false);	//@A2A
-    //@B4D 	}							//@A2A
-    //@B4D 	catch (java.beans.PropertyVetoException e)		//@A2A
-    //@B4D 	{							//@A2A
-    //@B4D 		//Ignore                                        //@A2A
-    //@B4D 	}							//@A2A
-    //@B4D }									//@A2A
+    PoolItem sys;
+    try
+    {
+      sys = new PoolItem (systemName_, userID_, poolAuth, secure, locale, service, connect, threadUse, socketProperties, ccsid);    //@B2C //@B4C //@C1C
+    }
+    catch (AS400SecurityException e)
+    {
+      count_.decrementAndGet();
+      throw e;
+    }
+    catch (IOException e)
+    {
+      count_.decrementAndGet();
+      throw e;
+    }
+    catch (RuntimeException e)
+    {
+      count_.decrementAndGet();
+      throw e;
+    }
 
     // set the item is in use since we are going to return it to caller
     sys.setInUse(true);
-    connectionList_.addElement(sys);  
+    items_.put(sys.getAS400Object(), sys);  
 
     if (poolListeners != null)
     {
@@ -220,17 +290,7 @@ final class ConnectionList
    **/
   PoolItem findElement(AS400 systemToFind)
   {
-    synchronized (connectionList_)
-    {
-      int size = connectionList_.size();        
-      for (int i=0; i<size; i++)
-      {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);
-        if (item.getAS400Object().equals(systemToFind))
-          return item;
-      }
-    }
-    return null;
+    return (PoolItem)items_.get(systemToFind);
   }
 
   /**
@@ -241,16 +301,13 @@ final class ConnectionList
   public int getActiveConnectionCount()
   {
     int count = 0;
-    synchronized (connectionList_) 
+    Iterator items = items_.values().iterator();
+    while (items.hasNext())
     {
-      int size = connectionList_.size();    
-      for (int i=0; i<size; i++)
+      PoolItem p = (PoolItem)items.next();
+      if (p.isInUse())
       {
-        PoolItem p = (PoolItem)connectionList_.elementAt(i);      
-        if (p.isInUse())
-        {
-          count++;
-        }
+        count++;
       }
     }
     return count;
@@ -264,16 +321,13 @@ final class ConnectionList
   public int getAvailableConnectionCount()
   {
     int count = 0;
-    synchronized (connectionList_) 
+    Iterator items = items_.values().iterator();
+    while (items.hasNext())
     {
-      int size = connectionList_.size();    
-      for (int i=0; i<size; i++)
+      PoolItem p = (PoolItem)items.next();
+      if (!p.isInUse() && !p.isRemoved())
       {
-        PoolItem p = (PoolItem)connectionList_.elementAt(i);      
-        if (!p.isInUse())
-        {
-          count++;
-        }
+        count++;
       }
     }
     return count;
@@ -296,53 +350,7 @@ final class ConnectionList
   PoolItem getConnection(boolean secure, ConnectionPoolEventSupport poolListeners, Locale locale, AS400ConnectionPoolAuthentication poolAuth, SocketProperties socketProperties, int ccsid)    //@B2C //@B4C //@C1C
   throws AS400SecurityException, IOException, ConnectionPoolException
   {
-    PoolItem poolItem = null;
-    boolean pretestConnections = properties_.isPretestConnections();
-    synchronized(connectionList_)  //@A5A
-    {
-      int size = connectionList_.size();
-      for (int i=0; i<size; i++)
-      {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);    
-        // check to see if that connection is in use
-        if (!item.isInUse())
-        {
-          //@B2A Add a check for locales.  If the user did not specify a locale at
-          //creation time, item.getLocale() will be null.  If the user did 
-          // not pass in a locale on their getConnection(), locale will be null.
-          if (secure && item.getAS400Object() instanceof SecureAS400
-              && ((item.getLocale() == null && locale == null)        //@B2A //@C1C
-                  || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale))))   //@B2A //@C1C
-          {
-            if (pretestConnections && !isConnectionAlive(item)) {
-              continue;  // Skip this connection, since it's no longer valid.
-            }
-            // return item found
-            poolItem = item; 
-            break;   
-          }
-          
-          // NEED TO HANDLE WHEN item.getLocale() returns null BUT locale is NOT NULL... searching for a match, but no local in item.getLocale()
-          else if (!secure && !(item.getAS400Object() instanceof SecureAS400)
-                   && ((item.getLocale() == null && locale == null)   //@B2A //@C1C
-                       || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale))))   //@B2A //@C1C
-          {
-            if (pretestConnections && !isConnectionAlive(item)) {
-              continue;  // Skip this connection, since it's no longer valid.
-            }
-            // return item found
-            poolItem = item; 
-            break;
-          }
-        }
-      }  //end 'for' loop
-      if (poolItem != null)  //@A5A
-      {
-    	  synchronized (poolItem) { 
-             poolItem.setInUse(true);  //@A5M
-    	  }
-      }
-    } //end synchronized
+    PoolItem poolItem = allocate(-1, secure, locale);
 
     if (poolItem == null)
     {
@@ -369,91 +377,36 @@ final class ConnectionList
   PoolItem getConnection(int service, boolean secure, ConnectionPoolEventSupport poolListeners, Locale locale, AS400ConnectionPoolAuthentication poolAuth, SocketProperties socketProperties, int ccsid)  //@B2C //@B4C //@C1C 
   throws AS400SecurityException, IOException, ConnectionPoolException
   {
-    PoolItem poolItem = null;
-    boolean pretestConnections = properties_.isPretestConnections();
-    synchronized (connectionList_)  //@B1A
+    PoolItem poolItem = allocate(service, secure, locale);
+    if (poolItem != null)
     {
-      int size = connectionList_.size();       
-      for (int i=0; i<size; i++)
+      if (Trace.traceOn_)
+        log(Trace.INFORMATION, "Using already connected connection");
+    }
+    else
+    {
+      // must not have found a suitable connected system, use the first available
+      poolItem = allocate(-1, secure, locale);
+      if (poolItem != null)
       {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);  
-        // check to see if that connection is in use
-        if (!item.isInUse())
+        if (Trace.traceOn_)
+          log(Trace.INFORMATION, "Must not have found a suitable connection, using first available");
+        try
         {
-          if (secure && item.getAS400Object() instanceof SecureAS400 &&
-              item.getAS400Object().isConnected(service) 
-              && ((item.getLocale() == null && locale == null)         //@B2A //@C1C
-                  || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale)))) //@B2A //@C1C
-          {
-            if (pretestConnections && !isConnectionAlive(item)) {
-              continue;  // Skip this connection, since it's no longer valid.
-            }
-            if (Trace.traceOn_)
-              log(Trace.INFORMATION, "Using already connected connection");
-            poolItem = item;
-            break;
-          }
-          else if (!secure && !(item.getAS400Object() instanceof SecureAS400) &&
-                   item.getAS400Object().isConnected(service)
-                   && ((item.getLocale() == null && locale == null)     //@B2A //@C1C
-                       || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale))))     //@B2A //@C1C
-          {
-            if (pretestConnections && !isConnectionAlive(item)) {
-              continue;  // Skip this connection, since it's no longer valid.
-            }
-            if (Trace.traceOn_)
-              log(Trace.INFORMATION, "Using already connected connection");
-            poolItem = item;
-            break;
-          }
+          if (!poolItem.getAS400Object().isConnected(service)) poolItem.getAS400Object().connectService(service); //@CRS
         }
-      }
-
-      if (poolItem == null)
-      {
-        // must not have found a suitable connected system, use the first available
-        //@B1D size = connectionList_.size();     
-        for (int i=0; i<size; i++)
+        catch (AS400SecurityException e)
         {
-          PoolItem item = (PoolItem)connectionList_.elementAt(i);   
-          // check to see if that connection is in use
-          if (!item.isInUse())
-          {
-            if (secure && item.getAS400Object() instanceof SecureAS400
-                && ((item.getLocale() == null && locale == null)  //@B2A //@C1C
-                    || (locale != null && item.getLocale().equals(locale))))      //@B2A //@C1C
-            {
-              if (pretestConnections && !isConnectionAlive(item)) {
-                continue;  // Skip this connection, since it's no longer valid.
-              }
-              if (Trace.traceOn_)
-                log(Trace.INFORMATION, "Must not have found a suitable connection, using first available");
-              poolItem = item;                  
-              break;
-            }
-            else if (!secure && !(item.getAS400Object() instanceof SecureAS400)
-                     && ((item.getLocale() == null && locale == null)     //@B2A //@C1C
-                         || (locale != null && item.getLocale().equals(locale))))     //@B2A //@C1C
-            {
-              if (pretestConnections && !isConnectionAlive(item)) {
-                continue;  // Skip this connection, since it's no longer valid.
-              }
-              if (Trace.traceOn_)
-                log(Trace.INFORMATION, "Must not have found a suitable connection, using first available.");
-              poolItem = item;                  
-              break;
-            }
-          }
+          release(poolItem);  // Leave it available, as it was before it was allocated.
+          throw e;
+        }
+        catch (IOException e)
+        {
+          release(poolItem);
+          throw e;
         }
       }
-      if (poolItem != null)  //B1A
-      {
-    	synchronized(poolItem ) {   
-          if (!poolItem.getAS400Object().isConnected(service)) poolItem.getAS400Object().connectService(service); //@CRS
-          poolItem.setInUse(true); //@B1M
-    	}
-      }
-    }//@B1A end outer synchronized block
+    }
 
     if (poolItem == null)
     {
@@ -471,7 +424,7 @@ final class ConnectionList
    **/
   public int getConnectionCount()
   {
-    return connectionList_.size();      
+    return items_.size();      
   }
 
 
@@ -484,15 +437,12 @@ final class ConnectionList
    **/
   boolean hasConnectedConnection()
   {
-    synchronized (connectionList_)
+    Iterator items = items_.values().iterator();
+    while (items.hasNext())
     {
-      int size = connectionList_.size();       
-      for (int i=0; i<size; i++)
-      {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);  
-        // Check to see if that connection is connected.
-        if (item.getAS400Object().isConnected()) return true; 
-      }
+      PoolItem item = (PoolItem)items.next();
+      // Check to see if that connection is connected.
+      if (item.getAS400Object().isConnected()) return true; 
     }
     return false;
   }
@@ -624,123 +574,95 @@ final class ConnectionList
   void removeExpiredConnections(ConnectionPoolEventSupport poolListeners)   //@B1D synchronized
   throws AS400SecurityException, IOException
   {    
-    synchronized (connectionList_)  //@B1A
+    // The iterator sees a consistent enough view of the map without locking it,
+    // so borrowers and returners carry on while the sweep runs.  Each expired
+    // connection is claimed by changing its state, and only then removed.
+    Iterator items = items_.values().iterator();
+    while (items.hasNext())
     {
-      int size = connectionList_.size();  
-      for (int i=size-1; i>=0; i--)
-      {
-        PoolItem p = (PoolItem)connectionList_.elementAt(i);    
+      PoolItem p = (PoolItem)items.next();    
 
-        // Be conservative about removing in-use connections.
-        if (p.isInUse())
+      // Be conservative about removing in-use connections.
+      if (p.isInUse())
+      {
+        // Reclaim an in-use connection, only if its maxUseTime limit is exceeded.
+        if ((properties_.getMaxUseTime() >= 0) &&
+                 (p.getInUseTime() >= properties_.getMaxUseTime()))
         {
-          // Reclaim an in-use connection, only if its maxUseTime limit is exceeded.
-          if ((properties_.getMaxUseTime() >= 0) &&
-                   (p.getInUseTime() >= properties_.getMaxUseTime()))
-          {
-            // Limit exceeded, so disconnect and remove the connection.
-            if (log_ != null || Trace.traceOn_) {
-              log(ResourceBundleLoader.getText(EXPIRED_MAX_USE_TIME, new String[] {systemName_, userID_} ));
-            }
-            if (Trace.traceOn_) {
-              log(Trace.WARNING, "Disconnecting pooled connection (currently in use) because it has exceeded the maximum use time limit of " + properties_.getMaxUseTime() + " milliseconds.");
-            }
-            p.getAS400Object().disconnectAllServices();
-            connectionList_.removeElementAt(i);
-            if (poolListeners != null)
-            {
-              ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C
-              poolListeners.fireConnectionExpiredEvent(poolEvent);  
-            }
-          }
-        }  // if p.inUse()
+          // Limit exceeded, so disconnect and remove the connection.
+          expire(p, PoolItem.IN_USE, EXPIRED_MAX_USE_TIME, Trace.WARNING, "Disconnecting pooled connection (currently in use) because it has exceeded the maximum use time limit of " + properties_.getMaxUseTime() + " milliseconds.", poolListeners);
+        }
+      }  // if p.inUse()
 
 
-        // The remaining cases are for connections that aren't currently in use.
+      // The remaining cases are for connections that aren't currently in use.
+      else if (p.isRemoved())
+      {
+        // Already removed by another thread.
+      }
 
+      // See if the pool item has failed a connection validity pretest.
+      else if (p.isFailedPretest())
+      {
+        // Failed a validation, so disconnect and remove the connection.
+        expire(p, PoolItem.IDLE, EXPIRED_FAILED_PRETEST, Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has failed a validation pretest.", poolListeners);
+      }
 
-        // See if the pool item has failed a connection validity pretest.
-        else if (p.isFailedPretest())
-        {
-          // Failed a validation, so disconnect and remove the connection.
-          if (log_ != null || Trace.traceOn_) {
-            log(ResourceBundleLoader.getText(EXPIRED_FAILED_PRETEST, new String[] {systemName_, userID_} ));
-          }
-          if (Trace.traceOn_) {
-            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has failed a validation pretest.");
-          }
-          p.getAS400Object().disconnectAllServices();
-          connectionList_.removeElementAt(i);
-          if (poolListeners != null)
-          {
-            ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED);
-            poolListeners.fireConnectionExpiredEvent(poolEvent);  
-          }
-        }
 
+      // See if the connection has exceeded the maximum inactivity time.
+      else if ((properties_.getMaxInactivity() >= 0) && 
+               (p.getInactivityTime() >= properties_.getMaxInactivity()))
+      {
+        // Limit exceeded, so disconnect and remove the connection.
+        expire(p, PoolItem.IDLE, EXPIRED_INACTIVE, Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum inactivity time limit of " + properties_.getMaxInactivity() + " milliseconds.", poolListeners);
+      }
 
-        // See if the connection has exceeded the maximum inactivity time.
-        else if ((properties_.getMaxInactivity() >= 0) && 
-                 (p.getInactivityTime() >= properties_.getMaxInactivity()))
-        {
-          // Limit exceeded, so disconnect and remove the connection.
-          if (log_ != null || Trace.traceOn_) {
-            log(ResourceBundleLoader.getText(EXPIRED_INACTIVE, new String[] {systemName_, userID_} ));
-          }
-          if (Trace.traceOn_) {
-            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum inactivity time limit of " + properties_.getMaxInactivity() + " milliseconds.");
-          }
-          p.getAS400Object().disconnectAllServices();
-          connectionList_.removeElementAt(i);
-          if (poolListeners != null)
-          {
-            ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C
-            poolListeners.fireConnectionExpiredEvent(poolEvent);  
-          }
-        }
+      // See if the connection has exceeded the maximum use count.
+      else if ((properties_.getMaxUseCount() >= 0) &&
+               (p.getUseCount() >= properties_.getMaxUseCount()))
+      {
+        // Limit exceeded, so disconnect and remove the connection.
+        expire(p, PoolItem.IDLE, EXPIRED_MAX_USE_COUNT, Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum use count of " + properties_.getMaxUseCount(), poolListeners);
+      }
 
-        // See if the connection has exceeded the maximum use count.
-        else if ((properties_.getMaxUseCount() >= 0) &&
-                 (p.getUseCount() >= properties_.getMaxUseCount()))
-        {
-          // Limit exceeded, so disconnect and remove the connection.
-          if (log_ != null || Trace.traceOn_) {
-            log(ResourceBundleLoader.getText(EXPIRED_MAX_USE_COUNT, new String[] {systemName_, userID_} ));
-          }
-          if (Trace.traceOn_) {
-            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum use count of " + properties_.getMaxUseCount());
-          }
-          p.getAS400Object().disconnectAllServices();
-          connectionList_.removeElementAt(i);             
-          if (poolListeners != null)
-          {
-            ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C //@B2C
-            poolListeners.fireConnectionExpiredEvent(poolEvent);  
-          }
-        }
+      // See if the connection has exceeded the maximum lifetime.
+      else if ( (properties_.getMaxLifetime() >= 0) && 
+                (p.getLifeSpan() >= properties_.getMaxLifetime()))
+      {
+        // Limit exceeded, so disconnect and remove the connection.
+        expire(p, PoolItem.IDLE, EXPIRED_MAX_LIFETIME, Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum lifetime limit of " + properties_.getMaxLifetime() + " milliseconds.", poolListeners);
+      }
 
-        // See if the connection has exceeded the maximum lifetime.
-        else if ( (properties_.getMaxLifetime() >= 0) && 
-                  (p.getLifeSpan() >= properties_.getMaxLifetime()))
-        {
-          // Limit exceeded, so disconnect and remove the connection.
-          if (log_ != null || Trace.traceOn_) {
-            log(ResourceBundleLoader.getText(EXPIRED_MAX_LIFETIME, new String[] {systemName_, userID_} ));
-          }
-          if (Trace.traceOn_) {
-            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum lifetime limit of " + properties_.getMaxLifetime() + " milliseconds.");
-          }
-          p.getAS400Object().disconnectAllServices();
-          connectionList_.removeElementAt(i);           
-          if (poolListeners != null)
-          {
-            ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C //@B2C
-            poolListeners.fireConnectionExpiredEvent(poolEvent);  
-          }
-        }
+    }//end 'while' loop
+  }
 
-      }//end 'for' loop
-    }//@B1A end synchronized
+  /**
+   * Removes an expired connection from the list and disconnects it, unless another
+   * thread got to it first (for example, a borrower allocated it after it was checked).
+   *
+   * @param p The pool item.
+   * @param expectedState The state the pool item must still be in.
+   * @param expiration The MRI textID specifying the type of expiration.
+   * @param category The trace category.
+   * @param reason The trace message.
+   * @param poolListeners The pool listeners to which events will be fired.
+   **/
+  private void expire(PoolItem p, int expectedState, String expiration, int category, String reason, ConnectionPoolEventSupport poolListeners)
+  {
+    if (!p.markRemoved(expectedState)) return;
+    removed(p);
+    if (log_ != null || Trace.traceOn_) {
+      log(ResourceBundleLoader.getText(expiration, new String[] {systemName_, userID_} ));
+    }
+    if (Trace.traceOn_) {
+      log(category, reason);
+    }
+    p.getAS400Object().disconnectAllServices();
+    if (poolListeners != null)
+    {
+      ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C
+      poolListeners.fireConnectionExpiredEvent(poolEvent);  
+    }
   }
 
   /**
@@ -754,38 +676,55 @@ final class ConnectionList
    **/
   boolean removeIfExpired(PoolItem poolItem, ConnectionPoolEventSupport poolListeners)
   {
-    if (connectionList_.isEmpty()) return false;
+    if (items_.isEmpty()) return false;
 
-    boolean connectionIsExpired = false;
-    String expirationStatus = null;
-    synchronized (connectionList_)
+    String expirationStatus = checkConnectionExpiration(poolItem);
+    if (expirationStatus == NOT_EXPIRED) return false;
+    // The connection is removed from the list before it is disconnected.
+    if (!poolItem.markRemoved()) return true;  // Already removed by the maintenance sweep.
+    removed(poolItem);
+
+    if ((log_ != null || Trace.traceOn_) && expirationStatus != null)
     {
-      expirationStatus = checkConnectionExpiration(poolItem);
-      if (expirationStatus == NOT_EXPIRED) {}  // do nothing
-      else {
-        connectionList_.removeElement(poolItem);
-        connectionIsExpired = true;
-      }
+      log(ResourceBundleLoader.getText(expirationStatus, new String[] {systemName_, userID_} ));
     }
-    // Now that we're out of the sync block (and the connection has been removed from connectionList_), disconnect the connection.
-    if (connectionIsExpired)
+    if (poolListeners != null)
     {
-      if ((log_ != null || Trace.traceOn_) && expirationStatus != null)
-      {
-        log(ResourceBundleLoader.getText(expirationStatus, new String[] {systemName_, userID_} ));
-      }
-      if (poolListeners != null)
-      {
-        ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(poolItem.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED);
-        poolListeners.fireConnectionExpiredEvent(poolEvent);  
-      }
-      if (Trace.traceOn_) {
-        log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has expired.");
-      }
-      poolItem.getAS400Object().disconnectAllServices();
+      ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(poolItem.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED);
+      poolListeners.fireConnectionExpiredEvent(poolEvent);  
     }
+    if (Trace.traceOn_) {
+      log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has expired.");
+    }
+    poolItem.getAS400Object().disconnectAllServices();
+
+    return true;
+  }
+
+
+  /**
+   *  Takes a pool item out of the list, after its state has been changed to REMOVED.
+   *  Only the thread that changed the state calls this, so it happens once per item.
+   **/
+  private void removed(PoolItem poolItem)
+  {
+    if (items_.remove(poolItem.getAS400Object()) != null)
+      count_.decrementAndGet();
+    available_.remove(poolItem);
+  }
+
 
-    return connectionIsExpired;
+  /**
+   *  Returns a connection to the list, making it available to be allocated again.
+   *
+   *  @param poolItem The pool item, which must be in use.
+   *  @return true if the connection is available; false if it has been removed from the list.
+   **/
+  boolean release(PoolItem poolItem)
+  {
+    if (!poolItem.release()) return false;
+    available_.addFirst(poolItem);
+    return true;
   }
 
 
@@ -795,32 +734,21 @@ final class ConnectionList
   **/
   boolean removeUnusedElements()
   {
-    synchronized (connectionList_)
+    //incrementally search the list, looking for elements that are not in 
+    //use to remove
+    Iterator items = items_.values().iterator();
+    while (items.hasNext())
     {
-      if (connectionList_.size() > 0)
+      PoolItem item = (PoolItem)items.next();
+      if (item.markRemoved(PoolItem.IDLE))
       {
-        int size = connectionList_.size();
-        //if there are no more elements remaining in the list, remove and 
-        //return false.
-        if (size == 0)
-          return false;
-        //incrementally search the list, looking for elements that are not in 
-        //use to remove
-
-        for (int numToCheck = size - 1; numToCheck >= 0; numToCheck--)
-        {
-          PoolItem item = (PoolItem)connectionList_.elementAt(numToCheck);
-          if (!item.isInUse())
-          {
-            if (Trace.traceOn_) {
-              log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because removeFromPool() was called.");
-            }
-            item.getAS400Object().disconnectAllServices();
-            connectionList_.removeElementAt(numToCheck);   
-          }
-        }// end 'for' loop
-      }//end if (connectionList_.size() > 0)	 
-    }//end synchronized
+        removed(item);
+        if (Trace.traceOn_) {
+          log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because removeFromPool() was called.");
+        }
+        item.getAS400Object().disconnectAllServices();
+      }
+    }// end 'while' loop
     return true;
   }
 
@@ -831,19 +759,11 @@ final class ConnectionList
    **/
   void removeElement(AS400 systemToFind)
   {
-    synchronized(connectionList_)   //@A3A
+    PoolItem item = (PoolItem)items_.get(systemToFind);
+    if (item != null && item.markRemoved())   //@A3C //@A4C
     {
-      int size = connectionList_.size();        
-      for (int i=0; i<size; i++)
-      {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);
-        if (item.getAS400Object().equals(systemToFind))   //@A3C //@A4C
-        {
-          connectionList_.removeElement(item);
-          return;     //@A3A
-        }
-      }  
-    }                   
+      removed(item);
+    }
   }
 
 
@@ -860,6 +780,22 @@ final class ConnectionList
   } 
 
 
+  /**
+   *  Reserves a place in the list for a new connection.
+   *  @return true if the place was reserved; false if the list already has the maximum number of connections.
+   **/
+  private boolean reserve()
+  {
+    int max = properties_.getMaxConnections();
+    while (true)
+    {
+      int count = count_.get();
+      if (max > 0 && count >= max) return false;
+      if (count_.compareAndSet(count, count + 1)) return true;
+    }
+  }
+
+
   /**
    *  Removes old inactive connections from the list.
    **/
@@ -867,44 +803,37 @@ final class ConnectionList
   {
     if (log_ != null || Trace.traceOn_)
       log(ResourceBundleLoader.getText("CL_REMOLD", new String[] {systemName_, userID_} ));
-    int oldest = 0;
-    synchronized (connectionList_)
+    int reduce = ((count_.get() - properties_.getMaxConnections() + 1));
+    for (int j = 0; j < reduce; j++)
     {
-      int reduce = ((getConnectionCount() - properties_.getMaxConnections() + 1));
-      for (int j = 0; j < reduce; j++)
+      PoolItem oldest = null;
+      long t = 0;
+      Iterator available = available_.iterator();
+      while (available.hasNext())
       {
-        oldest = 0;
-        if (connectionList_.size() > 0)
+        PoolItem item = (PoolItem)available.next();
+        if (!item.isInUse() && !item.isRemoved())
         {
-          long t = 0;
-          int size = connectionList_.size();            
-          for (int i=0; i<size; i++)
+          if (oldest == null || item.getInactivityTime() > t)
           {
-            PoolItem item = (PoolItem)connectionList_.elementAt(i);
-            if (!item.isInUse())
-            {
-              if (item.getInactivityTime() > t || oldest == 0)
-              {
-                oldest = i;
-                t = item.getInactivityTime();
-              }
-            }
+            oldest = item;
+            t = item.getInactivityTime();
           }
+        }
+      }
+      if (oldest == null) break;
 
-          //only disconnect oldest item if it is not in use
-          PoolItem item = (PoolItem)connectionList_.elementAt(oldest);      
-          if (!item.isInUse())
-          {
-            if (Trace.traceOn_) {
-              log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) during removal of oldest unallocated connections.");
-            }
-            item.getAS400Object().disconnectAllServices();
-            connectionList_.removeElementAt(oldest);   
-            if (log_ != null || Trace.traceOn_)
-              log(ResourceBundleLoader.getText("CL_REMOLDCOMP", new String[] {systemName_, userID_} ));
-          }
-        }//end if (connectionList_.size() > 0)	
-      }//end 'for' loop
-    }//end synchronized
+      //only disconnect oldest item if it is not in use
+      if (oldest.markRemoved(PoolItem.IDLE))
+      {
+        removed(oldest);
+        if (Trace.traceOn_) {
+          log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) during removal of oldest unallocated connections.");
+        }
+        oldest.getAS400Object().disconnectAllServices();
+        if (log_ != null || Trace.traceOn_)
+          log(ResourceBundleLoader.getText("CL_REMOLDCOMP", new String[] {systemName_, userID_} ));
+      }
+    }//end 'for' loop
   }//end shutDownOldest()
 }
@@ -84,6 +84,21 @@ public abstract class ConvTable
         return byteArrayToString(source, offset, length, new BidiConversionProperties(bidiStringType_));
     }
 
+    // Perform an OS/400 CCSID to Unicode conversion into the caller's buffer and return the number of characters written.  The buffer must have room for the converted data.
+    public int byteArrayToChars(byte[] source, int offset, int length, char[] dest, int destOffset)
+    {
+        return byteArrayToChars(source, offset, length, dest, destOffset, new BidiConversionProperties(bidiStringType_));
+    }
+
+    // This method can be overridden by subclasses that can convert without building an intermediate String.
+    int byteArrayToChars(byte[] source, int offset, int length, char[] dest, int destOffset, BidiConversionProperties properties)
+    {
+        String s = byteArrayToString(source, offset, length, properties);
+        int count = s.length();
+        s.getChars(0, count, dest, destOffset);
+        return count;
+    }
+
     // Helper method used to decompress conversion tables when they are initialized.  Note that this method also converts the char[] into a byte[] since these are single-byte tables.
     byte[] decompressSB(char[] arr, byte subPad)
     {
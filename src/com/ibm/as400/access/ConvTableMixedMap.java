@@ -44,71 +44,79 @@ public abstract class ConvTableMixedMap extends ConvTable
     final String byteArrayToString(byte[] buf, int offset, int length, BidiConversionProperties properties)
     {
         if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting byte array to string for ccsid: " + ccsid_, buf, offset, length);
+        if (indexOfShiftOut(buf, offset, offset + length) == offset + length)
+        {
+            // No double-byte data, so the single-byte table can convert all of it.
+            return sbTable_.byteArrayToString(buf, offset, length, properties);
+        }
         char[] dest = new char[length];
-        boolean inSBMode = true;
+        int destPos = toUnicode(dest, 0, buf, offset, length);
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination string for ccsid: " + ccsid_ + ": 0," + destPos, ConvTable.dumpCharArray(dest));
+        return String.copyValueOf(dest, 0, destPos);
+    }
 
-        int destPos = 0;
+    // Perform an OS/400 CCSID to Unicode conversion into the caller's buffer.
+    final int byteArrayToChars(byte[] buf, int offset, int length, char[] dest, int destOffset, BidiConversionProperties properties)
+    {
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting byte array to characters for ccsid: " + ccsid_, buf, offset, length);
+        return toUnicode(dest, destOffset, buf, offset, length) - destOffset;
+    }
 
-        for (int srcPos = offset; srcPos < offset + length; ++srcPos)
+    // Converts mixed data and returns the next position in dest.  Each run of single-byte characters up to a shift-out is converted in one pass by the single-byte table; only the double-byte portions are examined byte by byte.
+    private int toUnicode(char[] dest, int destPos, byte[] buf, int offset, int length)
+    {
+        int end = offset + length;
+        int srcPos = offset;
+        while (srcPos < end)
         {
-            byte curByte = buf[srcPos];
-            if (inSBMode)
-            {
-                // In single byte mode.
-                if (curByte == shiftOut_)
-                {
-                    // Shift out character. Switch to double byte mode.
-                    inSBMode = false;
-                }
-                else
-                {
-                    // Normal character. Perform single-byte lookup.
-                    dest[destPos++] = sbTable_.toUnicode_[(0x00FF & curByte)];
-                }
-            }
-            else
+            // In single byte mode.
+            int shiftOut = indexOfShiftOut(buf, srcPos, end);
+            destPos += sbTable_.toUnicode(dest, destPos, buf, srcPos, shiftOut - srcPos);
+
+            // Shift out character. Switch to double byte mode.
+            srcPos = shiftOut + 1;
+            while (srcPos < end)
             {
-                // In double byte mode.
+                byte curByte = buf[srcPos++];
                 if (curByte == shiftIn_)
                 {
                     // Shift in character. Switch to single byte mode.
-                    inSBMode = true;
+                    break;
                 }
-                else
+                try
                 {
-                    try
-                    {
-                        if ((srcPos+1) < offset + length) { 
-                           // Normal character. Perform double-byte lookup.
-                           int unicodeLength = dbTable_.toUnicode(dest, destPos, ((0x00FF & curByte) << 8) + (0x00FF & buf[++srcPos])); /*@KDC*/
-                           destPos += unicodeLength; 
-                           // dest[destPos++] = dbTable_.toUnicode_[((0x00FF & curByte) << 8) + (0x00FF & buf[++srcPos])];
-                        } else { 
-                          
-                           if (CharConverter.isFaultTolerantConversion()) {
-                             // Do not add the replacement character to behave as before (when ArrayIndexOutOfBoundsException used to be caught). 
-                           } else { 
-                             // Only half a character at the end -- add substitution character 
-                             dest[destPos++] = '\ufffd';
-                           }
-                        }
+                    if (srcPos < end) { 
+                       // Normal character. Perform double-byte lookup.
+                       int unicodeLength = dbTable_.toUnicode(dest, destPos, ((0x00FF & curByte) << 8) + (0x00FF & buf[srcPos++])); /*@KDC*/
+                       destPos += unicodeLength; 
+                    } else { 
+                      
+                       if (CharConverter.isFaultTolerantConversion()) {
+                         // Do not add the replacement character to behave as before (when ArrayIndexOutOfBoundsException used to be caught). 
+                       } else { 
+                         // Only half a character at the end -- add substitution character 
+                         dest[destPos++] = '\ufffd';
+                       }
                     }
-                    catch (ArrayIndexOutOfBoundsException aioobe)
+                }
+                catch (ArrayIndexOutOfBoundsException aioobe)
+                {
+                    // Swallow this if we are doing fault-tolerant conversion.
+                    if(!CharConverter.isFaultTolerantConversion())
                     {
-                        // Swallow this if we are doing fault-tolerant conversion.
-                        if(!CharConverter.isFaultTolerantConversion())
-                        {
-                            throw aioobe;
-                        }
-                        // No need to decrement because increment in dest[destPost++] not longer occurs 
-                        // --destPos;
+                        throw aioobe;
                     }
                 }
             }
         }
+        return destPos;
+    }
 
-        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination string for ccsid: " + ccsid_ + ": 0," + destPos, ConvTable.dumpCharArray(dest));
-        return String.copyValueOf(dest, 0, destPos);
+    // Returns the position of the next shift-out byte, or end if there is none.
+    private static int indexOfShiftOut(byte[] buf, int offset, int end)
+    {
+        while (offset < end && buf[offset] != shiftOut_) ++offset;
+        return offset;
     }
 
     // Perform a Unicode to OS/400 CCSID conversion.
@@ -403,9 +403,7 @@ public class ConvTableReader extends InputStreamReader
                     return false;
                 }
 
-                String s = table_.byteArrayToString(b_cache_, 0, numRead, properties_);
-                nextWrite_ = s.length();
-                s.getChars(0, nextWrite_, cache_, 0);
+                nextWrite_ = table_.byteArrayToChars(b_cache_, 0, numRead, cache_, 0, properties_);
                 nextRead_ = 0;
 
                 if (Trace.traceOn_) Trace.log(Trace.CONVERSION, "Filled cache for reader: " + nextRead_ + "," + nextWrite_ + "," + cache_.length, ConvTable.dumpCharArray(cache_, nextWrite_));
@@ -14,6 +14,7 @@
 package com.ibm.as400.access;
 
 import java.io.CharConversionException;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 
 /**  This is the parent class for all ConvTableXXX classes that represent single-byte ccsids.
@@ -25,6 +26,9 @@ public abstract class ConvTableSingleMap extends ConvTable
 
     public char[] toUnicode_ = null;
     public byte[] fromUnicode_ = null;
+    // The Latin-1 value of each byte, or null if some byte maps outside of Latin-1.
+    private byte[] toLatin1_ = null;
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
 
     // Constructor.
     public ConvTableSingleMap(int ccsid, char[] toUnicode, char[] fromUnicode)
@@ -32,6 +36,7 @@ public abstract class ConvTableSingleMap extends ConvTable
         super(ccsid);
         ccsid_ = ccsid;
         toUnicode_ = toUnicode;
+        toLatin1_ = buildLatin1Map(toUnicode);
         if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Decompressing single-byte conversion table for ccsid: " + ccsid_, fromUnicode.length);
         //Moved decompression algorithm to parent.
         fromUnicode_ = decompressSB(fromUnicode, (byte)0x3F);
@@ -44,11 +49,55 @@ public abstract class ConvTableSingleMap extends ConvTable
         if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, 
               "Converting byte array to string for ccsid: " + ccsid_+" offset:"+offset+" len:"+length, 
               buf, offset, length);
+        byte[] toLatin1 = toLatin1_;
+        if (toLatin1 != null)
+        {
+            // Every character of the table is in Latin-1, so the string can be built from one byte per character.  On Java 9 and later the bytes become the compact string directly instead of being widened to a char[] and compressed again.
+            byte[] latin1 = new byte[length];
+            for (int i = 0; i < length; ++i)
+            {
+                latin1[i] = toLatin1[0x00FF & buf[offset + i]];
+            }
+            String s = new String(latin1, 0, length, LATIN1);
+            if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination string for ccsid: " + ccsid_, ConvTable.dumpCharArray(s.toCharArray()));
+            return s;
+        }
         char[] dest = new char[length];
-        // The 0x00FF is so we don't get any negative indices.
-        for (int i = 0; i < length; dest[i] = toUnicode_[0x00FF & buf[offset + (i++)]]);
+        toUnicode(dest, 0, buf, offset, length);
         if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination string for ccsid: " + ccsid_, ConvTable.dumpCharArray(dest));
-        return String.copyValueOf(dest);
+        return new String(dest);
+    }
+
+    // Perform an OS/400 CCSID to Unicode conversion into the caller's buffer.
+    final int byteArrayToChars(byte[] buf, int offset, int length, char[] dest, int destOffset, BidiConversionProperties properties)
+    {
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting byte array to characters for ccsid: " + ccsid_, buf, offset, length);
+        return toUnicode(dest, destOffset, buf, offset, length);
+    }
+
+    // Converts a run of single-byte characters.  Used for the single-byte portions of mixed data as well.
+    final int toUnicode(char[] dest, int destOffset, byte[] buf, int offset, int length)
+    {
+        char[] toUnicode = toUnicode_;
+        for (int i = 0; i < length; ++i)
+        {
+            // The 0x00FF is so we don't get any negative indices.
+            dest[destOffset + i] = toUnicode[0x00FF & buf[offset + i]];
+        }
+        return length;
+    }
+
+    // Returns the Latin-1 byte of each of the 256 single-byte values, or null if any of them maps to a character above U+00FF.
+    private static byte[] buildLatin1Map(char[] toUnicode)
+    {
+        if (toUnicode.length < 256) return null;
+        byte[] latin1 = new byte[256];
+        for (int i = 0; i < 256; ++i)
+        {
+            if (toUnicode[i] > '\u00FF') return null;
+            latin1[i] = (byte)toUnicode[i];
+        }
+        return latin1;
     }
 
     // Perform a Unicode to OS/400 CCSID conversion.
@@ -106,6 +155,7 @@ public abstract class ConvTableSingleMap extends ConvTable
         toUnicode_[i] = oldToUnicode[i]; 
       }
       toUnicode_[ebcdic] = unicode; 
+      toLatin1_ = buildLatin1Map(toUnicode_);
     }
     
 }
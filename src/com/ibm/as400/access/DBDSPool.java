@@ -61,7 +61,14 @@ final class DBDSPool
   private static int       dbReplyRequestedPoolSearchCount_ = 0;                                    // @B5A
   private static boolean   dbReplyRequestedPoolFull_ = false; 
 
-  static final DBStoragePool storagePool_ = new DBStoragePool();
+  // Replaces the array pools of reply streams and storage with striped free lists.
+  // Must be set before storagePool_ is created.
+  static final boolean stripedPooling = SystemProperties.getProperty("com.ibm.as400.access.DBDSPool.striped") != null;
+  static final int STRIPED_POOL_INDEX = -2;
+  private static final DBStripedPool dbreplyrequesteddsStripedPool_ = stripedPooling ?
+      new DBStripedPool("DBReplyRequestedDSPool", new int[] { Integer.MAX_VALUE }, new int[] { 256 }) : null;
+
+  static final DBStoragePool storagePool_ = stripedPooling ? new DBStripedStoragePool() : new DBStoragePool();
   
   
   // IMPORTANT: These methods only retrieve free streams from their respective pools.
@@ -101,6 +108,18 @@ final class DBDSPool
   public static int getDBReplyRequestedDSPoolSize() {
 	  return dbreplyrequesteddsPool_.length; 
   }
+
+  static void returnToStripedDBReplyRequestedPool(DBReplyRequestedDS ds) {
+    dbreplyrequesteddsStripedPool_.offer(ds, 0);
+  }
+
+  // Returns the counters of the striped pools.  The counters are only maintained when
+  // com.ibm.as400.access.DBDSPool.monitor is set.
+  static String getPoolStatistics() {
+    if (!stripedPooling) return "striped pooling not enabled";
+    return dbreplyrequesteddsStripedPool_.getStatistics() + "; "
+        + ((DBStripedStoragePool)storagePool_).getStatistics();
+  }
   
   static final DBReplyRequestedDS getDBReplyRequestedDS() {
     if (noDBReplyPooling) {
@@ -108,6 +127,21 @@ final class DBDSPool
       unpooledDS.canUse();
       unpooledDS.setInPool(false); // @B5A
       return unpooledDS;
+    } else if (stripedPooling) {
+      DBReplyRequestedDS ds = (DBReplyRequestedDS) dbreplyrequesteddsStripedPool_.poll();
+      while (ds != null) {
+        // As with the array pool, do not use an entry whose storage was freed.
+        if (ds.storage_ != null && ds.canUse()) {
+          ds.initialize();
+          return ds;
+        }
+        ds = (DBReplyRequestedDS) dbreplyrequesteddsStripedPool_.poll();
+      }
+      ds = new DBReplyRequestedDS(monitor, STRIPED_POOL_INDEX);
+      ds.canUse();
+      ds.setInPool(true);
+      dbreplyrequesteddsStripedPool_.grew();
+      return ds;
     } else {
       synchronized (dbreplyrequesteddsPoolLock_) // @P1C
       {
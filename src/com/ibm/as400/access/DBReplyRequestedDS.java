@@ -85,6 +85,9 @@ final class DBReplyRequestedDS extends DBBaseReplyDS
 		  DBDSPool.returnToDBReplyRequestedPool(poolIndex);
 	  }
 	  super.returnToPool();
+	  if (poolIndex == DBDSPool.STRIPED_POOL_INDEX) {
+		  DBDSPool.returnToStripedDBReplyRequestedPool(this);
+	  }
 	} /*@B5A*/
 
 
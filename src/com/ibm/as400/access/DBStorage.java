@@ -97,6 +97,14 @@ Checks the size of the array and resizes the storage if needed.
       // Limiting the increment to 4 meg caused performance problems with applications
       // creating huge batches.
       // if (increment > 4096 * 1024 ) increment = 4096 * 1024;
+      if (DataStreamBufferArena.isEnabled()) {
+        // The old array is only referenced by this object, so it can be given back to the arena.
+        byte[] newdata = DataStreamBufferArena.get(Math.max(data_.length + increment, size));
+        System.arraycopy(data_, 0, newdata, 0, data_.length);
+        DataStreamBufferArena.release(data_);
+        data_ = newdata;
+        return true;
+      }
       byte[] newdata = new byte[Math.max(data_.length + increment, size)]; // @C1C
       System.arraycopy(data_, 0, newdata, 0, data_.length);
       data_ = newdata;
@@ -110,6 +118,16 @@ Checks the size of the array and resizes the storage if needed.
  * @param length size to reduce the buffer to
  */
 public synchronized void reclaim(int length) {
+	  if (DataStreamBufferArena.isEnabled()) {
+		  // Arena buffers are a power of two long, so compare against the size that would be used.
+		  if (data_.length > DataStreamBufferArena.getBufferLength(length) && length >= DEFAULT_SIZE) {
+			  byte[] oldData = data_;
+			  data_ = DataStreamBufferArena.get(length);
+			  System.arraycopy(oldData, 6, data_, 6, 2);
+			  DataStreamBufferArena.release(oldData);
+		  }
+		  return;
+	  }
 	  if(data_.length>length && length >= DEFAULT_SIZE ) {
 		  // System.out.println("Reclaiming to "+length+" from "+data_.length);
 		  byte[] oldData = data_;
@@ -159,9 +177,7 @@ public void returnToPool() {
   synchronized (this) {
 	   inUse_ = false;
   }
-	if (id_>= 0) {
-	  pool_.returned(id_);   //@B5A
-	}
+	pool_.returned(this, id_);   //@B5A
 }
 
 /**
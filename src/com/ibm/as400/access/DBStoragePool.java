@@ -83,7 +83,7 @@ Frees a DBStorage object for reuse.
   **/
   
 
-  final synchronized DBStorage getUnpooledStorage() {
+  synchronized DBStorage getUnpooledStorage() {
 	  DBStorage storage = new DBStorage(-1, this); 
       storage.canUse(); 
 	  return storage; 
@@ -99,7 +99,7 @@ are available, a brand new one will be allocated.
 // Note: This method must be synchronized to make it
 //       threadsafe.
 //
-  final synchronized DBStorage getUnusedStorage() // @B0C @B1C @P0C
+  synchronized DBStorage getUnusedStorage() // @B0C @B1C @P0C
   {
 //@P0D        DBStorage storage;
     int max = pool_.length; //@P0A
@@ -182,6 +182,18 @@ are available, a brand new one will be allocated.
 	   lastReturned_ = id_; 
 	}
   }
+
+  /**
+  Called when a DBStorage object is returned to the pool.
+
+  @param  storage  the DBStorage object, which is no longer in use.
+  @param  id       the id assigned by the pool.
+  **/
+  void returned(DBStorage storage, int id) {
+    if (id >= 0) {
+      returned(id);
+    }
+  }
 }
 
 
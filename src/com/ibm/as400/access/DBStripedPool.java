@@ -0,0 +1,179 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: DBStripedPool.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+<p>A free list of pooled objects that is split into stripes, so that
+concurrent threads do not contend on one lock.  A thread returns objects to,
+and takes objects from, the stripe selected by its thread, and only looks at
+the other stripes when its own stripe is empty.
+
+<p>Each stripe is divided into size classes.  The number of objects a stripe
+keeps for a size class is bounded; objects returned to a full size class are
+left to the garbage collector.  Objects are held through soft references, as
+in the other JDBC pools, so the JVM can still reclaim them under memory pressure.
+
+<p>The pool only keeps free objects.  Objects in use are not referenced by the pool.
+**/
+final class DBStripedPool
+{
+  private final String name_;
+  private final int[] classLimits_;      // Largest size held by each size class.
+  private final int[] classCapacities_;  // Maximum number of free objects per stripe for each size class.
+  private final ConcurrentLinkedQueue[][] freeLists_;  // [stripe][size class]
+  private final AtomicInteger[][] freeCounts_;
+
+  // Statistics, only maintained when DBDSPool.monitor is set.
+  private final AtomicLong hits_ = new AtomicLong();
+  private final AtomicLong misses_ = new AtomicLong();
+  private final AtomicLong growth_ = new AtomicLong();
+  private final AtomicLong discards_ = new AtomicLong();
+
+/**
+Constructs a DBStripedPool object.
+
+@param  name            The name used in monitor output.
+@param  classLimits     The largest object size held by each size class, in ascending order.
+                        Objects larger than the last limit are not pooled.
+@param  classCapacities The number of free objects each stripe keeps for each size class.
+**/
+  DBStripedPool(String name, int[] classLimits, int[] classCapacities)
+  {
+    name_ = name;
+    classLimits_ = classLimits;
+    classCapacities_ = classCapacities;
+
+    // One stripe per processor, rounded up to a power of two so the stripe can be selected with a mask.
+    int processors = Runtime.getRuntime().availableProcessors();
+    int stripes = 1;
+    while (stripes < processors) stripes <<= 1;
+
+    freeLists_ = new ConcurrentLinkedQueue[stripes][classLimits.length];
+    freeCounts_ = new AtomicInteger[stripes][classLimits.length];
+    for (int i = 0; i < stripes; ++i)
+    {
+      for (int j = 0; j < classLimits.length; ++j)
+      {
+        freeLists_[i][j] = new ConcurrentLinkedQueue();
+        freeCounts_[i][j] = new AtomicInteger();
+      }
+    }
+  }
+
+  private int stripe()
+  {
+    int hash = System.identityHashCode(Thread.currentThread());
+    hash ^= (hash >>> 16);
+    return hash & (freeLists_.length - 1);
+  }
+
+/**
+Returns a free object, or null if the pool has none.  The smallest size class
+is tried first.  The caller must still claim the object, for example with canUse().
+
+@return     a free object, or null.
+**/
+  Object poll()
+  {
+    int stripes = freeLists_.length;
+    int first = stripe();
+    for (int s = 0; s < stripes; ++s)
+    {
+      int stripe = (first + s) & (stripes - 1);
+      for (int c = 0; c < classLimits_.length; ++c)
+      {
+        Object o = pollClass(stripe, c);
+        if (o != null)
+        {
+          if (DBDSPool.monitor) hits_.incrementAndGet();
+          return o;
+        }
+      }
+    }
+    if (DBDSPool.monitor) misses_.incrementAndGet();
+    return null;
+  }
+
+  private Object pollClass(int stripe, int sizeClass)
+  {
+    ConcurrentLinkedQueue freeList = freeLists_[stripe][sizeClass];
+    while (true)
+    {
+      SoftReference ref = (SoftReference)freeList.poll();
+      if (ref == null) return null;
+      freeCounts_[stripe][sizeClass].decrementAndGet();
+      Object o = ref.get();
+      if (o != null) return o;
+      // Cleared by the garbage collector, try the next one.
+    }
+  }
+
+/**
+Returns an object to the pool.
+
+@param  o       The object, which must no longer be in use.
+@param  size    The size of the object, used to select its size class.
+@return         true if the object was kept; false if its size class is full or it is too large to pool.
+**/
+  boolean offer(Object o, int size)
+  {
+    int sizeClass = 0;
+    while (sizeClass < classLimits_.length && size > classLimits_[sizeClass]) ++sizeClass;
+    if (sizeClass < classLimits_.length)
+    {
+      int stripe = stripe();
+      AtomicInteger count = freeCounts_[stripe][sizeClass];
+      if (count.incrementAndGet() <= classCapacities_[sizeClass])
+      {
+        freeLists_[stripe][sizeClass].offer(new SoftReference(o));
+        return true;
+      }
+      count.decrementAndGet();
+    }
+    if (DBDSPool.monitor) discards_.incrementAndGet();
+    return false;
+  }
+
+/**
+Records that a new object was created because the pool had none to give out.
+**/
+  void grew()
+  {
+    if (DBDSPool.monitor)
+    {
+      long growth = growth_.incrementAndGet();
+      // Report at every power of two, like the expansion messages of the other pools.
+      if ((growth & (growth - 1)) == 0)
+      {
+        System.out.println("Expanding " + name_ + ": " + getStatistics());
+      }
+    }
+  }
+
+/**
+Returns the monitor counters of the pool.
+
+@return     the counters as a string.
+**/
+  String getStatistics()
+  {
+    return name_ + " stripes=" + freeLists_.length + " hits=" + hits_.get() + " misses=" + misses_.get()
+        + " growth=" + growth_.get() + " discards=" + discards_.get();
+  }
+}
@@ -0,0 +1,71 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: DBStripedStoragePool.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+
+
+/**
+<p>A DBStoragePool that keeps its free DBStorage objects in a DBStripedPool
+instead of scanning one array under the pool monitor.  Used when the
+com.ibm.as400.access.DBDSPool.striped property is set.
+**/
+final class DBStripedStoragePool extends DBStoragePool
+{
+  // The id of the DBStorage objects that belong to this pool.
+  static final int STRIPED_ID = -2;
+
+  // Buffers up to 64K are common.  Only a few larger buffers are kept,
+  // and buffers over 16 meg are never kept.
+  private static final int[] CLASS_LIMITS     = { 64 * 1024, 1024 * 1024, 16 * 1024 * 1024 };
+  private static final int[] CLASS_CAPACITIES = { 32,        4,           1 };
+
+  private final DBStripedPool freeList_ = new DBStripedPool("DBStoragePool", CLASS_LIMITS, CLASS_CAPACITIES);
+
+  int getSize() { return 0; }
+
+  DBStorage getUnpooledStorage() {
+    DBStorage storage = new DBStorage(-1, this);
+    storage.canUse();
+    return storage;
+  }
+
+/**
+Returns an unused DBStorage object.  If none are available, a brand new one will be allocated.
+
+@return     a DBStorage object.
+**/
+  DBStorage getUnusedStorage()
+  {
+    DBStorage storage = (DBStorage)freeList_.poll();
+    while (storage != null)
+    {
+      if (storage.canUse()) return storage;
+      storage = (DBStorage)freeList_.poll();
+    }
+    storage = new DBStorage(STRIPED_ID, this);
+    storage.canUse();
+    freeList_.grew();
+    return storage;
+  }
+
+  void returned(DBStorage storage, int id) {
+    if (id == STRIPED_ID) {
+      freeList_.offer(storage, storage.getData().length);
+    }
+  }
+
+  String getStatistics() {
+    return freeList_.getStatistics();
+  }
+}
@@ -125,20 +125,23 @@ class DDMDataStream extends DataStream
 	        // Read the data specified for the first packet - this will be 32767 bytes.
 	        // Read the first two bytes of data from the next packet into a separate byte array.
 	        // These two bytes are the length of the packet.  We then read the rest of the packet into our byte array output stream.
-		byte[] maxPacket = new byte[32765];  // 32K - 2 for the two bytes of length
+		// The packets are only staged here, so they can be taken from the buffer arena.
+		boolean useArena = DataStreamBufferArena.isEnabled();
+		byte[] maxPacket = useArena ? DataStreamBufferArena.get(32765) : new byte[32765];  // 32K - 2 for the two bytes of length
 		byte[] nextLength = new byte[2];     // Two byte array to hold size of continued packets
 
 	        // Initialize the header section of the new data stream.
 		ByteArrayOutputStream b = new ByteArrayOutputStream();
 		b.write(baseDataStream.data_, 0, HEADER_LENGTH);
 	        // Read the first packet from the input stream
-		byte[] packet = new byte[packetLength - HEADER_LENGTH];
+		byte[] packet = useArena ? DataStreamBufferArena.get(packetLength - HEADER_LENGTH) : new byte[packetLength - HEADER_LENGTH];
 		if (readFromStream(is, packet, 0, packetLength - HEADER_LENGTH, connectionID) < packetLength - HEADER_LENGTH)
 		{
 		    Trace.log(Trace.ERROR, "Failed to read all of the DDM data stream packet.");
 		    throw new ConnectionDroppedException(ConnectionDroppedException.CONNECTION_DROPPED);
 		}
-		b.write(packet);
+		b.write(packet, 0, packetLength - HEADER_LENGTH);
+		if (useArena) DataStreamBufferArena.release(packet);
 
 	        // Get subsequent packets
 		boolean done = false;
@@ -160,7 +163,7 @@ class DDMDataStream extends DataStream
 		    else
 		    {
                         // This is the last packet; create an array of the appropriate size
-			packet = new byte[packetLength - 2];
+			packet = useArena ? DataStreamBufferArena.get(packetLength - 2) : new byte[packetLength - 2];
 			done = true;
 		    }
 
@@ -170,8 +173,10 @@ class DDMDataStream extends DataStream
 			Trace.log(Trace.ERROR, "Failed to read all of the DDM data stream continuation packet.");
 			throw new ConnectionDroppedException(ConnectionDroppedException.CONNECTION_DROPPED);
 		    }
-		    b.write(packet);
+		    b.write(packet, 0, packetLength - 2);
+		    if (useArena && packet != maxPacket) DataStreamBufferArena.release(packet);
 		}
+		if (useArena) DataStreamBufferArena.release(maxPacket);
 
 	        // Copy the data read into the data stream object
 		newDataStream.data_ = b.toByteArray();
@@ -32,6 +32,12 @@ class DQReadNormalReplyDataStream extends ClientAccessDataStream
         return 0x8003;  // Returns the reply ID.
     }
 
+    // The entry is copied out of the reply, so the reply can be received into an arena buffer.
+    boolean usesBufferArena()
+    {
+        return true;
+    }
+
     // Get sender information.
     byte[] getSenderInformation()
     {
@@ -55,7 +61,7 @@ class DQReadNormalReplyDataStream extends ClientAccessDataStream
         int offset = 58;
         byte[] parameter = null;
 
-        while (offset < data_.length - 6)
+        while (offset < getLength() - 6)
         {
             int length = get32bit(offset);
             if (get16bit(offset + 4) != codePoint)
@@ -198,6 +198,13 @@ public abstract class DataStream
         return null;
     }
 
+    // Retrieve the number of bytes of data_ that belong to this data stream.  This is the length of data_, unless a sub-class keeps its data stream in a larger buffer.
+    // @return  The number of bytes in the data stream.
+    int getDataLength()
+    {
+        return data_.length;
+    }
+
     // Retrieve the system associated with this object.
     // @return  Object representing the system.
     AS400ImplRemote getSystem()
@@ -251,9 +258,10 @@ public abstract class DataStream
     protected int readAfterHeader(InputStream in) throws IOException
     {
         // int bytesRead = readFromStreamDebug(in, data_, headerLength_, data_.length - headerLength_);
-        int bytesRead = readFromStream(in, data_, headerLength_, data_.length - headerLength_);
+        int dataLength = getDataLength();
+        int bytesRead = readFromStream(in, data_, headerLength_, dataLength - headerLength_);
 
-        if (bytesRead < data_.length - headerLength_)
+        if (bytesRead < dataLength - headerLength_)
         {
             if (Trace.traceOn_) Trace.log(Trace.ERROR, "Failed to read all of the data stream."); //@P0C
             throw new ConnectionDroppedException(ConnectionDroppedException.CONNECTION_DROPPED);
@@ -333,12 +341,13 @@ public abstract class DataStream
     void write(OutputStream out) throws IOException
     {
         // Synchronization is added around the socket write so that requests from multiple threads that use the same socket won't be garbled.
+        int dataLength = getDataLength();
         synchronized(out)
         {
-            out.write(data_);
+            out.write(data_, 0, dataLength);
             out.flush();
         }
 
-        if (Trace.traceOn_) Trace.log(Trace.DATASTREAM, "Data stream sent (connID="+connectionID_+") ...", data_); //@P0C
+        if (Trace.traceOn_) Trace.log(Trace.DATASTREAM, "Data stream sent (connID="+connectionID_+") ...", data_, 0, dataLength); //@P0C
     }
 }
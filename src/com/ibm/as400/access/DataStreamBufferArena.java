@@ -0,0 +1,180 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: DataStreamBufferArena.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A JVM wide arena of byte arrays, and optionally direct ByteBuffers, used to assemble requests and receive replies for the host servers.
+// The buffers are kept in power of two size classes from 256 bytes to 16 megabytes.  A buffer handed out is at least as long as requested, so code using an arena buffer must track the length of its data stream instead of using the length of the array.
+// Free buffers are held through soft references, as in the other data stream pools, so the JVM can still reclaim them when memory is short.
+// Buffers that are not given back are simply left to the garbage collector.
+final class DataStreamBufferArena
+{
+    private static final int MIN_SHIFT = 8;   // 256 bytes.
+    private static final int MAX_SHIFT = 24;  // 16 megabytes.
+    // Number of bytes each size class may keep free.  Each class keeps at least one buffer and at most MAX_FREE_PER_CLASS.
+    private static final int FREE_BYTES_PER_CLASS = 2 * 1024 * 1024;
+    private static final int MAX_FREE_PER_CLASS = 64;
+
+    private static boolean enabled_ = false;
+    private static boolean direct_ = false;
+
+    private static final ConcurrentLinkedQueue[] freeArrays_ = new ConcurrentLinkedQueue[MAX_SHIFT - MIN_SHIFT + 1];
+    private static final AtomicInteger[] freeArrayCounts_ = new AtomicInteger[MAX_SHIFT - MIN_SHIFT + 1];
+    private static final ConcurrentLinkedQueue[] freeDirectBuffers_ = new ConcurrentLinkedQueue[MAX_SHIFT - MIN_SHIFT + 1];
+    private static final AtomicInteger[] freeDirectBufferCounts_ = new AtomicInteger[MAX_SHIFT - MIN_SHIFT + 1];
+
+    static
+    {
+        // Get the "buffer arena" property.
+        String propVal = SystemProperties.getProperty(SystemProperties.AS400_BUFFER_ARENA);
+        if (propVal != null)
+        {
+            try
+            {
+                enabled_ = Boolean.valueOf(propVal).booleanValue();
+            }
+            catch (Exception e)
+            {
+                Trace.log(Trace.WARNING, "Error retrieving bufferArena property value:", e);
+            }
+        }
+
+        // Get the "buffer arena direct" property.
+        propVal = SystemProperties.getProperty(SystemProperties.AS400_BUFFER_ARENA_DIRECT);
+        if (propVal != null)
+        {
+            try
+            {
+                direct_ = enabled_ && Boolean.valueOf(propVal).booleanValue();
+            }
+            catch (Exception e)
+            {
+                Trace.log(Trace.WARNING, "Error retrieving bufferArena.direct property value:", e);
+            }
+        }
+
+        for (int i = 0; i < freeArrays_.length; ++i)
+        {
+            freeArrays_[i] = new ConcurrentLinkedQueue();
+            freeArrayCounts_[i] = new AtomicInteger();
+            freeDirectBuffers_[i] = new ConcurrentLinkedQueue();
+            freeDirectBufferCounts_[i] = new AtomicInteger();
+        }
+    }
+
+    private DataStreamBufferArena()
+    {
+    }
+
+    // Indicates if the buffer arena was requested.  When it was not, callers allocate their buffers as before.
+    static boolean isEnabled()
+    {
+        return enabled_;
+    }
+
+    // Indicates if direct buffers are kept by the arena.
+    static boolean isDirectEnabled()
+    {
+        return direct_;
+    }
+
+    // Returns the length of the buffer that get() returns for the requested length.
+    static int getBufferLength(int length)
+    {
+        int sizeClass = getSizeClass(length);
+        return (sizeClass < 0) ? length : 1 << (sizeClass + MIN_SHIFT);
+    }
+
+    // Returns a byte array of at least length bytes.  The contents of the array are undefined.
+    static byte[] get(int length)
+    {
+        int sizeClass = getSizeClass(length);
+        if (sizeClass < 0) return new byte[length];
+        byte[] buffer = (byte[])poll(freeArrays_[sizeClass], freeArrayCounts_[sizeClass]);
+        return (buffer != null) ? buffer : new byte[1 << (sizeClass + MIN_SHIFT)];
+    }
+
+    // Gives a byte array back to the arena.  The array must have been returned by get(), and the caller must not use it afterwards.  Only arrays that are not as long as a size class are ignored; any other array is kept and handed out again.
+    static void release(byte[] buffer)
+    {
+        if (buffer == null) return;
+        int sizeClass = getExactSizeClass(buffer.length);
+        if (sizeClass >= 0) offer(freeArrays_[sizeClass], freeArrayCounts_[sizeClass], sizeClass, buffer);
+    }
+
+    // Returns a cleared direct buffer with a capacity of at least length bytes.
+    static ByteBuffer getDirect(int length)
+    {
+        int sizeClass = getSizeClass(length);
+        if (sizeClass < 0) return ByteBuffer.allocateDirect(length);
+        ByteBuffer buffer = (ByteBuffer)poll(freeDirectBuffers_[sizeClass], freeDirectBufferCounts_[sizeClass]);
+        if (buffer == null) return ByteBuffer.allocateDirect(1 << (sizeClass + MIN_SHIFT));
+        buffer.clear();
+        return buffer;
+    }
+
+    // Gives a direct buffer back to the arena.  The buffer must have been returned by getDirect(), and the caller must not use it afterwards.
+    static void releaseDirect(ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.isDirect()) return;
+        int sizeClass = getExactSizeClass(buffer.capacity());
+        if (sizeClass >= 0) offer(freeDirectBuffers_[sizeClass], freeDirectBufferCounts_[sizeClass], sizeClass, buffer);
+    }
+
+    // Returns the size class for a requested length, or -1 if the length is too large to be kept by the arena.
+    private static int getSizeClass(int length)
+    {
+        if (length <= (1 << MIN_SHIFT)) return 0;
+        if (length > (1 << MAX_SHIFT)) return -1;
+        // Round up to the next power of two.
+        return (32 - Integer.numberOfLeadingZeros(length - 1)) - MIN_SHIFT;
+    }
+
+    // Returns the size class of a buffer of exactly length bytes, or -1 if no size class has that length.
+    private static int getExactSizeClass(int length)
+    {
+        if (length < (1 << MIN_SHIFT) || length > (1 << MAX_SHIFT) || (length & (length - 1)) != 0) return -1;
+        return Integer.numberOfTrailingZeros(length) - MIN_SHIFT;
+    }
+
+    private static Object poll(ConcurrentLinkedQueue freeList, AtomicInteger count)
+    {
+        while (true)
+        {
+            SoftReference ref = (SoftReference)freeList.poll();
+            if (ref == null) return null;
+            count.decrementAndGet();
+            Object buffer = ref.get();
+            if (buffer != null) return buffer;
+            // Cleared by the garbage collector, try the next one.
+        }
+    }
+
+    private static void offer(ConcurrentLinkedQueue freeList, AtomicInteger count, int sizeClass, Object buffer)
+    {
+        int capacity = Math.max(1, Math.min(MAX_FREE_PER_CLASS, FREE_BYTES_PER_CLASS >>> (sizeClass + MIN_SHIFT)));
+        if (count.incrementAndGet() <= capacity)
+        {
+            freeList.offer(new SoftReference(buffer));
+        }
+        else
+        {
+            count.decrementAndGet();
+        }
+    }
+}
@@ -15,6 +15,7 @@ package com.ibm.as400.access;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 /**
 Base class for all IFS server request data streams.
@@ -47,6 +48,32 @@ Construct a byte stream server request.
     this(initialDataBufferLength, 0);
   }
 
+/**
+Construct a byte stream server request, whose buffer is taken from the
+buffer arena when the arena is enabled.  The caller must set the length
+of the request with setLength(), and should give the buffer back with
+releaseBuffer() once the request has been sent.
+@param dataStreamLength the length of the request in bytes
+@param useBufferArena true to use a buffer from the arena
+**/
+  protected IFSDataStreamReq(int dataStreamLength, boolean useBufferArena)
+  {
+    if (useBufferArena && DataStreamBufferArena.isEnabled())
+    {
+      allocateBuffer(dataStreamLength);
+      // Arena buffers are reused, so clear the header and template.
+      Arrays.fill(data_, 0, Math.min(dataStreamLength, 64), (byte)0);
+    }
+    else
+    {
+      data_ = new byte[dataStreamLength];
+    }
+    setHeaderID(0);
+    setServerID(0xE002);
+    setCSInstance(0);
+    set16bit(0, CHAIN_INDICATOR_OFFSET);
+  }
+
 
 /**
 Set the chain indicator.
@@ -39,7 +39,7 @@ class IFSFileDescriptorImplRemote
 implements IFSFileDescriptorImpl
 {
   private static final int UNINITIALIZED = -1;  // @B8a
-  private static final int MAX_BYTES_PER_READ = 16000000;  // limit of file server
+  static final int MAX_BYTES_PER_READ = 16000000;  // limit of file server
 
   // Note: We allow direct access to some of these fields, for performance.  @B2C
           ConverterImplRemote converter_;
@@ -66,6 +66,9 @@ implements IFSFileDescriptorImpl
   private int         maxDataBlockSize_ = 1024; // @B2A
        // Used by IFSFileOutputStreamImplRemote, IFSRandomAccessFileImplRemote.
 
+  private int         writeBehind_;  // write requests that may be outstanding, 0 for none
+  private Vector      pendingWrites_ = new Vector();  // PendingWrite objects, oldest first
+
   private boolean     determinedSystemVRM_ = false;  // @B3A @B4C
   private int         systemVRM_;                    // @B3A @B4C
   transient int errorRC_;  // error return code from most recent request
@@ -136,9 +139,24 @@ implements IFSFileDescriptorImpl
 
   public void close0() throws IOException
   {
-    isOpen_ = false;
-    close(fileHandle_);
-    fileHandle_ = UNINITIALIZED;
+    try
+    {
+      completeWrites();
+    }
+    catch (AS400SecurityException e)
+    {
+      IOException throwException = new IOException(e.getMessage());
+      try {
+        throwException.initCause(e); 
+      } catch (Throwable t) {} 
+      throw throwException;
+    }
+    finally
+    {
+      isOpen_ = false;
+      close(fileHandle_);
+      fileHandle_ = UNINITIALIZED;
+    }
   }
 
   void close(int fileHandle) throws IOException
@@ -600,6 +618,9 @@ implements IFSFileDescriptorImpl
   void flush()  // @B2A - code relocated from IFSFileOutputStreamImplRemote,etc.
     throws IOException, AS400SecurityException
   {
+    // Check the writes that are still outstanding.
+    completeWrites();
+
     // Request that changes be committed to disk.
     IFSCommitReq req = new IFSCommitReq(fileHandle_);
     ClientAccessDataStream ds = null;
@@ -750,6 +771,12 @@ implements IFSFileDescriptorImpl
     return fileHandle_;
   }
 
+  // The largest data block negotiated with the file server.
+  int getMaxDataBlockSize()
+  {
+    return maxDataBlockSize_;
+  }
+
   public long getFileOffset()
   {
     return fileOffset_;
@@ -1156,118 +1183,183 @@ implements IFSFileDescriptorImpl
 
       // Issue the read data request.
       int bytesToReadThisTime = Math.min(bytesRemainingToRead, MAX_BYTES_PER_READ);
-      IFSReadReq req = new IFSReadReq(fileHandle_, fileOffset_,
-                                      bytesToReadThisTime, serverDatastreamLevel_);
-      ClientAccessDataStream ds = null;
-      try
-      {
-        ds = (ClientAccessDataStream) server_.sendAndReceive(req);
-      }
-      catch(ConnectionDroppedException e)
-      {
-        Trace.log(Trace.ERROR, "Byte stream server connection lost");
-        connectionDropped(e);
+      int correlationId = sendRead(fileOffset_, bytesToReadThisTime);
+      int bytesReadByThisRequest = receiveRead(correlationId, data, dataOffset);
+
+      // Advance the file pointer.
+      if (bytesReadByThisRequest > 0) {
+        incrementFileOffset(bytesReadByThisRequest);
+        totalBytesRead += bytesReadByThisRequest;
+        bytesRemainingToRead -= bytesReadByThisRequest;
+        dataOffset += bytesReadByThisRequest;
       }
-      catch(InterruptedException e)
-      {
-        Trace.log(Trace.ERROR, "Interrupted", e);
-        InterruptedIOException throwException = new InterruptedIOException(e.getMessage());
-        try {
-          throwException.initCause(e); 
-        } catch (Throwable t) {} 
-        throw throwException;
+      else {
+        endOfFile = true;
       }
 
-      // Receive replies until the end of chain.
-      boolean endOfChain = false;
-      int bytesReadByThisRequest = 0;
-      do
+    }
+
+    // If we have read zero bytes and hit end-of-file, indicate that by returning -1.
+    // Otherwise return total number of bytes read.
+    return (endOfFile && totalBytesRead == 0 ? -1 : totalBytesRead);
+  }
+
+  /**
+   Sends a request to read up to <i>length</i> bytes at the specified file
+   offset, without waiting for the reply.  The file offset of this descriptor
+   is not changed.  The reply must be received with receiveRead() or
+   discardRead().
+   @param fileOffset The file offset of the first byte to read.
+   @param length The number of bytes to read, at most 16 million.
+   @return The correlation id of the request.
+
+   @exception ConnectionDroppedException If the connection is dropped unexpectedly.
+   @exception IOException If an error occurs while communicating with the server.
+   **/
+  int sendRead(long fileOffset, int length)
+    throws IOException
+  {
+    IFSReadReq req = new IFSReadReq(fileHandle_, fileOffset,
+                                    length, serverDatastreamLevel_);
+    try
+    {
+      return server_.send(req);
+    }
+    catch(ConnectionDroppedException e)
+    {
+      Trace.log(Trace.ERROR, "Byte stream server connection lost");
+      connectionDropped(e);
+      return 0;  // connectionDropped() always throws.
+    }
+  }
+
+  /**
+   Receives the replies to a request sent by sendRead(), and copies the data
+   into <i>data</i>, starting at the array offset <i>dataOffset</i>.
+   The file offset of this descriptor is not changed.
+   @param correlationId The correlation id returned by sendRead().
+   @param data The buffer into which the data is read.
+   @param dataOffset The start offset of the data in the buffer.
+   @return The number of bytes read into the buffer, or -1 if the end of file was reached before any data.
+
+   @exception ConnectionDroppedException If the connection is dropped unexpectedly.
+   @exception ExtendedIOException If an error occurs while communicating with the server.
+   @exception InterruptedIOException If this thread is interrupted.
+   **/
+  int receiveRead(int correlationId, byte[] data, int dataOffset)
+    throws IOException, AS400SecurityException
+  {
+    int bytesRead = 0;
+    boolean endOfFile = false;
+    boolean endOfChain = false;
+    do
+    {
+      ClientAccessDataStream ds = receiveReadReply(correlationId);
+      if (ds instanceof IFSReadRep)
       {
-        if (ds instanceof IFSReadRep)
+        // Copy the data from the reply to the data parameter.
+        int bytesCopied = ((IFSReadRep) ds).copyData(data, dataOffset + bytesRead);
+        if (bytesCopied > 0)
         {
-          // Copy the data from the reply to the data parameter.
-          byte[] buffer = ((IFSReadRep) ds).getData();
-          if (buffer.length > 0)
-          {
-            System.arraycopy(buffer, 0, data, dataOffset, buffer.length);
-            bytesReadByThisRequest += buffer.length;
-            dataOffset += buffer.length;
-          }
-          else // no data returned. This implies end-of-file (e.g. if file is empty).
-          {
-            bytesReadByThisRequest = -1;
-            endOfFile = true;
-          }
+          bytesRead += bytesCopied;
         }
-        else if (ds instanceof IFSReturnCodeRep)
+        else // no data returned. This implies end-of-file (e.g. if file is empty).
         {
-          // Check for failure.
-          int rc = ((IFSReturnCodeRep) ds).getReturnCode();
+          endOfFile = true;
+        }
+      }
+      else if (ds instanceof IFSReturnCodeRep)
+      {
+        // Check for failure.
+        int rc = ((IFSReturnCodeRep) ds).getReturnCode();
 
-          if (rc == IFSReturnCodeRep.SUCCESS)
-          {  // It worked, so nothing special to do here.
-          }
-          else if (rc == IFSReturnCodeRep.NO_MORE_DATA)
-          {
-            // End of file.
-            bytesReadByThisRequest = -1;
-            endOfFile = true;
-          }
-          else  // none of the above
-          {
-            throwSecurityExceptionIfAccessDenied(path_,rc); // check for "access denied"
-            Trace.log(Trace.ERROR, "IFSReturnCodeRep return code", descriptionForReturnCode(rc));
-            throw new ExtendedIOException(path_, rc);
-          }
+        if (rc == IFSReturnCodeRep.SUCCESS)
+        {  // It worked, so nothing special to do here.
         }
-        else  // neither IFSReadRep nor IFSReturnCodeRep
+        else if (rc == IFSReturnCodeRep.NO_MORE_DATA)
         {
-          // Unknown data stream.
-          Trace.log(Trace.ERROR, "Unknown reply data stream", ds.data_);
-          throw new
-            InternalErrorException(Integer.toHexString(ds.getReqRepID()),
-                                   InternalErrorException.DATA_STREAM_UNKNOWN);
+          // End of file.
+          endOfFile = true;
         }
-
-        // Get the next reply if not end of chain.
-        endOfChain = ((IFSDataStream) ds).isEndOfChain();
-        if (!endOfChain)
+        else  // none of the above
         {
-          try
-          {
-            ds = (ClientAccessDataStream)
-              server_.receive(req.getCorrelation());
-          }
-          catch(ConnectionDroppedException e)
-          {
-            Trace.log(Trace.ERROR, "Byte stream server connection lost");
-            connectionDropped(e);
-          }
-          catch(InterruptedException e)
-          {
-            Trace.log(Trace.ERROR, "Interrupted", e);
-            InterruptedIOException throwException = new InterruptedIOException(e.getMessage());
-            try {
-              throwException.initCause(e); 
-            } catch (Throwable t) {} 
-            throw throwException;
-          }
+          discardRemainingReplies(ds, correlationId);
+          throwSecurityExceptionIfAccessDenied(path_,rc); // check for "access denied"
+          Trace.log(Trace.ERROR, "IFSReturnCodeRep return code", descriptionForReturnCode(rc));
+          throw new ExtendedIOException(path_, rc);
         }
       }
-      while (!endOfChain);
-
-      // Advance the file pointer.
-      if (bytesReadByThisRequest > 0) {
-        incrementFileOffset(bytesReadByThisRequest);
-        totalBytesRead += bytesReadByThisRequest;
-        bytesRemainingToRead -= bytesReadByThisRequest;
+      else  // neither IFSReadRep nor IFSReturnCodeRep
+      {
+        // Unknown data stream.
+        Trace.log(Trace.ERROR, "Unknown reply data stream", ds.data_);
+        throw new
+          InternalErrorException(Integer.toHexString(ds.getReqRepID()),
+                                 InternalErrorException.DATA_STREAM_UNKNOWN);
       }
 
+      // Get the next reply if not end of chain.
+      endOfChain = ((IFSDataStream) ds).isEndOfChain();
+      // The data has been copied out, so the reply buffer can be reused.
+      ds.releaseBuffer();
     }
+    while (!endOfChain);
 
-    // If we have read zero bytes and hit end-of-file, indicate that by returning -1.
-    // Otherwise return total number of bytes read.
-    return (endOfFile && totalBytesRead == 0 ? -1 : totalBytesRead);
+    return (endOfFile && bytesRead == 0 ? -1 : bytesRead);
+  }
+
+  /**
+   Receives and discards the replies to a request sent by sendRead(),
+   for example when the data read ahead is no longer needed.
+   @param correlationId The correlation id returned by sendRead().
+
+   @exception ConnectionDroppedException If the connection is dropped unexpectedly.
+   @exception InterruptedIOException If this thread is interrupted.
+   **/
+  void discardRead(int correlationId)
+    throws IOException
+  {
+    discardRemainingReplies(receiveReadReply(correlationId), correlationId);
+  }
+
+  // Releases a reply of a read request and receives and releases the
+  // replies that follow it in the same chain.
+  private void discardRemainingReplies(ClientAccessDataStream ds, int correlationId)
+    throws IOException
+  {
+    boolean endOfChain = ((IFSDataStream) ds).isEndOfChain();
+    ds.releaseBuffer();
+    while (!endOfChain)
+    {
+      ds = receiveReadReply(correlationId);
+      endOfChain = ((IFSDataStream) ds).isEndOfChain();
+      ds.releaseBuffer();
+    }
+  }
+
+  // Receives the next reply to a read request.
+  private ClientAccessDataStream receiveReadReply(int correlationId)
+    throws IOException
+  {
+    try
+    {
+      return (ClientAccessDataStream) server_.receive(correlationId);
+    }
+    catch(ConnectionDroppedException e)
+    {
+      Trace.log(Trace.ERROR, "Byte stream server connection lost");
+      connectionDropped(e);
+      return null;  // connectionDropped() always throws.
+    }
+    catch(InterruptedException e)
+    {
+      Trace.log(Trace.ERROR, "Interrupted", e);
+      InterruptedIOException throwException = new InterruptedIOException(e.getMessage());
+      try {
+        throwException.initCause(e); 
+      } catch (Throwable t) {} 
+      throw throwException;
+    }
   }
 
   void setConverter(ConverterImplRemote converter)
@@ -1556,6 +1648,35 @@ implements IFSFileDescriptorImpl
         req.setChainIndicator(1);
       }
 
+      if (writeBehind_ > 0 && !forceToStorage)
+      {
+        // Send the request without waiting for the reply, and assume that
+        // all of the data will be written.  The reply is checked once more
+        // than writeBehind_ requests are outstanding, or by completeWrites().
+        long requestOffset = fileOffset_;
+        int correlationId = 0;
+        try
+        {
+          correlationId = server_.send(req);
+        }
+        catch(ConnectionDroppedException e)
+        {
+          Trace.log(Trace.ERROR, "Byte stream server connection lost");
+          connectionDropped(e);
+        }
+        req.releaseBuffer();
+        pendingWrites_.addElement(new PendingWrite(correlationId, requestOffset, writeLength));
+        incrementFileOffset(writeLength);
+        dataOffset += writeLength;
+        length -= writeLength;
+
+        while (pendingWrites_.size() > writeBehind_)
+        {
+          completeWrite();
+        }
+        continue;
+      }
+
       // Send the request.
       ClientAccessDataStream ds = null;
       try
@@ -1578,6 +1699,9 @@ implements IFSFileDescriptorImpl
         throw throwException;
       }
 
+      // The request has been sent, so its buffer can be reused.
+      req.releaseBuffer();
+
       // Check the reply.
       if (ds instanceof IFSWriteRep)
       {
@@ -1625,6 +1749,165 @@ implements IFSFileDescriptorImpl
       }
     }
   }
+  /**
+   Sets the number of write requests that may be outstanding.  While it is
+   greater than zero, writeBytes() sends the write requests without waiting
+   for their replies, unless the data is forced to storage.  The replies are
+   checked when a write makes more requests outstanding, and by flush() and
+   close0(), so an error of a write is reported by a later call.
+   @param writeBehind The number of write requests that may be outstanding, 0 for none.
+   **/
+  void setWriteBehind(int writeBehind)
+  {
+    writeBehind_ = writeBehind;
+  }
+
+  /**
+   Receives and checks the replies to all outstanding write requests.
+   If a write failed, the file offset is set to the end of the data written
+   before the failure.
+
+   @exception ConnectionDroppedException If the connection is dropped unexpectedly.
+   @exception ExtendedIOException If an error occurs while communicating with the server.
+   @exception InterruptedIOException If this thread is interrupted.
+   **/
+  void completeWrites()
+    throws IOException, AS400SecurityException
+  {
+    while (!pendingWrites_.isEmpty())
+    {
+      completeWrite();
+    }
+  }
+
+  // Receives and checks the reply to the oldest outstanding write request.
+  private void completeWrite()
+    throws IOException, AS400SecurityException
+  {
+    // The write stays outstanding until its reply has been received.
+    PendingWrite write = (PendingWrite) pendingWrites_.elementAt(0);
+    if (server_ == null)
+    {
+      // The connection was dropped, which was reported already.
+      pendingWrites_.removeAllElements();
+      return;
+    }
+
+    ClientAccessDataStream ds = null;
+    try
+    {
+      ds = (ClientAccessDataStream) server_.receive(write.correlationId_);
+    }
+    catch(ConnectionDroppedException e)
+    {
+      Trace.log(Trace.ERROR, "Byte stream server connection lost");
+      pendingWrites_.removeAllElements();
+      connectionDropped(e);
+    }
+    catch(InterruptedException e)
+    {
+      Trace.log(Trace.ERROR, "Interrupted", e);
+      // The outcome of this write is unknown.  Continue from its start.
+      discardWrites();
+      setFileOffset(write.fileOffset_);
+      InterruptedIOException throwException = new InterruptedIOException(e.getMessage());
+      try {
+        throwException.initCause(e); 
+      } catch (Throwable t) {} 
+      throw throwException;
+    }
+    pendingWrites_.removeElementAt(0);
+
+    int lengthWritten = 0;
+    boolean succeeded = false;
+    try
+    {
+      if (ds instanceof IFSWriteRep)
+      {
+        IFSWriteRep rep = (IFSWriteRep) ds;
+        int rc = rep.getReturnCode();
+        if (rc != 0)
+        {
+          Trace.log(Trace.ERROR, "IFSWriteRep return code", rc);
+          throw new ExtendedIOException(path_, rc);
+        }
+
+        // Ensure that all data requested was written.
+        lengthWritten = write.length_ - rep.getLengthNotWritten();
+        if (lengthWritten != write.length_)
+        {
+          Trace.log(Trace.ERROR, "Incomplete write.  Only " +
+                    Integer.toString(lengthWritten) + " bytes of a requested " +
+                    Integer.toString(write.length_) + " were written.");
+          throw new ExtendedIOException(path_, ExtendedIOException.UNKNOWN_ERROR);
+        }
+      }
+      else if (ds instanceof IFSReturnCodeRep)
+      {
+        int rc = ((IFSReturnCodeRep) ds).getReturnCode();
+        if (rc != IFSReturnCodeRep.SUCCESS)
+        {
+          throwSecurityExceptionIfAccessDenied(path_,rc); // check for "access denied"
+          Trace.log(Trace.ERROR, "IFSReturnCodeRep return code", descriptionForReturnCode(rc));
+          throw new ExtendedIOException(path_, rc);
+        }
+      }
+      else
+      {
+        // Unknown data stream.
+        Trace.log(Trace.ERROR, "Unknown reply data stream", ds.data_);
+        throw new
+          InternalErrorException(Integer.toHexString(ds.getReqRepID()),
+                                 InternalErrorException.DATA_STREAM_UNKNOWN);
+      }
+      succeeded = true;
+    }
+    finally
+    {
+      if (!succeeded)
+      {
+        // The writes after the failed one are not reported.  Continue
+        // from the end of the data that was written.
+        discardWrites();
+        setFileOffset(write.fileOffset_ + lengthWritten);
+      }
+    }
+  }
+
+  // Receives and ignores the replies to the outstanding write requests.
+  private void discardWrites()
+  {
+    while (!pendingWrites_.isEmpty())
+    {
+      PendingWrite write = (PendingWrite) pendingWrites_.elementAt(0);
+      pendingWrites_.removeElementAt(0);
+      try
+      {
+        server_.receive(write.correlationId_);
+      }
+      catch (Exception e)
+      {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Error discarding write reply:", e);
+        pendingWrites_.removeAllElements();
+      }
+    }
+  }
+
+  // A write request that was sent without waiting for its reply.
+  private static final class PendingWrite
+  {
+    final int  correlationId_;
+    final long fileOffset_;  // file offset of the data
+    final int  length_;      // number of bytes sent
+
+    PendingWrite(int correlationId, long fileOffset, int length)
+    {
+      correlationId_ = correlationId;
+      fileOffset_ = fileOffset;
+      length_ = length;
+    }
+  }
+
   public int getServerDatastreamLevel() {
     return serverDatastreamLevel_;
   }
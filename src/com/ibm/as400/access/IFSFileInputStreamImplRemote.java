@@ -17,6 +17,7 @@ import java.io.InputStream;
 import java.io.FileNotFoundException;
 import java.io.InterruptedIOException;
 import java.io.IOException;
+import java.util.Vector;
 
 
 /**
@@ -31,6 +32,21 @@ implements IFSFileInputStreamImpl
   // Variables needed by subclass IFSTextFileInputStream:
   transient private ConvTableReader reader_;            // @B7a
 
+  // Read-ahead, used when the file is read sequentially.  See the
+  // SystemProperties.IFS_READ_AHEAD property.
+  private static final int SEQUENTIAL_READS = 2;  // sequential reads before reading ahead
+  private int    readAhead_ = -1;         // requests to keep outstanding, 0 for none, -1 if not yet known
+  private int    sequentialReads_;        // consecutive reads that continued the previous one
+  private long   nextReadOffset_;         // file offset after the most recent read
+  private Vector pendingReads_;           // correlation ids of the requests sent, oldest first; null if not reading ahead
+  private long   pendingOffset_;          // file offset of the next request to send
+  private int    blockSize_;              // length of each request
+  private byte[] buffer_;                 // data of the oldest block received
+  private int    bufferPosition_;         // next byte of buffer_ to return
+  private int    bufferEnd_;              // end of the data in buffer_
+  private long   bufferOffset_;           // file offset of buffer_[bufferPosition_]
+  private boolean endOfFileRequested_;    // true once a request returned the end of file
+
   // Used for debugging only.  This should always be false for production.
   // When this is false, all debug code will theoretically compile out.
   private static final boolean DEBUG = false;  // @B2A
@@ -90,7 +106,14 @@ implements IFSFileInputStreamImpl
   public void close()
     throws IOException
   {
-    fd_.close0();  // @B2C
+    try
+    {
+      if (fd_.isOpen_) endReadAhead();
+    }
+    finally
+    {
+      fd_.close0();  // @B2C
+    }
   }
 
   public void connectAndOpen()
@@ -428,7 +451,47 @@ implements IFSFileInputStreamImpl
     open();
 
     try {
-      return fd_.read(data, dataOffset, length);  // @B2C
+      if (readAhead_ < 0)
+      {
+        readAhead_ = getReadAheadProperty();
+      }
+      if (readAhead_ == 0 || length == 0)
+      {
+        return fd_.read(data, dataOffset, length);  // @B2C
+      }
+
+      // Read ahead once the reads are sequential.
+      long fileOffset = fd_.getFileOffset();
+      if (fileOffset == nextReadOffset_)
+      {
+        ++sequentialReads_;
+      }
+      else
+      {
+        sequentialReads_ = 0;
+      }
+      int bytesRead;
+      if (sequentialReads_ >= SEQUENTIAL_READS)
+      {
+        boolean succeeded = false;
+        try
+        {
+          bytesRead = readSequential(fileOffset, data, dataOffset, length);
+          succeeded = true;
+        }
+        finally
+        {
+          // Start over at the file offset on the next read.
+          if (!succeeded) abandonReadAhead();
+        }
+      }
+      else
+      {
+        endReadAhead();
+        bytesRead = fd_.read(data, dataOffset, length);
+      }
+      nextReadOffset_ = fd_.getFileOffset();
+      return bytesRead;
     }
     catch (AS400SecurityException e) {
       IOException throwException = new IOException(e.getMessage());
@@ -439,6 +502,168 @@ implements IFSFileInputStreamImpl
     }
   }
 
+  // Reads from the blocks read ahead, starting or restarting the read-ahead
+  // at the current file offset as needed.
+  private int readSequential(long fileOffset, byte[] data, int dataOffset, int length)
+    throws IOException, AS400SecurityException
+  {
+    // The file offset moves only by the reads of this stream, unless the
+    // file descriptor is shared.  Once the end of file was reached, the
+    // read-ahead starts over in case the file has grown.
+    if (pendingReads_ != null &&
+        (fileOffset != bufferOffset_ || (pendingReads_.isEmpty() && bufferPosition_ == bufferEnd_)))
+    {
+      endReadAhead();
+    }
+    if (pendingReads_ == null)
+    {
+      blockSize_ = Math.min(Math.max(fd_.getMaxDataBlockSize(), length), IFSFileDescriptorImplRemote.MAX_BYTES_PER_READ);
+      if (buffer_ == null || buffer_.length < blockSize_)
+      {
+        buffer_ = new byte[blockSize_];
+      }
+      bufferPosition_ = 0;
+      bufferEnd_ = 0;
+      bufferOffset_ = fileOffset;
+      pendingOffset_ = fileOffset;
+      endOfFileRequested_ = false;
+      pendingReads_ = new Vector();
+      if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Reading ahead " + readAhead_ + " blocks of " + blockSize_ + " bytes at offset " + fileOffset + ":", fd_.getPath());
+      sendReadAhead();
+    }
+
+    int totalBytesRead = 0;
+    boolean endOfFile = false;
+    while (totalBytesRead < length && !endOfFile)
+    {
+      int bytesBuffered = bufferEnd_ - bufferPosition_;
+      if (bytesBuffered > 0)
+      {
+        int bytesToCopy = Math.min(bytesBuffered, length - totalBytesRead);
+        System.arraycopy(buffer_, bufferPosition_, data, dataOffset + totalBytesRead, bytesToCopy);
+        bufferPosition_ += bytesToCopy;
+        totalBytesRead += bytesToCopy;
+      }
+      else if (pendingReads_.isEmpty())
+      {
+        endOfFile = true;
+      }
+      else
+      {
+        // Receive the oldest block, directly into the caller's buffer if
+        // it has room for a whole block.
+        int correlationId = ((Integer)pendingReads_.elementAt(0)).intValue();
+        pendingReads_.removeElementAt(0);
+        long blockOffset = bufferOffset_ + totalBytesRead;
+        int bytesRead;
+        if (length - totalBytesRead >= blockSize_)
+        {
+          bytesRead = fd_.receiveRead(correlationId, data, dataOffset + totalBytesRead);
+          if (bytesRead > 0) totalBytesRead += bytesRead;
+        }
+        else
+        {
+          bytesRead = fd_.receiveRead(correlationId, buffer_, 0);
+          bufferPosition_ = 0;
+          bufferEnd_ = Math.max(bytesRead, 0);
+        }
+        if (bytesRead < blockSize_)
+        {
+          // The requests after a short block asked for data past its end,
+          // so they are sent again from there.  A block with no data is
+          // the end of file.
+          discardReadAhead();
+          if (bytesRead <= 0)
+          {
+            endOfFileRequested_ = true;
+          }
+          else
+          {
+            pendingOffset_ = blockOffset + bytesRead;
+          }
+        }
+        sendReadAhead();
+      }
+    }
+
+    fd_.incrementFileOffset(totalBytesRead);
+    bufferOffset_ += totalBytesRead;
+    return (endOfFile && totalBytesRead == 0 ? -1 : totalBytesRead);
+  }
+
+  // Sends read requests until readAhead_ requests are outstanding.
+  private void sendReadAhead()
+    throws IOException
+  {
+    while (!endOfFileRequested_ && pendingReads_.size() < readAhead_)
+    {
+      int correlationId = fd_.sendRead(pendingOffset_, blockSize_);
+      pendingReads_.addElement(Integer.valueOf(correlationId));
+      pendingOffset_ += blockSize_;
+    }
+  }
+
+  // Receives and discards the replies to the outstanding read requests.
+  private void discardReadAhead()
+    throws IOException
+  {
+    while (!pendingReads_.isEmpty())
+    {
+      int correlationId = ((Integer)pendingReads_.elementAt(0)).intValue();
+      pendingReads_.removeElementAt(0);
+      fd_.discardRead(correlationId);
+    }
+  }
+
+  // Stops reading ahead, and discards the data read ahead.
+  private void endReadAhead()
+    throws IOException
+  {
+    if (pendingReads_ != null)
+    {
+      try
+      {
+        discardReadAhead();
+      }
+      finally
+      {
+        pendingReads_ = null;
+        bufferPosition_ = 0;
+        bufferEnd_ = 0;
+      }
+    }
+  }
+
+  // Stops reading ahead after a failed read, ignoring further errors.
+  private void abandonReadAhead()
+  {
+    try
+    {
+      endReadAhead();
+    }
+    catch (Exception e)
+    {
+      if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Error discarding the data read ahead:", e);
+    }
+  }
+
+  // Returns the number of read requests to keep outstanding.
+  private static int getReadAheadProperty()
+  {
+    String propVal = SystemProperties.getProperty(SystemProperties.IFS_READ_AHEAD);
+    if (propVal != null)
+    {
+      try {
+        int value = Integer.parseInt(propVal.trim());
+        if (value >= 0) return value;
+      }
+      catch (Exception e) {
+        if (Trace.traceOn_) Trace.log(Trace.WARNING, "Error retrieving " + SystemProperties.IFS_READ_AHEAD + " property value:", e);
+      }
+    }
+    return 0;
+  }
+
   // Used by IFSTextFileInputStream.read(int) only:
   /**
    Reads up to <i>length</i> characters from this text file input stream.
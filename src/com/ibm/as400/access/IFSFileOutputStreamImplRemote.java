@@ -237,6 +237,7 @@ implements IFSFileOutputStreamImpl
       IFSOpenRep rep = (IFSOpenRep) ds;
       fd_.setOpen(true, rep.getFileHandle());
       fd_.setOpenAllowed(false);
+      fd_.setWriteBehind(getWriteBehindProperty());
       if (append_)
       {
         // We must append to the file.
@@ -272,6 +273,24 @@ implements IFSFileOutputStreamImpl
   }
 
 
+  // Returns the number of write requests that may be outstanding.
+  private static int getWriteBehindProperty()
+  {
+    String propVal = SystemProperties.getProperty(SystemProperties.IFS_WRITE_BEHIND);
+    if (propVal != null)
+    {
+      try {
+        int value = Integer.parseInt(propVal.trim());
+        if (value >= 0) return value;
+      }
+      catch (Exception e) {
+        if (Trace.traceOn_) Trace.log(Trace.WARNING, "Error retrieving " + SystemProperties.IFS_WRITE_BEHIND + " property value:", e);
+      }
+    }
+    return 0;
+  }
+
+
   public void setAppend(boolean append)
   {
     append_ = append;
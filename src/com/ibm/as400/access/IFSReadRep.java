@@ -57,6 +57,31 @@ Get the data.
     return dataRead;
   }
 
+/**
+Copy the data into a buffer, without an intermediate array.
+@param buffer the buffer to receive the bytes read
+@param offset the offset in the buffer
+@return the number of bytes read
+**/
+  int copyData(byte[] buffer, int offset)
+  {
+    int bytesRead = get32bit( FILE_DATA_LL_OFFSET) - 6;
+    if (bytesRead > 0)
+    {
+      System.arraycopy(data_, FILE_DATA_OFFSET, buffer, offset, bytesRead);
+    }
+    return bytesRead;
+  }
+
+/**
+Read replies are received into buffers from the buffer arena.
+@return true
+**/
+  boolean usesBufferArena()
+  {
+    return true;
+  }
+
 /**
 Generates a hash code for this data stream.
 @return the hash code
@@ -0,0 +1,773 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: IFSTransfer.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ *The IFSTransfer class copies a file between the local file system and the
+ *integrated file system over several connections at once.  The file is split
+ *into ranges of bytes.  Each connection opens the integrated file system file
+ *as an IFSRandomAccessFile, in a thread of its own, and transfers one range at
+ *a time, taking the next range that no other connection has taken, so the
+ *ranges are transferred in parallel.
+ *<p>
+ *The local file is accessed through a FileChannel.  If the transfer is memory
+ *mapped, each range of the local file is mapped into memory and copied to or
+ *from the mapped buffer; otherwise positioned reads and writes are used.
+ *<p>
+ *If a checkpoint file is set, the transfer records each range in it once the
+ *range has been forced to storage.  A transfer that fails or is interrupted
+ *can then be resumed by running the same transfer again with the same
+ *checkpoint file; the ranges that are recorded are not transferred again.  The
+ *checkpoint file is deleted when the transfer completes.  A checkpoint file that
+ *was written by a different transfer, or for a source of a different size, is
+ *ignored and the transfer starts over.
+ *<p>
+ *The following example restores a file over four connections from a
+ *connection pool:
+ *<pre>
+ *  IFSTransfer transfer = new IFSTransfer(pool, "mySystem", "myUserID", "myPassword", 4);
+ *  transfer.setCheckpointFile(new File("/backup/data.bin.checkpoint"));
+ *  transfer.upload(new File("/backup/data.bin"), "/home/myUserID/data.bin");
+ *</pre>
+ *Copying a file from one integrated file system directory to another is done
+ *on the system by IFSFile.copyTo(), without moving the data to the client.
+ *@see IFSRandomAccessFile
+ *@see AS400ConnectionPool
+**/
+public class IFSTransfer
+{
+  private static final String CHECKPOINT_VERSION = "IFSTransfer 1";
+
+  // The connections, one for each stream.
+  private AS400[] systems_;
+  // The pool the connections are taken from, or null if they were passed in.
+  private AS400ConnectionPool pool_;
+  private String systemName_;
+  private String userID_;
+  private String password_;
+  private int numberOfStreams_;
+
+  private long rangeSize_ = 16 * 1024 * 1024;
+  private int bufferSize_ = 1024 * 1024;
+  private boolean memoryMapped_;
+  private File checkpointFile_;
+
+  // The transfer in progress, or null.
+  private Transfer inProgress_;
+  private long bytesTransferred_;
+
+  /**
+   *Constructs an IFSTransfer object.  The file is transferred in one stream for
+   *each of the specified systems.  Use a different AS400 object for each stream;
+   *streams that share an AS400 object share its connection.
+   *@param systems The systems, one for each stream.
+  **/
+  public IFSTransfer(AS400[] systems)
+  {
+    if (systems == null)
+    {
+      throw new NullPointerException("systems");
+    }
+    if (systems.length == 0)
+    {
+      throw new ExtendedIllegalArgumentException("systems", ExtendedIllegalArgumentException.LENGTH_NOT_VALID);
+    }
+    for (int i = 0; i < systems.length; ++i)
+    {
+      if (systems[i] == null)
+      {
+        throw new NullPointerException("systems[" + i + "]");
+      }
+    }
+    systems_ = systems;
+    numberOfStreams_ = systems.length;
+  }
+
+  /**
+   *Constructs an IFSTransfer object that takes its connections from a
+   *connection pool.  The connections are taken from the pool when a transfer
+   *starts, and returned to the pool when it ends.
+   *@param pool The connection pool.
+   *@param systemName The name of the system.
+   *@param userID The user profile name.
+   *@param password The user profile password.
+   *@param numberOfStreams The number of streams, and of connections.  The
+   *<i>numberOfStreams</i> must be greater than zero.
+  **/
+  public IFSTransfer(AS400ConnectionPool pool, String systemName, String userID, String password, int numberOfStreams)
+  {
+    if (pool == null)
+    {
+      throw new NullPointerException("pool");
+    }
+    if (systemName == null)
+    {
+      throw new NullPointerException("systemName");
+    }
+    if (userID == null)
+    {
+      throw new NullPointerException("userID");
+    }
+    if (numberOfStreams < 1)
+    {
+      throw new ExtendedIllegalArgumentException("numberOfStreams", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    }
+    pool_ = pool;
+    systemName_ = systemName;
+    userID_ = userID;
+    password_ = password;
+    numberOfStreams_ = numberOfStreams;
+  }
+
+  /**
+   *Copies a file from the integrated file system to the local file system.
+   *The local file is created if it does not exist, and set to the size of the
+   *integrated file system file.
+   *@param remotePath The integrated file system path name of the file to copy.
+   *@param localFile The local file to copy to.
+   *@return The number of bytes transferred.  When a transfer is resumed, the
+   *ranges that were recorded in the checkpoint file are not counted.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception ConnectionPoolException If a connection cannot be taken from the connection pool.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the system,
+   *or while accessing the local file or the checkpoint file.
+  **/
+  public long download(String remotePath, File localFile)
+    throws AS400SecurityException,
+           ConnectionPoolException,
+           InterruptedException,
+           IOException
+  {
+    if (remotePath == null)
+    {
+      throw new NullPointerException("remotePath");
+    }
+    if (localFile == null)
+    {
+      throw new NullPointerException("localFile");
+    }
+    return transfer(new Transfer(false, remotePath, localFile));
+  }
+
+  /**
+   *Copies a file from the local file system to the integrated file system.
+   *The integrated file system file is created if it does not exist, and
+   *replaced if it does, unless the transfer is resumed.
+   *@param localFile The local file to copy.
+   *@param remotePath The integrated file system path name of the file to copy to.
+   *@return The number of bytes transferred.  When a transfer is resumed, the
+   *ranges that were recorded in the checkpoint file are not counted.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception ConnectionPoolException If a connection cannot be taken from the connection pool.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the system,
+   *or while accessing the local file or the checkpoint file.
+  **/
+  public long upload(File localFile, String remotePath)
+    throws AS400SecurityException,
+           ConnectionPoolException,
+           InterruptedException,
+           IOException
+  {
+    if (localFile == null)
+    {
+      throw new NullPointerException("localFile");
+    }
+    if (remotePath == null)
+    {
+      throw new NullPointerException("remotePath");
+    }
+    return transfer(new Transfer(true, remotePath, localFile));
+  }
+
+  /**
+   *Returns the size of the buffer each stream transfers the data in.
+   *@return The buffer size, in bytes.
+  **/
+  public int getBufferSize()
+  {
+    return bufferSize_;
+  }
+
+  /**
+   *Returns the number of bytes transferred so far by the transfer in progress,
+   *or by the last transfer.
+   *@return The number of bytes transferred.
+  **/
+  public synchronized long getBytesTransferred()
+  {
+    return bytesTransferred_;
+  }
+
+  /**
+   *Returns the checkpoint file.
+   *@return The checkpoint file, or null if the transfers cannot be resumed.
+  **/
+  public File getCheckpointFile()
+  {
+    return checkpointFile_;
+  }
+
+  /**
+   *Returns the number of streams.
+   *@return The number of streams.
+  **/
+  public int getNumberOfStreams()
+  {
+    return numberOfStreams_;
+  }
+
+  /**
+   *Returns the size of the ranges the file is split into.
+   *@return The range size, in bytes.
+  **/
+  public long getRangeSize()
+  {
+    return rangeSize_;
+  }
+
+  /**
+   *Indicates if the ranges of the local file are mapped into memory.
+   *@return true if the local file is memory mapped; false otherwise.
+  **/
+  public boolean isMemoryMapped()
+  {
+    return memoryMapped_;
+  }
+
+  /**
+   *Sets the size of the buffer each stream transfers the data in.  Each read
+   *from and write to the integrated file system file is at most this size.
+   *This property cannot be changed while a transfer is in progress.  The
+   *default is 1 megabyte.
+   *@param bufferSize The buffer size, in bytes.  The <i>bufferSize</i> must be
+   *greater than zero.
+  **/
+  public void setBufferSize(int bufferSize)
+  {
+    if (bufferSize < 1)
+    {
+      throw new ExtendedIllegalArgumentException("bufferSize", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    }
+    checkNotStarted("bufferSize");
+    bufferSize_ = bufferSize;
+  }
+
+  /**
+   *Sets the checkpoint file, which records the ranges that have been
+   *transferred so that a failed transfer can be resumed.  This property cannot
+   *be changed while a transfer is in progress.
+   *@param checkpointFile The checkpoint file, or null if the transfers cannot
+   *be resumed.  The default is null.
+  **/
+  public void setCheckpointFile(File checkpointFile)
+  {
+    checkNotStarted("checkpointFile");
+    checkpointFile_ = checkpointFile;
+  }
+
+  /**
+   *Sets whether the ranges of the local file are mapped into memory.  A mapped
+   *range stays mapped until its buffer is garbage collected.  This property
+   *cannot be changed while a transfer is in progress.
+   *@param memoryMapped true to map the local file into memory; false to use
+   *positioned reads and writes.  The default is false.
+  **/
+  public void setMemoryMapped(boolean memoryMapped)
+  {
+    checkNotStarted("memoryMapped");
+    memoryMapped_ = memoryMapped;
+  }
+
+  /**
+   *Sets the size of the ranges the file is split into.  Each range is
+   *transferred by one stream, and is the unit that is recorded in the
+   *checkpoint file.  This property cannot be changed while a transfer is in
+   *progress.  The default is 16 megabytes.
+   *@param rangeSize The range size, in bytes.  The <i>rangeSize</i> must be
+   *greater than zero and not greater than Integer.MAX_VALUE.
+  **/
+  public void setRangeSize(long rangeSize)
+  {
+    if (rangeSize < 1 || rangeSize > Integer.MAX_VALUE)
+    {
+      throw new ExtendedIllegalArgumentException("rangeSize", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    }
+    checkNotStarted("rangeSize");
+    rangeSize_ = rangeSize;
+  }
+
+  private synchronized void checkNotStarted(String property)
+  {
+    if (inProgress_ != null)
+    {
+      throw new ExtendedIllegalStateException(property, ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+    }
+  }
+
+  // Takes the connections, opens the files, and transfers the ranges that are
+  // not recorded in the checkpoint file, a thread for each stream.
+  private long transfer(Transfer transfer)
+    throws AS400SecurityException,
+           ConnectionPoolException,
+           InterruptedException,
+           IOException
+  {
+    synchronized(this)
+    {
+      if (inProgress_ != null)
+      {
+        throw new ExtendedIllegalStateException(ExtendedIllegalStateException.OBJECT_CAN_NOT_BE_OPEN);
+      }
+      inProgress_ = transfer;
+      bytesTransferred_ = 0;
+    }
+    AS400[] systems = systems_;
+    IFSRandomAccessFile first = null;
+    Stream[] streams = null;
+    try
+    {
+      if (pool_ != null)
+      {
+        systems = new AS400[numberOfStreams_];
+        for (int i = 0; i < systems.length; ++i)
+        {
+          systems[i] = pool_.getConnection(systemName_, userID_, password_, AS400.FILE);
+        }
+      }
+
+      boolean resumed;
+      if (transfer.upload_)
+      {
+        transfer.local_ = new RandomAccessFile(transfer.localFile_, "r");
+        transfer.size_ = transfer.local_.length();
+        resumed = transfer.readCheckpoint();
+        // A new transfer replaces the file; the streams only open it.
+        first = new IFSRandomAccessFile(systems[0], transfer.remotePath_, "w", IFSRandomAccessFile.SHARE_ALL,
+                                        resumed ? IFSRandomAccessFile.OPEN_OR_CREATE : IFSRandomAccessFile.REPLACE_OR_CREATE);
+      }
+      else
+      {
+        first = new IFSRandomAccessFile(systems[0], transfer.remotePath_, "r");
+        transfer.size_ = first.length();
+        resumed = transfer.readCheckpoint();
+        transfer.local_ = new RandomAccessFile(transfer.localFile_, "rw");
+        transfer.local_.setLength(transfer.size_);
+      }
+      transfer.channel_ = transfer.local_.getChannel();
+      transfer.openCheckpoint(resumed);
+
+      if (Trace.traceOn_) Trace.log(Trace.INFORMATION, "IFSTransfer " + (transfer.upload_ ? "upload " : "download ") + transfer.remotePath_ + ": " + transfer.size_ + " bytes, " + transfer.ranges_ + " ranges, " + numberOfStreams_ + " streams, resumed: " + resumed);
+
+      streams = new Stream[Math.max(1, Math.min(numberOfStreams_, transfer.ranges_))];
+      for (int i = 0; i < streams.length; ++i)
+      {
+        streams[i] = new Stream(i, transfer, systems[i]);
+      }
+      streams[0].file_ = first;
+      first = null;
+      for (int i = 0; i < streams.length; ++i)
+      {
+        streams[i].thread_ = new Thread(streams[i], "IFSTransfer-" + i);
+        streams[i].thread_.setDaemon(true);
+        streams[i].thread_.start();
+      }
+      join(streams, transfer);
+
+      if (transfer.exception_ != null)
+      {
+        throwException(transfer.exception_);
+      }
+      transfer.complete();
+      return getBytesTransferred();
+    }
+    finally
+    {
+      if (first != null)
+      {
+        try
+        {
+          first.close();
+        }
+        catch (Exception e)
+        {
+          if (Trace.traceOn_) Trace.log(Trace.WARNING, "Exception closing " + transfer.remotePath_ + ":", e);
+        }
+      }
+      transfer.close();
+      if (pool_ != null)
+      {
+        for (int i = 0; i < systems.length; ++i)
+        {
+          if (systems[i] != null) pool_.returnConnectionToPool(systems[i]);
+        }
+      }
+      synchronized(this)
+      {
+        inProgress_ = null;
+      }
+    }
+  }
+
+  // Waits for the streams to end.  If this thread is interrupted, the streams
+  // stop after their current range and the interruption is reported.
+  private static void join(Stream[] streams, Transfer transfer)
+  {
+    for (int i = 0; i < streams.length; ++i)
+    {
+      while (streams[i].thread_.isAlive())
+      {
+        try
+        {
+          streams[i].thread_.join();
+        }
+        catch (InterruptedException e)
+        {
+          transfer.fail(e);
+        }
+      }
+    }
+  }
+
+  private synchronized void addBytesTransferred(long count)
+  {
+    bytesTransferred_ += count;
+  }
+
+  private static void throwException(Exception e)
+    throws AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    if (e instanceof AS400SecurityException) throw (AS400SecurityException)e;
+    if (e instanceof InterruptedException) throw (InterruptedException)e;
+    if (e instanceof IOException) throw (IOException)e;
+    if (e instanceof RuntimeException) throw (RuntimeException)e;
+    throw new InternalErrorException(InternalErrorException.UNEXPECTED_EXCEPTION, e);
+  }
+
+  // The state of one transfer.  The ranges are taken and recorded while
+  // holding the lock of this object.
+  private class Transfer
+  {
+    final boolean upload_;
+    final String remotePath_;
+    final File localFile_;
+    long size_;
+    int ranges_;
+    RandomAccessFile local_;
+    FileChannel channel_;
+    // The ranges recorded in the checkpoint file or transferred.
+    boolean[] done_;
+    // The next range to take.
+    int nextRange_;
+    FileOutputStream checkpoint_;
+    Exception exception_;
+
+    Transfer(boolean upload, String remotePath, File localFile)
+    {
+      upload_ = upload;
+      remotePath_ = remotePath;
+      localFile_ = localFile;
+    }
+
+    // The first lines of the checkpoint file, which identify the transfer.
+    String getCheckpointHeader()
+    {
+      return CHECKPOINT_VERSION + "\n" +
+             (upload_ ? "upload" : "download") + "\n" +
+             remotePath_ + "\n" +
+             localFile_.getAbsolutePath() + "\n" +
+             size_ + "\n" +
+             rangeSize_ + "\n";
+    }
+
+    // Splits the file into ranges, and marks the ranges recorded in the
+    // checkpoint file as done.  Returns true if the checkpoint file belongs
+    // to this transfer.
+    boolean readCheckpoint()
+      throws IOException
+    {
+      long ranges = (size_ + rangeSize_ - 1) / rangeSize_;
+      if (ranges > Integer.MAX_VALUE)
+      {
+        throw new ExtendedIllegalArgumentException("rangeSize", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+      }
+      ranges_ = (int)ranges;
+      done_ = new boolean[ranges_];
+      if (checkpointFile_ == null || !checkpointFile_.exists())
+      {
+        return false;
+      }
+
+      BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(checkpointFile_), "UTF-8"));
+      try
+      {
+        StringBuffer header = new StringBuffer();
+        for (int i = 0; i < 6; ++i)
+        {
+          String line = reader.readLine();
+          if (line == null) break;
+          header.append(line).append('\n');
+        }
+        if (!header.toString().equals(getCheckpointHeader()))
+        {
+          if (Trace.traceOn_) Trace.log(Trace.WARNING, "IFSTransfer checkpoint file " + checkpointFile_ + " is for a different transfer, starting over.");
+          return false;
+        }
+        int recorded = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine())
+        {
+          try
+          {
+            int range = Integer.parseInt(line.trim());
+            if (range >= 0 && range < ranges_ && !done_[range])
+            {
+              done_[range] = true;
+              ++recorded;
+            }
+          }
+          catch (NumberFormatException e)
+          {
+            // A line that was not written completely.
+            if (Trace.traceOn_) Trace.log(Trace.WARNING, "Ignoring IFSTransfer checkpoint line: " + line);
+          }
+        }
+        if (Trace.traceOn_) Trace.log(Trace.INFORMATION, "IFSTransfer resuming from " + checkpointFile_ + ", ranges done:", recorded);
+        return true;
+      }
+      finally
+      {
+        reader.close();
+      }
+    }
+
+    // Opens the checkpoint file to record the ranges transferred.  A new
+    // transfer starts a new checkpoint file.
+    void openCheckpoint(boolean resumed)
+      throws IOException
+    {
+      if (checkpointFile_ == null) return;
+      checkpoint_ = new FileOutputStream(checkpointFile_, resumed);
+      if (!resumed)
+      {
+        checkpoint_.write(getCheckpointHeader().getBytes("UTF-8"));
+        checkpoint_.getFD().sync();
+      }
+    }
+
+    // Returns the next range that is not done, or -1 if there is none or
+    // the transfer has failed.
+    synchronized int takeRange()
+    {
+      if (exception_ != null) return -1;
+      while (nextRange_ < ranges_ && done_[nextRange_])
+      {
+        ++nextRange_;
+      }
+      return (nextRange_ < ranges_) ? nextRange_++ : -1;
+    }
+
+    // Records a range whose data has been forced to storage.
+    synchronized void rangeDone(int range)
+      throws IOException
+    {
+      done_[range] = true;
+      if (checkpoint_ != null)
+      {
+        checkpoint_.write((range + "\n").getBytes("UTF-8"));
+        checkpoint_.getFD().sync();
+      }
+    }
+
+    // Records the first exception, which stops the other streams after
+    // their current range.
+    synchronized void fail(Exception e)
+    {
+      if (exception_ == null) exception_ = e;
+    }
+
+    // Called once every range is done.
+    void complete()
+      throws IOException
+    {
+      if (checkpoint_ != null)
+      {
+        checkpoint_.close();
+        checkpoint_ = null;
+        if (!checkpointFile_.delete())
+        {
+          if (Trace.traceOn_) Trace.log(Trace.WARNING, "Unable to delete IFSTransfer checkpoint file " + checkpointFile_);
+        }
+      }
+    }
+
+    void close()
+    {
+      try
+      {
+        if (checkpoint_ != null) checkpoint_.close();
+        if (local_ != null) local_.close();
+      }
+      catch (IOException e)
+      {
+        if (Trace.traceOn_) Trace.log(Trace.WARNING, "Exception closing IFSTransfer files:", e);
+      }
+    }
+  }
+
+  // A connection that transfers ranges, in a thread of its own, until no
+  // range is left.
+  private class Stream implements Runnable
+  {
+    final int index_;
+    final Transfer transfer_;
+    final AS400 system_;
+    Thread thread_;
+    // The integrated file system file, opened by transfer() for the first
+    // stream and by the thread for the others.
+    IFSRandomAccessFile file_;
+
+    Stream(int index, Transfer transfer, AS400 system)
+    {
+      index_ = index;
+      transfer_ = transfer;
+      system_ = system;
+    }
+
+    public void run()
+    {
+      try
+      {
+        if (file_ == null) file_ = new IFSRandomAccessFile(system_, transfer_.remotePath_, transfer_.upload_ ? "w" : "r");
+        byte[] buffer = new byte[(int)Math.min(bufferSize_, rangeSize_)];
+        for (int range = transfer_.takeRange(); range >= 0; range = transfer_.takeRange())
+        {
+          long start = range * rangeSize_;
+          int length = (int)Math.min(rangeSize_, transfer_.size_ - start);
+          if (transfer_.upload_)
+          {
+            upload(start, length, buffer);
+          }
+          else
+          {
+            download(start, length, buffer);
+          }
+          transfer_.rangeDone(range);
+        }
+      }
+      catch (Exception e)
+      {
+        Trace.log(Trace.ERROR, "Exception in stream " + index_ + " of IFSTransfer:", e);
+        transfer_.fail(e);
+      }
+      finally
+      {
+        try
+        {
+          if (file_ != null) file_.close();
+        }
+        catch (Exception e)
+        {
+          if (Trace.traceOn_) Trace.log(Trace.WARNING, "Exception closing stream " + index_ + " of IFSTransfer:", e);
+          transfer_.fail(e);
+        }
+      }
+    }
+
+    // Copies a range of the local file to the integrated file system file,
+    // and commits it.
+    private void upload(long start, int length, byte[] buffer)
+      throws IOException
+    {
+      MappedByteBuffer mapped = memoryMapped_ ? transfer_.channel_.map(FileChannel.MapMode.READ_ONLY, start, length) : null;
+      file_.seek(start);
+      for (int offset = 0; offset < length; )
+      {
+        int count = Math.min(buffer.length, length - offset);
+        if (mapped != null)
+        {
+          mapped.get(buffer, 0, count);
+        }
+        else
+        {
+          ByteBuffer wrapped = ByteBuffer.wrap(buffer, 0, count);
+          while (wrapped.hasRemaining())
+          {
+            if (transfer_.channel_.read(wrapped, start + offset + wrapped.position()) < 0)
+            {
+              throw new EOFException(transfer_.localFile_.getPath());
+            }
+          }
+        }
+        file_.write(buffer, 0, count);
+        offset += count;
+        addBytesTransferred(count);
+      }
+      file_.flush();
+    }
+
+    // Copies a range of the integrated file system file to the local file,
+    // and forces it to storage.
+    private void download(long start, int length, byte[] buffer)
+      throws IOException
+    {
+      MappedByteBuffer mapped = memoryMapped_ ? transfer_.channel_.map(FileChannel.MapMode.READ_WRITE, start, length) : null;
+      file_.seek(start);
+      for (int offset = 0; offset < length; )
+      {
+        int count = file_.read(buffer, 0, Math.min(buffer.length, length - offset));
+        if (count < 0)
+        {
+          throw new EOFException(transfer_.remotePath_);
+        }
+        if (mapped != null)
+        {
+          mapped.put(buffer, 0, count);
+        }
+        else
+        {
+          ByteBuffer wrapped = ByteBuffer.wrap(buffer, 0, count);
+          while (wrapped.hasRemaining())
+          {
+            transfer_.channel_.write(wrapped, start + offset + wrapped.position());
+          }
+        }
+        offset += count;
+        addBytesTransferred(count);
+      }
+      if (mapped != null)
+      {
+        mapped.force();
+      }
+      else
+      {
+        transfer_.channel_.force(false);
+      }
+    }
+  }
+}
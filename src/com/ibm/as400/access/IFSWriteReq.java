@@ -52,8 +52,8 @@ Construct a write request.
               boolean forceToStorage,
               int     datastreamLevel)
   {
-    super(HEADER_LENGTH + getTemplateLength(datastreamLevel) + 6 + dataLength);
-    setLength(data_.length);
+    super(HEADER_LENGTH + getTemplateLength(datastreamLevel) + 6 + dataLength, true);
+    setLength(HEADER_LENGTH + getTemplateLength(datastreamLevel) + 6 + dataLength);
     setTemplateLen(getTemplateLength(datastreamLevel));
     setReqRepID(0x0004);
     set32bit(fileHandle, FILE_HANDLE_OFFSET);
@@ -0,0 +1,216 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDBatchBuffer.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.util.Arrays;
+
+
+
+/**
+<p>The JDBatchBuffer class holds the parameter rows of a prepared statement
+batch in the format of the parameter marker data, when the "encoded batch"
+property is set.
+
+<p>The indicators of all of the rows and the data of all of the rows are kept
+in two separate arrays, in the same order as in the parameter marker data, so
+that the batch is sent by copying the two arrays into the request.  The rows
+are all the same size, except when variable field compression is used: then
+each row only takes the bytes that were written for it.
+**/
+final class JDBatchBuffer
+{
+  static final String copyright = "Copyright (C) 1997-2018 International Business Machines Corporation and others.";
+
+  private static final int  INDICATOR_SIZE_ = 2;
+  private static final int  INITIAL_ROWS_   = 16;
+
+  private int       columnCount_;
+  private int       rowSize_;
+  private boolean   compressed_;
+
+  private byte[]    indicators_;
+  private byte[]    data_;
+  private int       rowCount_               = 0;
+  private int       rowOffset_              = 0;
+  private int       dataLength_             = 0;
+  private int       variableDataLength_     = 0;
+
+
+
+/**
+Constructs a JDBatchBuffer object.
+
+@param  columnCount     The number of parameters in a row.
+@param  rowSize         The size of a row, without indicators.
+@param  compressed      true if variable field compression is used;
+                        false otherwise.
+**/
+  JDBatchBuffer (int columnCount, int rowSize, boolean compressed)
+  {
+    columnCount_    = columnCount;
+    rowSize_        = rowSize;
+    compressed_     = compressed;
+    indicators_     = new byte[INITIAL_ROWS_ * columnCount_ * INDICATOR_SIZE_];
+    data_           = new byte[INITIAL_ROWS_ * rowSize_];
+  }
+
+
+
+/**
+Empties the buffer.  The storage is kept for the next rows.
+**/
+  void clear ()
+  {
+    rowCount_           = 0;
+    dataLength_         = 0;
+    variableDataLength_ = 0;
+  }
+
+
+
+/**
+Copies the rows to the parameter marker data.
+
+@param  rawBytes        The bytes of the request.
+@param  dataOffset      The offset of the data of the first row.  The
+                        indicators are just before it.
+**/
+  void copyTo (byte[] rawBytes, int dataOffset)
+  {
+    int indicatorLength = rowCount_ * columnCount_ * INDICATOR_SIZE_;
+    System.arraycopy (indicators_, 0, rawBytes, dataOffset - indicatorLength, indicatorLength);
+    System.arraycopy (data_, 0, rawBytes, dataOffset, dataLength_);
+  }
+
+
+
+/**
+Ends the row started by startRow().
+
+@param  length          The number of bytes written for the row.
+@param  variableLength  The number of bytes written for variable
+                        length fields.
+**/
+  void endRow (int length, int variableLength)
+  {
+    dataLength_ = rowOffset_ + length;
+    variableDataLength_ += variableLength;
+    ++rowCount_;
+  }
+
+
+
+  int getColumnCount ()
+  {
+    return columnCount_;
+  }
+
+
+
+/**
+Returns the array the rows are written to.  The array may change
+each time startRow() is called.
+
+@return     The array.
+**/
+  byte[] getData ()
+  {
+    return data_;
+  }
+
+
+
+/**
+Returns the number of bytes of data in the buffer, without indicators.
+
+@return     The length.
+**/
+  int getDataLength ()
+  {
+    return dataLength_;
+  }
+
+
+
+  int getRowCount ()
+  {
+    return rowCount_;
+  }
+
+
+
+  int getRowSize ()
+  {
+    return rowSize_;
+  }
+
+
+
+  int getVariableDataLength ()
+  {
+    return variableDataLength_;
+  }
+
+
+
+  boolean isCompressed ()
+  {
+    return compressed_;
+  }
+
+
+
+/**
+Sets an indicator of the row started by startRow().
+
+@param  columnIndex     The index of the parameter (0-based).
+@param  indicator       The indicator.
+**/
+  void setIndicator (int columnIndex, short indicator)
+  {
+    BinaryConverter.shortToByteArray (indicator, indicators_,
+        (rowCount_ * columnCount_ + columnIndex) * INDICATOR_SIZE_);
+  }
+
+
+
+/**
+Starts a new row.  The bytes of the row are set to zero.  A row
+that is started but not ended is replaced by the next row.
+
+@return     The offset of the row in the array returned by getData().
+**/
+  int startRow ()
+  {
+    int indicatorLength = (rowCount_ + 1) * columnCount_ * INDICATOR_SIZE_;
+    if (indicatorLength > indicators_.length)
+    {
+      byte[] indicators = new byte[Math.max (indicatorLength, indicators_.length * 2)];
+      System.arraycopy (indicators_, 0, indicators, 0, rowCount_ * columnCount_ * INDICATOR_SIZE_);
+      indicators_ = indicators;
+    }
+
+    rowOffset_ = dataLength_;
+    int length = dataLength_ + rowSize_;
+    if (length > data_.length)
+    {
+      byte[] data = new byte[Math.max (length, data_.length * 2)];
+      System.arraycopy (data_, 0, data, 0, dataLength_);
+      data_ = data;
+    }
+    else
+      Arrays.fill (data_, rowOffset_, length, (byte) 0);
+    return rowOffset_;
+  }
+}
@@ -0,0 +1,145 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDBlockSizeTuner.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+
+
+/**
+<p>The JDBlockSizeTuner class chooses the block size for the fetches
+of one cursor when the "adaptive block size" property is set.
+
+<p>Each fetch has a fixed cost, the round trip to the system, and a
+cost that grows with the number of bytes returned.  The smallest fetch
+time seen so far is used as the fixed cost.  While the rest of a fetch
+takes less time than the fixed cost, the fetch is dominated by latency
+and the block size is doubled.  When the rest of the fetch takes much
+longer than the fixed cost, larger blocks no longer help and only use
+memory, so the block size is halved.  The number of rows per block
+follows from the block size and the average number of bytes per row.
+**/
+final class JDBlockSizeTuner
+{
+  static final String copyright = "Copyright (C) 1997-2018 International Business Machines Corporation and others.";
+
+  // The same range as the choices of the "block size" property.
+  static final int MIN_BUFFER_SIZE     = 8 * 1024;
+  static final int MAX_BUFFER_SIZE     = 512 * 1024;
+  // The blocking factor is limited in the same way as in AS400JDBCStatement.
+  static final int MAX_BLOCKING_FACTOR = 32767;
+
+  // A fetch whose transfer takes longer than this multiple of the
+  // fixed cost uses a block that is larger than needed.
+  private static final int SHRINK_RATIO = 4;
+
+  private AS400JDBCConnection connection_;
+  private int                 bufferSize_;            // Bytes.
+  private int                 blockingFactor_;        // Rows.
+  private int                 bytesPerRow_   = 0;     // Running average, 0 until the first sample.
+  private long                roundTrip_     = Long.MAX_VALUE;  // Smallest fetch time seen, in nanoseconds.
+
+
+
+/**
+Constructs a JDBlockSizeTuner object.
+
+@param  connection      The connection, used for tracing.
+@param  blockSize       The "block size" property, in kilobytes.
+@param  blockingFactor  The initial blocking factor (in rows).
+**/
+  JDBlockSizeTuner (AS400JDBCConnection connection, int blockSize, int blockingFactor)
+  {
+    connection_     = connection;
+    bufferSize_     = Math.max (MIN_BUFFER_SIZE, Math.min (MAX_BUFFER_SIZE, blockSize * 1024));
+    blockingFactor_ = blockingFactor;
+  }
+
+
+
+/**
+Returns the number of bytes to request in the next block.
+
+@return     The buffer size, in bytes.
+**/
+  int getBufferSize ()
+  {
+    return bufferSize_;
+  }
+
+
+
+/**
+Returns the number of rows to request in the next block.
+
+@return     The blocking factor.
+**/
+  int getBlockingFactor ()
+  {
+    return blockingFactor_;
+  }
+
+
+
+/**
+Records a completed fetch and adjusts the block size.
+
+@param  rows            The number of rows returned.
+@param  bytes           The length of the reply.
+@param  elapsed         The time the fetch took, in nanoseconds, or
+                        -1 if the time is not known (for example,
+                        when the block was prefetched).
+@param  lastBlock       true if this was the last block of the
+                        result set, which may be short.
+**/
+  void sample (int rows, int bytes, long elapsed, boolean lastBlock)
+  {
+    if (rows <= 0 || bytes <= 0)
+      return;
+
+    int rowBytes = Math.max (1, bytes / rows);
+    if (bytesPerRow_ == 0)
+      bytesPerRow_ = rowBytes;
+    else
+      bytesPerRow_ = (bytesPerRow_ * 3 + rowBytes) / 4;
+
+    int oldBufferSize = bufferSize_;
+    int oldBlockingFactor = blockingFactor_;
+
+    // The last block is usually short, so its time says nothing
+    // about the block size.
+    if (elapsed >= 0 && ! lastBlock)
+    {
+      if (elapsed < roundTrip_)
+        roundTrip_ = elapsed;
+
+      long transfer = elapsed - roundTrip_;
+      if (transfer < roundTrip_)
+      {
+        if (bufferSize_ < MAX_BUFFER_SIZE)
+          bufferSize_ = Math.min (MAX_BUFFER_SIZE, bufferSize_ * 2);
+      }
+      else if (transfer > roundTrip_ * SHRINK_RATIO)
+      {
+        if (bufferSize_ > MIN_BUFFER_SIZE)
+          bufferSize_ = Math.max (MIN_BUFFER_SIZE, bufferSize_ / 2);
+      }
+    }
+
+    blockingFactor_ = Math.max (1, Math.min (MAX_BLOCKING_FACTOR, bufferSize_ / bytesPerRow_));
+
+    if (JDTrace.isTraceOn () && (bufferSize_ != oldBufferSize || blockingFactor_ != oldBlockingFactor))
+      JDTrace.logInformation (connection_, "Adaptive block size: bufferSize=" + bufferSize_
+                              + " blockingFactor=" + blockingFactor_ + " bytesPerRow=" + bytesPerRow_
+                              + " roundTrip=" + (roundTrip_ == Long.MAX_VALUE ? -1 : roundTrip_ / 1000) + "us");
+  }
+}
@@ -148,6 +148,10 @@ public class JDMRI extends ListResourceBundle
       { "PROP_NAME_MAX_RETRIES_FOR_CLIENT_REROUTE", "maxRetriesForClientReroute" },
       { "PROP_NAME_RETRY_INTERVAL_FOR_CLIENT_REROUTE", "retryIntervalForClientReroute"},
       { "PROP_NAME_ENABLE_SEAMLESS_FAILOVER",  "enableSeamlessFailover"}, 
+      { "PROP_NAME_ASYNC_PREFETCH", "asyncPrefetch"},
+      { "PROP_NAME_ADAPTIVE_BLOCK_SIZE", "adaptiveBlockSize"},
+      { "PROP_NAME_STATEMENT_CACHE_SIZE", "statementCacheSize"},
+      { "PROP_NAME_ENCODED_BATCH", "encodedBatch"},
            // #TRANNOTE JDBC property descriptions.
       { "ACCESS_DESC", "Specifies the level of database access for the connection." },
       { "BEHAVIOR_OVERRIDE_DESC", "Specifies the Toolbox JDBC driver behavior to override." },     //@J5A
@@ -260,6 +264,10 @@ public class JDMRI extends ListResourceBundle
       {"MAX_RETRIES_FOR_CLIENT_REROUTE_DESC", "The maximum number of connection retries for automatic client reroute."},
       {"RETRY_INTERVAL_FOR_CLIENT_REROUTE_DESC","The number of seconds between consecutive connection retries."},
       {"ENABLE_SEAMLESS_FAILOVER_DESC","Specifies whether the JTOpen JDBC driver uses seamless failover for client reroute."}, 
+      {"ADAPTIVE_BLOCK_SIZE_DESC","Specifies whether the block size of each cursor is tuned from the measured row width and round trip time."},
+      {"STATEMENT_CACHE_SIZE_DESC","Specifies the number of closed prepared statements each connection keeps prepared for reuse."},
+      {"ENCODED_BATCH_DESC","Specifies whether the parameters of a batch are converted to the system format when addBatch() is called."},
+      {"ASYNC_PREFETCH_DESC","Specifies whether the next block of rows of a forward-only result set is requested while the application processes the current block."},
       
       // JDBC 2 - Optional Package support - RowSet    @E5
       { "PROP_NAME_RS_COMMAND", "command" },
@@ -0,0 +1,165 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDPreparedStatementCache.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.sql.ResultSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+
+/**
+<p>The JDPreparedStatementCache class holds the prepared statements of one
+connection that the application has closed, when the "statement cache size"
+property is set.
+
+<p>A statement in the cache is still prepared on the system: its RPB, its
+ORS and the described parameter and column formats are kept.  When the
+application prepares the same SQL text again with the same result set
+attributes, the statement is taken out of the cache and returned instead
+of a new one, without any request to the system.  When the cache is full,
+the statement that was least recently closed is closed on the system.
+**/
+final class JDPreparedStatementCache
+{
+  static final String copyright = "Copyright (C) 1997-2018 International Business Machines Corporation and others.";
+
+  private int           maximumSize_;
+  // The statements, in the order they were put in the cache.
+  private LinkedHashMap statements_;
+  private long          hits_   = 0;
+  private long          misses_ = 0;
+
+
+
+/**
+Constructs a JDPreparedStatementCache object.
+
+@param  maximumSize     The maximum number of statements kept.
+**/
+  JDPreparedStatementCache (int maximumSize)
+  {
+    maximumSize_ = maximumSize;
+    statements_  = new LinkedHashMap ();
+  }
+
+
+
+/**
+Returns the key of a prepared statement.
+
+@param  sql                     The SQL text.
+@param  resultSetType           The result set type.
+@param  resultSetConcurrency    The result set concurrency.
+@param  resultSetHoldability    The result set holdability.
+@return                         The key.
+**/
+  static String getKey (String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+  {
+    StringBuffer buffer = new StringBuffer (sql.length () + 16);
+    buffer.append (resultSetType - ResultSet.TYPE_FORWARD_ONLY);
+    buffer.append (resultSetConcurrency - ResultSet.CONCUR_READ_ONLY);
+    buffer.append (resultSetHoldability);
+    buffer.append (':');
+    buffer.append (sql);
+    return buffer.toString ();
+  }
+
+
+
+/**
+Returns the number of times a statement was found in the cache.
+
+@return     The number of hits.
+**/
+  synchronized long getHits ()
+  {
+    return hits_;
+  }
+
+
+
+/**
+Returns the number of times a statement was not found in the cache.
+
+@return     The number of misses.
+**/
+  synchronized long getMisses ()
+  {
+    return misses_;
+  }
+
+
+
+/**
+Puts a closed statement in the cache.
+
+@param  key         The key of the statement.
+@param  statement   The statement.
+@return             The statement that must be closed on the system:
+                    the least recently closed statement if the cache
+                    was full, the statement itself if another statement
+                    with the same key is already cached, or null.
+**/
+  synchronized AS400JDBCPreparedStatementImpl put (String key, AS400JDBCPreparedStatementImpl statement)
+  {
+    if (statements_.containsKey (key))
+      return statement;
+    statements_.put (key, statement);
+    if (statements_.size () > maximumSize_)
+    {
+      Iterator eldest = statements_.values ().iterator ();
+      AS400JDBCPreparedStatementImpl evicted = (AS400JDBCPreparedStatementImpl) eldest.next ();
+      eldest.remove ();
+      return evicted;
+    }
+    return null;
+  }
+
+
+
+/**
+Takes a statement out of the cache.
+
+@param  key     The key of the statement.
+@return         The statement, or null if none is cached for the key.
+**/
+  synchronized AS400JDBCPreparedStatementImpl remove (String key)
+  {
+    AS400JDBCPreparedStatementImpl statement = (AS400JDBCPreparedStatementImpl) statements_.remove (key);
+    if (statement == null)
+      ++misses_;
+    else
+      ++hits_;
+    return statement;
+  }
+
+
+
+/**
+Empties the cache.
+
+@return     The statements that were in the cache.
+**/
+  synchronized AS400JDBCPreparedStatementImpl[] removeAll ()
+  {
+    AS400JDBCPreparedStatementImpl[] statements = new AS400JDBCPreparedStatementImpl[statements_.size ()];
+    Iterator iterator = statements_.entrySet ().iterator ();
+    for (int i = 0; iterator.hasNext (); ++i)
+      statements[i] = (AS400JDBCPreparedStatementImpl) ((Map.Entry) iterator.next ()).getValue ();
+    statements_.clear ();
+    return statements;
+  }
+}
@@ -177,10 +177,14 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
     static final int              RETRY_INTERVAL_FOR_CLIENT_REROUTE = 97; 
     static final int              ENABLE_SEAMLESS_FAILOVER   = 98; 
     static final int              AFFINITY_FAILBACK_INTERVAL = 99; 
+    static final int              ASYNC_PREFETCH             = 100; 
+    static final int              ADAPTIVE_BLOCK_SIZE        = 101; 
+    static final int              STATEMENT_CACHE_SIZE       = 102; 
+    static final int              ENCODED_BATCH              = 103; 
 
     // @W2 always add to the end of the array!
 
-    private static final int    NUMBER_OF_ATTRIBUTES_ = 100;    // @A0C @C1C @A3A @D0C @E0C
+    private static final int    NUMBER_OF_ATTRIBUTES_ = 104;    // @A0C @C1C @A3A @D0C @E0C
                                                                // @E1C @D1c @E2C @E3C @E9C @F1C
                                                                // @W1c @j1c @J2c @F5C @F6C @F7c @M0C @K1C @K2C @K5C @KBC @K24 @KBL @K94 @K54 @540 @PDC
                                                                // @PDC @550 @DFA @CE1 @AC1 @igwrn @pw3 @cc1 @DMY @STIMEOUT
@@ -190,6 +194,8 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
     // Property names.
     private static final String ACCESS_                 = "access";
     private static final String AFFINITY_FAILBACK_INTERVAL_ = "affinityFailbackInterval"; 
+    private static final String ASYNC_PREFETCH_         = "async prefetch";
+    private static final String ADAPTIVE_BLOCK_SIZE_    = "adaptive block size";
     private static final String BEHAVIOR_OVERRIDE_      = "behavior override";      // @F7A
     private static final String BIDI_STRING_TYPE_       = "bidi string type";       // @E9A
     private static final String BIG_DECIMAL_            = "big decimal";            // @E0A
@@ -210,6 +216,7 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
     private static final String DRIVER_                 = "driver";                 // @E3A
     private static final String ENABLE_CLIENT_AFFINITIES_LIST_ = "enableClientAffinitiesList"; 
     private static final String ENABLE_SEAMLESS_FAILOVER_ = "enableSeamlessFailover"; 
+    private static final String ENCODED_BATCH_          = "encoded batch";
     private static final String ERRORS_                 = "errors";
     private static final String EXTENDED_DYNAMIC_       = "extended dynamic";
     private static final String EXTENDED_METADATA_      = "extended metadata";      // @F5A
@@ -250,6 +257,7 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
     private static final String SORT_LANGUAGE_          = "sort language";
     private static final String SORT_TABLE_             = "sort table";
     private static final String SORT_WEIGHT_            = "sort weight";
+    private static final String STATEMENT_CACHE_SIZE_   = "statement cache size";
     private static final String THREAD_USED_            = "thread used";            // @E1A
     private static final String TIME_FORMAT_            = "time format";
     private static final String TIMESTAMP_FORMAT_       = "timestamp format";
@@ -1624,6 +1632,44 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
        dpi_[i].choices[3]  = DECIMAL_DATA_ERRORS_REPORT_NULL;
        defaults_[i]        = EMPTY_;
 
+       // Async prefetch.
+       i = ASYNC_PREFETCH;
+       dpi_[i] = new DriverPropertyInfo(ASYNC_PREFETCH_, "");
+       dpi_[i].description = "ASYNC_PREFETCH_DESC";
+       dpi_[i].required    = false;
+       dpi_[i].choices     = new String[2];
+       dpi_[i].choices[0]  = FALSE_;
+       dpi_[i].choices[1]  = TRUE_;
+       defaults_[i]        = FALSE_;
+
+       // Adaptive block size.
+       i = ADAPTIVE_BLOCK_SIZE;
+       dpi_[i] = new DriverPropertyInfo(ADAPTIVE_BLOCK_SIZE_, "");
+       dpi_[i].description = "ADAPTIVE_BLOCK_SIZE_DESC";
+       dpi_[i].required    = false;
+       dpi_[i].choices     = new String[2];
+       dpi_[i].choices[0]  = FALSE_;
+       dpi_[i].choices[1]  = TRUE_;
+       defaults_[i]        = FALSE_;
+
+       // Statement cache size.
+       i = STATEMENT_CACHE_SIZE;
+       dpi_[i] = new DriverPropertyInfo(STATEMENT_CACHE_SIZE_, "");
+       dpi_[i].description = "STATEMENT_CACHE_SIZE_DESC";
+       dpi_[i].required    = false;
+       dpi_[i].choices     = new String[0];
+       defaults_[i]        = "0";
+
+       // Encoded batch.
+       i = ENCODED_BATCH;
+       dpi_[i] = new DriverPropertyInfo(ENCODED_BATCH_, "");
+       dpi_[i].description = "ENCODED_BATCH_DESC";
+       dpi_[i].required    = false;
+       dpi_[i].choices     = new String[2];
+       dpi_[i].choices[0]  = FALSE_;
+       dpi_[i].choices[1]  = TRUE_;
+       defaults_[i]        = FALSE_;
+
 
 
     }
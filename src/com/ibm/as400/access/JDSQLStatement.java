@@ -222,6 +222,19 @@ public class JDSQLStatement
             JDError.throwSQLException(JDError.EXC_SYNTAX_BLANK);
         }
 
+        // If the same SQL text has been parsed before with the same           @SPA
+        // settings, copy the result instead of parsing it again.             @SPA
+        String cacheKey = getCacheKey(sql, decimalSeparator, convert, packageCriteria, connection); //@SPA
+        if(cacheKey != null)                                                  //@SPA
+        {
+            JDSQLStatement parsed = JDSQLStatementCache.get(cacheKey);        //@SPA
+            if(parsed != null)                                                //@SPA
+            {
+                copy(parsed);                                                 //@SPA
+                return;                                                       //@SPA
+            }
+        }
+
         //@F6D // Count the number of parameters.  Do not count parameter
         //@F6D // markers that appear within quotes or after a comment
         //@F6D // delimiter (two dashes).
@@ -974,6 +987,101 @@ public class JDSQLStatement
         // Trim once and for all.                                                          @E1A
         value_ = value_.trim();                                                         // @E1A
         tokenizer_ = null; //@mem make avail for GC now
+
+        if(cacheKey != null)                                                  //@SPA
+        {
+            // Cache a copy, since setNativeType() and setSelectFromInsert()   @SPA
+            // may still change this object.                                   @SPA
+            JDSQLStatement parsed = new JDSQLStatement();                     //@SPA
+            parsed.copy(this);                                                //@SPA
+            JDSQLStatementCache.put(cacheKey, parsed);                        //@SPA
+        }
+    }
+
+
+
+    // Constructs an empty JDSQLStatement object, to be filled by copy().  @SPA
+    private JDSQLStatement()
+    {
+    }
+
+
+
+    /**
+    Returns the key of the SQL statement cache entry for a statement.  Every
+    input that changes the result of the parse is part of the key.
+    
+    @return The key, or null if the statement should not be cached.
+    **/
+    private static String getCacheKey(String sql, String decimalSeparator, boolean convert,   //@SPA
+                                      String packageCriteria, AS400JDBCConnection connection)
+    throws SQLException
+    {
+        // Statement listeners may change the text differently each time, and
+        // a statement without a connection is only used internally.
+        if(!JDSQLStatementCache.isEnabled() || connection == null || statementListeners_.size() > 0
+           || sql.length() > JDSQLStatementCache.MAXIMUM_SQL_LENGTH_)
+        {
+            return null;
+        }
+
+        JDProperties properties = connection.getProperties();
+        StringBuffer buffer = new StringBuffer(sql.length() + 64);
+        buffer.append(connection.getVRM());
+        buffer.append(properties.getString(JDProperties.NAMING).equalsIgnoreCase("sql") ? '.' : '/');
+        buffer.append(convert ? decimalSeparator : "-");
+        buffer.append(connection.doUpdateDeleteBlocking() ? 'B' : 'N');
+        buffer.append(packageCriteria.toLowerCase());
+        buffer.append(':');
+        buffer.append(properties.getString(JDProperties.BIDI_STRING_TYPE));
+        if(properties.getInt(JDProperties.BIDI_STRING_TYPE) != BidiStringType.NONE)
+        {
+            // The SQL text is reordered for bidirectional CCSIDs.
+            AS400 system = connection.getSystem();
+            buffer.append(',');
+            buffer.append(system == null ? -1 : system.getCcsid());
+            buffer.append(',');
+            buffer.append(properties.getString(JDProperties.PACKAGE_CCSID));
+            buffer.append(',');
+            buffer.append(properties.getString(JDProperties.BIDI_IMPLICIT_REORDERING));
+        }
+        buffer.append(':');
+        buffer.append(sql);
+        return buffer.toString();
+    }
+
+
+
+    // Copies the result of a parse from another object.                   @SPA
+    private void copy(JDSQLStatement other)
+    {
+        canBeBatched_               = other.canBeBatched_;
+        correlationName_            = other.correlationName_;
+        csProcedure_                = other.csProcedure_;
+        csSchema_                   = other.csSchema_;
+        hasReturnValueParameter_    = other.hasReturnValueParameter_;
+        isCall_                     = other.isCall_;
+        isDeclare_                  = other.isDeclare_;
+        isCurrentOf_                = other.isCurrentOf_;
+        isDRDAConnect_              = other.isDRDAConnect_;
+        isDRDADisconnect_           = other.isDRDADisconnect_;
+        isForFetchOrReadOnly_       = other.isForFetchOrReadOnly_;
+        isForUpdate_                = other.isForUpdate_;
+        isImmediatelyExecutable_    = other.isImmediatelyExecutable_;
+        isInsert_                   = other.isInsert_;
+        isSelect_                   = other.isSelect_;
+        isSet_                      = other.isSet_;
+        isSetSpecialRegister_       = other.isSetSpecialRegister_;
+        isSubSelect_                = other.isSubSelect_;
+        isPackaged_                 = other.isPackaged_;
+        isUpdateOrDelete_           = other.isUpdateOrDelete_;
+        nativeType_                 = other.nativeType_;
+        numberOfParameters_         = other.numberOfParameters_;
+        selectTable_                = other.selectTable_;
+        value_                      = other.value_;
+        selectTableNotSet_          = other.selectTableNotSet_;
+        selectFromInsert_           = other.selectFromInsert_;
+        isMetaDataCall_             = other.isMetaDataCall_;
     }
 
 
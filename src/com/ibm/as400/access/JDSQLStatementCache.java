@@ -0,0 +1,160 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDSQLStatementCache.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+
+/**
+<p>The JDSQLStatementCache class holds the parsed form of the SQL statements
+that have been prepared or executed in this JVM, so that the same SQL text is
+not parsed again by every statement on every connection.
+
+<p>The key of an entry is the SQL text together with everything that changes
+the result of the parse: the decimal separator, the naming convention, escape
+processing, the package criteria and the release of the system.  The entries
+are JDSQLStatement objects that are never returned to a caller.  A new
+JDSQLStatement copies its fields from the entry instead of parsing.
+
+<p>The cache is split in segments, each guarded by its own monitor, so that
+connections running in different threads rarely wait for each other.  Each
+segment discards its least recently used entry when it is full.  The total
+number of entries is set by the com.ibm.as400.access.JDBC.sqlStatementCacheSize
+system property.
+**/
+final class JDSQLStatementCache
+{
+  static final String copyright = "Copyright (C) 1997-2018 International Business Machines Corporation and others.";
+
+  // The number of segments.  This must be a power of 2.
+  private static final int  SEGMENTS_       = 16;
+  private static final int  DEFAULT_SIZE_   = 1024;
+
+  // Longer statements are not kept, so that a few large statements
+  // do not hold a lot of storage.
+  static final int          MAXIMUM_SQL_LENGTH_ = 32767;
+
+  private static final Segment[] segments_;
+
+  static
+  {
+    int size = DEFAULT_SIZE_;
+    String propVal = SystemProperties.getProperty(SystemProperties.JDBC_SQL_STATEMENT_CACHE_SIZE);
+    if (propVal != null)
+    {
+      try
+      {
+        size = Integer.parseInt(propVal.trim());
+      }
+      catch (Exception e)
+      {
+        Trace.log(Trace.WARNING, "Error retrieving sqlStatementCacheSize property value:", e);
+      }
+    }
+
+    if (size > 0)
+    {
+      segments_ = new Segment[SEGMENTS_];
+      int segmentSize = (size + SEGMENTS_ - 1) / SEGMENTS_;
+      for (int i = 0; i < SEGMENTS_; ++i)
+        segments_[i] = new Segment (segmentSize);
+    }
+    else
+      segments_ = null;
+  }
+
+
+
+  private JDSQLStatementCache ()
+  {
+  }
+
+
+
+/**
+Returns the parsed statement for a key.
+
+@param  key     The key.
+@return         The parsed statement, or null if it is not cached.
+**/
+  static JDSQLStatement get (String key)
+  {
+    Segment segment = getSegment (key);
+    synchronized (segment)
+    {
+      return (JDSQLStatement) segment.get (key);
+    }
+  }
+
+
+
+  private static Segment getSegment (String key)
+  {
+    int hash = key.hashCode ();
+    hash ^= (hash >>> 16);
+    return segments_[hash & (SEGMENTS_ - 1)];
+  }
+
+
+
+/**
+Indicates if parsed statements are cached.
+
+@return     true if parsed statements are cached; false otherwise.
+**/
+  static boolean isEnabled ()
+  {
+    return segments_ != null;
+  }
+
+
+
+/**
+Caches a parsed statement.  The statement must not be changed afterwards.
+
+@param  key         The key.
+@param  statement   The parsed statement.
+**/
+  static void put (String key, JDSQLStatement statement)
+  {
+    Segment segment = getSegment (key);
+    synchronized (segment)
+    {
+      segment.put (key, statement);
+    }
+  }
+
+
+
+  // One segment of the cache, in least recently used order.
+  private static final class Segment extends LinkedHashMap
+  {
+    private static final long serialVersionUID = 4L;
+
+    private int maximumSize_;
+
+    Segment (int maximumSize)
+    {
+      super (16, 0.75f, true);
+      maximumSize_ = maximumSize;
+    }
+
+    protected boolean removeEldestEntry (Map.Entry eldest)
+    {
+      return size () > maximumSize_;
+    }
+  }
+}
@@ -13,6 +13,7 @@
 
 package com.ibm.as400.access;
 
+import java.nio.ByteBuffer;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.Calendar;
@@ -138,6 +139,152 @@ implements JDRow
 
 
 
+    /**
+    Returns a read-only view of the bytes of a field, without
+    copying them out of the reply.  The length of a varying
+    length field is not included in the view.
+
+    @param      index   The field index (1-based).
+    @return             The view, or null if there is no current row
+                        or the field is an array.
+
+    @exception  SQLException    If an error occurs.
+    **/
+    ByteBuffer getBytesView(int index)
+    throws SQLException
+    {
+        int index0 = index - 1;
+        if(rowIndex_ < 0 || rawBytes_ == null || rowDataOffset_ == -1 || containsArray_)
+            return null;
+
+        int offset = rowDataOffset_ + dataOffset_[index0];
+        int length = dataLength_[index0];
+        int bytesPerCharacter = getVaryingLengthUnit(sqlData_[index0].getSQLType());
+        if(bytesPerCharacter > 0)
+        {
+            length = Math.min(length - 2, bytesPerCharacter * BinaryConverter.byteArrayToUnsignedShort(rawBytes_, offset));
+            offset += 2;
+        }
+        return ByteBuffer.wrap(rawBytes_, offset, length).slice().asReadOnlyBuffer();
+    }
+
+
+
+    /**
+    Returns the characters of a single-byte CHAR or VARCHAR field
+    as a view that translates each byte when it is read.  No String
+    is created.
+
+    @param      index           The field index (1-based).
+    @param      maxFieldSize    The maximum number of characters returned, or 0 for no limit.
+    @return                     The view, or null if the field cannot be
+                                viewed, in which case getSQLData() must be used.
+
+    @exception  SQLException    If an error occurs.
+    **/
+    CharSequence getCharSequence(int index, int maxFieldSize)
+    throws SQLException
+    {
+        int index0 = index - 1;
+        if(rowIndex_ < 0 || rawBytes_ == null || rowDataOffset_ == -1 || containsArray_)
+            return null;
+
+        int sqlType = sqlData_[index0].getSQLType();
+        if(sqlType != SQLData.CHAR && sqlType != SQLData.VARCHAR && sqlType != SQLData.LONG_VARCHAR)
+            return null;
+
+        // Only single-byte tables translate one byte to one character.
+        // Mixed, double-byte and bidirectional CCSIDs need the full conversion.
+        ConvTable converter = connection_.getConverter(ccsids_[index0]);
+        if(!(converter instanceof ConvTableSingleMap))
+            return null;
+
+        int offset = rowDataOffset_ + dataOffset_[index0];
+        int length;
+        if(sqlType == SQLData.CHAR)
+        {
+            length = dataLength_[index0];
+        }
+        else
+        {
+            length = BinaryConverter.byteArrayToUnsignedShort(rawBytes_, offset);
+            offset += 2;
+        }
+        if(maxFieldSize > 0 && length > maxFieldSize)
+            length = maxFieldSize;
+
+        return new JDSingleByteCharSequence((ConvTableSingleMap)converter, rawBytes_, offset, length);
+    }
+
+
+
+    /**
+    Returns the integer part of a DECIMAL or NUMERIC field, decoded
+    directly from the packed or zoned bytes.
+
+    @param      index   The field index (1-based).
+    @return             The value.
+
+    @exception  NumberFormatException   If the field does not contain valid
+                                        packed or zoned decimal data.
+    **/
+    long getLong(int index)
+    {
+        int index0 = index - 1;
+        int offset = rowDataOffset_ + dataOffset_[index0];
+        if(sqlData_[index0].getSQLType() == SQLData.DECIMAL)
+            return AS400PackedDecimal.toLong(rawBytes_, offset, precisions_[index0], scales_[index0]);
+        else
+            return AS400ZonedDecimal.toLong(rawBytes_, offset, precisions_[index0], scales_[index0]);
+    }
+
+
+
+    /**
+    Indicates if getLong() can decode a field directly.  This is true
+    for DECIMAL and NUMERIC fields whose integer part always fits in
+    a long, when there is a current row.
+
+    @param      index   The field index (1-based).
+    @return             true if getLong() can be used.
+    **/
+    boolean isDirectLong(int index)
+    {
+        int index0 = index - 1;
+        if(rowIndex_ < 0 || rawBytes_ == null || rowDataOffset_ == -1 || containsArray_)
+            return false;
+        int sqlType = sqlData_[index0].getSQLType();
+        return (sqlType == SQLData.DECIMAL || sqlType == SQLData.NUMERIC)
+            && (precisions_[index0] - scales_[index0]) <= 18;
+    }
+
+
+
+    // Returns the number of bytes per character counted by the length
+    // of a varying length type, or 0 if the type does not have a length.
+    private static int getVaryingLengthUnit(int sqlType)
+    {
+        switch (sqlType)
+        {
+            case SQLData.VARCHAR:
+            case SQLData.VARCHAR_FOR_BIT_DATA:
+            case SQLData.LONG_VARCHAR:
+            case SQLData.LONG_VARCHAR_FOR_BIT_DATA:
+            case SQLData.VARBINARY:
+            case SQLData.DATALINK:
+                return 1;
+            case SQLData.VARGRAPHIC:
+            case SQLData.LONG_VARGRAPHIC:
+            case SQLData.LONG_NVARCHAR:
+            case SQLData.NVARCHAR:
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+
+
     /**
     Initializes the state of the object.
 
@@ -44,6 +44,9 @@ implements JDRowCache
   private int                     bufferSize_;                                  //@K54  
   private JDCursor                cursor_ = null; //@pda perf2 - fetch/close
   private DBReplyRequestedDS fetchReply = null; //@P0A
+  private boolean                 asyncPrefetch_ = false;
+  private int                     prefetchCorrelationId_ = 0;  // Correlation id of the outstanding FETCH_NEXT, or 0.
+  private JDBlockSizeTuner        blockSizeTuner_ = null;      // Set when the "adaptive block size" property is set.
   
 
   // Index always points to the row within the cache.
@@ -114,6 +117,19 @@ prefetched.
 
     bufferSize_ = connection_.getProperties().getInt(JDProperties.BLOCK_SIZE);  //@K54
 
+    // The next block is only requested ahead for forward only result sets.
+    // Other result sets may move the cursor, which would invalidate the
+    // block that is already on its way.
+    asyncPrefetch_ = (resultSetType == java.sql.ResultSet.TYPE_FORWARD_ONLY &&
+                      connection_.getProperties().getBoolean(JDProperties.ASYNC_PREFETCH));
+
+    // A blocking factor of 1 means that the cursor must not run ahead
+    // (for example, an updatable result set), and a block size of 0 means
+    // that the fetch size is used, so neither is tuned.
+    if (bufferSize_ > 0 && blockingFactor_ > 1 &&
+        connection_.getProperties().getBoolean(JDProperties.ADAPTIVE_BLOCK_SIZE))
+      blockSizeTuner_ = new JDBlockSizeTuner(connection_, bufferSize_, blockingFactor_);
+
     // We are before the first row.  Actually there is no data in the cache
     // when this c'tor is used so it shouldn't make any difference, but
     // we will set it to 0 just to be consistent.  When an RS is opened
@@ -195,6 +211,19 @@ prefetched.
 
     bufferSize_ = connection_.getProperties().getInt(JDProperties.BLOCK_SIZE);  //@K54
 
+    // The next block is only requested ahead for forward only result sets.
+    // Other result sets may move the cursor, which would invalidate the
+    // block that is already on its way.
+    asyncPrefetch_ = (resultSetType == java.sql.ResultSet.TYPE_FORWARD_ONLY &&
+                      connection_.getProperties().getBoolean(JDProperties.ASYNC_PREFETCH));
+
+    // A blocking factor of 1 means that the cursor must not run ahead
+    // (for example, an updatable result set), and a block size of 0 means
+    // that the fetch size is used, so neither is tuned.
+    if (bufferSize_ > 0 && blockingFactor_ > 1 &&
+        connection_.getProperties().getBoolean(JDProperties.ADAPTIVE_BLOCK_SIZE))
+      blockSizeTuner_ = new JDBlockSizeTuner(connection_, bufferSize_, blockingFactor_);
+
     try
     {
       cached_ = serverData.getRowCount ();
@@ -289,53 +318,44 @@ Fetches a block of data from the system.
   throws SQLException
   {
     boolean endBlock = false;
+    boolean blocked = false;
+    long elapsed = -1;
 
     try
     {
       DBSQLRequestDS request = null; //@P0A
       try
       {
-        request = DBDSPool.getDBSQLRequestDS ( //@P0C
-                                               DBSQLRequestDS.FUNCTIONID_FETCH,
-                                               id_, DBBaseRequestDS.ORS_BITMAP_RETURN_DATA
-                                               + DBBaseRequestDS.ORS_BITMAP_RESULT_DATA, 0);
-
-        request.setFetchScrollOption (fetchScrollOption, rows);
-
-        // If fetching next, then fetch a block.  Otherwise,
-        // just fetch a single row.  The check was altered under @G1
-        // to fetch a block of rows only when we know the cursor
-        // location.  If we don't know the cursor location when we 
-        // get only one row just in case the next request is to
-        // go backward or relative to the current location.  This 
-        // will be slower but it is the only way to assure accurate 
-        // information is returned to the app. 
-        if ((fetchScrollOption == DBSQLRequestDS.FETCH_NEXT) &&       
-            (blockingFactor_ > 0)                            &&
-            (cursorPositionOfFirstRowInCache_ >= 0))                    // @G1a
+        if (fetchReply != null) { fetchReply.returnToPool(); fetchReply = null; } 
+
+        if (prefetchCorrelationId_ != 0 && fetchScrollOption == DBSQLRequestDS.FETCH_NEXT)
         {
-            if(variableFieldCompressionSupported_)   //@K54
-            {                   
-                //Do not need to set the blocking factor if using variable-length field compression
-                //If both the buffer size and blocking factor were set, the buffer size will override
-                //the blocking factor and the number of rows that will fit in the buffer size will be returned
-                //regardless of the blocking factor value                                                                                                        //@K54
-                request.setVariableFieldCompression(true);                                                                              //@K54
-                request.setBufferSize(bufferSize_ * 1024);                                                                                     //@K54
-            }                                                                                                                           //@K54
-            else                                                                                                                        //@K54
-                request.setBlockingFactor (blockingFactor_);
+          // The next block was already requested.
+          if (JDTrace.isTraceOn ())
+            JDTrace.logInformation (connection_, "Receiving prefetched block of data from the system");
+
+          int correlationId = prefetchCorrelationId_;
+          prefetchCorrelationId_ = 0;
+          fetchReply = connection_.receiveDeferred (correlationId);
+          // Prefetches are always blocked, but the wait for a prefetched
+          // block is not a round trip, so no time is recorded.
+          blocked = true;
         }
         else
         {
-          request.setBlockingFactor (1);
-        }   
+          cancelPrefetch();
 
-        if (JDTrace.isTraceOn ())
-          JDTrace.logInformation (connection_, "Fetching a block of data from the system "+fetchScrollOption+","+rows);
+          request = createFetchRequest (fetchScrollOption, rows);
 
-        if (fetchReply != null) { fetchReply.returnToPool(); fetchReply = null; } 
-        fetchReply = connection_.sendAndReceive (request, id_); //@P0C
+          if (JDTrace.isTraceOn ())
+            JDTrace.logInformation (connection_, "Fetching a block of data from the system "+fetchScrollOption+","+rows);
+
+          blocked = isBlockedFetch (fetchScrollOption);
+          long start = (blockSizeTuner_ != null) ? System.nanoTime () : 0;
+          fetchReply = connection_.sendAndReceive (request, id_); //@P0C
+          if (blockSizeTuner_ != null)
+            elapsed = System.nanoTime () - start;
+        }
 
         int errorClass = fetchReply.getErrorClass();
         int returnCode = fetchReply.getReturnCode();
@@ -384,6 +404,9 @@ Fetches a block of data from the system.
         {
           row_.setServerData (serverData_);
           cached_ = serverData_.getRowCount ();
+
+          if (blockSizeTuner_ != null && blocked)
+            blockSizeTuner_.sample (cached_, fetchReply.getLength (), elapsed, endBlock);
         }
 
         if (emptyChecked_ == false) //empty_ is refering to empty resultset, not empty cache_
@@ -408,6 +431,154 @@ Fetches a block of data from the system.
 
 
 
+/**
+Creates a fetch request.
+
+@param  fetchScrollOption   The fetch scroll option.
+@param  rows                The number of rows when
+                            fetchScrollOption is
+                            DBSQLRequestDS.FETCH_RELATIVE.
+@return                     The request.
+
+@exception  DBDataStreamException   If an error occurs.
+**/
+  private DBSQLRequestDS createFetchRequest (int fetchScrollOption, int rows)
+  throws DBDataStreamException
+  {
+    DBSQLRequestDS request = DBDSPool.getDBSQLRequestDS ( //@P0C
+                                             DBSQLRequestDS.FUNCTIONID_FETCH,
+                                             id_, DBBaseRequestDS.ORS_BITMAP_RETURN_DATA
+                                             + DBBaseRequestDS.ORS_BITMAP_RESULT_DATA, 0);
+
+    request.setFetchScrollOption (fetchScrollOption, rows);
+
+    // If fetching next, then fetch a block.  Otherwise,
+    // just fetch a single row.  The check was altered under @G1
+    // to fetch a block of rows only when we know the cursor
+    // location.  If we don't know the cursor location when we 
+    // get only one row just in case the next request is to
+    // go backward or relative to the current location.  This 
+    // will be slower but it is the only way to assure accurate 
+    // information is returned to the app. 
+    if (isBlockedFetch (fetchScrollOption))                            // @G1a
+    {
+        if (blockSizeTuner_ != null)
+        {
+            // Use the values chosen from the previous blocks.
+            if (variableFieldCompressionSupported_)
+            {
+                request.setVariableFieldCompression(true);
+                request.setBufferSize(blockSizeTuner_.getBufferSize());
+            }
+            else
+                request.setBlockingFactor (blockSizeTuner_.getBlockingFactor());
+        }
+        else if(variableFieldCompressionSupported_)   //@K54
+        {                   
+            //Do not need to set the blocking factor if using variable-length field compression
+            //If both the buffer size and blocking factor were set, the buffer size will override
+            //the blocking factor and the number of rows that will fit in the buffer size will be returned
+            //regardless of the blocking factor value                                                                                                        //@K54
+            request.setVariableFieldCompression(true);                                                                              //@K54
+            request.setBufferSize(bufferSize_ * 1024);                                                                                     //@K54
+        }                                                                                                                           //@K54
+        else                                                                                                                        //@K54
+            request.setBlockingFactor (blockingFactor_);
+    }
+    else
+    {
+      request.setBlockingFactor (1);
+    }
+
+    return request;
+  }
+
+
+
+/**
+Indicates if a fetch returns a block of rows.
+
+@param  fetchScrollOption   The fetch scroll option.
+@return                     true if a block of rows is fetched,
+                            false if a single row is fetched.
+**/
+  private boolean isBlockedFetch (int fetchScrollOption)
+  {
+    return (fetchScrollOption == DBSQLRequestDS.FETCH_NEXT) &&
+           (blockingFactor_ > 0)                            &&
+           (cursorPositionOfFirstRowInCache_ >= 0);
+  }
+
+
+
+/**
+Requests the next block of data from the system without
+waiting for it.  The reply is received by the next call
+to fetch() for DBSQLRequestDS.FETCH_NEXT.  This is only done
+when the "async prefetch" property is set, and only when
+blocks of rows are being fetched.
+
+@exception  SQLException    If an error occurs.
+**/
+  private void startPrefetch ()
+  throws SQLException
+  {
+    if (! asyncPrefetch_ || prefetchCorrelationId_ != 0 || lastBlock_
+        || blockingFactor_ <= 1 || cursorPositionOfFirstRowInCache_ < 0)
+      return;
+
+    if (cursor_ != null && cursor_.isClosed())
+      return;
+
+    DBSQLRequestDS request = null;
+    try
+    {
+      request = createFetchRequest (DBSQLRequestDS.FETCH_NEXT, 0);
+
+      if (JDTrace.isTraceOn ())
+        JDTrace.logInformation (connection_, "Prefetching a block of data from the system");
+
+      prefetchCorrelationId_ = connection_.sendAndDeferReceive (request, id_);
+    }
+    catch (DBDataStreamException e)
+    {
+      JDError.throwSQLException (JDError.EXC_INTERNAL, e);
+    }
+    finally
+    {
+      if (request != null) { request.returnToPool(); request = null; }
+    }
+  }
+
+
+
+/**
+Receives and discards the reply to an outstanding prefetch.
+This keeps the replies on the connection in order before the
+cursor is moved some other way or closed.
+
+@exception  SQLException    If an error occurs.
+**/
+  private void cancelPrefetch ()
+  throws SQLException
+  {
+    if (prefetchCorrelationId_ == 0)
+      return;
+
+    int correlationId = prefetchCorrelationId_;
+    prefetchCorrelationId_ = 0;
+
+    DBReplyRequestedDS reply = connection_.receiveDeferred (correlationId);
+    if (reply != null)
+    {
+      if (reply.getErrorClass() == 2 && reply.getReturnCode() == 700 && cursor_ != null)
+        cursor_.setState(true); //closed cursor already on system
+      reply.returnToPool();
+    }
+  }
+
+
+
 /**
 Sets the fetch size.
 
@@ -448,10 +619,19 @@ Sets the fetch size.
   {
     // No-op.  It is assumed that the cursor will be closed
     // elsewhere.
-    
-      // Make sure reply is returned to pool 
-      if (fetchReply != null) {
-        fetchReply.returnToPool();  fetchReply = null; 
+
+      // The reply to an outstanding prefetch must be received
+      // before the cursor is closed.
+      try
+      {
+        cancelPrefetch();
+      }
+      finally
+      {
+        // Make sure reply is returned to pool 
+        if (fetchReply != null) {
+          fetchReply.returnToPool();  fetchReply = null; 
+        }
       }
   }
 
@@ -786,6 +966,11 @@ Sets the fetch size.
   public void next ()
   throws SQLException
   {
+    // When the first block came back with the open, request the
+    // next block as soon as the application starts reading it.
+    if (index_ == -1 && cached_ > 0 && ! lastBlock_)
+      startPrefetch();
+
     // If the next row is cached, then move the index
     // within the cache.
     if (index_ < (cached_ - 1))
@@ -817,6 +1002,10 @@ Sets the fetch size.
         cursorPositionOfFirstRowInCache_ = 1;                     // @G1a 
       else                                             //@rel4
           cursorPositionOfFirstRowInCache_ = NOT_KNOWN;//@rel4
+
+      // Overlap the fetch of the following block with the
+      // processing of this one.
+      startPrefetch();
     }
 
     row_.setRowIndex (index_);
@@ -953,6 +1142,14 @@ Sets the fetch size.
   
   protected void finalize() throws Throwable {
 		super.finalize();
+        // A row cache that is abandoned without being closed must
+        // still take its prefetched block off the connection.  The
+        // finalizer thread does not wait for it; the connection drops
+        // the reply when it arrives.
+        if (prefetchCorrelationId_ != 0) {
+          connection_.discardDeferred(prefetchCorrelationId_);
+          prefetchCorrelationId_ = 0;
+        }
         if (fetchReply != null) { fetchReply.returnToPool(); fetchReply=null; } 
   }
 
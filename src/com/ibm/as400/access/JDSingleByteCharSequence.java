@@ -0,0 +1,80 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDSingleByteCharSequence.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+
+
+/**
+<p>The JDSingleByteCharSequence class is a CharSequence over the bytes of
+a single-byte CCSID field in a reply from the system.  Each character is
+translated when it is read, so comparing or copying the value does not
+create a String.
+
+<p>The bytes are not copied.  The sequence is only valid until the result
+set that returned it is moved to another row or closed.  Call toString()
+to keep the value.
+**/
+final class JDSingleByteCharSequence
+implements CharSequence
+{
+  static final String copyright = "Copyright (C) 1997-2018 International Business Machines Corporation and others.";
+
+  private final ConvTableSingleMap converter_;
+  private final byte[]             buffer_;
+  private final int                offset_;
+  private final int                length_;
+
+
+
+  JDSingleByteCharSequence (ConvTableSingleMap converter, byte[] buffer, int offset, int length)
+  {
+    converter_ = converter;
+    buffer_    = buffer;
+    offset_    = offset;
+    length_    = length;
+  }
+
+
+
+  public int length ()
+  {
+    return length_;
+  }
+
+
+
+  public char charAt (int index)
+  {
+    if (index < 0 || index >= length_)
+      throw new IndexOutOfBoundsException (String.valueOf (index));
+    // The 0x00FF is so we don't get any negative indices.
+    return converter_.toUnicode_[0x00FF & buffer_[offset_ + index]];
+  }
+
+
+
+  public CharSequence subSequence (int start, int end)
+  {
+    if (start < 0 || end > length_ || start > end)
+      throw new IndexOutOfBoundsException (start + "," + end);
+    return new JDSingleByteCharSequence (converter_, buffer_, offset_ + start, end - start);
+  }
+
+
+
+  public String toString ()
+  {
+    return converter_.byteArrayToString (buffer_, offset_, length_, null);
+  }
+}
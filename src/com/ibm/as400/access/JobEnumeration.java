@@ -70,7 +70,7 @@ class JobEnumeration implements Enumeration
         {
             try
             {
-                jobCache_ = list_.getJobs(listOffset_, 1000);
+                jobCache_ = list_.getJobs(listOffset_, ListUtilities.getEnumerationBlockSize());
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Loaded next block in JobEnumeration: " + jobCache_.length + " messages at list offset " + listOffset_ + " out of " + numJobs_ + " total.");
             }
             catch (Exception e)
@@ -1058,10 +1058,8 @@ public class JobList implements Serializable
             number = length_ - listOffset;
         }
 
-        int lengthOfReceiverVariable = recordLength_ * number;
-
         // Retrieve the entries in the list that was built by the most recent load().
-        byte[] data = ListUtilities.retrieveListEntries(system_, handle_, lengthOfReceiverVariable, number, listOffset, null);
+        byte[] data = ListUtilities.retrieveFixedLengthListEntries(system_, handle_, recordLength_, number, listOffset, null);
 
         Converter conv = new Converter(system_.getCcsid(), system_);
 
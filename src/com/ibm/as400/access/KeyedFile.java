@@ -817,6 +817,64 @@ public class KeyedFile extends AS400File implements Serializable
   }
 
 
+  /**
+   *Reads all the records in the file a block at a time.  Unlike readAll(), the
+   *records are not all held in memory at once, and the next blocks are read while
+   *the current block is processed.  The file must be closed when invoking this
+   *method; it is opened by this method and closed when the last record has been
+   *returned or when RecordEnumeration.close() is called.
+   *The record format for the file must have been set prior to invoking this method.
+   *The blocking factor is calculated as for readAll(), and two blocks are read ahead.
+   *@return The records of the file.
+   *@exception AS400Exception If the system returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception ConnectionDroppedException If the connection is dropped unexpectedly.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the system.
+   *@exception ServerStartupException If the host server cannot be started.
+   *@exception UnknownHostException If the system cannot be located.
+  **/
+  public RecordEnumeration readAllRecords()
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    return readAllRecords("key", 0, 2);
+  }
+
+
+  /**
+   *Reads all the records in the file a block at a time.  Unlike readAll(), the
+   *records are not all held in memory at once, and the next blocks are read while
+   *the current block is processed.  The file must be closed when invoking this
+   *method; it is opened by this method and closed when the last record has been
+   *returned or when RecordEnumeration.close() is called.
+   *The record format for the file must have been set prior to invoking this method.
+   *@param blockingFactor The number of records in each block.  If 0 is specified,
+   *the blocking factor is calculated as for readAll().  The
+   *<i>blockingFactor</i> must be greater than or equal to zero.
+   *@param readAhead The number of blocks requested from the system before they are
+   *needed.  The <i>readAhead</i> must be greater than zero.
+   *@return The records of the file.
+   *@exception AS400Exception If the system returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception ConnectionDroppedException If the connection is dropped unexpectedly.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the system.
+   *@exception ServerStartupException If the host server cannot be started.
+   *@exception UnknownHostException If the system cannot be located.
+  **/
+  public RecordEnumeration readAllRecords(int blockingFactor, int readAhead)
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    return readAllRecords("key", blockingFactor, readAhead);
+  }
+
+
   /**
    *Reads the first record before the record with the specified key.  The file must
    *be open when invoking this method.
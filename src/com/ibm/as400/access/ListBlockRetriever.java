@@ -0,0 +1,158 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: ListBlockRetriever.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+
+
+/**
+ Internal class that retrieves the entries of a list in blocks, with several calls to the QGYGTLE (Get List Entries) API outstanding at a time.
+ This should only be used internally by the list classes.
+ <p>The list belongs to the server job of the remote command server connection of the system, so all of the calls are sent on that connection, from separate threads; the system processes them one at a time, but their round trips overlap.
+**/
+public abstract class ListBlockRetriever
+{
+  // Default settings for the listBlockSize and listOutstandingRequests properties.
+  private static final int DEFAULT_BLOCK_SIZE = 1000;
+  private static final int DEFAULT_OUTSTANDING_REQUESTS = 1;
+
+  private final int blocks_;
+  // The next block to be taken.
+  private int nextBlock_ = 0;
+  // The first exception thrown.
+  private Exception exception_;
+
+  /**
+   Constructs a ListBlockRetriever object.
+   @param  blocks  The number of blocks to retrieve.
+   **/
+  protected ListBlockRetriever(int blocks)
+  {
+    blocks_ = blocks;
+  }
+
+  /**
+   Retrieves a block.  This is called from several threads at once, each with a different block.
+   @param  block  The block number (0-based).
+   @exception  AS400SecurityException  If a security or authority error occurs.
+   @exception  ErrorCompletingRequestException  If an error occurs before the request is completed.
+   @exception  InterruptedException  If this thread is interrupted.
+   @exception  IOException  If an error occurs while communicating with the system.
+   @exception  ObjectDoesNotExistException  If the object does not exist on the system.
+   **/
+  protected abstract void retrieveBlock(int block) throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException;
+
+  /**
+   Retrieves all of the blocks, with up to the given number of calls outstanding at a time.  This returns when all of the blocks are retrieved, or when one fails.
+   @param  outstandingRequests  The number of calls to keep outstanding.
+   @param  name  The name of the threads.
+   @exception  AS400SecurityException  If a security or authority error occurs.
+   @exception  ErrorCompletingRequestException  If an error occurs before the request is completed.
+   @exception  InterruptedException  If this thread is interrupted.
+   @exception  IOException  If an error occurs while communicating with the system.
+   @exception  ObjectDoesNotExistException  If the object does not exist on the system.
+   **/
+  public final void retrieve(int outstandingRequests, String name) throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException
+  {
+    // Each thread takes the next block that no thread has taken, until all blocks are taken or one fails.
+    Runnable worker = new Runnable()
+    {
+      public void run()
+      {
+        try
+        {
+          for (int block = takeBlock(); block != -1; block = takeBlock())
+          {
+            retrieveBlock(block);
+          }
+        }
+        catch (Exception e)
+        {
+          synchronized (ListBlockRetriever.this)
+          {
+            if (exception_ == null) exception_ = e;
+          }
+        }
+      }
+    };
+
+    Thread[] threads = new Thread[Math.max(Math.min(outstandingRequests, blocks_) - 1, 0)];
+    for (int i = 0; i < threads.length; ++i)
+    {
+      threads[i] = AS400Server.newDaemonThread(worker, name + "-" + i);
+      threads[i].start();
+    }
+    worker.run();
+    for (int i = 0; i < threads.length; ++i)
+    {
+      threads[i].join();
+    }
+    rethrow();
+  }
+
+  // Returns the next block to retrieve, or -1 if there are none left.
+  private synchronized int takeBlock()
+  {
+    if (exception_ != null || nextBlock_ == blocks_) return -1;
+    return nextBlock_++;
+  }
+
+  // Throws the first exception thrown while retrieving the blocks.
+  private synchronized void rethrow() throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException
+  {
+    if (exception_ == null) return;
+    if (exception_ instanceof AS400SecurityException) throw (AS400SecurityException)exception_;
+    if (exception_ instanceof ErrorCompletingRequestException) throw (ErrorCompletingRequestException)exception_;
+    if (exception_ instanceof InterruptedException) throw (InterruptedException)exception_;
+    if (exception_ instanceof IOException) throw (IOException)exception_;
+    if (exception_ instanceof ObjectDoesNotExistException) throw (ObjectDoesNotExistException)exception_;
+    if (exception_ instanceof RuntimeException) throw (RuntimeException)exception_;
+    throw new InternalErrorException(InternalErrorException.UNEXPECTED_EXCEPTION, exception_);
+  }
+
+  /**
+   Returns the number of entries in each block, as set by the {@link SystemProperties#LIST_BLOCK_SIZE listBlockSize} property.
+   @return  The block size.  The default is 1000.
+   **/
+  public static int getDefaultBlockSize()
+  {
+    return getIntProperty(SystemProperties.LIST_BLOCK_SIZE, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   Returns the number of calls to keep outstanding, as set by the {@link SystemProperties#LIST_OUTSTANDING_REQUESTS listOutstandingRequests} property.
+   @return  The number of outstanding requests.  The default is 1.
+   **/
+  public static int getDefaultOutstandingRequests()
+  {
+    return getIntProperty(SystemProperties.LIST_OUTSTANDING_REQUESTS, DEFAULT_OUTSTANDING_REQUESTS);
+  }
+
+  // Returns the value of an integer property that must be at least 1, or the default value.
+  private static int getIntProperty(String propertyName, int defaultValue)
+  {
+    String propVal = SystemProperties.getProperty(propertyName);
+    if (propVal != null)
+    {
+      try {
+        int value = Integer.parseInt(propVal.trim());
+        if (value >= 1) return value;
+      }
+      catch (Exception e) {
+        if (Trace.traceOn_) Trace.log(Trace.WARNING, "Error retrieving " + propertyName + " property value:", e);
+      }
+    }
+    return defaultValue;
+  }
+}
@@ -25,6 +25,10 @@ class ListUtilities
   // This is the maximum amount of time to wait for a list to complete before giving up.
   private static final int DEFAULT_MAX_WAIT_TIME = 60;  // 60 seconds
 
+  // The first and the longest wait between the calls that check whether a list is complete.
+  private static final long MIN_WAIT_MILLIS = 10;    // 10 milliseconds
+  private static final long MAX_WAIT_MILLIS = 1000;  // 1 second
+
   // The length of the "List information" structure parameter.
   static final int LIST_INFO_LENGTH = 80;  // 80 bytes
 
@@ -221,20 +225,23 @@ class ListUtilities
     throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException
   {
     ProgramCall pgmCall = null;  // for calling QGYGTLE
-    final int waitSecondsPerIteration = 1;  // wait 1 second between retries
-    int accumulatedWaitSeconds = 0;  // accumulated total wait time
+    long waitMillis = MIN_WAIT_MILLIS;  // wait between retries, doubled after each retry
+    long accumulatedWaitMillis = 0;  // accumulated total wait time
     int maxWaitSeconds = getMaxWaitTime();
+    long maxWaitMillis = maxWaitSeconds * 1000L;
 
     char listStatus = checkListStatus(listInformation);
 
     while (listStatus != LIST_COMPLETE &&
-           accumulatedWaitSeconds < maxWaitSeconds)
+           accumulatedWaitMillis < maxWaitMillis)
     {
+      // Lists that finish building soon after they are opened are picked up after a few milliseconds, rather than after a full second.
+      long waitStart = System.currentTimeMillis();
       try {
-        Thread.sleep(waitSecondsPerIteration*1000); // wait for 1 second
-        accumulatedWaitSeconds += waitSecondsPerIteration;
+        Thread.sleep(waitMillis);
       }
       catch (InterruptedException ie) {}  // ignore
+      waitMillis = Math.min(waitMillis * 2, MAX_WAIT_MILLIS);
 
       if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Calling QGYGTLE.PGM to wait for list to be completely built.");
 
@@ -245,6 +252,7 @@ class ListUtilities
       if (pgmCall == null) pgmCall = new ProgramCall(system);
       listInformation = refreshListInformation(listHandle, pgmCall);
       listStatus = checkListStatus(listInformation);
+      accumulatedWaitMillis += System.currentTimeMillis() - waitStart;
     }
 
     if (listStatus != LIST_COMPLETE) {
@@ -355,6 +363,68 @@ class ListUtilities
   }
 
 
+  /**
+   Calls QGYGTLE to retrieve the specified number of list entries, for lists whose entries all have the same length.
+   If the listOutstandingRequests property is greater than 1 and more than listBlockSize entries are requested, the entries are retrieved in blocks of listBlockSize entries, with up to listOutstandingRequests calls to QGYGTLE outstanding at a time.
+   The calls are made on separate threads, but all on the remote command server connection of the system, whose server job owns the list; so they are not processed in parallel, but the round trips overlap.
+   The blocks are reassembled in order.
+   This assumes that the list has previously been built on the system.
+   @param system The system where the list has been built.
+   @param listHandle The list handle for the list.
+   @param recordLength The length of each list entry.
+   @param number The number of list entries to return.  The list must have at least this many entries after the offset.
+   @param listOffset The offset into the list (0-based).
+   @param outputListInfoContainer Container in which to receive the generated "List information" structure. Ignored if null.  Its "records returned" and "first record in receiver variable" fields describe all of the entries returned.
+   **/
+  static byte[] retrieveFixedLengthListEntries(final AS400 system, final byte[] listHandle, final int recordLength, final int number, final int listOffset, Object[] outputListInfoContainer)
+    throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException
+  {
+    final int blockSize = ListBlockRetriever.getDefaultBlockSize();
+    int outstandingRequests = ListBlockRetriever.getDefaultOutstandingRequests();
+    if (outstandingRequests <= 1 || number <= blockSize || listOffset < 0)
+    {
+      return retrieveListEntries(system, listHandle, recordLength * number, number, listOffset, outputListInfoContainer);
+    }
+
+    if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Retrieving list entries in blocks of " + blockSize + ", outstanding requests: " + outstandingRequests + ", number:", number);
+    // The entries, in order, and the "list information" structure of the last block.
+    final byte[] data = new byte[recordLength * number];
+    final byte[][] listInformation = new byte[1][];
+    ListBlockRetriever retriever = new ListBlockRetriever((number + blockSize - 1) / blockSize)
+    {
+      protected void retrieveBlock(int block) throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException
+      {
+        int first = block * blockSize;
+        int count = Math.min(blockSize, number - first);
+        Object[] listInfoContainer = new Object[1];
+        byte[] blockData = retrieveListEntries(system, listHandle, recordLength * count, count, listOffset + first, listInfoContainer);
+        // The receiver variable is at least as large as requested; the entries are at its start.
+        System.arraycopy(blockData, 0, data, first * recordLength, count * recordLength);
+        if (first + count == number) listInformation[0] = (byte[])listInfoContainer[0];
+      }
+    };
+    retriever.retrieve(outstandingRequests, "ListUtilities");
+
+    if (outputListInfoContainer != null)
+    {
+      BinaryConverter.intToByteArray(number, listInformation[0], 4);  // Records returned.
+      BinaryConverter.intToByteArray(listOffset + 1, listInformation[0], 36);  // First record in receiver variable.
+      outputListInfoContainer[0] = listInformation[0];
+    }
+    return data;
+  }
+
+
+  // Returns the number of entries that the enumerations of the lists with fixed length entries retrieve at a time.
+  // This is 1000, unless more than one call to QGYGTLE is kept outstanding, in which case it is a block for each call.
+  static int getEnumerationBlockSize()
+  {
+    int outstandingRequests = ListBlockRetriever.getDefaultOutstandingRequests();
+    if (outstandingRequests <= 1) return 1000;
+    return ListBlockRetriever.getDefaultBlockSize() * outstandingRequests;
+  }
+
+
   // Returns the maximum number of seconds to wait for a list to be built.
   private static int getMaxWaitTime()
   {
@@ -50,7 +50,7 @@ class ObjectDescriptionEnumeration implements Enumeration
     {
       try
       {
-        objectCache_ = list_.getObjects(listOffset_, 1000);
+        objectCache_ = list_.getObjects(listOffset_, ListUtilities.getEnumerationBlockSize());
         if (Trace.traceOn_)
         {
           Trace.log(Trace.DIAGNOSTIC, "Loaded next block in ObjectDescriptionEnumeration: "+objectCache_.length+" messages at list offset "+listOffset_+" out of "+numObjects_+" total.");
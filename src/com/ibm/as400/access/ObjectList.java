@@ -1027,15 +1027,12 @@ public class ObjectList implements Serializable
     int ccsid = system_.getCcsid();
     ConvTable conv = ConvTable.getTable(ccsid, null);
     
-    // Use recLen_ from load()'s list information to calculate receiver length needed @A2A
-    int len = number*recLen_; //@A2C
-
     // The 'List information' structure from call to QGYGTLE.
     // This value will be set by retrieveListEntries().
     Object[] listInfoContainer = new Object[1];  // initialized to null
 
     // Retrieve the entries in the list that was built by the most recent load().
-    byte[] data = ListUtilities.retrieveListEntries(system_, handle_, len, number, listOffset, listInfoContainer);
+    byte[] data = ListUtilities.retrieveFixedLengthListEntries(system_, handle_, recLen_, number, listOffset, listInfoContainer);
 
     byte[] listInfo = (byte[])listInfoContainer[0];
     if (listInfo == null || listInfo.length == 0) {
@@ -35,9 +35,11 @@ class PSConfig
 {
     // Private data.
     private static final String                 OPTION_BALANCE_THRESHOLD    = "balanceThreshold";
+    private static final String                 OPTION_COMPRESSION_THRESHOLD = "compressionThreshold";
     private static final String                 OPTION_CONFIGURATION        = "configuration";
     private static final String                 OPTION_JDBC_DRIVERS         = "jdbcDrivers";
     private static final String                 OPTION_MAX_CONNECTIONS      = "maxConnections";
+    private static final String                 OPTION_MAX_THREADS          = "maxThreads";
     private static final String                 OPTION_PEERS                = "peers";
     private static final String                 OPTION_VERBOSE              = "verbose";
 
@@ -60,9 +62,11 @@ Static initializer.
     {        
         // Expected options for the ProxyServer application.
         expectedOptions_.addElement ("-balanceThreshold");
+        expectedOptions_.addElement ("-compressionThreshold");
         expectedOptions_.addElement ("-configuration");
         expectedOptions_.addElement ("-jdbcDrivers");
         expectedOptions_.addElement ("-maxConnections");
+        expectedOptions_.addElement ("-maxThreads");
         expectedOptions_.addElement ("-peers");
         expectedOptions_.addElement ("-port");
         expectedOptions_.addElement ("-securePort");
@@ -73,8 +77,10 @@ Static initializer.
         // Note: These are also listed in usage().                                  // @A1A
         shortcuts_.put ("-bt", "-balanceThreshold");
         shortcuts_.put ("-c", "-configuration");
+        shortcuts_.put ("-ct", "-compressionThreshold");
         shortcuts_.put ("-jd", "-jdbcDrivers");
         shortcuts_.put ("-mc", "-maxConnections");
+        shortcuts_.put ("-mt", "-maxThreads");
         shortcuts_.put ("-pe", "-peers");
         shortcuts_.put ("-po", "-port");
         shortcuts_.put ("-sp", "-securePort");
@@ -145,6 +151,12 @@ Applies the command line arguments to the configuration.
             properties_.put (OPTION_BALANCE_THRESHOLD, optionValue);
         }
         
+        optionValue = cla.getOptionValue (OPTION_COMPRESSION_THRESHOLD);
+        if (optionValue != null) {
+            load_.setCompressionThreshold (Integer.parseInt (optionValue));
+            properties_.put (OPTION_COMPRESSION_THRESHOLD, optionValue);
+        }
+        
         optionValue = cla.getOptionValue (OPTION_JDBC_DRIVERS);
         if (optionValue != null) {
             registerJDBCDrivers (optionValue);
@@ -157,6 +169,12 @@ Applies the command line arguments to the configuration.
             properties_.put (OPTION_MAX_CONNECTIONS, optionValue);
         }
         
+        optionValue = cla.getOptionValue (OPTION_MAX_THREADS);
+        if (optionValue != null) {
+            load_.setMaxThreads (Integer.parseInt (optionValue));
+            properties_.put (OPTION_MAX_THREADS, optionValue);
+        }
+        
         optionValue = cla.getOptionValue (OPTION_PEERS);
         if (optionValue != null) {
             loadBalancer_.setPeers (optionValue);
@@ -192,6 +210,11 @@ Applies a set of properties to the configuration.
                 properties_.put (OPTION_BALANCE_THRESHOLD, optionValue);
             }
 
+            else if (optionName.equalsIgnoreCase (OPTION_COMPRESSION_THRESHOLD)) {
+                load_.setCompressionThreshold (Integer.parseInt (optionValue));
+                properties_.put (OPTION_COMPRESSION_THRESHOLD, optionValue);
+            }
+
             else if (optionName.equalsIgnoreCase (OPTION_JDBC_DRIVERS)) {
                 registerJDBCDrivers (optionValue);
                 properties_.put (OPTION_JDBC_DRIVERS, optionValue);
@@ -202,6 +225,11 @@ Applies a set of properties to the configuration.
                 properties_.put (OPTION_MAX_CONNECTIONS, optionValue);
             }
 
+            else if (optionName.equalsIgnoreCase (OPTION_MAX_THREADS)) {
+                load_.setMaxThreads (Integer.parseInt (optionValue));
+                properties_.put (OPTION_MAX_THREADS, optionValue);
+            }
+
             else if (optionName.equalsIgnoreCase (OPTION_PEERS)) {
                 loadBalancer_.setPeers (optionValue);
                 properties_.put (OPTION_PEERS, optionValue);
@@ -378,9 +406,11 @@ Prints the application usage information.
         out.println (optionsuc + ":");
         out.println ();
         out.println ("  -balanceThreshold balanceThreshold");
+        out.println ("  -compressionThreshold compressionThreshold");
         out.println ("  -configuration configuration");
         out.println ("  -jdbcDrivers jdbcDriver1[;jdbcDriver2;...]");       // @B2C
         out.println ("  -maxConnections maxConnections");
+        out.println ("  -maxThreads maxThreads");
         out.println ("  -peers hostname1[:port1][;hostname2[:port2];...");
         out.println ("  -port port");
         out.println ("  -securePort securePort");                           //$B1C
@@ -391,8 +421,10 @@ Prints the application usage information.
         out.println ();                                                     // @A1A
         out.println ("  -bt balanceThreshold");                             // @A1A
         out.println ("  -c configuration");                                 // @A1A
+        out.println ("  -ct compressionThreshold");
         out.println ("  -jd jdbcDriver1[;jdbcDriver2;...]");                // @A1A @B2C
         out.println ("  -mc maxConnections");                               // @A1A
+        out.println ("  -mt maxThreads");
         out.println ("  -pe hostname1[:port1][;hostname2[:port2];...");     // @A1A
         out.println ("  -po port");                                         // @A1A
         out.println ("  -sp securePort");                                   // @A1A  $B1C
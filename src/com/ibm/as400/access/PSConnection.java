@@ -13,6 +13,7 @@
 
 package com.ibm.as400.access;
 
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.InputStream;
 import java.io.IOException;
@@ -20,18 +21,31 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
 
 
 
 /**
 The PSConnection class represents a connection
 to a client of the proxy server.
+
+<p>The connection either runs as its own thread, reading
+requests from the input stream, or is registered with a
+PSDispatcher, which reads its requests from the socket
+channel and processes them in a pool of threads.
 **/
 class PSConnection
 extends StoppableThread
 {
+    // The number of bytes of replies that can wait to be
+    // sent before the threads sending more replies block.
+    private static final int                    MAX_PENDING_OUTPUT_     = 1024 * 1024;
+
     // Private data.
-    private boolean                             closed_                 = false;
+    private volatile boolean                    closed_                 = false;
     private long                                connectionId_;
     private PxDSFactory                         factory_;
     private InputStream                         input_;
@@ -40,6 +54,19 @@ extends StoppableThread
     private Socket                              socket_;
     private PrintWriter                         trace_;
     private PxTable                             proxyTable_;
+    private PxDictionary                        dictionary_;
+    private volatile PxCompression              compression_            = null;
+
+    // Data used when registered with a dispatcher.
+    private volatile boolean                    busy_                   = false;
+    private SocketChannel                       channel_;
+    private PSDispatcher                        dispatcher_;
+    private RequestBuffer                       inputBuffer_;
+    private SelectionKey                        key_;
+    private LinkedList                          outputQueue_;
+    private int                                 outputLength_           = 0;
+    private Object                              outputLock_             = new Object ();
+    private boolean                             waiting_                = false;
 
 
 
@@ -66,6 +93,7 @@ Constructs a PSConnection object.
         load_                   = load;
         output_                 = output;
         proxyTable_             = new PxTable ();
+        dictionary_             = new PxDictionary ();
                 
         factory_ = new PxDSFactory ();        
         
@@ -83,9 +111,13 @@ Constructs a PSConnection object.
         factory_.register (new PxToolboxObjectParm ());
         factory_.register (new PxNullParm ());
         factory_.register (new PxClassParm ());
+        factory_.register (new PxValueParm ());
+        factory_.register (new PxRecordParm (dictionary_));
+        factory_.register (new PxRecordFormatParm (dictionary_));
+        factory_.register (new PxMessageParm (dictionary_));
         
-        factory_.register (new PxConstructorReqSV (proxyTable_));
-        factory_.register (new PxMethodReqSV (proxyTable_)); //@B2D, this));
+        factory_.register (new PxConstructorReqSV (proxyTable_, dictionary_));
+        factory_.register (new PxMethodReqSV (proxyTable_, dictionary_)); //@B2D, this));
         factory_.register (new PxFinalizeReqSV (proxyTable_));
         factory_.register (new PxListenerReqSV (this, proxyTable_));
 
@@ -100,7 +132,18 @@ Constructs a PSConnection object.
     public void close ()
     {
         super.stopSafely();
-        closed_ = true;
+        synchronized (outputLock_) {
+            if (closed_)
+                return;
+            closed_ = true;
+            outputLock_.notifyAll ();
+        }
+
+        if (compression_ != null)
+            compression_.close ();
+
+        if (dispatcher_ != null)
+            dispatcher_.deregister (this);
 
         if (Trace.isTraceProxyOn ())
             Trace.log (Trace.PROXY, "Px server connection " + this + " closed.");
@@ -162,11 +205,139 @@ Constructs a PSConnection object.
 
 
 
+/**
+Processes the requests read from the socket channel.  This
+stops at the first synchronous request, which must be
+processed before the next requests are read, or when the
+request queue of the dispatcher is full.  This is called
+by the dispatcher thread.
+
+@exception IOException  If the requests are not valid.
+**/
+    void dispatchRequests ()
+        throws IOException
+    {
+        waiting_ = false;
+        while ((! busy_) && (! closed_) && (inputBuffer_.available () > 0)) {
+
+            if (dispatcher_.isSaturated ()) {
+                waiting_ = true;
+                dispatcher_.waitForQueue (this);
+                return;
+            }
+
+            // Get the next request, if it has been read completely.
+            PxReqSV request = (PxReqSV) inputBuffer_.getNextDS (factory_);
+            if (request == null)
+                return;
+            if (Trace.isTraceProxyOn ()) {
+                trace_.print(getName() + " - ");
+                request.dump(trace_);
+            }
+
+            final PxReqSV request2 = request;
+            final boolean synchronous = ! request.isAsynchronous ();
+            if (synchronous)
+                busy_ = true;
+            boolean queued = dispatcher_.execute (new Runnable () {
+                public void run ()
+                {
+                    try {
+                        processReq (request2);
+                    }
+                    finally {
+                        if (synchronous) {
+                            busy_ = false;
+                            dispatcher_.update (PSConnection.this);
+                        }
+                    }
+                }
+            });
+            if (! queued) {
+                close ();
+                return;
+            }
+        }
+    }
+
+
+
+/**
+Returns the socket channel.
+
+@return The socket channel.
+**/
+    SocketChannel getChannel ()
+    {
+        return channel_;
+    }
+
+
+
+/**
+Returns the dictionary used by the compact parameter datastreams.
+
+@return The dictionary.
+**/
+    PxDictionary getDictionary ()
+    {
+        return dictionary_;
+    }
+
+
+
+/**
+Sets the compression for the replies sent to the client.
+This is set when the connection is accepted, before any
+replies are sent.
+
+@param compression  The compression, or null for none.
+**/
+    void setCompression (PxCompression compression)
+    {
+        compression_ = compression;
+        factory_.setCompressedFrames (compression != null);
+    }
+
+
+
+/**
+Returns the operations the dispatcher waits for on
+the socket channel.
+
+@return The operations.
+**/
+    int getInterestOps ()
+    {
+        int ops = 0;
+        if ((! busy_) && (! waiting_) && (! closed_))
+            ops |= SelectionKey.OP_READ;
+        synchronized (outputLock_) {
+            if (outputLength_ > 0)
+                ops |= SelectionKey.OP_WRITE;
+        }
+        return ops;
+    }
+
+
+
+/**
+Returns the selection key of the socket channel.
+
+@return The selection key, or null if not registered yet.
+**/
+    SelectionKey getSelectionKey ()
+    {
+        return key_;
+    }
+
+
+
 /**
 Handles IOExceptions that are thrown while replying
 to requests.
 **/
-    private void handleIOException (IOException e)
+    void handleIOException (IOException e)
     {
         // This exception is thrown when the client application ends
         // normally.  It is also thrown on certain error conditions.
@@ -198,6 +369,73 @@ Processes a request and sends the reply, if any.
     }
 
 
+/**
+Reads from the socket channel.  This is called by the
+dispatcher thread.
+
+@param buffer   The buffer to read into.
+@param maxReads The maximum number of reads.
+@return         false if the client closed the connection,
+                true otherwise.
+
+@exception IOException  If an error occurs.
+**/
+    boolean read (ByteBuffer buffer, int maxReads)
+        throws IOException
+    {
+        for (int i = 0; i < maxReads; ++i) {
+            buffer.clear ();
+            int length = channel_.read (buffer);
+            if (length < 0)
+                return false;
+            buffer.flip ();
+            inputBuffer_.append (buffer.array (), 0, length);
+            if (length < buffer.capacity ())
+                break;
+        }
+        return true;
+    }
+
+
+
+/**
+Registers the connection with a dispatcher, instead of
+running it as a thread.  The connection must have a socket
+channel.  This is called after the reply to the connect
+request was sent.
+
+@param dispatcher   The dispatcher.
+
+@exception IOException  If an error occurs.
+**/
+    void register (PSDispatcher dispatcher)
+        throws IOException
+    {
+        load_.connectionOpened ();
+
+        channel_        = socket_.getChannel ();
+        dispatcher_     = dispatcher;
+        inputBuffer_    = new RequestBuffer ();
+        outputQueue_    = new LinkedList ();
+
+        // Keep what was already read ahead by the input stream.
+        int available = input_.available ();
+        if (available > 0) {
+            byte[] bytes = new byte[available];
+            int length = input_.read (bytes);
+            if (length > 0)
+                inputBuffer_.append (bytes, 0, length);
+        }
+
+        // The streams can not be used with a non-blocking channel.
+        input_  = null;
+        output_ = null;
+        channel_.configureBlocking (false);
+        dispatcher_.register (this);
+    }
+
+
+
 /**
 Processes requests until the connection is closed.
 **/
@@ -243,6 +481,11 @@ Sends a reply.
 **/
     public void send (PxRepSV reply)
     {        
+        if (channel_ != null) {
+            sendToChannel (reply);
+            return;
+        }
+
         try {
             if (reply != null) {
                 synchronized (output_) {
@@ -250,7 +493,10 @@ Sends a reply.
                         trace_.print(getName() + " - ");
                         reply.dump(trace_);
                     }
-                    reply.writeTo(output_);
+                    if (compression_ != null)
+                        compression_.writeTo(reply, output_);
+                    else
+                        reply.writeTo(output_);
                     output_.flush();                       
                 }
             }
@@ -262,6 +508,74 @@ Sends a reply.
 
 
 
+/**
+Sends a reply through the socket channel.  As much of the
+reply as possible is written right away.  The rest is written
+by the dispatcher thread when the socket can take it.
+**/
+    private void sendToChannel (PxRepSV reply)
+    {
+        if (reply == null)
+            return;
+
+        try {
+            boolean queued = false;
+            synchronized (outputLock_) {
+                // Wait while the client is not reading the previous replies.
+                while ((outputLength_ >= MAX_PENDING_OUTPUT_) && (! closed_))
+                    outputLock_.wait ();
+                if (closed_)
+                    return;
+
+                if (Trace.isTraceProxyOn ()) {
+                    trace_.print(getName() + " - ");
+                    reply.dump(trace_);
+                }
+
+                // The reply is written while holding the lock, since writing
+                // it can add Strings and record formats to the dictionary, and
+                // they must reach the client in the order they were added.
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream ();
+                if (compression_ != null)
+                    compression_.writeTo (reply, bytes);
+                else
+                    reply.writeTo (bytes);
+                ByteBuffer buffer = ByteBuffer.wrap (bytes.toByteArray ());
+
+                if (outputQueue_.isEmpty ())
+                    channel_.write (buffer);
+                if (buffer.hasRemaining ()) {
+                    outputQueue_.addLast (buffer);
+                    outputLength_ += buffer.remaining ();
+                    queued = true;
+                }
+            }
+            if (queued)
+                dispatcher_.update (this);
+        }
+        catch (InterruptedException e) {
+            if (Trace.isTraceErrorOn ())
+                Trace.log (Trace.ERROR, "Interrupted while sending a proxy reply", e);
+        }
+        catch (IOException e) {
+            handleIOException (e);
+        }
+    }
+
+
+
+/**
+Sets the selection key of the socket channel.
+
+@param key  The selection key.
+**/
+    void setSelectionKey (SelectionKey key)
+    {
+        key_ = key;
+    }
+
+
+
 /**
 Stops the thread safely.
 **/
@@ -272,4 +586,200 @@ Stops the thread safely.
 
 
 
+/**
+Writes the replies that are waiting to be sent.  This
+is called by the dispatcher thread.
+
+@exception IOException  If an error occurs.
+**/
+    void write ()
+        throws IOException
+    {
+        synchronized (outputLock_) {
+            while (! outputQueue_.isEmpty ()) {
+                ByteBuffer buffer = (ByteBuffer) outputQueue_.getFirst ();
+                int length = channel_.write (buffer);
+                outputLength_ -= length;
+                if (buffer.hasRemaining ())
+                    break;
+                outputQueue_.removeFirst ();
+            }
+            outputLock_.notifyAll ();
+        }
+    }
+
+
+
+/**
+The RequestBuffer class holds the bytes read from the
+socket channel until they make a complete request.
+
+<p>Clients which are asked to send their requests as frames
+start each one with its length, so it is only parsed once
+all of its bytes have been read.  Other datastreams do not
+start with their length, so the only way to know whether
+such a request has been read completely is to parse it.  If
+parsing runs past the bytes read so far, it is done again
+from the start when more bytes arrive.  Only requests which
+are too long for a frame are sent that way, and they are
+refused once more bytes than a frame can hold are waiting.
+**/
+    private static class RequestBuffer
+    extends InputStream
+    {
+        private byte[]      buffer_     = new byte[8192];
+        private boolean     exhausted_  = false;
+        private int         limit_      = 0;
+        private int         position_   = 0;
+        private int         start_      = 0;
+
+
+
+        void append (byte[] bytes, int offset, int length)
+        {
+            if (limit_ + length > buffer_.length) {
+                int used = limit_ - start_;
+                byte[] buffer = buffer_;
+                if (used + length > buffer_.length)
+                    buffer = new byte[Math.max (used + length, buffer_.length * 2)];
+                System.arraycopy (buffer_, start_, buffer, 0, used);
+                buffer_     = buffer;
+                limit_      = used;
+                start_      = 0;
+            }
+            System.arraycopy (bytes, offset, buffer_, limit_, length);
+            limit_      += length;
+            position_   = start_;
+        }
+
+
+
+        // Outside of getNextDS(), this is 0 when the bytes left
+        // are an incomplete request and nothing was appended since.
+        public int available ()
+        {
+            return limit_ - position_;
+        }
+
+
+
+/**
+Returns the next datastream, if all of its bytes have been read.
+
+@param factory  The datastream factory.
+@return         The datastream, or null if more bytes are needed.
+
+@exception IOException  If the datastream is not valid.
+**/
+        PxDSRV getNextDS (PxDSFactory factory)
+            throws IOException
+        {
+            position_   = start_;
+            exhausted_  = false;
+
+            // Wait for the rest of a frame before parsing it.
+            int length = limit_ - start_;
+            if (length < 6) {
+                if ((length < 2) || (getShort (start_) == ProxyConstants.DS_FRAME)) {
+                    position_ = limit_;
+                    return null;
+                }
+            }
+            else if (getShort (start_) == ProxyConstants.DS_FRAME) {
+                int frameLength = (getShort (start_ + 2) << 16) | (getShort (start_ + 4) & 0xFFFF);
+                if ((frameLength < 0) || (frameLength > PxDSFactory.MAX_FRAME_LENGTH_))
+                    throw new IOException ("Frame length is not valid.");
+                if (length - 6 < frameLength) {
+                    position_ = limit_;
+                    return null;
+                }
+            }
+
+            PxDSRV datastream;
+            try {
+                datastream = factory.getNextDS (this);
+            }
+            catch (IOException e) {
+                if (! exhausted_)
+                    throw e;
+                checkUnframedLength ();
+                return null;
+            }
+            catch (RuntimeException e) {
+                if (! exhausted_)
+                    throw e;
+                checkUnframedLength ();
+                return null;
+            }
+
+            // A datastream which ignored the end of the bytes is not complete either.
+            if (exhausted_) {
+                checkUnframedLength ();
+                position_ = limit_;
+                return null;
+            }
+
+            start_ = position_;
+            if (start_ == limit_) {
+                start_      = 0;
+                limit_      = 0;
+                position_   = 0;
+            }
+            return datastream;
+        }
+
+
+
+        // Parsing a request which does not start with its length
+        // again for every read costs more the longer it gets, so
+        // there is a limit to how many of its bytes are kept.
+        private void checkUnframedLength ()
+            throws IOException
+        {
+            if (limit_ - start_ > PxDSFactory.MAX_FRAME_LENGTH_)
+                throw new IOException ("Request is too long.");
+        }
+
+
+
+        private short getShort (int offset)
+        {
+            return (short) (((buffer_[offset] & 0xFF) << 8) | (buffer_[offset + 1] & 0xFF));
+        }
+
+
+
+        // Running out of bytes means that the request is not
+        // complete yet, so this throws instead of returning -1
+        // to callers which may not check for the end.
+        public int read ()
+            throws IOException
+        {
+            if (position_ >= limit_) {
+                exhausted_ = true;
+                throw new EOFException ();
+            }
+            return buffer_[position_++] & 0xFF;
+        }
+
+
+
+        public int read (byte[] bytes, int offset, int length)
+            throws IOException
+        {
+            if (length == 0)
+                return 0;
+            if (position_ >= limit_) {
+                exhausted_ = true;
+                throw new EOFException ();
+            }
+            length = Math.min (length, limit_ - position_);
+            System.arraycopy (buffer_, position_, bytes, offset, length);
+            position_ += length;
+            return length;
+        }
+    }
+
+
+
 }
@@ -33,6 +33,8 @@ class PSController extends StoppableThread
     //private PSConfig config_;
     private Socket connectedSocket_;
     private long connectionId_ = -1;
+    private PSDispatcher dispatcher_;
+    private PSConnection dispatchedConnection_ = null;
     private PxDSFactory factory_;
     private InputStream input_;
     private boolean ownSocket_ = false;
@@ -48,10 +50,13 @@ class PSController extends StoppableThread
     // @param  loadBalancer  The load balancer.
     // @param  config  The configuration.
     // @param  serverSocket  The server socket container.
-    public PSController(Vector threadGroup, ProxyServer proxyServer, PSLoad load, PSLoadBalancer loadBalancer, PSConfig config, PSServerSocketContainerAdapter serverSocket)
+    // @param  dispatcher  The dispatcher for the accepted connections, or null to run each connection as a thread.
+    public PSController(Vector threadGroup, ProxyServer proxyServer, PSLoad load, PSLoadBalancer loadBalancer, PSConfig config, PSServerSocketContainerAdapter serverSocket, PSDispatcher dispatcher)
     {
         super("PSController-" + serverSocket);
 
+        dispatcher_ = dispatcher;
+
         //threadGroup_ = threadGroup;
         //config_ = config;
         serverSocket_ = serverSocket;
@@ -104,6 +109,16 @@ class PSController extends StoppableThread
         }
     }
 
+    // Hands the accepted connection to the dispatcher, once the reply to the connect request has been sent.
+    // @param  connection  The connection.
+    // @return  true if the connection will be registered with the dispatcher, false if it must run as a thread.
+    public boolean dispatch(PSConnection connection)
+    {
+        if (dispatcher_ == null || connectedSocket_.getChannel() == null) return false;
+        dispatchedConnection_ = connection;
+        return true;
+    }
+
     protected void finalize() throws Throwable
     {
         if (closed_ == false) closeServerSocket();
@@ -198,6 +213,22 @@ class PSController extends StoppableThread
                         output_.flush();
                     }
                 }
+
+                // The connection can only switch to non-blocking mode after the reply is sent.
+                if (dispatchedConnection_ != null)
+                {
+                    PSConnection connection = dispatchedConnection_;
+                    dispatchedConnection_ = null;
+                    try
+                    {
+                        connection.register(dispatcher_);
+                    }
+                    catch (IOException e)
+                    {
+                        Trace.log(Trace.ERROR, "Exception registering proxy connection:", e);
+                        connection.close();
+                    }
+                }
             }
             catch (Exception e)
             {
@@ -206,6 +237,11 @@ class PSController extends StoppableThread
             }
             finally
             {
+                if (dispatchedConnection_ != null)
+                {
+                    dispatchedConnection_.close();
+                    dispatchedConnection_ = null;
+                }
                 closeSocket();
             }
         }
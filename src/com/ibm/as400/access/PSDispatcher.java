@@ -0,0 +1,428 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PSDispatcher.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+The PSDispatcher class reads the requests of all of the
+connections to clients of a proxy server, and hands them
+to a bounded pool of threads for processing.
+
+<p>A single thread waits on a selector for the sockets of
+the connections.  Requests are passed to the threads through
+a queue of fixed capacity.  When the queue is full, no more
+requests are read until a thread takes one from the queue,
+so the clients are slowed down instead of the proxy server
+running out of threads or memory.
+
+<p>As in the thread per connection model, no request is read
+from a connection while one of its synchronous requests is
+being processed.  Asynchronous requests are processed while
+the following requests are read.
+**/
+class PSDispatcher
+extends StoppableThread
+{
+    // The capacity of the request queue.
+    static final int                            QUEUE_CAPACITY_         = 1024;
+
+    private static final int                    READ_BUFFER_SIZE_       = 64 * 1024;
+    // The number of reads done for one connection before
+    // the other ready connections get their turn.
+    private static final int                    MAX_READS_PER_SELECT_   = 16;
+    // How long an idle thread is kept, in seconds.
+    private static final long                   KEEP_ALIVE_             = 60;
+
+    private static int                          nextWorkerId_           = 0;
+    private static Object                       nextWorkerIdLock_       = new Object ();
+
+
+
+    // Private data.
+    private ThreadPoolExecutor                  executor_;
+    private PSLoad                              load_;
+    private ByteBuffer                          readBuffer_;
+    private Selector                            selector_;
+
+    // Connections waiting to be registered with the selector.
+    private Vector                              pendingRegistrations_   = new Vector ();
+    // Connections whose requests or replies need attention
+    // from the dispatcher thread.
+    private Vector                              changes_                = new Vector ();
+    // Connections waiting for room in the request queue.
+    private Vector                              waiting_                = new Vector ();
+
+
+
+/**
+Constructs a PSDispatcher object.
+
+@param load     The load.
+
+@exception IOException  If the selector can not be opened.
+**/
+    public PSDispatcher (PSLoad load)
+        throws IOException
+    {
+        super ("PSDispatcher-" + newId ());
+
+        load_       = load;
+        selector_   = Selector.open ();
+        readBuffer_ = ByteBuffer.allocate (READ_BUFFER_SIZE_);
+
+        int maxThreads = load_.getMaxThreads ();
+        executor_ = new ThreadPoolExecutor (maxThreads, maxThreads,
+                                            KEEP_ALIVE_, TimeUnit.SECONDS,
+                                            new ArrayBlockingQueue (QUEUE_CAPACITY_),
+                                            new ThreadFactory () {
+            public Thread newThread (Runnable runnable)
+            {
+                int id;
+                synchronized (nextWorkerIdLock_) {
+                    id = ++nextWorkerId_;
+                }
+                Thread thread = new Thread (runnable, "PSWorker-" + id);
+                thread.setDaemon (true);
+                return thread;
+            }
+        });
+        executor_.allowCoreThreadTimeOut (true);
+        load_.setQueueCapacity (QUEUE_CAPACITY_);
+
+        if (Trace.isTraceProxyOn ())
+            Trace.log (Trace.PROXY, "Px server dispatcher " + this + " opened with " + maxThreads + " threads.");
+    }
+
+
+
+/**
+Stops reading requests for a connection.  The caller
+closes the socket.
+
+@param connection   The connection.
+**/
+    void deregister (PSConnection connection)
+    {
+        pendingRegistrations_.removeElement (connection);
+        changes_.removeElement (connection);
+        waiting_.removeElement (connection);
+        SelectionKey key = connection.getSelectionKey ();
+        if (key != null)
+            key.cancel ();
+        selector_.wakeup ();
+    }
+
+
+
+/**
+Passes a task to the threads.  This must only be called by
+the dispatcher thread, after isSaturated() returned false.
+
+@param task     The task.
+@return         true if the task was queued, false if the
+                dispatcher is stopped.
+**/
+    boolean execute (final Runnable task)
+    {
+        final long queued = System.currentTimeMillis ();
+        load_.requestQueued ();
+        try {
+            executor_.execute (new Runnable () {
+                public void run ()
+                {
+                    load_.requestStarted ();
+                    try {
+                        task.run ();
+                    }
+                    finally {
+                        load_.requestCompleted (System.currentTimeMillis () - queued);
+                        if (! waiting_.isEmpty ())
+                            selector_.wakeup ();
+                    }
+                }
+            });
+            return true;
+        }
+        catch (RejectedExecutionException e) {
+            if (Trace.isTraceProxyOn ())
+                Trace.log (Trace.PROXY, "Px server dispatcher " + this + " rejected a request.");
+            return false;
+        }
+    }
+
+
+
+/**
+Indicates if the request queue is full.
+
+@return true if the request queue is full, false otherwise.
+**/
+    boolean isSaturated ()
+    {
+        return executor_.getQueue ().remainingCapacity () == 0;
+    }
+
+
+
+/**
+Starts reading requests for a connection.  The socket
+channel must already be in non-blocking mode.
+
+@param connection   The connection.
+**/
+    void register (PSConnection connection)
+    {
+        pendingRegistrations_.addElement (connection);
+        selector_.wakeup ();
+    }
+
+
+
+/**
+Registers the connections queued by register().
+**/
+    private void registerPending ()
+    {
+        while (! pendingRegistrations_.isEmpty ()) {
+            PSConnection connection;
+            try {
+                connection = (PSConnection) pendingRegistrations_.remove (0);
+            }
+            catch (ArrayIndexOutOfBoundsException e) {
+                return;  // Removed by a concurrent deregister.
+            }
+            try {
+                connection.setSelectionKey (connection.getChannel ().register (selector_, SelectionKey.OP_READ, connection));
+            }
+            catch (IOException e) {
+                connection.handleIOException (e);
+                continue;
+            }
+
+            // Requests may have been read ahead during the connect request.
+            process (connection, 0);
+        }
+    }
+
+
+
+/**
+Processes the connections queued by update(), then the
+connections waiting for room in the request queue.
+**/
+    private void processChanges ()
+        throws IOException
+    {
+        while (! changes_.isEmpty ()) {
+            PSConnection connection;
+            try {
+                connection = (PSConnection) changes_.remove (0);
+            }
+            catch (ArrayIndexOutOfBoundsException e) {
+                break;  // Removed by a concurrent deregister.
+            }
+            process (connection, 0);
+        }
+
+        while ((! waiting_.isEmpty ()) && (! isSaturated ())) {
+            PSConnection connection;
+            try {
+                connection = (PSConnection) waiting_.remove (0);
+            }
+            catch (ArrayIndexOutOfBoundsException e) {
+                break;
+            }
+            process (connection, 0);
+        }
+    }
+
+
+
+/**
+Does the work pending for a connection.
+
+@param connection   The connection.
+@param readyOps     The operations the socket is ready for.
+**/
+    private void process (PSConnection connection, int readyOps)
+    {
+        try {
+            if ((readyOps & SelectionKey.OP_WRITE) != 0)
+                connection.write ();
+            if ((readyOps & SelectionKey.OP_READ) != 0) {
+                if (! connection.read (readBuffer_, MAX_READS_PER_SELECT_)) {
+                    connection.close ();
+                    return;
+                }
+            }
+            connection.dispatchRequests ();
+            updateInterest (connection);
+        }
+        catch (CancelledKeyException e) {
+            // The connection was closed while we were selecting.
+        }
+        catch (IOException e) {
+            connection.handleIOException (e);
+        }
+        catch (RuntimeException e) {
+            if (Trace.isTraceErrorOn ())
+                Trace.log (Trace.ERROR, "Exception dispatching proxy request", e);
+            connection.close ();
+        }
+    }
+
+
+
+/**
+Reads and dispatches requests until the dispatcher is stopped.
+**/
+    public void run ()
+    {
+        while (canContinue ()) {
+            try {
+                selector_.select ();
+                updatePoolSize ();
+                registerPending ();
+                processChanges ();
+
+                Iterator keys = selector_.selectedKeys ().iterator ();
+                while (keys.hasNext ()) {
+                    SelectionKey key = (SelectionKey) keys.next ();
+                    keys.remove ();
+                    if (key.isValid ())
+                        process ((PSConnection) key.attachment (), key.readyOps ());
+                }
+            }
+            catch (IOException e) {
+                // The selector itself failed, this should never happen.
+                if (Trace.isTraceErrorOn ())
+                    Trace.log (Trace.ERROR, "Proxy server selector failed", e);
+            }
+            catch (RuntimeException e) {
+                if (Trace.isTraceErrorOn ())
+                    Trace.log (Trace.ERROR, "Exception in PSDispatcher", e);
+            }
+        }
+
+        // Close all of the connections.
+        Vector connections = new Vector ();
+        try {
+            Iterator keys = selector_.keys ().iterator ();
+            while (keys.hasNext ())
+                connections.addElement (((SelectionKey) keys.next ()).attachment ());
+            selector_.close ();
+        }
+        catch (IOException e) {
+            if (Trace.isTraceErrorOn ())
+                Trace.log (Trace.ERROR, "Exception closing proxy server selector", e);
+        }
+        for (int i = 0; i < connections.size (); ++i)
+            ((PSConnection) connections.elementAt (i)).close ();
+        for (int i = 0; i < pendingRegistrations_.size (); ++i)
+            ((PSConnection) pendingRegistrations_.elementAt (i)).close ();
+        executor_.shutdown ();
+
+        if (Trace.isTraceProxyOn ())
+            Trace.log (Trace.PROXY, "Px server dispatcher " + this + " closed.");
+    }
+
+
+
+/**
+Stops the thread safely.
+**/
+    public void stopSafely ()
+    {
+        super.stopSafely ();
+        selector_.wakeup ();
+    }
+
+
+
+/**
+Asks the dispatcher thread to look at a connection again, because
+its synchronous request was processed or it has replies to send.
+
+@param connection   The connection.
+**/
+    void update (PSConnection connection)
+    {
+        if (! changes_.contains (connection))
+            changes_.addElement (connection);
+        selector_.wakeup ();
+    }
+
+
+
+/**
+Sets the operations the selector waits for on a connection.
+
+@param connection   The connection.
+**/
+    private void updateInterest (PSConnection connection)
+    {
+        SelectionKey key = connection.getSelectionKey ();
+        if ((key != null) && (key.isValid ()))
+            key.interestOps (connection.getInterestOps ());
+    }
+
+
+
+/**
+Applies changes to the maximum number of threads.
+**/
+    private void updatePoolSize ()
+    {
+        int maxThreads = load_.getMaxThreads ();
+        if (maxThreads > executor_.getMaximumPoolSize ()) {
+            executor_.setMaximumPoolSize (maxThreads);
+            executor_.setCorePoolSize (maxThreads);
+        }
+        else if (maxThreads < executor_.getMaximumPoolSize ()) {
+            executor_.setCorePoolSize (maxThreads);
+            executor_.setMaximumPoolSize (maxThreads);
+        }
+    }
+
+
+
+/**
+Marks a connection as waiting for room in the request queue.
+The selector stops reading its requests until then.
+
+@param connection   The connection.
+**/
+    void waitForQueue (PSConnection connection)
+    {
+        if (! waiting_.contains (connection))
+            waiting_.addElement (connection);
+    }
+
+
+
+}
@@ -29,9 +29,25 @@ class PSLoad
     // Private data.
     private int                     activeConnections_          = 0;
     private int                     balanceThreshold_           = -1;
+    private int                     compressionThreshold_       = PxCompression.DEFAULT_THRESHOLD_;
     private int                     effectiveBalanceThreshold_  = -1;
     private int                     effectiveMaxConnections_    = -1;
     private int                     maxConnections_             = -1;
+    private int                     maxThreads_                 = DEFAULT_MAX_THREADS;
+
+    // Request metrics.  These are only kept for this proxy server,
+    // not for the loads reported by peers.
+    private int                     queueCapacity_              = 0;
+    private int                     queueDepth_                 = 0;
+    private int                     activeRequests_             = 0;
+    private long                    completedRequests_          = 0;
+    private double                  averageLatency_             = 0;
+
+    // The default maximum number of threads processing requests.
+    static final int                DEFAULT_MAX_THREADS         = 256;
+
+    // The weight of the latest request in the average latency.
+    private static final double     LATENCY_WEIGHT_             = 0.05;
   
 
 
@@ -74,7 +90,7 @@ Constructs a PSLoad object.
 /**
 Marks all connections as closed.
 **/
-    public void allConnectionsClosed ()
+    public synchronized void allConnectionsClosed ()
     {
         activeConnections_ = 0;
     }
@@ -97,7 +113,7 @@ of -1, which has special meaning in both cases.
 /**
 Marks a connection as closed.
 **/
-    public void connectionClosed ()
+    public synchronized void connectionClosed ()
     {
         if (activeConnections_ > 0)
             --activeConnections_;
@@ -108,7 +124,7 @@ Marks a connection as closed.
 /**
 Marks a connection as opened.
 **/
-    public void connectionOpened ()
+    public synchronized void connectionOpened ()
     {
         ++activeConnections_;
     }
@@ -120,7 +136,7 @@ Returns the number of active connections.
 
 @return The number of active connections.
 **/
-    public int getActiveConnections ()
+    public synchronized int getActiveConnections ()
     {
         return activeConnections_;
     }
@@ -145,19 +161,77 @@ start load balancing.
 
 
 
+/**
+Returns the compression threshold.  This is the size, in bytes,
+of the smallest reply that is compressed for clients which ask
+for compression.  -1 means that replies are never compressed.
+
+@return The compression threshold, or -1 to never compress.
+**/
+    public int getCompressionThreshold ()
+    {
+        return compressionThreshold_;
+    }
+
+
+
+/**
+Returns the number of requests being processed.
+
+@return The number of requests being processed.
+**/
+    public synchronized int getActiveRequests ()
+    {
+        return activeRequests_;
+    }
+
+
+
+/**
+Returns the average time between reading a request
+and finishing to process it.  Recent requests weigh
+more than older requests.
+
+@return The average request latency, in milliseconds.
+**/
+    public synchronized double getAverageLatency ()
+    {
+        return averageLatency_;
+    }
+
+
+
 /**
 Returns the quantification of how busy the proxy server is.
+This is the larger of the ratio of active connections to
+the maximum number of connections and the ratio of queued
+requests to the capacity of the request queue.
 
 @return The quantification of how busy the proxy server is.
         This number is between 0 and 1.  The higher the
         number is, the busier the proxy server is.
 **/
-    public double getBusyFactor ()
+    public synchronized double getBusyFactor ()
     {
-        if (effectiveMaxConnections_ != 0)
-            return ((double) activeConnections_) / ((double) effectiveMaxConnections_);
-        else
+        if (effectiveMaxConnections_ == 0)
             return 1;
+
+        double busyFactor = ((double) activeConnections_) / ((double) effectiveMaxConnections_);
+        if (queueCapacity_ > 0)
+            busyFactor = Math.max (busyFactor, Math.min (1, ((double) queueDepth_) / ((double) queueCapacity_)));
+        return busyFactor;
+    }
+
+
+
+/**
+Returns the number of requests that have been processed.
+
+@return The number of requests that have been processed.
+**/
+    public synchronized long getCompletedRequests ()
+    {
+        return completedRequests_;
     }
 
 
@@ -203,6 +277,86 @@ active at any particular time.
 
 
 
+/**
+Returns the maximum number of threads which process
+requests from clients.
+
+@return The maximum number of threads.
+**/
+    public int getMaxThreads ()
+    {
+        return maxThreads_;
+    }
+
+
+
+/**
+Returns the number of requests waiting for a thread.
+
+@return The number of requests waiting for a thread.
+**/
+    public synchronized int getQueueDepth ()
+    {
+        return queueDepth_;
+    }
+
+
+
+/**
+Indicates if the request queue is more than half full.
+Requests then wait for a thread, and new connections
+are better served by a peer.
+
+@return true if the request queue is more than half full,
+        false otherwise.
+**/
+    public synchronized boolean isBacklogged ()
+    {
+        return (queueCapacity_ > 0) && (queueDepth_ * 2 > queueCapacity_);
+    }
+
+
+
+/**
+Marks a request as processed.
+
+@param latency  The time between reading the request and
+                finishing to process it, in milliseconds.
+**/
+    public synchronized void requestCompleted (double latency)
+    {
+        if (activeRequests_ > 0)
+            --activeRequests_;
+        if (completedRequests_++ == 0)
+            averageLatency_ = latency;
+        else
+            averageLatency_ += (latency - averageLatency_) * LATENCY_WEIGHT_;
+    }
+
+
+
+/**
+Marks a request as queued.
+**/
+    public synchronized void requestQueued ()
+    {
+        ++queueDepth_;
+    }
+
+
+
+/**
+Marks a queued request as started by a thread.
+**/
+    public synchronized void requestStarted ()
+    {
+        if (queueDepth_ > 0)
+            --queueDepth_;
+        ++activeRequests_;
+    }
+
+
+
 /**
 Sets the balance threshold.  This is the number of connections 
 that must be active before the peer server starts load balancing 
@@ -225,6 +379,25 @@ by dispatching requests to peer proxy servers.
 
 
 
+/**
+Sets the compression threshold.  This is the size, in bytes,
+of the smallest reply that is compressed for clients which ask
+for compression.  It only affects connections accepted after
+it is set.
+
+@param compressionThreshold The compression threshold, or -1
+                            to never compress.
+**/
+    public void setCompressionThreshold (int compressionThreshold)
+    {
+        if (compressionThreshold < -1)
+            throw new ExtendedIllegalArgumentException ("compressionThreshold", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+        compressionThreshold_ = compressionThreshold;
+    }
+
+
+
 /**
 Sets the maximum number of connections which can be active
 at any particular time.  If the maximum number of connections
@@ -249,4 +422,35 @@ connections.
 
 
 
+/**
+Sets the maximum number of threads which process requests
+from clients.  When all of the threads are busy, requests
+are queued, and when the queue is full, no more requests
+are read until a thread is available.
+
+@param maxThreads   The maximum number of threads.
+**/
+    public void setMaxThreads (int maxThreads)
+    {
+        if (maxThreads < 1)
+            throw new ExtendedIllegalArgumentException ("maxThreads", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+        maxThreads_ = maxThreads;
+    }
+
+
+
+/**
+Sets the capacity of the request queue.
+
+@param queueCapacity    The capacity of the request queue,
+                        or 0 if requests are not queued.
+**/
+    public synchronized void setQueueCapacity (int queueCapacity)
+    {
+        queueCapacity_ = queueCapacity;
+    }
+
+
+
 }
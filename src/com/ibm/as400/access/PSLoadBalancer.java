@@ -65,14 +65,18 @@ client.
 
         // If the number of active connections is less
         // than the balance threshold, then accept the
-        // connection.
+        // connection.  When the requests of the connections
+        // already active are waiting for threads, then this
+        // server is treated as having reached the balance
+        // threshold.
         int activeConnections = load_.getActiveConnections ();
-        if (activeConnections < load_.getEffectiveBalanceThreshold ())
+        if ((activeConnections < load_.getEffectiveBalanceThreshold ())
+            && ((load_.getBalanceThreshold () < 0) || (! load_.isBacklogged ())))
             peer = null;        
 
         // If the number of active connections is between
-        // the balance threshold and the max connections,
-        // then:
+        // the balance threshold and the max connections
+        // (or this server is backlogged), then:
         //
         // * If the request has already been rejected, then
         //   accept it, otherwise do load balancing including
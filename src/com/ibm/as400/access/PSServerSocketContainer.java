@@ -14,8 +14,10 @@
 package com.ibm.as400.access;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
 
 
 
@@ -50,7 +52,9 @@ Constructs a PSServerSocketContainer object.
 
 
 /**
-Creates the server socket. 
+Creates the server socket.  The server socket is created
+through a channel, so that the accepted sockets have channels
+which can be registered with a PSDispatcher.
 **/    
 //
 //  Implementation note: This method is a workaround for an apparant 
@@ -63,7 +67,7 @@ Creates the server socket.
     {
         ServerSocket serverSocket = null;
         try {
-            serverSocket = new ServerSocket(port);
+            serverSocket = openServerSocket(port);
         }
         catch(SocketException e) {
             // Didn't work?  Take a break and try again.
@@ -73,7 +77,7 @@ Creates the server socket.
             catch(InterruptedException e1) {
                 // Ignore.
             }
-            serverSocket = new ServerSocket(port);
+            serverSocket = openServerSocket(port);
         }
 
         return serverSocket;
@@ -81,6 +85,25 @@ Creates the server socket.
 
 
 
+/**
+Opens a server socket channel bound to the port.
+**/
+    private static ServerSocket openServerSocket(int port)
+        throws IOException
+    {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.socket().bind(new InetSocketAddress(port));
+        }
+        catch(IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel.socket();
+    }
+
+
+
 /**
 Returns the name of this socket container.
 
@@ -34,6 +34,7 @@ class PSTunnelConnection
 
      // Private data.
      private boolean                             closed_                 = false;
+     private PxCompression                       compression_            = null;
      private long                                connectionId_;
      private PrintWriter                         trace_;
 
@@ -59,6 +60,13 @@ class PSTunnelConnection
      {
           closed_ = true;
 
+          synchronized (this) {
+               if (compression_ != null) {
+                    compression_.close ();
+                    compression_ = null;
+               }
+          }
+
           if (Trace.isTraceProxyOn ())
                Trace.log (Trace.PROXY, "Px server tunnel connection " + this + " closed.");
 
@@ -132,7 +140,11 @@ class PSTunnelConnection
                          {
                               reply.dump(trace_);
                          }
-                         reply.writeTo(outputStream);
+                         PxCompression compression = getCompression ();
+                         if (compression != null)
+                              compression.writeTo(reply, outputStream);
+                         else
+                              reply.writeTo(outputStream);
                          outputStream.flush();
                     }
                }
@@ -142,4 +154,23 @@ class PSTunnelConnection
                handleIOException (e);
           }
      }
+
+
+
+     private synchronized PxCompression getCompression ()
+     {
+          return compression_;
+     }
+
+
+
+     /**
+     Sets the compression for the replies sent to the client.
+
+     @param compression  The compression, or null for none.
+     **/
+     public synchronized void setCompression (PxCompression compression)
+     {
+          compression_ = compression;
+     }
 }
@@ -63,6 +63,10 @@ class PSTunnelController
 
 		proxyTable_ = new PxTable ();
 
+		// Replies are compressed as configured for the proxy server.
+		PSLoad load = new PSLoad ();
+		load.setCompressionThreshold (proxyServer.getCompressionThreshold ());
+
 		factory_ = new PxDSFactory ();
 		factory_.register (new PxByteParm ());
 		factory_.register (new PxShortParm ());
@@ -70,8 +74,12 @@ class PSTunnelController
 		factory_.register (new PxIntParm ());
 		factory_.register (new PxStringParm ());
 		factory_.register (new PxSerializedObjectParm (null));
-		factory_.register (new PxTunnelConnectReqSV (this, clientIds_));
-		factory_.register (new PxLoadReqSV (new PSLoad()));
+		factory_.register (new PxTunnelConnectReqSV (this, clientIds_, load));
+		factory_.register (new PxLoadReqSV (load));
+
+		// The client id is inside the frame, so compressed frames are
+		// accepted from all clients when compression is allowed.
+		factory_.setCompressedFrames (load.getCompressionThreshold () >= 0);
 		factory_.register (new PxLongParm ());
 		factory_.register (new PxFloatParm ());
 		factory_.register (new PxDoubleParm ());
@@ -0,0 +1,681 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PartitionedFileReader.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.util.Vector;
+
+/**
+ *The PartitionedFileReader class reads a physical file member over several
+ *connections at once.  The member is split into ranges of record numbers, one
+ *for each partition.  Each partition opens the file read only on its own
+ *connection and reads its range in a thread of its own, so the ranges are
+ *read in parallel.
+ *<p>
+ *The records can be returned one enumeration per partition, with the records
+ *of each partition in record number order, or as one enumeration that returns
+ *the records of all partitions as they arrive.  Each partition reads at most a
+ *few blocks ahead of the caller.
+ *<p>
+ *The ranges are worked out from the record number of the last record when the
+ *read starts.  The last partition reads to the end of the file, so records added
+ *while the file is read may be returned.  A partition positions the cursor
+ *once, by reading the first record of its range by record number, and reads the
+ *rest of the range with blocked sequential reads.  If the first record of a
+ *range is deleted, the cursor is positioned on an earlier record instead, found
+ *by reading back twice as far each time, and the records before the range are
+ *skipped.
+ *<p>
+ *The following example reads a file over four connections from a connection pool:
+ *<pre>
+ *  PartitionedFileReader reader = new PartitionedFileReader(pool, "mySystem", "myUserID", "myPassword", 4,
+ *                                                           "/QSYS.LIB/MYLIB.LIB/MYFILE.FILE", recordFormat);
+ *  try
+ *  {
+ *    RecordEnumeration records = reader.readAll();
+ *    for (Record record = records.nextRecord(); record != null; record = records.nextRecord())
+ *    {
+ *      ...
+ *    }
+ *  }
+ *  finally
+ *  {
+ *    reader.close();
+ *  }
+ *</pre>
+ *@see SequentialFile
+ *@see AS400ConnectionPool
+**/
+public class PartitionedFileReader
+{
+  // The connections, one for each partition.
+  private AS400[] systems_;
+  // The pool the connections were taken from, or null if they were passed in.
+  private AS400ConnectionPool pool_;
+  private String systemName_;
+  private String userID_;
+  private String password_;
+  private int numberOfPartitions_;
+
+  private String name_;
+  private RecordFormat recordFormat_;
+  private int blockingFactor_;
+  private int readAhead_ = 2;
+
+  // The partitions of the read in progress, or null.
+  private Partition[] partitions_;
+  // The partition the merged enumeration looks at first.
+  private int nextPartition_;
+
+  /**
+   *Constructs a PartitionedFileReader object.  The file is read in one partition
+   *for each of the specified systems.  Use a different AS400 object for each
+   *partition; partitions that share an AS400 object share its connection.
+   *@param systems The systems, one for each partition.
+   *@param name The integrated file system path name of the file.  If a member is
+   *not specified in <i>name</i>, the first member of the file is used.
+   *@param recordFormat The record format of the file.
+  **/
+  public PartitionedFileReader(AS400[] systems, String name, RecordFormat recordFormat)
+  {
+    if (systems == null)
+    {
+      throw new NullPointerException("systems");
+    }
+    if (systems.length == 0)
+    {
+      throw new ExtendedIllegalArgumentException("systems", ExtendedIllegalArgumentException.LENGTH_NOT_VALID);
+    }
+    for (int i = 0; i < systems.length; ++i)
+    {
+      if (systems[i] == null)
+      {
+        throw new NullPointerException("systems[" + i + "]");
+      }
+    }
+    init(name, recordFormat);
+    systems_ = systems;
+    numberOfPartitions_ = systems.length;
+  }
+
+  /**
+   *Constructs a PartitionedFileReader object that takes its connections from a
+   *connection pool.  The connections are taken from the pool when a read starts,
+   *and returned to the pool by close().
+   *@param pool The connection pool.
+   *@param systemName The name of the system.
+   *@param userID The user profile name.
+   *@param password The user profile password.
+   *@param numberOfPartitions The number of partitions, and of connections.  The
+   *<i>numberOfPartitions</i> must be greater than zero.
+   *@param name The integrated file system path name of the file.  If a member is
+   *not specified in <i>name</i>, the first member of the file is used.
+   *@param recordFormat The record format of the file.
+  **/
+  public PartitionedFileReader(AS400ConnectionPool pool, String systemName, String userID, String password, int numberOfPartitions, String name, RecordFormat recordFormat)
+  {
+    if (pool == null)
+    {
+      throw new NullPointerException("pool");
+    }
+    if (systemName == null)
+    {
+      throw new NullPointerException("systemName");
+    }
+    if (userID == null)
+    {
+      throw new NullPointerException("userID");
+    }
+    if (numberOfPartitions < 1)
+    {
+      throw new ExtendedIllegalArgumentException("numberOfPartitions", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    }
+    init(name, recordFormat);
+    pool_ = pool;
+    systemName_ = systemName;
+    userID_ = userID;
+    password_ = password;
+    numberOfPartitions_ = numberOfPartitions;
+  }
+
+  private void init(String name, RecordFormat recordFormat)
+  {
+    if (name == null)
+    {
+      throw new NullPointerException("name");
+    }
+    if (recordFormat == null)
+    {
+      throw new NullPointerException("recordFormat");
+    }
+    name_ = name;
+    recordFormat_ = recordFormat;
+  }
+
+  /**
+   *Ends the read in progress.  The files are closed and, if the connections were
+   *taken from a connection pool, they are returned to the pool.  Records that
+   *have not been returned are discarded.  Closing a reader with no read in
+   *progress has no effect.
+   *@exception InterruptedException If this thread is interrupted while waiting
+   *for the partitions to end.
+  **/
+  public void close()
+    throws InterruptedException
+  {
+    Partition[] partitions;
+    synchronized(this)
+    {
+      partitions = partitions_;
+      if (partitions == null) return;
+      for (int i = 0; i < partitions.length; ++i)
+      {
+        partitions[i].closed_ = true;
+      }
+      notifyAll();
+    }
+    try
+    {
+      for (int i = 0; i < partitions.length; ++i)
+      {
+        if (partitions[i].thread_ != null) partitions[i].thread_.join();
+      }
+    }
+    finally
+    {
+      synchronized(this)
+      {
+        partitions_ = null;
+      }
+      if (pool_ != null)
+      {
+        for (int i = 0; i < systems_.length; ++i)
+        {
+          if (systems_[i] != null) pool_.returnConnectionToPool(systems_[i]);
+        }
+        systems_ = null;
+      }
+    }
+  }
+
+  /**
+   *Returns the blocking factor used when the files are opened.
+   *@return The blocking factor.  Zero means that the blocking factor is calculated
+   *as described in AS400File.open().
+  **/
+  public int getBlockingFactor()
+  {
+    return blockingFactor_;
+  }
+
+  /**
+   *Returns the number of partitions.
+   *@return The number of partitions.
+  **/
+  public int getNumberOfPartitions()
+  {
+    return numberOfPartitions_;
+  }
+
+  /**
+   *Returns the number of blocks each partition reads before they are needed.
+   *@return The number of blocks.
+  **/
+  public int getReadAhead()
+  {
+    return readAhead_;
+  }
+
+  /**
+   *Reads the records of all the partitions as one enumeration.  The records are
+   *returned a block at a time in the order the blocks arrive; the records of a
+   *block are in record number order, but the blocks of different partitions are
+   *interleaved.  Use Record.getRecordNumber() to find where a record came from.
+   *The read ends when the last record has been returned, but the connections are
+   *not released until close() is called.
+   *@return The records of the file.
+   *@exception AS400Exception If the system returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception ConnectionPoolException If a connection cannot be taken from the connection pool.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the system.
+  **/
+  public RecordEnumeration readAll()
+    throws AS400Exception,
+           AS400SecurityException,
+           ConnectionPoolException,
+           InterruptedException,
+           IOException
+  {
+    start();
+    return new MergedEnumeration();
+  }
+
+  /**
+   *Reads the records of each partition as a separate enumeration.  The
+   *enumerations are in record number order, and each returns its records in
+   *record number order.  A partition stops reading while its enumeration is not
+   *being used and holds the read ahead blocks, so each enumeration must be used
+   *or closed; typically each is handed to a thread of its own.  The read ends when
+   *all the enumerations are done, but the connections are not released until
+   *close() is called.
+   *@return The records of each partition.
+   *@exception AS400Exception If the system returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception ConnectionPoolException If a connection cannot be taken from the connection pool.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the system.
+  **/
+  public RecordEnumeration[] readPartitions()
+    throws AS400Exception,
+           AS400SecurityException,
+           ConnectionPoolException,
+           InterruptedException,
+           IOException
+  {
+    start();
+    RecordEnumeration[] enumerations = new RecordEnumeration[partitions_.length];
+    for (int i = 0; i < enumerations.length; ++i)
+    {
+      enumerations[i] = new PartitionEnumeration(partitions_[i]);
+    }
+    return enumerations;
+  }
+
+  /**
+   *Sets the blocking factor used when the files are opened.  This is the number of
+   *records each partition reads at a time.  This property cannot be changed while
+   *a read is in progress.
+   *@param blockingFactor The blocking factor.  If 0 is specified, the blocking
+   *factor is calculated as described in AS400File.open().  The
+   *<i>blockingFactor</i> must be greater than or equal to zero.
+  **/
+  public void setBlockingFactor(int blockingFactor)
+  {
+    if (blockingFactor < 0)
+    {
+      throw new ExtendedIllegalArgumentException("blockingFactor", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    }
+    if (partitions_ != null)
+    {
+      throw new ExtendedIllegalStateException("blockingFactor", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+    }
+    blockingFactor_ = blockingFactor;
+  }
+
+  /**
+   *Sets the number of blocks each partition reads before they are needed.  A
+   *partition waits when this many blocks have not yet been returned.  This property
+   *cannot be changed while a read is in progress.  The default is 2.
+   *@param readAhead The number of blocks.  The <i>readAhead</i> must be greater
+   *than zero.
+  **/
+  public void setReadAhead(int readAhead)
+  {
+    if (readAhead < 1)
+    {
+      throw new ExtendedIllegalArgumentException("readAhead", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+    }
+    if (partitions_ != null)
+    {
+      throw new ExtendedIllegalStateException("readAhead", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+    }
+    readAhead_ = readAhead;
+  }
+
+  // Opens the first partition's file to find the last record number, splits the
+  // file into ranges and starts a thread for each partition.
+  private void start()
+    throws AS400Exception,
+           AS400SecurityException,
+           ConnectionPoolException,
+           InterruptedException,
+           IOException
+  {
+    synchronized(this)
+    {
+      if (partitions_ != null)
+      {
+        throw new ExtendedIllegalStateException(ExtendedIllegalStateException.OBJECT_CAN_NOT_BE_OPEN);
+      }
+      // No partitions yet; close() returns the connections if this fails.
+      partitions_ = new Partition[0];
+    }
+    SequentialFile first = null;
+    boolean started = false;
+    try
+    {
+      if (pool_ != null)
+      {
+        systems_ = new AS400[numberOfPartitions_];
+        for (int i = 0; i < systems_.length; ++i)
+        {
+          systems_[i] = pool_.getConnection(systemName_, userID_, password_, AS400.RECORDACCESS);
+        }
+      }
+
+      first = openFile(systems_[0]);
+      Record last = first.readLast();
+      int lastRecordNumber = (last == null) ? 0 : last.getRecordNumber();
+
+      if (Trace.traceOn_) Trace.log(Trace.INFORMATION, "PartitionedFileReader " + name_ + ": " + numberOfPartitions_ + " partitions, last record number " + lastRecordNumber);
+
+      // Give each partition the same number of record numbers.  The last
+      // partition reads to the end of the file.
+      int size = lastRecordNumber / numberOfPartitions_ + (lastRecordNumber % numberOfPartitions_ == 0 ? 0 : 1);
+      Partition[] partitions = new Partition[numberOfPartitions_];
+      for (int i = 0; i < partitions.length; ++i)
+      {
+        long start = Math.min((long)i * size + 1, (long)lastRecordNumber + 1);
+        long end = (i == partitions.length - 1) ? Integer.MAX_VALUE : Math.min((long)(i + 1) * size, lastRecordNumber);
+        partitions[i] = new Partition(i, (int)start, (int)end, lastRecordNumber);
+      }
+      partitions[0].file_ = first;
+      synchronized(this)
+      {
+        partitions_ = partitions;
+        nextPartition_ = 0;
+      }
+      for (int i = 0; i < partitions.length; ++i)
+      {
+        partitions[i].thread_ = new Thread(partitions[i], "PartitionedFileReader-" + i);
+        partitions[i].thread_.setDaemon(true);
+        partitions[i].thread_.start();
+      }
+      started = true;
+    }
+    finally
+    {
+      if (!started)
+      {
+        if (first != null && partitions_.length == 0) first.close();
+        close();
+      }
+    }
+  }
+
+  private SequentialFile openFile(AS400 system)
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    SequentialFile file = new SequentialFile(system, name_);
+    try
+    {
+      file.setRecordFormat(recordFormat_);
+    }
+    catch (PropertyVetoException e)
+    {
+      // The file has no listeners.
+      throw new InternalErrorException(InternalErrorException.UNEXPECTED_EXCEPTION, e);
+    }
+    file.open(AS400File.READ_ONLY, blockingFactor_, AS400File.COMMIT_LOCK_LEVEL_NONE);
+    return file;
+  }
+
+  // Returns the next block of the specified partition, or of any partition if
+  // partition is null.  Waits until a block arrives.  Returns null when the
+  // partitions are done.
+  private synchronized Record[] nextBlock(Partition partition)
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    Partition[] partitions = partitions_;
+    while (partitions != null)
+    {
+      boolean done = true;
+      for (int i = 0; i < partitions.length; ++i)
+      {
+        Partition p = (partition != null) ? partition : partitions[(nextPartition_ + i) % partitions.length];
+        if (p.exception_ != null)
+        {
+          throwException(p.exception_);
+        }
+        if (!p.blocks_.isEmpty())
+        {
+          Record[] block = (Record[])p.blocks_.elementAt(0);
+          p.blocks_.removeElementAt(0);
+          if (partition == null) nextPartition_ = (p.index_ + 1) % partitions.length;
+          notifyAll();
+          return block;
+        }
+        if (!p.done_ && !p.closed_) done = false;
+        if (partition != null) break;
+      }
+      if (done) return null;
+      wait();
+      partitions = partitions_;
+    }
+    return null;
+  }
+
+  // Ends the reading of a partition, or of all the partitions if partition is null.
+  private synchronized void endPartition(Partition partition)
+  {
+    if (partitions_ == null) return;
+    for (int i = 0; i < partitions_.length; ++i)
+    {
+      if (partition == null || partitions_[i] == partition)
+      {
+        partitions_[i].closed_ = true;
+        partitions_[i].blocks_.removeAllElements();
+      }
+    }
+    notifyAll();
+  }
+
+  private static void throwException(Exception e)
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    if (e instanceof AS400Exception) throw (AS400Exception)e;
+    if (e instanceof AS400SecurityException) throw (AS400SecurityException)e;
+    if (e instanceof InterruptedException) throw (InterruptedException)e;
+    if (e instanceof IOException) throw (IOException)e;
+    if (e instanceof RuntimeException) throw (RuntimeException)e;
+    throw new InternalErrorException(InternalErrorException.UNEXPECTED_EXCEPTION, e);
+  }
+
+  // A range of record numbers, read by a thread of its own.  The fields that
+  // are shared with the caller are guarded by the reader.
+  private class Partition implements Runnable
+  {
+    final int index_;
+    // The first and last record numbers of the range.
+    final int start_;
+    final int end_;
+    // The last record number when the read started.
+    final int lastRecordNumber_;
+    Thread thread_;
+    // The file, opened by start() for the first partition and by the thread
+    // for the others.
+    SequentialFile file_;
+    // The blocks read and not yet returned.
+    final Vector blocks_ = new Vector();
+    boolean done_;
+    boolean closed_;
+    Exception exception_;
+
+    Partition(int index, int start, int end, int lastRecordNumber)
+    {
+      index_ = index;
+      start_ = start;
+      end_ = end;
+      lastRecordNumber_ = lastRecordNumber;
+    }
+
+    public void run()
+    {
+      try
+      {
+        if (file_ == null) file_ = openFile(systems_[index_]);
+        int blockSize = file_.getBlockingFactor();
+
+        Record record = readFirst();
+        Record[] block = new Record[blockSize];
+        int count = 0;
+        while (record != null && record.getRecordNumber() <= end_)
+        {
+          block[count++] = record;
+          if (count == blockSize)
+          {
+            if (!put(block)) return;
+            block = new Record[blockSize];
+            count = 0;
+          }
+          record = file_.readNext();
+        }
+        if (count > 0)
+        {
+          Record[] last = new Record[count];
+          System.arraycopy(block, 0, last, 0, count);
+          put(last);
+        }
+      }
+      catch (Exception e)
+      {
+        Trace.log(Trace.ERROR, "Exception in partition " + index_ + " of PartitionedFileReader:", e);
+        synchronized(PartitionedFileReader.this)
+        {
+          exception_ = e;
+        }
+      }
+      finally
+      {
+        try
+        {
+          if (file_ != null) file_.close();
+        }
+        catch (Exception e)
+        {
+          if (Trace.traceOn_) Trace.log(Trace.WARNING, "Exception closing partition " + index_ + " of PartitionedFileReader:", e);
+        }
+        synchronized(PartitionedFileReader.this)
+        {
+          done_ = true;
+          PartitionedFileReader.this.notifyAll();
+        }
+      }
+    }
+
+    // Positions the cursor and returns the first record of the range, or null
+    // if there is none.  The readNext() calls that follow are served a block
+    // at a time from the record cache.
+    private Record readFirst()
+      throws AS400Exception,
+             AS400SecurityException,
+             InterruptedException,
+             IOException
+    {
+      if (start_ > lastRecordNumber_) return null;
+      Record record = file_.read(start_);
+      if (record != null) return record;
+
+      // The first record of the range is deleted.  Read back from it, twice as
+      // far each time, until a record is found, so that a long run of deleted
+      // records costs a few reads instead of one for each record number.
+      long distance = 1;
+      while (distance < start_)
+      {
+        if (isClosed()) return null;
+        record = file_.read(start_ - (int)distance);
+        if (record != null) break;
+        distance *= 2;
+      }
+      // Start from the first record if there is no record before the range.
+      if (record == null) record = file_.readFirst();
+      while (record != null && record.getRecordNumber() < start_)
+      {
+        record = file_.readNext();
+      }
+      return record;
+    }
+
+    private boolean isClosed()
+    {
+      synchronized(PartitionedFileReader.this)
+      {
+        return closed_;
+      }
+    }
+
+    // Queues a block, waiting while the read ahead blocks have not been
+    // returned.  Returns false if the partition has been closed.
+    private boolean put(Record[] block)
+      throws InterruptedException
+    {
+      synchronized(PartitionedFileReader.this)
+      {
+        while (blocks_.size() >= readAhead_ && !closed_)
+        {
+          PartitionedFileReader.this.wait();
+        }
+        if (closed_) return false;
+        blocks_.addElement(block);
+        PartitionedFileReader.this.notifyAll();
+        return true;
+      }
+    }
+  }
+
+  // Returns the records of one partition.
+  private class PartitionEnumeration extends RecordEnumeration
+  {
+    private Partition partition_;
+
+    PartitionEnumeration(Partition partition)
+    {
+      partition_ = partition;
+    }
+
+    // The blocks are read by the partition threads, so their records are not reused.
+    Record[] readBlock(Record[] previous)
+      throws AS400Exception,
+             AS400SecurityException,
+             InterruptedException,
+             IOException
+    {
+      return nextBlock(partition_);
+    }
+
+    void endRead()
+    {
+      endPartition(partition_);
+    }
+  }
+
+  // Returns the records of all the partitions.
+  private class MergedEnumeration extends RecordEnumeration
+  {
+    Record[] readBlock(Record[] previous)
+      throws AS400Exception,
+             AS400SecurityException,
+             InterruptedException,
+             IOException
+    {
+      return nextBlock(null);
+    }
+
+    void endRead()
+    {
+      endPartition(null);
+    }
+  }
+}
@@ -21,6 +21,7 @@ import com.ibm.as400.access.AS400SecurityException;  //@B4A
 import java.beans.PropertyVetoException;
 import java.io.IOException;  //@B4A
 import java.util.Locale;      //@B2A
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
   *  Manages a particular connection to a system.  The pool item is used to
@@ -29,7 +30,15 @@ import java.util.Locale;      //@B2A
   **/
 class PoolItem
 {
+  // Values of state_.  A pool item moves between IDLE and IN_USE until it is REMOVED, which
+  // is final.  Whoever changes the state owns the transition, so borrowers, returners and
+  // the maintenance sweep never need a lock on the list to agree on an item.
+  static final int IDLE = 0;
+  static final int IN_USE = 1;
+  static final int REMOVED = 2;
+
   private AS400 AS400object_; // never null after object is constructed
+  private final AtomicInteger state_ = new AtomicInteger(IDLE);
   private PoolItemProperties properties_;
   private Locale locale_ = null; //@C1C
   //private String locale_ = "";     //@B2A	what locale was used to create the AS400 object
@@ -144,6 +153,18 @@ class PoolItem
   }
 
 
+  /**
+   *  Allocates the pool item, if it is available.
+   *  @return true if the pool item was available and is now in use; false otherwise.
+   **/
+  boolean allocate()
+  {
+    if (!state_.compareAndSet(IDLE, IN_USE)) return false;
+    properties_.setInUse(true);
+    return true;
+  }
+
+
   /**
   *  Returns the AS400 contained in the pool item.
   *  @return The AS400 object.  Never returns null.
@@ -223,7 +244,55 @@ class PoolItem
    **/
   boolean isInUse()
   {
-    return properties_.isInUse();
+    return state_.get() == IN_USE;
+  }
+
+
+  /**
+   *  Indicates if the pool item has been removed from its list.
+   *  @return true if the pool item has been removed; false otherwise.
+   **/
+  boolean isRemoved()
+  {
+    return state_.get() == REMOVED;
+  }
+
+
+  /**
+   *  Marks the pool item as removed, if it is in the expected state.
+   *  @param expectedState The state the pool item must be in, IDLE or IN_USE.
+   *  @return true if the pool item was in the expected state and is now removed; false otherwise.
+   **/
+  boolean markRemoved(int expectedState)
+  {
+    return state_.compareAndSet(expectedState, REMOVED);
+  }
+
+
+  /**
+   *  Marks the pool item as removed, whatever state it is in.
+   *  @return true if this call removed the pool item; false if it was already removed.
+   **/
+  boolean markRemoved()
+  {
+    int state;
+    while ((state = state_.get()) != REMOVED)
+    {
+      if (state_.compareAndSet(state, REMOVED)) return true;
+    }
+    return false;
+  }
+
+
+  /**
+   *  Releases the pool item, so that it can be allocated again.
+   *  @return true if the pool item was in use and is now available; false if it had been removed.
+   **/
+  boolean release()
+  {
+    // Restart the idle timer before the item can be seen as available.
+    properties_.setInUse(false);
+    return state_.compareAndSet(IN_USE, IDLE);
   }
 
 
@@ -243,5 +312,6 @@ class PoolItem
   void setInUse(boolean inUse)
   {
     properties_.setInUse(inUse);
+    state_.set(inUse ? IN_USE : IDLE);
   }
 }
@@ -23,6 +23,7 @@ import java.net.NoRouteToHostException;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
+import java.nio.channels.SocketChannel;
 import java.util.Hashtable;
 import java.net.InetSocketAddress;
 
@@ -131,6 +132,13 @@ class PortMapper
 
     static SocketContainer getServerSocket(String systemName, 
         int service, int overridePort, SSLOptions useSSL, SocketProperties socketProperties, boolean mustUseNetSockets) throws IOException
+    {
+      return getServerSocket(systemName, service, overridePort, useSSL, socketProperties, mustUseNetSockets, false);
+    }
+
+    // If useChannel is true, a non-SSL Internet domain socket is created from a SocketChannel, so that it can be serviced by AS400MultiplexedReader.
+    static SocketContainer getServerSocket(String systemName, 
+        int service, int overridePort, SSLOptions useSSL, SocketProperties socketProperties, boolean mustUseNetSockets, boolean useChannel) throws IOException
     {
         SocketContainer sc = null;
         String serviceName = AS400.getServerName(service);
@@ -202,11 +210,12 @@ class PortMapper
 
         }
         if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Opening socket for service "+service+" to system..."+systemName+" port:"+srvPort);
-        Socket socket = getSocketConnection(systemName, srvPort, socketProperties);  //@timeout2
+        boolean secure = (useSSL != null && useSSL.proxyEncryptionMode_ != SecureAS400.CLIENT_TO_PROXY_SERVER);
+        Socket socket = getSocketConnection(systemName, srvPort, socketProperties, useChannel && !secure);  //@timeout2
         PortMapper.setSocketProperties(socket, socketProperties);
 
         // We use the port returned in the previous reply to establish a new socket connection to the requested service...
-        if (useSSL != null && useSSL.proxyEncryptionMode_ != SecureAS400.CLIENT_TO_PROXY_SERVER)
+        if (secure)
         {
          // Refactor code but keep the same logic, try JSSE first, fall back to SSL Light again.
         	if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Starting a secure socket to " + serviceName);
@@ -228,6 +237,11 @@ class PortMapper
      *  If running in JVM 1.3 then it defaults to the old connection without a timeout
      */
     static Socket getSocketConnection(String systemName, int port, SocketProperties socketProperties) throws IOException
+    {
+      return getSocketConnection(systemName, port, socketProperties, false);
+    }
+
+    static Socket getSocketConnection(String systemName, int port, SocketProperties socketProperties, boolean useChannel) throws IOException
     {
       //Code to make use of new method java.net.Socket.connect(host, timeout) in jdk 1.4
       //only really needed on first socket connect so we do not hang when a system is down.  
@@ -240,7 +254,7 @@ class PortMapper
          solution to finding the jvm version that does not degrade performance. */
         Class.forName("java.net.InetSocketAddress"); //throws ClassNotFoundException (common to all jvm implementations)
 
-        pmSocket = new Socket();
+        pmSocket = useChannel ? SocketChannel.open().socket() : new Socket();
 
         int loginTimeout = 0;
         if(socketProperties.isLoginTimeoutSet())
@@ -262,7 +276,8 @@ class PortMapper
         {
           try
           {
-            Class thisClass = pmSocket.getClass();
+            // Look up the method on Socket, the class of a channel socket is not public.
+            Class thisClass = Socket.class;
             Method method = thisClass.getMethod("connect", new Class[]{ SocketAddress.class, java.lang.Integer.TYPE});
             //method.setAccessible(true);                   //@CRS (applet gets exception when calling setAccessible())
             Object args[] = new Object[2];
@@ -36,6 +36,7 @@ class ProxyClientConnection extends PxClientConnectionAdapter
     private static final Object[] noArguments_ = new Object[0];
 
     private int connectAttempts_ = 0;
+    private PxDictionary dictionary_ = new PxDictionary();
     private PxEventSupport eventSupport_;
     private Vector pxList_ = new Vector();
     private SecondaryFinalizerThread_ secondaryFinalizerThread_;
@@ -106,7 +107,7 @@ class ProxyClientConnection extends PxClientConnectionAdapter
     // @exception  InvocationTargetException  If the method throws an exception.
     public ProxyFactoryImpl callFactoryMethod(long proxyId, String methodName, Class[] argumentClasses, Object[] arguments, ProxyFactoryImpl proxyImpl) throws InvocationTargetException
     {
-        PxMethodReqCV request = new PxMethodReqCV(proxyId, methodName, argumentClasses, arguments, null, false, true);
+        PxMethodReqCV request = new PxMethodReqCV(proxyId, methodName, argumentClasses, arguments, null, false, true, dictionary_);
         long proxyId2 = ((ProxyReturnValue)sendAndReceive(request)).getReturnValuePxId();
         if (proxyId2 >= 0)
         {
@@ -165,7 +166,7 @@ class ProxyClientConnection extends PxClientConnectionAdapter
     // @exception  InvocationTargetException  If the method throws an exception.
     public ProxyReturnValue callMethod(long proxyId, String methodName, Class[] argumentClasses, Object[] arguments, boolean asynchronous) throws InvocationTargetException
     {
-        PxMethodReqCV request = new PxMethodReqCV(proxyId, methodName, argumentClasses, arguments, null, asynchronous, false);
+        PxMethodReqCV request = new PxMethodReqCV(proxyId, methodName, argumentClasses, arguments, null, asynchronous, false, dictionary_);
         return (ProxyReturnValue)sendAndReceive(request);
     }
 
@@ -180,7 +181,7 @@ class ProxyClientConnection extends PxClientConnectionAdapter
     // @exception  InvocationTargetException  If the method throws an exception.
     public ProxyReturnValue callMethod(long proxyId, String methodName, Class[] argumentClasses, Object[] arguments, boolean[] returnArguments, boolean asynchronous) throws InvocationTargetException
     {
-        PxMethodReqCV request = new PxMethodReqCV(proxyId, methodName, argumentClasses, arguments, returnArguments, asynchronous, false);
+        PxMethodReqCV request = new PxMethodReqCV(proxyId, methodName, argumentClasses, arguments, returnArguments, asynchronous, false, dictionary_);
         return (ProxyReturnValue)sendAndReceive(request);
     }
 
@@ -224,11 +225,15 @@ class ProxyClientConnection extends PxClientConnectionAdapter
     // Initiates the connection to the proxy server.
     public void connect()
     {
+        // Compressed replies are only read if this client asks for them.
+        int compression = PxCompression.getRequestedAlgorithm();
+        getFactory().setCompressedFrames(compression != ProxyConstants.COMPRESSION_NONE);
+
         PxConnectReqCV request;
         if (tunnel_)                                                                                                                    // @D1a
-           request = new PxConnectReqCV(ProxyConstants.CURRENT_MOD, connectAttempts_++, locale_, ProxyConstants.DS_CONNECT_TUNNEL_REQ); // @D1c
+           request = new PxConnectReqCV(ProxyConstants.CURRENT_MOD, connectAttempts_++, locale_, ProxyConstants.DS_CONNECT_TUNNEL_REQ, 0, compression); // @D1c
         else                                                                                                                            // @D1a
-           request = new PxConnectReqCV(ProxyConstants.CURRENT_MOD, connectAttempts_++, locale_, ProxyConstants.DS_CONNECT_REQ);        // @D1c
+           request = new PxConnectReqCV(ProxyConstants.CURRENT_MOD, connectAttempts_++, locale_, ProxyConstants.DS_CONNECT_REQ, PxDictionary.VERSION_, compression);
 
         try
         {
@@ -261,6 +266,8 @@ class ProxyClientConnection extends PxClientConnectionAdapter
         super.open(proxyServer);
 
         // We need to reinitialize the factory everytime the connection is opened.
+        // The dictionary starts out empty and disabled on each connection, until the proxy server accepts it.
+        dictionary_ = new PxDictionary();
         PxDSFactory factory = getFactory();
         factory.register(new PxByteParm());
         factory.register(new PxShortParm());
@@ -276,8 +283,12 @@ class ProxyClientConnection extends PxClientConnectionAdapter
         factory.register(new PxToolboxObjectParm());
         factory.register(new PxNullParm());
         factory.register(new PxClassParm());
+        factory.register(new PxValueParm());
+        factory.register(new PxRecordParm(dictionary_));
+        factory.register(new PxRecordFormatParm(dictionary_));
+        factory.register(new PxMessageParm(dictionary_));
 
-        factory.register(new PxAcceptRepCV());
+        factory.register(new PxAcceptRepCV(this, dictionary_));
         factory.register(new PxRejectRepCV(this));
         factory.register(new PxReturnRepCV());
         factory.register(new PxExceptionRepCV());
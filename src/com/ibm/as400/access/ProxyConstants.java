@@ -71,6 +71,10 @@ public class ProxyConstants
     static final short   DS_PROXY_OBJECT_PARM           = 26030;
     static final short   DS_NULL_PARM                   = 26040;
     static final short   DS_TOOLBOX_OBJECT_PARM         = 26050;
+    static final short   DS_RECORD_PARM                 = 26060;
+    static final short   DS_RECORD_FORMAT_PARM          = 26070;
+    static final short   DS_MESSAGE_PARM                = 26080;
+    static final short   DS_VALUE_PARM                  = 26090;
 
     static final short   DS_CLASS_PARM                  = 27010;
 
@@ -103,5 +107,20 @@ public class ProxyConstants
 
 
 
+    // The frame which holds a compressed datastream.
+    static final short   DS_COMPRESSED_FRAME             = 29010;
+
+    // The frame which holds a datastream preceded by its length.
+    static final short   DS_FRAME                        = 29020;
+
+
+
+    // Compression algorithms.
+    static final int     COMPRESSION_NONE               = 0;
+    static final int     COMPRESSION_DEFLATE            = 1;
+
+
+
+
 }
 
@@ -59,14 +59,26 @@ peer proxy servers.  Specify 0 to start load balancing immediately or
 proxy servers are specified.
 </dd>
 
+<dt><b><code>-compressionThreshold </code></b><var>compressionThreshold</var></dt>
+<dd>
+Specifies the size, in bytes, of the smallest reply that is
+compressed for clients which ask for compression.  Clients ask for
+it by setting the <code>com.ibm.as400.access.AS400.proxyCompression</code>
+system property to <code>deflate</code>.  Specify -1 to never
+compress replies.  This option may be abbreviated <code>-ct</code>.
+The default is 1024.
+</dd>
+
 <dt><b><code>-configuration </code></b><var>configuration</var></dt>
 <dd>
 Specifies a properties file which lists configuration
 properties in the following format:
 <pre>
 balanceThreshold=<var>balanceThreshold</var>
+compressionThreshold=<var>compressionThreshold</var>
 jdbcDrivers=<var>jdbcDriver1[;jdbcDriver2[;...]]</var>
 maxConnections=<var>maxConnections</var>
+maxThreads=<var>maxThreads</var>
 peers=<var>hostname1[:port1][;hostname2[:port2][;...]]</var>
 verbose=true|false
 </pre>
@@ -97,6 +109,16 @@ This option may be abbreviated <code>-mc</code>.  The default is
 to allow an unlimited number of connections.
 </dd>
 
+<dt><b><code>-maxThreads </code></b><var>maxThreads</var></dt>
+<dd>
+Specifies the maximum number of threads which process requests
+from clients.  The requests of all connections are read by a single
+thread and processed by these threads.  When all of them are busy,
+requests wait in a queue, and when the queue is full, no more
+requests are read until a thread is available.
+This option may be abbreviated <code>-mt</code>.  The default is 256.
+</dd>
+
 <dt><b><code>-peers </code></b><var>hostname1[:port1][;hostname2[:port2];...]</var></dt>
 <dd>
 Specifies a list of peer proxy servers for use in load balancing.
@@ -225,6 +247,21 @@ start load balancing.
 
 
 
+/**
+Returns the compression threshold.  This is the size, in bytes,
+of the smallest reply that is compressed for clients which ask
+for compression.
+
+@return The compression threshold, or -1 to never compress
+        replies.
+**/
+    public int getCompressionThreshold ()
+    {
+        return load_.getCompressionThreshold ();
+    }
+
+
+
 /**
 Returns the name of the configuration properties.
 
@@ -278,6 +315,20 @@ active at any particular time.
 
 
 
+/**
+Returns the maximum number of threads which process
+requests from clients.
+
+@return The maximum number of threads which process
+        requests from clients.
+**/
+    public int getMaxThreads ()
+    {
+        return load_.getMaxThreads ();
+    }
+
+
+
 /**
 Returns a list of peer proxy servers for use in load balancing.
 Each peer proxy server is specified in the format
@@ -440,6 +491,26 @@ peer proxy servers.  The default is -1.
     }
 
 
+
+/**
+Sets the size, in bytes, of the smallest reply that is
+compressed for clients which ask for compression.  The
+default is 1024.
+
+<p>This can be changed while the proxy server is running.
+It affects the connections accepted after it is changed.
+
+@param compressionThreshold The size of the smallest reply that
+                            is compressed.  Specify -1 to never
+                            compress replies.
+**/
+    public void setCompressionThreshold (int compressionThreshold)
+    {
+        load_.setCompressionThreshold (compressionThreshold);
+    }
+
+
+
 /**
 Sets and loads the properties file which lists
 configuration properties.  The default is not to load
@@ -519,6 +590,25 @@ number of active connections is less than the limit.
 
 
 
+/**
+Sets the maximum number of threads which process requests
+from clients.  When all of the threads are busy, requests
+wait in a queue, and when the queue is full, no more
+requests are read until a thread is available.  The
+default is 256.
+
+<p>This can be changed while the proxy server is running.
+
+@param maxThreads   The maximum number of threads which
+                    process requests from clients.
+**/
+    public void setMaxThreads (int maxThreads)
+    {
+        load_.setMaxThreads (maxThreads);
+    }
+
+
+
 /**
 Sets the list of peer proxy servers for use in load
 balancing.  In some cases, connections to the proxy
@@ -619,12 +709,28 @@ for this proxy server.
         try {
             PSServerSocketContainerAdapter serverSocket = new PSServerSocketContainer (port_);
             port_ = serverSocket.getLocalPort ();
+
+            // Connections are read by a single dispatcher thread and
+            // processed in a bounded pool of threads.  If the selector
+            // can not be opened, then each connection runs as a thread.
+            PSDispatcher dispatcher = null;
+            try {
+                dispatcher = new PSDispatcher (load_);
+                dispatcher.start ();
+                threadGroup_.addElement (dispatcher);
+            }
+            catch (IOException e) {
+                if (Trace.isTraceErrorOn ())
+                    Trace.log (Trace.ERROR, "Error opening proxy server selector.", e);
+            }
+
             PSController controller = new PSController (threadGroup_,
                                                                           this,
                                                                           load_,
                                                                           loadBalancer_,
                                                                           configuration_,
-                                                                          serverSocket);
+                                                                          serverSocket,
+                                                                          dispatcher);
 
             controller.start ();
             threadGroup_.addElement (controller);
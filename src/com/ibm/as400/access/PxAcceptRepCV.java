@@ -29,6 +29,12 @@ extends PxRepCV
     
 
 
+    // Private data.
+    private PxClientConnectionAdapter   connection_;
+    private PxDictionary                dictionary_;
+
+
+
 /**
 Constructs a PxAcceptRepCV object.
 **/
@@ -40,6 +46,24 @@ Constructs a PxAcceptRepCV object.
 
 
 
+/**
+Constructs a PxAcceptRepCV object.
+
+@param connection   The connection whose requests are compressed
+                    if the proxy server accepts compression.
+@param dictionary   The dictionary to enable if the proxy
+                    server accepts the compact parameter
+                    datastreams, or null.
+**/
+    public PxAcceptRepCV (PxClientConnectionAdapter connection, PxDictionary dictionary)
+    { 
+        super (ProxyConstants.DS_ACCEPT_REP);
+        connection_ = connection;
+        dictionary_ = dictionary;
+    }
+
+
+
 /**
 Processes the reply.
 
@@ -48,7 +72,22 @@ Processes the reply.
     public Object process ()
         throws InvocationTargetException
     {
-        // No processing is needed.
+        // Older proxy servers do not send the version of
+        // the compact parameter datastreams.
+        if ((dictionary_ != null) && (getParmCount () > 0)
+            && (((PxIntParm) getParm (0)).getIntValue () >= PxDictionary.VERSION_))
+            dictionary_.setEnabled (true);
+
+        // Older proxy servers do not send the compression algorithm.
+        if ((connection_ != null) && (getParmCount () > 1)) {
+            int compression = ((PxIntParm) getParm (1)).getIntValue ();
+            if (compression == ProxyConstants.COMPRESSION_DEFLATE)
+                connection_.setCompression (new PxCompression (compression, PxCompression.getRequestedThreshold ()));
+        }
+
+        // Older proxy servers do not ask for frames.
+        if ((connection_ != null) && (getParmCount () > 2))
+            connection_.setFramed (((PxBooleanParm) getParm (2)).getBooleanValue ());
         return null; 
     }
       
@@ -36,4 +36,58 @@ Constructs a PxAcceptRepSV object.
     }
 
 
+
+
+/**
+Constructs a PxAcceptRepSV object which tells the client
+that the compact parameter datastreams can be used.
+
+@param compactVersion   The version of the compact parameter
+                        datastreams.
+**/
+    public PxAcceptRepSV (int compactVersion)
+    {          
+        super (ProxyConstants.DS_ACCEPT_REP);
+        addParm (new PxIntParm (compactVersion));
+    }
+
+
+
+/**
+Constructs a PxAcceptRepSV object which tells the client
+which compact parameter datastreams and compression can
+be used.
+
+@param compactVersion   The version of the compact parameter
+                        datastreams, or 0 if they are not used.
+@param compression      The compression algorithm, or
+                        COMPRESSION_NONE.
+**/
+    public PxAcceptRepSV (int compactVersion, int compression)
+    {          
+        this (compactVersion);
+        addParm (new PxIntParm (compression));
+    }
+
+
+
+/**
+Constructs a PxAcceptRepSV object which tells the client
+which compact parameter datastreams and compression can
+be used, and whether to send the requests as frames.
+
+@param compactVersion   The version of the compact parameter
+                        datastreams, or 0 if they are not used.
+@param compression      The compression algorithm, or
+                        COMPRESSION_NONE.
+@param framed           true to send the requests as frames
+                        which start with their length.
+**/
+    public PxAcceptRepSV (int compactVersion, int compression, boolean framed)
+    {          
+        this (compactVersion, compression);
+        addParm (new PxBooleanParm (framed));
+    }
+
+
 }
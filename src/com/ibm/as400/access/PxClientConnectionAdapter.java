@@ -15,6 +15,8 @@ package com.ibm.as400.access;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -45,6 +47,8 @@ public abstract class PxClientConnectionAdapter
 
     // Private data.
     private boolean                     closed_             = false;
+    private PxCompression               compression_        = null;
+    private ByteArrayOutputStream       frame_              = null;
     private InputStream                 input_              = null;
     private OutputStream                output_             = null;
     private PxClientReadDaemon          readDaemon_         = null;
@@ -115,6 +119,8 @@ Closes the connection to the proxy server.
         }
 
         closed_ = true;
+        setCompression (null);
+        setFramed (false);
     }
 
 
@@ -129,6 +135,13 @@ Closes the connection to the proxy server.
 
 
 
+    private synchronized PxCompression getCompression ()
+    {
+        return compression_;
+    }
+
+
+
     public PxDSFactory getFactory()
     {
         return readDaemon_.getFactory();
@@ -144,6 +157,10 @@ Closes the connection to the proxy server.
                                                      + " (secure=" + secure + ").");
 
 
+        // Requests are not compressed or framed until the proxy server accepts it.
+        setCompression (null);
+        setFramed (false);
+
         // Parse the proxy server name, port number (and protocol if tunneling)
         localName    = proxyServer;
         String protocolName = null;
@@ -255,7 +272,7 @@ Closes the connection to the proxy server.
        try
        {
           readDaemon_ = new PxClientReadDaemon();
-          readDaemon_.register(new PxAcceptRepCV());
+          readDaemon_.register(new PxAcceptRepCV(this, null));
 
           if (port < 0)
              tunnelURL_ = new URL(protocol, name, "/servlet/com.ibm.as400.access.TunnelProxyServer");
@@ -302,7 +319,11 @@ Closes the connection to the proxy server.
           if (Trace.isTraceProxyOn())
               request.dump (Trace.getPrintWriter ());
 
-          request.writeTo(connectionOut);
+          PxCompression compression = getCompression ();
+          if (compression != null)
+             compression.writeTo(request, connectionOut);
+          else
+             request.writeTo(connectionOut);
           connectionOut.flush();
           // connectionOut.close();
 
@@ -392,7 +413,23 @@ Sends a request to the proxy server.  No reply is expected.
               request.dump (Trace.getPrintWriter ());
 
            try {
-              request.writeTo (output_);
+              if (frame_ != null) {
+                  frame_.reset ();
+                  if (compression_ != null)
+                      compression_.writeTo (request, frame_);
+                  else
+                      request.writeTo (frame_);
+                  if (frame_.size () <= PxDSFactory.MAX_FRAME_LENGTH_) {
+                      DataOutputStream dataOutput = new DataOutputStream (output_);
+                      dataOutput.writeShort (ProxyConstants.DS_FRAME);
+                      dataOutput.writeInt (frame_.size ());
+                  }
+                  frame_.writeTo (output_);
+              }
+              else if (compression_ != null)
+                  compression_.writeTo (request, output_);
+              else
+                  request.writeTo (output_);
               output_.flush ();
            }
            catch (IOException e) {
@@ -410,6 +447,38 @@ Sends a request to the proxy server.  No reply is expected.
 
 
 
+/**
+Sets the compression for the requests sent to the proxy server.
+
+@param compression  The compression, or null for none.
+**/
+    synchronized void setCompression (PxCompression compression)
+    {
+        if (compression_ != null)
+            compression_.close ();
+        compression_ = compression;
+    }
+
+
+
+/**
+Sets whether the requests sent to the proxy server are
+written as frames which start with their length.  This
+lets the proxy server wait for a whole request before it
+parses it.
+
+@param framed   true to write the requests as frames.
+**/
+    synchronized void setFramed (boolean framed)
+    {
+        if (! framed)
+            frame_ = null;
+        else if (frame_ == null)
+            frame_ = new ByteArrayOutputStream ();
+    }
+
+
+
 /**
 Sends a request to the proxy server and receives and processes a reply.
 
@@ -61,6 +61,23 @@ Constructs a PxCompDS object.
 
 
     public void addObjectParm(PxTable pxTable, Object object)
+    {
+        addObjectParm(pxTable, null, object);
+    }
+
+
+
+/**
+Appends an object parameter to the datastream.  If the
+dictionary is enabled, the object types that most often
+cross the proxy connection are sent in a compact form
+instead of being serialized.
+
+@param pxTable      The proxy table, or null.
+@param dictionary   The dictionary of the connection, or null.
+@param object       The object.
+**/
+    public void addObjectParm(PxTable pxTable, PxDictionary dictionary, Object object)
     {
         PxParm parameter;
 
@@ -104,6 +121,14 @@ Constructs a PxCompDS object.
             
             if (proxyId >= 0)
                 parameter = new PxPxObjectParm (proxyId);            
+            else if ((dictionary != null) && (dictionary.isEnabled ()) && (PxValueParm.canEncode (object)))
+                parameter = new PxValueParm (object);
+            else if ((dictionary != null) && (dictionary.isEnabled ()) && (PxRecordParm.canEncode (object)))
+                parameter = new PxRecordParm (dictionary, object);
+            else if ((dictionary != null) && (dictionary.isEnabled ()) && (PxRecordFormatParm.canEncode (object)))
+                parameter = new PxRecordFormatParm (dictionary, object);
+            else if ((dictionary != null) && (dictionary.isEnabled ()) && (PxMessageParm.canEncode (object)))
+                parameter = new PxMessageParm (dictionary, object);
             else if (object.getClass().getName().startsWith("com.ibm.as400.access"))
                 parameter = new PxToolboxObjectParm(object);
             else 
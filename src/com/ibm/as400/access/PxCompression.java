@@ -0,0 +1,317 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PxCompression.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+
+/**
+The PxCompression class compresses the datastreams written
+on one end of a proxy connection.
+
+<p>A datastream which is at least as large as the threshold
+is written as a compressed frame: the DS_COMPRESSED_FRAME type,
+the algorithm, the uncompressed and compressed lengths, and
+the compressed bytes.  Smaller datastreams, and those which do
+not get smaller, are written as they are.  Since the frames
+describe themselves, the reader does not need to know whether
+the writer compresses, only that it understands the frames.
+This is agreed on when the connection is accepted.
+
+<p>The callers serialize the writes on a connection, which
+also serializes the use of the compressor.
+**/
+class PxCompression
+{
+    // The default size of the smallest datastream that is compressed.
+    static final int                            DEFAULT_THRESHOLD_      = 1024;
+
+    // Private data.
+    private int                                 algorithm_;
+    private boolean                             closed_                 = false;
+    private byte[]                              compressed_             = new byte[8192];
+    private Deflater                            deflater_;
+    private int                                 threshold_;
+    private BufferOutputStream                  uncompressed_           = new BufferOutputStream ();
+
+    // Statistics.
+    private long                                bytesWritten_           = 0;
+    private long                                bytesCompressed_        = 0;
+
+
+
+/**
+Constructs a PxCompression object.
+
+@param algorithm    The compression algorithm.
+@param threshold    The size of the smallest datastream
+                    that is compressed.
+**/
+    public PxCompression (int algorithm, int threshold)
+    {
+        if (algorithm != ProxyConstants.COMPRESSION_DEFLATE)
+            throw new ExtendedIllegalArgumentException ("algorithm", ExtendedIllegalArgumentException.PARAMETER_VALUE_NOT_VALID);
+        if (threshold < 0)
+            throw new ExtendedIllegalArgumentException ("threshold", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+        algorithm_  = algorithm;
+        threshold_  = threshold;
+        deflater_   = new Deflater (Deflater.BEST_SPEED);
+    }
+
+
+
+/**
+Releases the compressor.  Nothing more can be written
+after this.
+**/
+    public synchronized void close ()
+    {
+        if (! closed_) {
+            closed_ = true;
+            deflater_.end ();
+        }
+    }
+
+
+
+/**
+Returns the compression algorithm.
+
+@return The compression algorithm.
+**/
+    public int getAlgorithm ()
+    {
+        return algorithm_;
+    }
+
+
+
+/**
+Returns the number of bytes of datastreams written
+before compression.
+
+@return The number of bytes.
+**/
+    public synchronized long getBytesWritten ()
+    {
+        return bytesWritten_;
+    }
+
+
+
+/**
+Returns the number of bytes actually written, after
+compression.
+
+@return The number of bytes.
+**/
+    public synchronized long getBytesCompressed ()
+    {
+        return bytesCompressed_;
+    }
+
+
+
+/**
+Returns the compression algorithm that the client asks for,
+as set by the com.ibm.as400.access.AS400.proxyCompression
+property.
+
+@return The compression algorithm.
+**/
+    static int getRequestedAlgorithm ()
+    {
+        String value = SystemProperties.getProperty (SystemProperties.AS400_PROXY_COMPRESSION);
+        if ((value != null) && (value.trim ().equalsIgnoreCase ("deflate")))
+            return ProxyConstants.COMPRESSION_DEFLATE;
+        return ProxyConstants.COMPRESSION_NONE;
+    }
+
+
+
+/**
+Returns the threshold that the client uses, as set by the
+com.ibm.as400.access.AS400.proxyCompressionThreshold property.
+
+@return The threshold.
+**/
+    static int getRequestedThreshold ()
+    {
+        String value = SystemProperties.getProperty (SystemProperties.AS400_PROXY_COMPRESSION_THRESHOLD);
+        if (value != null) {
+            try {
+                int threshold = Integer.parseInt (value.trim ());
+                if (threshold >= 0)
+                    return threshold;
+            }
+            catch (NumberFormatException e) {
+                if (Trace.isTraceErrorOn ())
+                    Trace.log (Trace.ERROR, "Proxy compression threshold is not valid: " + value, e);
+            }
+        }
+        return DEFAULT_THRESHOLD_;
+    }
+
+
+
+/**
+Returns the threshold.
+
+@return The size of the smallest datastream that is compressed.
+**/
+    public int getThreshold ()
+    {
+        return threshold_;
+    }
+
+
+
+/**
+Reads a compressed frame, after its type, and returns
+the datastream that it holds.
+
+@param input    The input stream.
+@param factory  The datastream factory.
+@return         The datastream.
+
+@exception IOException  If an error occurs.
+**/
+    static PxDSRV readFrame (DataInputStream input, PxDSFactory factory)
+        throws IOException
+    {
+        int algorithm = input.readByte ();
+        int uncompressedLength = input.readInt ();
+        int compressedLength = input.readInt ();
+        if (algorithm != ProxyConstants.COMPRESSION_DEFLATE)
+            throw new IOException ("Compression algorithm " + algorithm + " is not supported.");
+        if ((uncompressedLength < 0) || (uncompressedLength > PxDSFactory.MAX_FRAME_LENGTH_)
+            || (compressedLength < 0) || (compressedLength > uncompressedLength))
+            throw new IOException ("Compressed frame length is not valid.");
+
+        byte[] compressed = PxDSFactory.readBytes (input, compressedLength);
+
+        // The buffer grows as the bytes are inflated, rather than
+        // trusting the length in the header.
+        byte[] uncompressed = new byte[Math.min (uncompressedLength, 8192)];
+        Inflater inflater = new Inflater ();
+        try {
+            inflater.setInput (compressed);
+            int length = 0;
+            while (length < uncompressedLength) {
+                if (length == uncompressed.length) {
+                    byte[] newUncompressed = new byte[(int) Math.min ((long) uncompressedLength, uncompressed.length * 2L)];
+                    System.arraycopy (uncompressed, 0, newUncompressed, 0, length);
+                    uncompressed = newUncompressed;
+                }
+                int count = inflater.inflate (uncompressed, length, uncompressed.length - length);
+                if ((count == 0) && (inflater.finished () || inflater.needsInput () || inflater.needsDictionary ()))
+                    break;
+                length += count;
+            }
+            if ((length != uncompressedLength) || (! inflater.finished ()))
+                throw new IOException ("Compressed frame is not valid.");
+        }
+        catch (DataFormatException e) {
+            IOException throwException = new IOException ("Compressed frame is not valid.");
+            throwException.initCause (e);
+            throw throwException;
+        }
+        finally {
+            inflater.end ();
+        }
+
+        return factory.getNextDS (new ByteArrayInputStream (uncompressed));
+    }
+
+
+
+/**
+Writes a datastream, compressing it if it is large enough.
+The caller flushes the output stream.
+
+@param datastream   The datastream.
+@param output       The output stream.
+
+@exception IOException  If an error occurs.
+**/
+    public synchronized void writeTo (PxDSWV datastream, OutputStream output)
+        throws IOException
+    {
+        if (closed_)
+            throw new IOException ("The proxy compression is closed.");
+
+        uncompressed_.reset ();
+        datastream.writeTo (uncompressed_);
+        int uncompressedLength = uncompressed_.size ();
+        byte[] uncompressed = uncompressed_.getBuffer ();
+        bytesWritten_ += uncompressedLength;
+
+        if ((uncompressedLength >= threshold_) && (uncompressedLength <= PxDSFactory.MAX_FRAME_LENGTH_)) {
+            deflater_.reset ();
+            deflater_.setInput (uncompressed, 0, uncompressedLength);
+            deflater_.finish ();
+            int compressedLength = 0;
+            while ((! deflater_.finished ()) && (compressedLength < uncompressedLength)) {
+                if (compressedLength == compressed_.length) {
+                    byte[] newCompressed = new byte[compressed_.length * 2];
+                    System.arraycopy (compressed_, 0, newCompressed, 0, compressedLength);
+                    compressed_ = newCompressed;
+                }
+                compressedLength += deflater_.deflate (compressed_, compressedLength, compressed_.length - compressedLength);
+            }
+
+            // Only send the frame if it is smaller.
+            if ((deflater_.finished ()) && (compressedLength + 11 < uncompressedLength)) {
+                DataOutputStream dataOutput = new DataOutputStream (output);
+                dataOutput.writeShort (ProxyConstants.DS_COMPRESSED_FRAME);
+                dataOutput.writeByte (algorithm_);
+                dataOutput.writeInt (uncompressedLength);
+                dataOutput.writeInt (compressedLength);
+                dataOutput.write (compressed_, 0, compressedLength);
+                bytesCompressed_ += compressedLength + 11;
+                return;
+            }
+        }
+
+        output.write (uncompressed, 0, uncompressedLength);
+        bytesCompressed_ += uncompressedLength;
+    }
+
+
+
+/**
+A ByteArrayOutputStream whose buffer can be used without copying it.
+**/
+    private static class BufferOutputStream
+    extends ByteArrayOutputStream
+    {
+        byte[] getBuffer ()
+        {
+            return buf;
+        }
+    }
+
+
+
+}
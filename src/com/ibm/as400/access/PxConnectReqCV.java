@@ -54,4 +54,33 @@ Constructs a PxConnectReqCV object.
 
 
 
+/**
+Constructs a PxConnectReqCV object which tells the proxy
+server that the compact parameter datastreams and compressed
+frames can be read.
+
+@param modification     The modification level of the
+                        IBM Toolbox for Java.
+@param rejections       The number of rejections.
+@param clientLocale     The client locale.
+@param normalOrTunnel   The type of connect request.
+@param compactVersion   The version of the compact parameter
+                        datastreams, or 0 if they are not used.
+@param compression      The compression algorithm that the
+                        client asks for, or COMPRESSION_NONE.
+**/
+    public PxConnectReqCV (String  modification,
+                           int     rejections,
+                           String  clientLocale,
+                           short   normalOrTunnel,
+                           int     compactVersion,
+                           int     compression)
+    {
+        this (modification, rejections, clientLocale, normalOrTunnel);
+        addParm (new PxIntParm (compactVersion));
+        addParm (new PxIntParm (compression));
+    }
+
+
+
 }
@@ -60,14 +60,44 @@ class PxConnectReqSV extends PxReqSV
         PxRepSV reply;
         String peer = loadBalancer_.accept(rejectionCount);
 
-        // If accepted, then start up a thread for the connection.
+        // If accepted, then hand the connection to the dispatcher, or start up a thread for it.
         if (peer == null)
         {
-            reply = new PxAcceptRepSV();
-
             PSConnection connection = new PSConnection(controller_.getConnectionId(), controller_.getConnectedSocket(), controller_.getInputStream(), controller_.getOutputStream(), load_);
-            connection.start();
-            threadGroup_.addElement(connection);
+
+            // Clients that can read the compact parameter datastreams send the version they support.  Older clients do not send it, and older servers ignore it.
+            int compactVersion = 0;
+            if (getParmCount() > 3 && ((PxIntParm)getParm(3)).getIntValue() >= PxDictionary.VERSION_)
+            {
+                connection.getDictionary().setEnabled(true);
+                compactVersion = PxDictionary.VERSION_;
+            }
+
+            // Clients that can read compressed frames send the algorithm they want.  The replies are only compressed if this server allows it.
+            int compression = ProxyConstants.COMPRESSION_NONE;
+            if (getParmCount() > 4 && ((PxIntParm)getParm(4)).getIntValue() == ProxyConstants.COMPRESSION_DEFLATE && load_.getCompressionThreshold() >= 0)
+            {
+                compression = ProxyConstants.COMPRESSION_DEFLATE;
+                connection.setCompression(new PxCompression(compression, load_.getCompressionThreshold()));
+            }
+
+            // The same clients send their requests as frames when asked to, so they can be dispatched without parsing them more than once.
+            boolean framed = getParmCount() > 4;
+            if (framed)
+                reply = new PxAcceptRepSV(compactVersion, compression, true);
+            else if (compression != ProxyConstants.COMPRESSION_NONE)
+                reply = new PxAcceptRepSV(compactVersion, compression);
+            else if (compactVersion > 0)
+                reply = new PxAcceptRepSV(compactVersion);
+            else
+                reply = new PxAcceptRepSV();
+
+            // Older clients keep a thread of their own, which reads each request as it arrives.
+            if (!framed || !controller_.dispatch(connection))
+            {
+                connection.start();
+                threadGroup_.addElement(connection);
+            }
 
             Verbose.println(ResourceBundleLoader.substitute(PROXY_CONNECTION_ACCEPTED_, new Object[] { controller_, controller_.getClientAddress(), Long.toString(controller_.getConnectionId()) } ));
         }
@@ -34,13 +34,22 @@ extends PxReqSV
     private static final Object[]   noArguments_        = new Object[0];
     private static final boolean[]  noReturnArguments_  = new boolean[0];
 
+    private PxDictionary        dictionary_;
     private PxTable             pxTable_;
 
 
 
     public PxConstructorReqSV(PxTable pxTable)
+    { 
+        this (pxTable, null);
+    }
+
+
+
+    public PxConstructorReqSV(PxTable pxTable, PxDictionary dictionary)
     { 
         super (ProxyConstants.DS_CONSTRUCTOR_REQ);
+        dictionary_ = dictionary;
         pxTable_    = pxTable;
     }
 
@@ -60,7 +69,7 @@ extends PxReqSV
         long proxyId = pxTable_.addClientId (getClientId(), object);  //@A1C
    
         // Return the proxy id.
-        return new PxReturnRepSV (pxTable_, object, noArguments_, noReturnArguments_);
+        return new PxReturnRepSV (pxTable_, dictionary_, object, noArguments_, noReturnArguments_);
     }
 
 
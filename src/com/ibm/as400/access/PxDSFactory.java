@@ -13,7 +13,9 @@
 
 package com.ibm.as400.access;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.InputStream;
 import java.io.IOException;
 import java.util.Hashtable;
@@ -31,7 +33,14 @@ class PxDSFactory
 
 
 
+    // The largest datastream that a frame may hold.  Larger
+    // datastreams are written without a frame.
+    static final int         MAX_FRAME_LENGTH_   = 4 * 1024 * 1024;
+
+
+
     // Private data.
+    private boolean          compressedFrames_   = false;
     private Hashtable        factory_            = new Hashtable ();
 
 
@@ -51,6 +60,26 @@ Returns the next datastream object from the input stream.
         DataInputStream dataInput = new DataInputStream (input);
         Short type = new Short (dataInput.readShort());
 
+        // A compressed frame holds one datastream.
+        if (type.shortValue () == ProxyConstants.DS_COMPRESSED_FRAME) {
+            if (! compressedFrames_)
+                throw new IOException ("Compression was not negotiated on this connection.");
+            if (Trace.isTraceProxyOn())
+                Trace.log(Trace.PROXY, "Factory read compressed frame.");
+            return PxCompression.readFrame (dataInput, this);
+        }
+
+        // A frame holds one datastream, preceded by its length.
+        if (type.shortValue () == ProxyConstants.DS_FRAME) {
+            if (Trace.isTraceProxyOn())
+                Trace.log(Trace.PROXY, "Factory read frame.");
+            ByteArrayInputStream frame = new ByteArrayInputStream (readBytes (dataInput, dataInput.readInt ()));
+            PxDSRV datastream = getNextDS (frame);
+            if (frame.available () != 0)
+                throw new IOException ("Frame length is not valid.");
+            return datastream;
+        }
+
         // If we know how to deal with this type, then manufacture
         // a new instance.
         if (factory_.containsKey (type)) {
@@ -90,6 +119,56 @@ Returns the next datastream object from the input stream.
 
 
 
+/**
+Reads the bytes of a frame.  The buffer grows as the bytes
+arrive, so a frame length which is not valid can not make
+this allocate more than what was actually sent.
+
+@param input    The input stream.
+@param length   The frame length.
+@return         The bytes.
+
+@exception IOException  If the length is not valid or the
+                        input stream ends.
+**/
+    static byte[] readBytes (DataInputStream input, int length)
+        throws IOException
+    {
+        if ((length < 0) || (length > MAX_FRAME_LENGTH_))
+            throw new IOException ("Frame length is not valid.");
+
+        byte[] bytes = new byte[Math.min (length, 8192)];
+        int offset = 0;
+        while (offset < length) {
+            if (offset == bytes.length) {
+                byte[] newBytes = new byte[(int) Math.min ((long) length, bytes.length * 2L)];
+                System.arraycopy (bytes, 0, newBytes, 0, offset);
+                bytes = newBytes;
+            }
+            int count = input.read (bytes, offset, bytes.length - offset);
+            if (count < 0)
+                throw new EOFException ();
+            offset += count;
+        }
+        return bytes;
+    }
+
+
+
+/**
+Sets whether compressed frames can be read.  They are
+rejected unless compression was negotiated for the
+connection.
+
+@param compressedFrames true if compressed frames can be read.
+**/
+    public void setCompressedFrames (boolean compressedFrames)
+    {
+        compressedFrames_ = compressedFrames;
+    }
+
+
+
 /**
 Registers a datastream with this factory.  DSs must be
 registered in order to be recognized when they are read.
@@ -0,0 +1,313 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PxDictionary.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Hashtable;
+
+
+
+/**
+The PxDictionary class keeps the strings and record formats
+that have already been sent on a proxy connection, so that
+the compact parameter datastreams can refer to them by id
+instead of sending them again.
+
+<p>Each side of a connection has one dictionary, which holds
+both the values it has sent and the values it has received.
+A value is defined the first time it is written, with the id
+that later references use.  Because writes on a connection are
+serialized, the definitions always arrive before the references.
+
+<p>The compact datastreams are only written once both sides
+have agreed to use them when the connection was accepted.
+They can always be read.
+**/
+class PxDictionary
+{
+    // The version of the compact datastreams.
+    static final int                            VERSION_                = 1;
+
+    // Limits on the values that are kept.
+    private static final int                    MAX_STRINGS_            = 4096;
+    private static final int                    MAX_STRING_LENGTH_      = 256;
+    private static final int                    MAX_RECORD_FORMATS_     = 256;
+
+    // The tags that precede each value.
+    private static final byte                   NULL_                   = 0;
+    private static final byte                   REFERENCE_              = 1;
+    private static final byte                   DEFINITION_             = 2;
+    private static final byte                   INLINE_                 = 3;
+
+    private static final String                 ENCODING_               = "UTF8";
+
+
+
+    // Private data.
+    private volatile boolean                    enabled_                = false;
+
+    private Hashtable                           sentStrings_            = new Hashtable ();
+    private Hashtable                           receivedStrings_        = new Hashtable ();
+    private Hashtable                           sentRecordFormats_      = new Hashtable ();
+    private Hashtable                           receivedRecordFormats_  = new Hashtable ();
+
+
+
+/**
+Indicates if the compact datastreams are written on this connection.
+
+@return true if the compact datastreams are written, false otherwise.
+**/
+    boolean isEnabled ()
+    {
+        return enabled_;
+    }
+
+
+
+/**
+Reads a record format.
+
+@param input    The input stream.
+@return         The record format, or null.
+
+@exception IOException  If an error occurs.
+**/
+    RecordFormat readRecordFormat (DataInputStream input)
+        throws IOException
+    {
+        byte tag = input.readByte ();
+        switch (tag) {
+            case NULL_:
+                return null;
+
+            case REFERENCE_: {
+                Integer id = new Integer (input.readInt ());
+                RecordFormat recordFormat = (RecordFormat) receivedRecordFormats_.get (id);
+                if (recordFormat == null)
+                    throw new IOException ("Record format " + id + " is not defined.");
+                return recordFormat;
+            }
+
+            case DEFINITION_: {
+                Integer id = new Integer (input.readInt ());
+                RecordFormat recordFormat = (RecordFormat) readSerialized (input);
+                receivedRecordFormats_.put (id, recordFormat);
+                return recordFormat;
+            }
+
+            case INLINE_:
+                return (RecordFormat) readSerialized (input);
+
+            default:
+                throw new IOException ("Record format tag " + tag + " is not valid.");
+        }
+    }
+
+
+
+/**
+Reads a serialized object which is preceded by its length.
+**/
+    private static Object readSerialized (DataInputStream input)
+        throws IOException
+    {
+        byte[] buffer = new byte[input.readInt ()];
+        input.readFully (buffer);
+        ObjectInputStream objectInput = new ObjectInputStream (new ByteArrayInputStream (buffer));
+        try {
+            return objectInput.readObject ();
+        }
+        catch (ClassNotFoundException e) {
+            if (Trace.isTraceErrorOn ())
+                Trace.log (Trace.ERROR, "Class for deserializing not found", e);
+            IOException throwException = new IOException ("Class not found:" + e.getMessage ());
+            throwException.initCause (e);
+            throw throwException;
+        }
+    }
+
+
+
+/**
+Reads a String.
+
+@param input    The input stream.
+@return         The String, or null.
+
+@exception IOException  If an error occurs.
+**/
+    String readString (DataInputStream input)
+        throws IOException
+    {
+        byte tag = input.readByte ();
+        switch (tag) {
+            case NULL_:
+                return null;
+
+            case REFERENCE_: {
+                Integer id = new Integer (input.readInt ());
+                String value = (String) receivedStrings_.get (id);
+                if (value == null)
+                    throw new IOException ("String " + id + " is not defined.");
+                return value;
+            }
+
+            case DEFINITION_: {
+                Integer id = new Integer (input.readInt ());
+                String value = input.readUTF ();
+                receivedStrings_.put (id, value);
+                return value;
+            }
+
+            case INLINE_: {
+                byte[] buffer = new byte[input.readInt ()];
+                input.readFully (buffer);
+                return new String (buffer, ENCODING_);
+            }
+
+            default:
+                throw new IOException ("String tag " + tag + " is not valid.");
+        }
+    }
+
+
+
+/**
+Sets whether the compact datastreams are written on this connection.
+
+@param enabled  true to write the compact datastreams, false otherwise.
+**/
+    void setEnabled (boolean enabled)
+    {
+        enabled_ = enabled;
+    }
+
+
+
+/**
+Writes a record format.  A record format is serialized the first
+time it is written, and referred to by id after that.  If fields
+are added to it later, it is serialized again with the same id.
+
+@param output       The output stream.
+@param recordFormat The record format, or null.
+
+@exception IOException  If an error occurs.
+**/
+    synchronized void writeRecordFormat (DataOutputStream output, RecordFormat recordFormat)
+        throws IOException
+    {
+        if (recordFormat == null) {
+            output.writeByte (NULL_);
+            return;
+        }
+
+        // The first element is the id, the second is the number of
+        // fields that the record format had when it was serialized.
+        int[] sent = (int[]) sentRecordFormats_.get (recordFormat);
+        int numberOfFields = recordFormat.getNumberOfFields ();
+        if ((sent != null) && (sent[1] == numberOfFields)) {
+            output.writeByte (REFERENCE_);
+            output.writeInt (sent[0]);
+            return;
+        }
+
+        // Serialize it before assigning an id, so that an id is never
+        // kept for a definition that was not written.
+        byte[] serialized = serialize (recordFormat);
+        if (sent != null) {
+            sent[1] = numberOfFields;
+            output.writeByte (DEFINITION_);
+            output.writeInt (sent[0]);
+        }
+        else if (sentRecordFormats_.size () < MAX_RECORD_FORMATS_) {
+            int id = sentRecordFormats_.size ();
+            sentRecordFormats_.put (recordFormat, new int[] { id, numberOfFields });
+            output.writeByte (DEFINITION_);
+            output.writeInt (id);
+        }
+        else
+            output.writeByte (INLINE_);
+        output.writeInt (serialized.length);
+        output.write (serialized);
+    }
+
+
+
+/**
+Serializes an object.
+**/
+    private static byte[] serialize (Object object)
+        throws IOException
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream ();
+        ObjectOutputStream objectOutput = new ObjectOutputStream (buffer);
+        objectOutput.writeObject (object);
+        objectOutput.flush ();
+        return buffer.toByteArray ();
+    }
+
+
+
+/**
+Writes a String.  Short Strings are sent the first time they
+are written, and referred to by id after that.  Long Strings
+are always sent.
+
+@param output   The output stream.
+@param value    The String, or null.
+
+@exception IOException  If an error occurs.
+**/
+    synchronized void writeString (DataOutputStream output, String value)
+        throws IOException
+    {
+        if (value == null) {
+            output.writeByte (NULL_);
+            return;
+        }
+
+        if (value.length () <= MAX_STRING_LENGTH_) {
+            Integer id = (Integer) sentStrings_.get (value);
+            if (id != null) {
+                output.writeByte (REFERENCE_);
+                output.writeInt (id.intValue ());
+                return;
+            }
+            if (sentStrings_.size () < MAX_STRINGS_) {
+                id = new Integer (sentStrings_.size ());
+                sentStrings_.put (value, id);
+                output.writeByte (DEFINITION_);
+                output.writeInt (id.intValue ());
+                output.writeUTF (value);
+                return;
+            }
+        }
+
+        byte[] buffer = value.getBytes (ENCODING_);
+        output.writeByte (INLINE_);
+        output.writeInt (buffer.length);
+        output.write (buffer);
+    }
+
+
+
+}
@@ -0,0 +1,201 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PxMessageParm.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+
+/**
+The PxMessageParm class represents an AS400Message or
+AS400Message array parameter in a proxy datastream.  The
+fields of each message are written directly, and the Strings
+that repeat, such as the message file names, are kept in
+the dictionary of the connection.
+**/
+class PxMessageParm
+extends PxDS
+implements PxParm
+{
+
+
+
+    // Private data.
+    private PxDictionary    dictionary_;
+    private Object          value_;
+
+
+
+/**
+Constructs a PxMessageParm object.
+
+@param dictionary   The dictionary.
+**/
+    public PxMessageParm (PxDictionary dictionary)
+    {
+        super (ProxyConstants.DS_MESSAGE_PARM);
+        dictionary_ = dictionary;
+    }
+
+
+
+/**
+Constructs a PxMessageParm object.
+
+@param dictionary   The dictionary.
+@param value        The AS400Message or AS400Message array value.
+**/
+    public PxMessageParm (PxDictionary dictionary, Object value)
+    {
+        super (ProxyConstants.DS_MESSAGE_PARM);
+        dictionary_ = dictionary;
+        value_      = value;
+    }
+
+
+
+/**
+Indicates if an object can be sent as a PxMessageParm.
+
+@param object   The object.
+@return         true if the object is an AS400Message or an
+                array of them, false otherwise.  Subclasses, such
+                as QueuedMessage, are serialized instead.
+**/
+    static boolean canEncode (Object object)
+    {
+        if (object.getClass () == AS400Message.class)
+            return true;
+
+        if (object.getClass () == AS400Message[].class) {
+            AS400Message[] messages = (AS400Message[]) object;
+            for (int i = 0; i < messages.length; ++i) {
+                if ((messages[i] != null) && (messages[i].getClass () != AS400Message.class))
+                    return false;
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+
+
+/**
+Returns a new copy of this datastream.
+
+@return A new copy of this datastream.
+
+@exception CloneNotSupportedException   If the object cannot be cloned.
+**/
+//
+// Implementation note:  This method is necessary in order to do
+//                       a deep copy of the internal object.  Otherwise,
+//                       we run into problems with multiple threads.
+    public Object clone ()
+        throws CloneNotSupportedException
+    {
+        value_ = null;
+        return super.clone ();
+    }
+
+
+
+/**
+Returns the Object value.
+
+@return The Object value.
+**/
+    public Object getObjectValue ()
+    {
+        return value_;
+    }
+
+
+
+/**
+Loads this datastream by reading from an input stream.
+
+@param input    The input stream.
+@param factory  The datastream factory.  This is sometimes
+                needed when datastreams are nested.
+
+@exception IOException  If an error occurs.
+**/
+    public void readFrom (InputStream input, PxDSFactory factory)
+        throws IOException
+    {
+        super.readFrom (input, factory);
+        DataInputStream dataInput = new DataInputStream (input);
+        int count = dataInput.readInt ();
+        if (count < 0)
+            value_ = AS400Message.readCompact (dataInput, dictionary_);
+        else {
+            AS400Message[] messages = new AS400Message[count];
+            for (int i = 0; i < count; ++i) {
+                if (dataInput.readBoolean ())
+                    messages[i] = AS400Message.readCompact (dataInput, dictionary_);
+            }
+            value_ = messages;
+        }
+    }
+
+
+
+/**
+Returns the String representation of the datastream.
+
+@return The String representation of the datastream.
+**/
+    public String toString ()
+    {
+        return super.toString () + " (" + value_ + ")";
+    }
+
+
+
+/**
+Writes the contents of the datastream to an output stream.
+
+@param output   The output stream.
+
+@exception IOException  If an error occurs.
+**/
+    public void writeTo (OutputStream output)
+        throws IOException
+    {
+        super.writeTo (output);
+        DataOutputStream dataOutput = new DataOutputStream (output);
+        if (value_ instanceof AS400Message) {
+            dataOutput.writeInt (-1);
+            ((AS400Message) value_).writeCompact (dataOutput, dictionary_);
+        }
+        else {
+            AS400Message[] messages = (AS400Message[]) value_;
+            dataOutput.writeInt (messages.length);
+            for (int i = 0; i < messages.length; ++i) {
+                dataOutput.writeBoolean (messages[i] != null);
+                if (messages[i] != null)
+                    messages[i].writeCompact (dataOutput, dictionary_);
+            }
+        }
+    }
+
+
+
+}
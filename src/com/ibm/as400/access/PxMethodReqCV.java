@@ -40,6 +40,7 @@ Constructs a PxMethodReqCV object.
                         null if none are needed.
 @param asynchronous     true if asynchronous, false otherwise.
 @param factory          true if method creates a proxy object, false otherwise.
+@param dictionary       The dictionary of the connection.
 **/
     public PxMethodReqCV(long proxyId,
                          String methodName,
@@ -47,7 +48,8 @@ Constructs a PxMethodReqCV object.
                          Object[] arguments,
                          boolean[] returnArguments,
                          boolean asynchronous,
-                         boolean factory)
+                         boolean factory,
+                         PxDictionary dictionary)
     {
         super (ProxyConstants.DS_METHOD_REQ, asynchronous);
         addParm (new PxPxObjectParm (proxyId));
@@ -59,7 +61,7 @@ Constructs a PxMethodReqCV object.
         for (int i = 0; i < argumentCount; ++i)
             addParm (new PxClassParm (argumentClasses[i]));
         for (int i = 0; i < argumentCount; ++i) 
-            addObjectParm (arguments[i]);
+            addObjectParm (null, dictionary, arguments[i]);
         for (int i = 0; i < argumentCount; ++i)
             if (returnArguments != null)
                 addParm(new PxBooleanParm(returnArguments[i]));
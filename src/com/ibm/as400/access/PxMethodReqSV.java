@@ -31,14 +31,23 @@ extends PxReqSV
 
 
     // Private data.
+    private PxDictionary   dictionary_;
     private PxTable        pxTable_;
     //@B2D private PSConnection   connection_;
 
 
 
     public PxMethodReqSV(PxTable pxTable) //@B2D, PSConnection connection)
+    { 
+        this (pxTable, null);
+    }
+
+
+
+    public PxMethodReqSV(PxTable pxTable, PxDictionary dictionary)
     { 
         super (ProxyConstants.DS_METHOD_REQ);
+        dictionary_ = dictionary;
         pxTable_    = pxTable;
         //@B2Dconnection_ = connection;
     }
@@ -118,7 +127,7 @@ extends PxReqSV
                     pxTable_.add (returnValue);
             }
 
-            return new PxReturnRepSV (pxTable_, returnValue, arguments, returnArguments);
+            return new PxReturnRepSV (pxTable_, dictionary_, returnValue, arguments, returnArguments);
         }
         catch (InvocationTargetException e) {
             return new PxExceptionRepSV (e.getTargetException ());
@@ -0,0 +1,164 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PxRecordFormatParm.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+
+/**
+The PxRecordFormatParm class represents a RecordFormat
+parameter in a proxy datastream.  The record format is
+kept in the dictionary of the connection, so it is only
+serialized the first time it is sent.
+**/
+class PxRecordFormatParm
+extends PxDS
+implements PxParm
+{
+
+
+
+    // Private data.
+    private PxDictionary    dictionary_;
+    private Object          value_;
+
+
+
+/**
+Constructs a PxRecordFormatParm object.
+
+@param dictionary   The dictionary.
+**/
+    public PxRecordFormatParm (PxDictionary dictionary)
+    {
+        super (ProxyConstants.DS_RECORD_FORMAT_PARM);
+        dictionary_ = dictionary;
+    }
+
+
+
+/**
+Constructs a PxRecordFormatParm object.
+
+@param dictionary   The dictionary.
+@param value        The RecordFormat value.
+**/
+    public PxRecordFormatParm (PxDictionary dictionary, Object value)
+    {
+        super (ProxyConstants.DS_RECORD_FORMAT_PARM);
+        dictionary_ = dictionary;
+        value_      = value;
+    }
+
+
+
+/**
+Indicates if an object can be sent as a PxRecordFormatParm.
+
+@param object   The object.
+@return         true if the object is a RecordFormat, false otherwise.
+**/
+    static boolean canEncode (Object object)
+    {
+        return object.getClass () == RecordFormat.class;
+    }
+
+
+
+/**
+Returns a new copy of this datastream.
+
+@return A new copy of this datastream.
+
+@exception CloneNotSupportedException   If the object cannot be cloned.
+**/
+//
+// Implementation note:  This method is necessary in order to do
+//                       a deep copy of the internal object.  Otherwise,
+//                       we run into problems with multiple threads.
+    public Object clone ()
+        throws CloneNotSupportedException
+    {
+        value_ = null;
+        return super.clone ();
+    }
+
+
+
+/**
+Returns the Object value.
+
+@return The Object value.
+**/
+    public Object getObjectValue ()
+    {
+        return value_;
+    }
+
+
+
+/**
+Loads this datastream by reading from an input stream.
+
+@param input    The input stream.
+@param factory  The datastream factory.  This is sometimes
+                needed when datastreams are nested.
+
+@exception IOException  If an error occurs.
+**/
+    public void readFrom (InputStream input, PxDSFactory factory)
+        throws IOException
+    {
+        super.readFrom (input, factory);
+        DataInputStream dataInput = new DataInputStream (input);
+        value_ = dictionary_.readRecordFormat (dataInput);
+    }
+
+
+
+/**
+Returns the String representation of the datastream.
+
+@return The String representation of the datastream.
+**/
+    public String toString ()
+    {
+        return super.toString () + " (" + value_ + ")";
+    }
+
+
+
+/**
+Writes the contents of the datastream to an output stream.
+
+@param output   The output stream.
+
+@exception IOException  If an error occurs.
+**/
+    public void writeTo (OutputStream output)
+        throws IOException
+    {
+        super.writeTo (output);
+        DataOutputStream dataOutput = new DataOutputStream (output);
+        dictionary_.writeRecordFormat (dataOutput, (RecordFormat) value_);
+    }
+
+
+
+}
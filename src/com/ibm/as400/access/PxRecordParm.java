@@ -0,0 +1,264 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PxRecordParm.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+
+/**
+The PxRecordParm class represents a Record or Record array
+parameter in a proxy datastream.  Each record is sent as its
+contents, name, record numbers and null fields.  Its record
+format is kept in the dictionary of the connection, so it is
+only sent once.
+**/
+class PxRecordParm
+extends PxDS
+implements PxParm
+{
+
+
+
+    // Private data.
+    private PxDictionary    dictionary_;
+    private Object          value_;
+
+
+
+/**
+Constructs a PxRecordParm object.
+
+@param dictionary   The dictionary.
+**/
+    public PxRecordParm (PxDictionary dictionary)
+    {
+        super (ProxyConstants.DS_RECORD_PARM);
+        dictionary_ = dictionary;
+    }
+
+
+
+/**
+Constructs a PxRecordParm object.
+
+@param dictionary   The dictionary.
+@param value        The Record or Record array value.
+**/
+    public PxRecordParm (PxDictionary dictionary, Object value)
+    {
+        super (ProxyConstants.DS_RECORD_PARM);
+        dictionary_ = dictionary;
+        value_      = value;
+    }
+
+
+
+/**
+Indicates if an object can be sent as a PxRecordParm.
+
+@param object   The object.
+@return         true if the object is a Record or Record array
+                whose records can all be sent as their contents,
+                false otherwise.
+**/
+    static boolean canEncode (Object object)
+    {
+        if (object.getClass () == Record.class)
+            return ((Record) object).getUnconvertedContents () != null;
+
+        if (object.getClass () == Record[].class) {
+            Record[] records = (Record[]) object;
+            for (int i = 0; i < records.length; ++i) {
+                if ((records[i] != null)
+                    && ((records[i].getClass () != Record.class)
+                        || (records[i].getUnconvertedContents () == null)))
+                    return false;
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+
+
+/**
+Returns a new copy of this datastream.
+
+@return A new copy of this datastream.
+
+@exception CloneNotSupportedException   If the object cannot be cloned.
+**/
+//
+// Implementation note:  This method is necessary in order to do
+//                       a deep copy of the internal object.  Otherwise,
+//                       we run into problems with multiple threads.
+    public Object clone ()
+        throws CloneNotSupportedException
+    {
+        value_ = null;
+        return super.clone ();
+    }
+
+
+
+/**
+Returns the Object value.
+
+@return The Object value.
+**/
+    public Object getObjectValue ()
+    {
+        return value_;
+    }
+
+
+
+/**
+Loads this datastream by reading from an input stream.
+
+@param input    The input stream.
+@param factory  The datastream factory.  This is sometimes
+                needed when datastreams are nested.
+
+@exception IOException  If an error occurs.
+**/
+    public void readFrom (InputStream input, PxDSFactory factory)
+        throws IOException
+    {
+        super.readFrom (input, factory);
+        DataInputStream dataInput = new DataInputStream (input);
+        int count = dataInput.readInt ();
+        if (count < 0)
+            value_ = readRecord (dataInput);
+        else {
+            Record[] records = new Record[count];
+            for (int i = 0; i < count; ++i) {
+                if (dataInput.readBoolean ())
+                    records[i] = readRecord (dataInput);
+            }
+            value_ = records;
+        }
+    }
+
+
+
+/**
+Reads one record.
+**/
+    private Record readRecord (DataInputStream input)
+        throws IOException
+    {
+        RecordFormat recordFormat = dictionary_.readRecordFormat (input);
+        String recordName = dictionary_.readString (input);
+        int recordNumber = input.readInt ();
+        long recordNumberLong = input.readLong ();
+        byte[] contents = new byte[input.readInt ()];
+        input.readFully (contents);
+        boolean[] nullFieldMap = null;
+        int nullFieldCount = input.readInt ();
+        if (nullFieldCount > 0) {
+            nullFieldMap = new boolean[recordFormat.getNumberOfFields ()];
+            for (int i = 0; i < nullFieldCount; ++i)
+                nullFieldMap[input.readInt ()] = true;
+        }
+
+        Record record = (recordName == null)
+                        ? new Record (recordFormat, contents)
+                        : new Record (recordFormat, contents, recordName);
+        record.recordNumber_        = recordNumber;
+        record.recordNumberLong_    = recordNumberLong;
+        if (nullFieldMap != null)
+            record.setNullFieldMap (nullFieldMap);
+        return record;
+    }
+
+
+
+/**
+Returns the String representation of the datastream.
+
+@return The String representation of the datastream.
+**/
+    public String toString ()
+    {
+        return super.toString () + " (" + value_ + ")";
+    }
+
+
+
+/**
+Writes the contents of the datastream to an output stream.
+
+@param output   The output stream.
+
+@exception IOException  If an error occurs.
+**/
+    public void writeTo (OutputStream output)
+        throws IOException
+    {
+        super.writeTo (output);
+        DataOutputStream dataOutput = new DataOutputStream (output);
+        if (value_ instanceof Record) {
+            dataOutput.writeInt (-1);
+            writeRecord (dataOutput, (Record) value_);
+        }
+        else {
+            Record[] records = (Record[]) value_;
+            dataOutput.writeInt (records.length);
+            for (int i = 0; i < records.length; ++i) {
+                dataOutput.writeBoolean (records[i] != null);
+                if (records[i] != null)
+                    writeRecord (dataOutput, records[i]);
+            }
+        }
+    }
+
+
+
+/**
+Writes one record.
+**/
+    private void writeRecord (DataOutputStream output, Record record)
+        throws IOException
+    {
+        byte[] contents = record.getUnconvertedContents ();
+        dictionary_.writeRecordFormat (output, record.getRecordFormat ());
+        dictionary_.writeString (output, record.getRecordName ());
+        output.writeInt (record.recordNumber_);
+        output.writeLong (record.recordNumberLong_);
+        output.writeInt (contents.length);
+        output.write (contents);
+
+        boolean[] nullFieldMap = record.getNullFieldMap ();
+        int nullFieldCount = 0;
+        for (int i = 0; i < nullFieldMap.length; ++i) {
+            if (nullFieldMap[i])
+                ++nullFieldCount;
+        }
+        output.writeInt (nullFieldCount);
+        for (int i = 0; i < nullFieldMap.length; ++i) {
+            if (nullFieldMap[i])
+                output.writeInt (i);
+        }
+    }
+
+
+
+}
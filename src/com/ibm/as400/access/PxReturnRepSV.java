@@ -31,13 +31,24 @@ extends PxRepSV
                          Object returnValue,
                          Object[] arguments,
                          boolean[] returnArguments)
+    {
+        this (pxTable, null, returnValue, arguments, returnArguments);
+    }
+
+
+
+    public PxReturnRepSV(PxTable pxTable,
+                         PxDictionary dictionary,
+                         Object returnValue,
+                         Object[] arguments,
+                         boolean[] returnArguments)
     {
         super (ProxyConstants.DS_RETURN_REP);
-        addObjectParm (pxTable, returnValue);
+        addObjectParm (pxTable, dictionary, returnValue);
         addParm (new PxIntParm (arguments.length));
         for (int i = 0; i < arguments.length; ++i) {
             if (returnArguments[i])
-                addObjectParm(pxTable, arguments[i]);
+                addObjectParm(pxTable, dictionary, arguments[i]);
             else
                 addParm(new PxNullParm());
         }
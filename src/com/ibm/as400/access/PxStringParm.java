@@ -155,14 +155,7 @@ Loads this datastream by reading from an input stream.
             byte[] buffer = new byte[length];
             
             // @A1D StringBuffer value = new StringBuffer();
-            int leftToRead = length;
-            int bytesRead = 0;                                              // @A1A
-            while (leftToRead > 0) {            
-                int count = input.read(buffer, bytesRead, leftToRead);      // @A1C
-                // @A1D value.append(new String(buffer, 0, count, ENCODING_)); 
-                leftToRead -= count;
-                bytesRead += count;                                         // @A1A
-            }
+            dataInput.readFully(buffer);                                    // @A1C
             value_ = new String(buffer, 0, length, ENCODING_);              // @A1C
         }
         else
@@ -27,20 +27,24 @@ class PxTunnelConnectReqSV extends PxReqSV
 	// Private data.
 	private Hashtable    clientIds_;  
 	private PSTunnelController controller_;
+	private PSLoad       load_;
 
 	/**
 	Constructs a PxTunnelConnectReqSV object.
 	                                                             
 	@param controller               The controller.
 	@param clientIds                The list of client ids.
+	@param load                     The load, which holds the compression threshold.
 	**/
 	public PxTunnelConnectReqSV (PSTunnelController controller,
-								 Hashtable clientIds) 
+								 Hashtable clientIds,
+								 PSLoad load) 
 	{
 		super (ProxyConstants.DS_CONNECT_TUNNEL_REQ);
 
 		controller_             = controller;
 		clientIds_              = clientIds;  
+		load_                   = load;
 	}
 
 	// Processes the request.
@@ -51,7 +55,14 @@ class PxTunnelConnectReqSV extends PxReqSV
 		PSTunnelConnection connection = new PSTunnelConnection (controller_.getConnectionId()); 
 		long clientId = controller_.getNextClientId();                                          
 		clientIds_.put(new Long(clientId), connection);                             
-		reply = new PxAcceptRepSV();                                                                   
+		// Clients that can read compressed frames send the algorithm they want after the compact version, which is not used when tunneling.  The replies are only compressed if this server allows it.
+		if (getParmCount() > 4 && ((PxIntParm)getParm(4)).getIntValue() == ProxyConstants.COMPRESSION_DEFLATE && load_.getCompressionThreshold() >= 0)
+		{
+			connection.setCompression(new PxCompression(ProxyConstants.COMPRESSION_DEFLATE, load_.getCompressionThreshold()));
+			reply = new PxAcceptRepSV(0, ProxyConstants.COMPRESSION_DEFLATE);
+		}
+		else
+			reply = new PxAcceptRepSV();                                                                   
 		reply.setClientId(clientId);    
 
 		//Verbose.println(ResourceBundleLoader.substitute(PROXY_CONNECTION_ACCEPTED_, new Object[] { controller_, controller_.getClientAddress(), Long.toString(controller_.getConnectionId())} ));
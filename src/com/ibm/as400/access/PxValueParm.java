@@ -0,0 +1,239 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PxValueParm.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+
+
+/**
+The PxValueParm class represents a parameter in a proxy
+datastream whose value is one of the data values that are
+returned for the columns of a result set, or a byte array.
+These would otherwise be serialized one at a time.
+**/
+class PxValueParm
+extends PxDS
+implements PxParm
+{
+
+
+
+    // The kinds of values.
+    private static final byte       BYTES_              = 1;
+    private static final byte       BIG_DECIMAL_        = 2;
+    private static final byte       DATE_               = 3;
+    private static final byte       TIME_               = 4;
+    private static final byte       TIMESTAMP_          = 5;
+
+
+
+    // Private data.
+    private Object                  value_;
+
+
+
+/**
+Constructs a PxValueParm object.
+**/
+    public PxValueParm ()
+    {
+        super (ProxyConstants.DS_VALUE_PARM);
+    }
+
+
+
+/**
+Constructs a PxValueParm object.
+
+@param value    The value.
+**/
+    public PxValueParm (Object value)
+    {
+        super (ProxyConstants.DS_VALUE_PARM);
+        value_ = value;
+    }
+
+
+
+/**
+Indicates if an object can be sent as a PxValueParm.
+
+@param object   The object.
+@return         true if the object is a byte array, BigDecimal,
+                java.sql.Date, Time or Timestamp, false otherwise.
+                Subclasses are serialized instead.
+**/
+    static boolean canEncode (Object object)
+    {
+        Class clazz = object.getClass ();
+        return (clazz == byte[].class)
+            || (clazz == BigDecimal.class)
+            || (clazz == java.sql.Date.class)
+            || (clazz == Time.class)
+            || (clazz == Timestamp.class);
+    }
+
+
+
+/**
+Returns a new copy of this datastream.
+
+@return A new copy of this datastream.
+
+@exception CloneNotSupportedException   If the object cannot be cloned.
+**/
+//
+// Implementation note:  This method is necessary in order to do
+//                       a deep copy of the internal object.  Otherwise,
+//                       we run into problems with multiple threads.
+    public Object clone ()
+        throws CloneNotSupportedException
+    {
+        value_ = null;
+        return super.clone ();
+    }
+
+
+
+/**
+Returns the Object value.
+
+@return The Object value.
+**/
+    public Object getObjectValue ()
+    {
+        return value_;
+    }
+
+
+
+/**
+Loads this datastream by reading from an input stream.
+
+@param input    The input stream.
+@param factory  The datastream factory.  This is sometimes
+                needed when datastreams are nested.
+
+@exception IOException  If an error occurs.
+**/
+    public void readFrom (InputStream input, PxDSFactory factory)
+        throws IOException
+    {
+        super.readFrom (input, factory);
+        DataInputStream dataInput = new DataInputStream (input);
+        byte kind = dataInput.readByte ();
+        switch (kind) {
+            case BYTES_: {
+                byte[] bytes = new byte[dataInput.readInt ()];
+                dataInput.readFully (bytes);
+                value_ = bytes;
+                break;
+            }
+
+            case BIG_DECIMAL_: {
+                int scale = dataInput.readInt ();
+                byte[] unscaledValue = new byte[dataInput.readInt ()];
+                dataInput.readFully (unscaledValue);
+                value_ = new BigDecimal (new BigInteger (unscaledValue), scale);
+                break;
+            }
+
+            case DATE_:
+                value_ = new java.sql.Date (dataInput.readLong ());
+                break;
+
+            case TIME_:
+                value_ = new Time (dataInput.readLong ());
+                break;
+
+            case TIMESTAMP_: {
+                Timestamp timestamp = new Timestamp (dataInput.readLong ());
+                timestamp.setNanos (dataInput.readInt ());
+                value_ = timestamp;
+                break;
+            }
+
+            default:
+                throw new IOException ("Value kind " + kind + " is not valid.");
+        }
+    }
+
+
+
+/**
+Returns the String representation of the datastream.
+
+@return The String representation of the datastream.
+**/
+    public String toString ()
+    {
+        return super.toString () + " (" + value_ + ")";
+    }
+
+
+
+/**
+Writes the contents of the datastream to an output stream.
+
+@param output   The output stream.
+
+@exception IOException  If an error occurs.
+**/
+    public void writeTo (OutputStream output)
+        throws IOException
+    {
+        super.writeTo (output);
+        DataOutputStream dataOutput = new DataOutputStream (output);
+        if (value_ instanceof byte[]) {
+            byte[] bytes = (byte[]) value_;
+            dataOutput.writeByte (BYTES_);
+            dataOutput.writeInt (bytes.length);
+            dataOutput.write (bytes);
+        }
+        else if (value_ instanceof BigDecimal) {
+            BigDecimal bigDecimal = (BigDecimal) value_;
+            byte[] unscaledValue = bigDecimal.unscaledValue ().toByteArray ();
+            dataOutput.writeByte (BIG_DECIMAL_);
+            dataOutput.writeInt (bigDecimal.scale ());
+            dataOutput.writeInt (unscaledValue.length);
+            dataOutput.write (unscaledValue);
+        }
+        else if (value_ instanceof java.sql.Date) {
+            dataOutput.writeByte (DATE_);
+            dataOutput.writeLong (((java.sql.Date) value_).getTime ());
+        }
+        else if (value_ instanceof Time) {
+            dataOutput.writeByte (TIME_);
+            dataOutput.writeLong (((Time) value_).getTime ());
+        }
+        else {
+            Timestamp timestamp = (Timestamp) value_;
+            dataOutput.writeByte (TIMESTAMP_);
+            dataOutput.writeLong (timestamp.getTime ());
+            dataOutput.writeInt (timestamp.getNanos ());
+        }
+    }
+
+
+
+}
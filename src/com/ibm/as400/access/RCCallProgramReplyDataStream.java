@@ -28,6 +28,12 @@ class RCCallProgramReplyDataStream extends ClientAccessDataStream
         return 0x8003;
     }
 
+    // The output parameters and messages are copied out of the reply, so the reply can be received into an arena buffer.
+    boolean usesBufferArena()
+    {
+        return true;
+    }
+
     int getRC()
     {
         return get16bit(20);
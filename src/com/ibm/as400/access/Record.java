@@ -42,6 +42,7 @@ import java.beans.PropertyChangeListener;
 import java.beans.VetoableChangeListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyVetoException;
+import java.util.Arrays;
 import java.util.Vector;
 
 /**
@@ -108,7 +109,8 @@ public class Record implements Serializable
   long recordNumberLong_;//@RBA
   // Array to hold fields returned by getFields.  This allows us to not
   // instantiate a new array every time getFields is done, which allows
-  // us to cut down on garbage collection overhead.
+  // us to cut down on garbage collection overhead.  It is allocated by the
+  // first getFields.
   Object[] returnFields_;
   // The list of current veto listeners
   transient private VetoableChangeSupport vetos_; //@B5A
@@ -257,45 +259,22 @@ public class Record implements Serializable
       throw new ExtendedIllegalArgumentException("offset", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
     }
 
-    // Set the instance data
+    // Set the instance data.  The field descriptions, offsets and record length
+    // come from the compiled layout of the record format, which is shared by
+    // all the records of the format.
     recordFormat_ = recordFormat;
-    fieldDescriptions_ = recordFormat.getFieldDescriptions();
-    hasDependentFields_ = recordFormat_.getHasDependentFields();
+    RecordLayout layout = recordFormat.getLayout();
+    fieldDescriptions_ = layout.fieldDescriptions_;
+    hasDependentFields_ = layout.hasDependentFields_;
+    fieldOffsets_ = layout.fieldOffsets_;
+    recordLength_ = layout.recordLength_;
     fields_ = new Object[fieldDescriptions_.length];
-    returnFields_ = new Object[fieldDescriptions_.length];
-    fieldOffsets_ = new int[fieldDescriptions_.length];
-    // Initialize the offset values
     isConvertedToJava_ = new boolean[fieldDescriptions_.length];
     isConvertedToAS400_ = new boolean[fieldDescriptions_.length];
     nullFieldMap_ = new boolean[fields_.length];
-    FieldDescription fd = null;
-    int fieldOffset = 0;
-    int length = 0;
-    // Reset the record length
-    recordLength_ = 0;
-
-    // This loop sets the offsets for the fields and also determines the
-    // record length of the record.
-    for (int i = 0; i < fields_.length; ++i)
+    if (!hasDependentFields_)
     {
-      fd = fieldDescriptions_[i];
-      fieldOffsets_[i] = fieldOffset;
-      if (fd instanceof VariableLengthFieldDescription)
-      {
-        if (((VariableLengthFieldDescription)fd).isVariableLength())
-        { // Add two bytes for the length of the field
-          fieldOffset += 2;
-          recordLength_ += 2;
-        }
-      }
-      length = fd.getDataType().getByteLength();
-      fieldOffset += length;
-      recordLength_ += length;
-      if (!hasDependentFields_)
-      {
-        isConvertedToAS400_[i] = true;
-      }
-      isConvertedToJava_[i] = false;
+      Arrays.fill(isConvertedToAS400_, true);
     }
     // Allocate the space for as400Data_ now that we know the record length
     as400Data_ = new byte[recordLength_];
@@ -576,6 +555,58 @@ public class Record implements Serializable
     return as400Data_;
   }
 
+  /**
+   *Returns the contents of this record as they are kept, without converting any fields.
+   *This is used by the proxy datastreams to send a record as its contents and null field
+   *map.  It returns null if a record created from the contents could differ from this one:
+   *if the record has dependent fields, if a field other than a null field has been converted
+   *to a Java object or set (since the object may not be the one the contents convert to),
+   *or if the record format has changed since the record was created.
+   *@return The contents of this record, or null.
+  **/
+  byte[] getUnconvertedContents()
+  {
+    if (recordFormat_ == null || hasDependentFields_ ||
+        recordLength_ == 0 || fields_.length != recordFormat_.getNumberOfFields())
+    {
+      return null;
+    }
+    for (int i = 0; i < fields_.length; ++i)
+    {
+      if (!isConvertedToAS400_[i] || (isConvertedToJava_[i] && !nullFieldMap_[i])) return null;
+    }
+    return as400Data_;
+  }
+
+  /**
+   *Returns the null field map of this record.  The caller must not change it.
+   *@return The null field map.
+  **/
+  boolean[] getNullFieldMap()
+  {
+    return nullFieldMap_;
+  }
+
+  /**
+   *Marks fields as null without firing any events.  This is used by the proxy
+   *datastreams after creating a record from contents returned by
+   *getUnconvertedContents().  The contents already hold the default values
+   *for the null fields.
+   *@param nullFieldMap The null field map.
+  **/
+  void setNullFieldMap(boolean[] nullFieldMap)
+  {
+    for (int i = 0; i < nullFieldMap.length && i < fields_.length; ++i)
+    {
+      if (nullFieldMap[i])
+      {
+        fields_[i] = null;
+        isConvertedToJava_[i] = true;
+        nullFieldMap_[i] = true;
+      }
+    }
+  }
+
   /**
    *Writes the contents of this record to the specified output stream.
    *Each field's contents will be written to <i>out</i>
@@ -828,6 +859,10 @@ public class Record implements Serializable
       return new Object[0];
     }
 
+    if (returnFields_ == null)
+    {
+      returnFields_ = new Object[fields_.length];
+    }
     // Get each field individually in the event that conversion has not yet been done.
     for (int i = 0; i < fields_.length; ++i)
     {
@@ -999,7 +1034,7 @@ public class Record implements Serializable
     fieldDescriptions_ = recordFormat.getFieldDescriptions();
     hasDependentFields_ = recordFormat_.getHasDependentFields();
     fields_ = new Object[fieldDescriptions_.length];
-    returnFields_ = new Object[fieldDescriptions_.length];
+    returnFields_ = null;
     fieldOffsets_ = new int[fieldDescriptions_.length];
     isConvertedToJava_ = new boolean[fieldDescriptions_.length];
     isConvertedToAS400_ = new boolean[fieldDescriptions_.length];
@@ -1471,6 +1506,33 @@ public class Record implements Serializable
     }
   }
 
+  /**
+   *Repoints this record at the record data that starts at <i>offset</i> in <i>contents</i>.
+   *The record level access classes use this to pass one Record over each record of a
+   *block that was read, instead of constructing a new Record for each.  The data is
+   *copied into this record; nothing else is allocated, and the fields are converted
+   *when they are retrieved.  All fields are marked as not null.
+   *@param contents The data with which to set the contents of this record.
+   *@param offset The offset in <i>contents</i> at which to start.
+   *@exception UnsupportedEncodingException If an error occurs when converting
+   *the IBM i data to a Java Object.
+  **/
+  void load(byte[] contents, int offset)
+    throws UnsupportedEncodingException
+  {
+    Arrays.fill(nullFieldMap_, false);
+    if (hasDependentFields_)
+    { // The field offsets depend on the data, so the fields are converted now.
+      setContents(contents, offset);
+      return;
+    }
+    System.arraycopy(contents, offset, as400Data_, 0, as400Data_.length);
+    // Release the values converted from the previous record.
+    Arrays.fill(fields_, null);
+    Arrays.fill(isConvertedToJava_, false);
+    Arrays.fill(isConvertedToAS400_, true);
+  }
+
   /**
    *Sets the contents of this record from the specified input stream.
    *The contents of each field will be set from <i>in</i> based on the field description for the
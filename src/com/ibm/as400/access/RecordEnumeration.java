@@ -0,0 +1,246 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: RecordEnumeration.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+
+/**
+ *The RecordEnumeration class reads all the records of a file a block at a
+ *time.  It is returned by SequentialFile.readAllRecords() and
+ *KeyedFile.readAllRecords(), and is meant for files that are too large for
+ *readAll(), which returns every record at once.
+ *<p>
+ *Only the block of records being processed and the blocks requested ahead of it
+ *are held in memory.  The system reads the next blocks while the current block is
+ *processed, so the round trip for each block overlaps the work of the caller.
+ *<p>
+ *The file is opened when the enumeration is created.  It is closed when the last
+ *record has been returned or when close() is called, and it must not be used
+ *otherwise in the meantime.  Callers that may stop before the end of the file
+ *should call close():
+ *<pre>
+ *  RecordEnumeration records = file.readAllRecords();
+ *  try
+ *  {
+ *    for (Record record = records.nextRecord(); record != null; record = records.nextRecord())
+ *    {
+ *      ...
+ *    }
+ *  }
+ *  finally
+ *  {
+ *    records.close();
+ *  }
+ *</pre>
+ *<p>
+ *By default each record is a new Record object.  Callers that are done with each
+ *record before they ask for the next one can call setReuseRecords(true), so that
+ *the Record objects of a block are repointed at the records of the following
+ *blocks instead of new ones being created for every record read.
+ *<p>
+ *PartitionedFileReader also returns its records as RecordEnumeration objects.
+**/
+public class RecordEnumeration implements Enumeration
+{
+  // The file being read.  Null when the blocks come from a subclass.
+  private AS400File file_;
+  // Indicates if the record numbers are set as long values.
+  private boolean longRecordNumbers_;
+  // Indicates if the file has been closed.
+  private boolean closed_;
+  // The block of records being returned, and the position of the next record in it.
+  private Record[] block_;
+  private int next_;
+  // The exception hasMoreElements() got while reading the next block.
+  private Exception exception_;
+  // Indicates if the records of a block are reused for the next block.
+  private boolean reuseRecords_;
+
+  RecordEnumeration(AS400File file, boolean longRecordNumbers)
+  {
+    file_ = file;
+    longRecordNumbers_ = longRecordNumbers;
+  }
+
+  // Used by subclasses that override readBlock() and endRead().
+  RecordEnumeration()
+  {
+  }
+
+  /**
+   *Closes the file.  The records not yet returned are discarded.  Closing an
+   *enumeration that is already closed has no effect.
+   *@exception AS400Exception If the system returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the system.
+  **/
+  public void close()
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    block_ = null;
+    if (!closed_)
+    {
+      closed_ = true;
+      endRead();
+    }
+  }
+
+  /**
+   *Indicates if there are more records.  If the next block of records can not
+   *be read, true is returned and nextElement() throws a NoSuchElementException;
+   *use nextRecord() to get the exception itself.
+   *@return true if there are more records; false otherwise.
+  **/
+  public boolean hasMoreElements()
+  {
+    if (exception_ != null) return true;
+    try
+    {
+      return fill();
+    }
+    catch (Exception e)
+    {
+      Trace.log(Trace.ERROR, "Exception while reading the next block in RecordEnumeration:", e);
+      exception_ = e;
+      return true;
+    }
+  }
+
+  /**
+   *Returns the next record.
+   *@return The next record.
+   *@exception NoSuchElementException If there are no more records, or if the next block
+   *of records could not be read.
+  **/
+  public Object nextElement()
+  {
+    if (exception_ == null)
+    {
+      try
+      {
+        Record record = nextRecord();
+        if (record != null) return record;
+      }
+      catch (Exception e)
+      {
+        Trace.log(Trace.ERROR, "Exception while loading nextElement() in RecordEnumeration:", e);
+      }
+    }
+    throw new NoSuchElementException();
+  }
+
+  /**
+   *Returns the next record.  When the end of the file is reached, the file is
+   *closed and null is returned.
+   *@return The next record, or null if there are no more records.
+   *@exception AS400Exception If the system returns an error message.
+   *@exception AS400SecurityException If a security or authority error occurs.
+   *@exception InterruptedException If this thread is interrupted.
+   *@exception IOException If an error occurs while communicating with the system.
+  **/
+  public Record nextRecord()
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    if (!fill()) return null;
+    Record record = block_[next_];
+    if (reuseRecords_)
+    { // The block is kept so its records can be repointed at the next block.
+      ++next_;
+    }
+    else
+    { // Let the caller decide how long the record is kept.
+      block_[next_++] = null;
+    }
+    return record;
+  }
+
+  /**
+   *Indicates if the Record objects are reused.
+   *@return true if the Record objects are reused; false otherwise.
+   *@see #setReuseRecords
+  **/
+  public boolean isReuseRecords()
+  {
+    return reuseRecords_;
+  }
+
+  /**
+   *Sets whether the Record objects are reused.  When they are, the records of
+   *each block read are loaded into the Record objects of the previous block, so
+   *that reading a large file does not create a Record object for every record.
+   *A record returned by nextRecord() or nextElement() must then not be used after
+   *the next call to hasMoreElements(), nextElement() or nextRecord().  Records are only reused when the file is
+   *accessed through a remote connection.  The default is false.
+   *@param reuseRecords true to reuse the Record objects; false otherwise.
+  **/
+  public void setReuseRecords(boolean reuseRecords)
+  {
+    reuseRecords_ = reuseRecords;
+  }
+
+  // Makes sure block_ has a record to return, reading the next block if needed.
+  // Returns false at the end of the file.
+  private boolean fill()
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    while (block_ == null || next_ >= block_.length)
+    {
+      Record[] previous = (reuseRecords_)? block_ : null;
+      block_ = null;
+      if (closed_) return false;
+      Record[] block = readBlock(previous);
+      if (block == null)
+      {
+        close();
+        return false;
+      }
+      block_ = block;
+      next_ = 0;
+    }
+    return true;
+  }
+
+  // Returns the next block of records, or null at the end of the file.  The
+  // records of the previous block may be reused if it is not null.
+  Record[] readBlock(Record[] previous)
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    return file_.readAllNext(longRecordNumbers_, previous);
+  }
+
+  // Closes the file.  Called once, by close().
+  void endRead()
+    throws AS400Exception,
+           AS400SecurityException,
+           InterruptedException,
+           IOException
+  {
+    file_.endReadAll();
+  }
+}
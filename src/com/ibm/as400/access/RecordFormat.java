@@ -130,6 +130,8 @@ public class RecordFormat implements Serializable
 //@B0D  transient private Vector currentRecordDescriptionListeners_ = new Vector(); //@B0C
   transient private Vector rdListeners_; //@B0C
   transient private VetoableChangeSupport vetos_; //@B0C
+  // The compiled layout of this format, built when a record is first created from it.
+  transient private RecordLayout layout_;
 
   /**
    *Constructs a RecordFormat object.<br>
@@ -180,6 +182,7 @@ public class RecordFormat implements Serializable
     lengthDependentFields_.addElement(NOT_DEPENDENT_);
     // Indicate that this field is not a dependent field
     offsetDependentFields_.addElement(NOT_DEPENDENT_);
+    layout_ = null;
 
     // Fire FIELD_DESCRIPTION_ADDED event
     //@B0D - removed event firing code block
@@ -696,6 +699,23 @@ public class RecordFormat implements Serializable
     return new Record(this, contents, offset, recordName);
   }
 
+  /**
+   *Returns the compiled layout of this record format.  The layout is built
+   *the first time it is needed and rebuilt only when the format or the
+   *data type of one of its fields has changed.
+   *@return The layout of this record format.
+  **/
+  RecordLayout getLayout()
+  {
+    RecordLayout layout = layout_;
+    if (layout == null || !layout.isCurrent())
+    {
+      layout = new RecordLayout(getFieldDescriptions(), hasDependentFields_);
+      layout_ = layout;
+    }
+    return layout;
+  }
+
   /**
    *Returns the number of field descriptions in this record format.
    *@return The number of field descriptions in this record format.
@@ -944,6 +964,7 @@ public class RecordFormat implements Serializable
     }
     lengthDependentFields_.setElementAt(new Integer(fieldDependedOn), dependentField);
     hasDependentFields_ = true;
+    layout_ = null;
   }
 
   /**
@@ -1021,6 +1042,7 @@ public class RecordFormat implements Serializable
     }
     offsetDependentFields_.setElementAt(new Integer(fieldDependedOn), dependentField);
     hasDependentFields_ = true;
+    layout_ = null;
   }
 
   /**
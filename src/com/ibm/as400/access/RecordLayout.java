@@ -0,0 +1,99 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: RecordLayout.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 1997-2018 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+/**
+ *The compiled layout of a RecordFormat.  The field descriptions, their data
+ *types, the offset and length of each field and the record length are
+ *worked out once and shared by every Record built from the format, instead of
+ *being recomputed for each record read.
+ *<p>
+ *A layout describes the format as it was when the layout was built.  The
+ *RecordFormat discards it when a field description is added or a dependency is
+ *set, and replaces it when isCurrent() finds that a field's data type has
+ *changed.
+**/
+final class RecordLayout
+{
+  // The field descriptions of the format.  Records share this array and must
+  // not change it.
+  final FieldDescription[] fieldDescriptions_;
+  // The data type of each field when the layout was built.  The data type
+  // holds the converter for the field.
+  final AS400DataType[] dataTypes_;
+  // The offset of each field in the record data.  For a variable length
+  // field this is the offset of the two byte length that precedes the data.
+  // Records share this array and must not change it.
+  final int[] fieldOffsets_;
+  // The maximum byte length of each field, not counting the two byte length
+  // of a variable length field.
+  final int[] fieldLengths_;
+  // Indicates which fields are variable length.
+  final boolean[] isVariableLength_;
+  // The length of the record, in bytes.
+  final int recordLength_;
+  // Indicates if the format has length or offset dependent fields.  The
+  // offsets are not valid for such a format.
+  final boolean hasDependentFields_;
+
+  RecordLayout(FieldDescription[] fieldDescriptions, boolean hasDependentFields)
+  {
+    int numFields = fieldDescriptions.length;
+    fieldDescriptions_ = fieldDescriptions;
+    dataTypes_ = new AS400DataType[numFields];
+    fieldOffsets_ = new int[numFields];
+    fieldLengths_ = new int[numFields];
+    isVariableLength_ = new boolean[numFields];
+    hasDependentFields_ = hasDependentFields;
+
+    int offset = 0;
+    for (int i = 0; i < numFields; ++i)
+    {
+      FieldDescription fd = fieldDescriptions[i];
+      fieldOffsets_[i] = offset;
+      if (fd instanceof VariableLengthFieldDescription && ((VariableLengthFieldDescription)fd).isVariableLength())
+      { // Add two bytes for the length of the field
+        isVariableLength_[i] = true;
+        offset += 2;
+      }
+      dataTypes_[i] = fd.getDataType();
+      fieldLengths_[i] = dataTypes_[i].getByteLength();
+      offset += fieldLengths_[i];
+    }
+    recordLength_ = offset;
+  }
+
+  /**
+   *Indicates if the field descriptions still have the data types, lengths
+   *and variable length settings they had when this layout was built.
+   *@return true if the layout still describes the format; false otherwise.
+  **/
+  boolean isCurrent()
+  {
+    for (int i = 0; i < fieldDescriptions_.length; ++i)
+    {
+      FieldDescription fd = fieldDescriptions_[i];
+      AS400DataType dataType = fd.dataType_;
+      if (dataType != dataTypes_[i] || dataType.getByteLength() != fieldLengths_[i])
+      {
+        return false;
+      }
+      if (fd instanceof VariableLengthFieldDescription && ((VariableLengthFieldDescription)fd).isVariableLength() != isVariableLength_[i])
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+}
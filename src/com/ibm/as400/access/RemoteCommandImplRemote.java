@@ -579,10 +579,12 @@ class RemoteCommandImplRemote implements RemoteCommandImpl
             {
                 // Set the output data into parameter list.
                 reply.getParameterList(parameterList);
+                reply.releaseBuffer();
                 messageList_ = new AS400Message[0];
                 return true;
             }
             messageList_ = reply.getMessageList(converter_);
+            reply.releaseBuffer();
             if (rc == 0x0500 && messageList_.length != 0)
             {
                 String id = messageList_[messageList_.length - 1].getID();
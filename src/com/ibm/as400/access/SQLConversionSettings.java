@@ -115,8 +115,19 @@ Constructs a SQLConversionSettings object.
     private SQLConversionSettings (AS400JDBCConnection connection)
         throws SQLException
     {
-        JDProperties properties = connection.getProperties ();
+        this (connection.getProperties ());
+    }
+
+
 
+/**
+Constructs a SQLConversionSettings object from connection properties.
+This does not need a connection, so data can be converted offline.
+
+@param  properties  The connection properties.
+**/
+    SQLConversionSettings (JDProperties properties)
+    {
         dateFormat_         = properties.getIndex (JDProperties.DATE_FORMAT);
         dateSeparator_      = properties.getString (JDProperties.DATE_SEPARATOR);
         decimalSeparator_   = properties.getString (JDProperties.DECIMAL_SEPARATOR);
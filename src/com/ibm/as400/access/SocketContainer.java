@@ -18,6 +18,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.SocketChannel;
 
 abstract class SocketContainer
 {
@@ -27,4 +28,11 @@ abstract class SocketContainer
     abstract OutputStream getOutputStream() throws IOException;
     abstract void setSoTimeout(int timeout) throws SocketException; 
     abstract int  getSoTimeout() throws SocketException; 
+
+    // Returns the channel backing the socket, or null if the socket was not created from a channel.
+    // Only a channel backed socket can be serviced by AS400MultiplexedReader.
+    SocketChannel getChannel()
+    {
+        return null;
+    }
 }
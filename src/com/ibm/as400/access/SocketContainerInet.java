@@ -18,6 +18,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.SocketChannel;
 
 class SocketContainerInet extends SocketContainer
 {
@@ -50,4 +51,9 @@ class SocketContainerInet extends SocketContainer
     void setSoTimeout(int timeout) throws SocketException {
       socket_.setSoTimeout(timeout); 
     }
+
+    SocketChannel getChannel()
+    {
+        return socket_.getChannel();
+    }
 }
@@ -59,6 +59,30 @@ public class SystemProperties
      **/
     public static final String AS400_PROXY_SERVER = ACCESS_PREFIX + "AS400.proxyServer";
 
+    /**
+     Specifies the compression that the client asks the proxy server to use for the datastreams sent over the proxy connection.
+     Both ends compress only the datastreams which are at least as large as their threshold.
+     Older proxy servers ignore the request and the datastreams are not compressed.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.proxyCompression
+     <li>Values/syntax: <tt>none</tt> or <tt>deflate</tt>
+     <li>Default: <tt>none</tt>
+     <li>Overridden by: Nothing
+     </ul>
+     **/
+    public static final String AS400_PROXY_COMPRESSION = ACCESS_PREFIX + "AS400.proxyCompression";
+
+    /**
+     Specifies the size, in bytes, of the smallest datastream that the client compresses when {@link #AS400_PROXY_COMPRESSION AS400_PROXY_COMPRESSION} is used.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.proxyCompressionThreshold
+     <li>Values/syntax: A non-negative integer
+     <li>Default: <tt>1024</tt>
+     <li>Overridden by: Nothing
+     </ul>
+     **/
+    public static final String AS400_PROXY_COMPRESSION_THRESHOLD = ACCESS_PREFIX + "AS400.proxyCompressionThreshold";
+
     /**
      Specifies the name of the default signon handler class used by the {@link AS400 AS400} class.
      <ul>
@@ -127,6 +151,66 @@ public class SystemProperties
      **/
     public static final String AS400_THREAD_USED = ACCESS_PREFIX + "AS400.threadUsed";
 
+    /**
+     Specifies whether the replies from the host servers are received by shared, selector driven reader threads instead of one thread per connection.
+     This only applies when threads are used (see {@link #AS400_THREAD_USED AS400_THREAD_USED}), and only to non-SSL Internet domain socket connections to the client access host servers.  Record level access and secure connections always use a thread per connection.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.multiplexedReader
+     <li>Values/syntax: <tt>true</tt> or <tt>false</tt>
+     <li>Default: <tt>false</tt>
+     <li>Overridden by: Nothing
+     </ul>
+     **/
+    public static final String AS400_MULTIPLEXED_READER = ACCESS_PREFIX + "AS400.multiplexedReader";
+
+    /**
+     Specifies the number of shared reader threads used when {@link #AS400_MULTIPLEXED_READER AS400_MULTIPLEXED_READER} is <tt>true</tt>.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.multiplexedReaderThreads
+     <li>Values/syntax: A positive integer
+     <li>Default: <tt>1</tt>
+     <li>Overridden by: Nothing
+     </ul>
+     **/
+    public static final String AS400_MULTIPLEXED_READER_THREADS = ACCESS_PREFIX + "AS400.multiplexedReaderThreads";
+
+    /**
+     Specifies whether host server communications are arranged for callers that run on virtual threads.
+     Setting this property to <tt>true</tt> directs the Toolbox to use <tt>java.util.concurrent</tt> locks instead of monitors around blocking socket operations, so that virtual threads do not pin their carrier threads, and to start the per connection read threads as virtual threads when the JVM supports them.
+     When this property is <tt>true</tt>, {@link #AS400_MULTIPLEXED_READER AS400_MULTIPLEXED_READER} is ignored.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.virtualThreads
+     <li>Values/syntax: <tt>true</tt> or <tt>false</tt>
+     <li>Default: <tt>false</tt>
+     <li>Overridden by: Nothing
+     </ul>
+     **/
+    public static final String AS400_VIRTUAL_THREADS = ACCESS_PREFIX + "AS400.virtualThreads";
+
+    /**
+     Specifies whether the byte arrays of selected host server data streams are taken from a shared, size-classed buffer arena and reused, instead of being allocated for each request and reply.
+     This applies to database request buffers, byte stream file read and write data streams, data queue read replies, remote program call replies, and the receive buffers of the multiplexed reader.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.bufferArena
+     <li>Values/syntax: <tt>true</tt> or <tt>false</tt>
+     <li>Default: <tt>false</tt>
+     <li>Overridden by: Nothing
+     </ul>
+     **/
+    public static final String AS400_BUFFER_ARENA = ACCESS_PREFIX + "AS400.bufferArena";
+
+    /**
+     Specifies whether the buffer arena also keeps direct <tt>java.nio.ByteBuffer</tt> objects, which are used to write data streams to non-blocking socket channels without an extra copy in the JVM.
+     This only applies when {@link #AS400_BUFFER_ARENA AS400_BUFFER_ARENA} is <tt>true</tt>.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.bufferArena.direct
+     <li>Values/syntax: <tt>true</tt> or <tt>false</tt>
+     <li>Default: <tt>false</tt>
+     <li>Overridden by: Nothing
+     </ul>
+     **/
+    public static final String AS400_BUFFER_ARENA_DIRECT = ACCESS_PREFIX + "AS400.bufferArena.direct";
+
     /*public*/ static final String SECUREAS400_PROXY_ENCRYPTION_MODE = ACCESS_PREFIX + "SecureAS400.proxyEncryptionMode";
 
     /**
@@ -252,6 +336,20 @@ public class SystemProperties
     public static final String FTP_REUSE_SOCKET = ACCESS_PREFIX + "FTP.reuseSocket";
 
     /*public*/ static final String JDBC_STATEMENT_LISTENERS = ACCESS_PREFIX + "JDBC.statementListeners";
+
+    /**
+     Specifies the number of parsed SQL statements the JDBC driver keeps for all of the connections in the JVM.
+     When a statement is prepared or executed, the parse of its SQL text is taken from this cache if the same text was parsed before with the same decimal separator, naming, escape processing, package criteria and system release.
+     Setting this property to <tt>0</tt> turns the cache off.
+     <ul>
+     <li>Property name: com.ibm.as400.access.JDBC.sqlStatementCacheSize
+     <li>Values/syntax: A non-negative integer
+     <li>Default: <tt>1024</tt>
+     <li>Overridden by: Nothing
+     </ul>
+     **/
+    public static final String JDBC_SQL_STATEMENT_CACHE_SIZE = ACCESS_PREFIX + "JDBC.sqlStatementCacheSize";
+
     /*public*/ static final String JDBC_SECURE_CURRENT_USER = ACCESS_PREFIX + "JDBC.secureCurrentUser"; //@pw3 not documented in html
     /*public*/ static final String JDBC_JVM16_SYNCHRONIZE = ACCESS_PREFIX + "JDBC.jvm16Synchronize"; //@dmy temp fix for jvm 1.6 memory stomping
     /*public*/ static final String TRACE_MONITOR = ACCESS_PREFIX + "Trace.monitor";
@@ -306,6 +404,62 @@ public class SystemProperties
      **/
     public static final String LIST_WAIT_TIMEOUT = ACCESS_PREFIX + "ListUtilities.listWaitTimeout";
 
+    /**
+     Specifies the number of list entries retrieved by each call to the QGYGTLE (Get List Entries) API, when the entries of a large object list are retrieved with more than one call outstanding.
+     See {@link #LIST_OUTSTANDING_REQUESTS LIST_OUTSTANDING_REQUESTS}.
+     <ul>
+     <li>Property name: com.ibm.as400.access.ListUtilities.listBlockSize
+     <li>Values/syntax: <tt>1 or greater</tt>
+     <li>Default: 1000
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String LIST_BLOCK_SIZE = ACCESS_PREFIX + "ListUtilities.listBlockSize";
+
+    /**
+     Specifies the number of calls to the QGYGTLE (Get List Entries) API that are kept outstanding when the entries of a large object list are retrieved.
+     Methods such as {@link ObjectList#getObjects(int,int) ObjectList.getObjects()} then retrieve the entries in blocks of {@link #LIST_BLOCK_SIZE listBlockSize} entries, and send the calls for the following blocks before the reply to the first one has arrived, so that the round trips to the system overlap.
+     The calls are sent on the connection to the remote command server that built the list, since the list belongs to its server job.
+     Set {@link SocketProperties#setTcpNoDelay TCP no delay} in the socket properties of the system; otherwise the calls after the first wait in the client until the system acknowledges the earlier ones.
+     <ul>
+     <li>Property name: com.ibm.as400.access.ListUtilities.listOutstandingRequests
+     <li>Values/syntax: <tt>1 or greater</tt> (1 means "one call at a time")
+     <li>Default: 1
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String LIST_OUTSTANDING_REQUESTS = ACCESS_PREFIX + "ListUtilities.listOutstandingRequests";
+
+    /**
+     Specifies the number of read requests that an {@link IFSFileInputStream IFSFileInputStream} keeps outstanding ahead of the caller when a file is read sequentially.
+     Once two consecutive reads each continue where the previous one ended, the stream requests the following data in blocks of the maximum data block size negotiated with the file server (or the length of the read, if larger), and serves the reads from the blocks received, so that the transfer of the next blocks overlaps the processing of the current one.
+     A skip, or a change of the file offset through a shared file descriptor, discards the data read ahead.
+     Each outstanding request holds up to one block in memory.
+     Set {@link SocketProperties#setTcpNoDelay TCP no delay} in the socket properties of the system; otherwise the requests after the first wait in the client until the system acknowledges the earlier ones.
+     <ul>
+     <li>Property name: com.ibm.as400.access.IFSFileInputStream.readAhead
+     <li>Values/syntax: <tt>0 or greater</tt> (0 means "no read-ahead")
+     <li>Default: 0
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String IFS_READ_AHEAD = ACCESS_PREFIX + "IFSFileInputStream.readAhead";
+
+    /**
+     Specifies the number of write requests that an {@link IFSFileOutputStream IFSFileOutputStream} may have outstanding.
+     When it is greater than 0, the stream sends each write request, of up to the maximum data block size negotiated with the file server, without waiting for the reply, so that the transfer of the data overlaps the round trips to the system.
+     The replies are checked when a write would exceed this number of outstanding requests, and by flush() and close(), so an error of a write is reported by a later write, flush() or close().
+     After an error, the stream continues at the end of the data that was written.
+     Set {@link SocketProperties#setTcpNoDelay TCP no delay} in the socket properties of the system; otherwise the requests after the first wait in the client until the system acknowledges the earlier ones.
+     <ul>
+     <li>Property name: com.ibm.as400.access.IFSFileOutputStream.writeBehind
+     <li>Values/syntax: <tt>0 or greater</tt> (0 means "wait for each write")
+     <li>Default: 0
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String IFS_WRITE_BEHIND = ACCESS_PREFIX + "IFSFileOutputStream.writeBehind";
+
 
 
     //  *** Note: ***
@@ -22,6 +22,9 @@ import java.io.IOException;
 
 /**
   * TunnelProxyServer is an HttpServlet implementation that enables proxy tunneling.
+  * The <code>compressionThreshold</code> init parameter sets the size, in bytes,
+  * of the smallest reply that is compressed for clients which ask for compression,
+  * or -1 to never compress.
   **/
 public class TunnelProxyServer extends HttpServlet
 {
@@ -91,6 +94,18 @@ public class TunnelProxyServer extends HttpServlet
 		}
 
 		ProxyServer proxyServer = new ProxyServer();  
+		String compressionThreshold = config.getInitParameter("compressionThreshold");
+		if (compressionThreshold != null)
+		{
+			try
+			{
+				proxyServer.setCompressionThreshold(Integer.parseInt(compressionThreshold.trim()));
+			}
+			catch (RuntimeException e)
+			{
+				Trace.log(Trace.ERROR, "compressionThreshold is not valid: " + compressionThreshold, e);
+			}
+		}
 		controller_ = new PSTunnelController (proxyServer);
 		Trace.log(Trace.INFORMATION, "exiting TunnelProxyServer::init");
 	}
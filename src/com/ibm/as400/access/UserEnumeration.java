@@ -60,7 +60,7 @@ class UserEnumeration implements Enumeration
         {
             try
             {
-                userCache_ = list_.getUsers(listOffset_, 1000);
+                userCache_ = list_.getUsers(listOffset_, ListUtilities.getEnumerationBlockSize());
                 cacheOffset_ = 0;
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Loaded next block in UserEnumeration: " + userCache_.length + " messages at list offset " + listOffset_ + " out of " + length_ + " total.");
             }
@@ -432,11 +432,9 @@ public class UserList implements Serializable
             number = length_ - listOffset;
         }
 
-        // AUTU0150 format has 62 bytes per user.
-        int lengthOfReceiverVariable = number * 62;
-
         // Retrieve the entries in the list that was built by the most recent load().
-        byte[] data = ListUtilities.retrieveListEntries(system_, handle_, lengthOfReceiverVariable, number, listOffset, null);
+        // AUTU0150 format has 62 bytes per user.
+        byte[] data = ListUtilities.retrieveFixedLengthListEntries(system_, handle_, 62, number, listOffset, null);
 
         Converter conv = new Converter(system_.getCcsid(), system_);
         User[] users = new User[number];
@@ -257,7 +257,7 @@ public class AspOpenList extends OpenList {
      // List information, output, char(80).
      parameters[2] = new ProgramParameter(80);
      // Number of records to return, input, binary(4).
-     parameters[3] = new ProgramParameter(new byte[] { (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF } );
+     parameters[3] = new ProgramParameter(BinaryConverter.intToByteArray(getNumberOfRecordsToReturn()));
      // Number of Filter, input, binary(4).
      parameters[4] = new ProgramParameter(filterNumberbyte_);
      // Filter information, input, char(*).
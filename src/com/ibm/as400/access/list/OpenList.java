@@ -28,9 +28,11 @@ import com.ibm.as400.access.BinaryConverter;
 import com.ibm.as400.access.ErrorCodeParameter;
 import com.ibm.as400.access.ErrorCompletingRequestException;
 import com.ibm.as400.access.ExtendedIllegalArgumentException;
+import com.ibm.as400.access.ListBlockRetriever;
 import com.ibm.as400.access.ObjectDoesNotExistException;
 import com.ibm.as400.access.ProgramCall;
 import com.ibm.as400.access.ProgramParameter;
+import com.ibm.as400.access.SystemProperties;
 import com.ibm.as400.access.Trace;
 
 /**
@@ -38,6 +40,7 @@ import com.ibm.as400.access.Trace;
  <p>The way an open list works is that a request is initially sent to the system with selection, filter, and sort information that is to be applied to the list of resources.  The system compiles a list of resources that satisfy the requested set of selection parameters.  The OpenList class can then retrieve the list all at once, or in pieces, depending upon the memory and performance requirements of the application.
  <p>The system can be told explicitly to compile the list of resources by calling {@link #open open()}.  If {@link #open open()} is not called explicitly by the application, an implicit call to {@link #open open()} is made by any of the following methods: {@link #getLength getLength()}, {@link #getItems getItems()}, and {@link #getItems(int,int) getItems(int,int)}.
  <p>Once the list is open, the application can retrieve resources from the list using either {@link #getItems getItems()} or {@link #getItems(int,int) getItems(offset, length)}.  One returns an Enumeration, the other returns an array and allows for arbitrarily indexing into the list on the system.  The type of resource returned is determined by the type of subclass that extends OpenList.  For example, the SpooledFileOpenList class returns SpooledFileListItem objects when getItems() is called.
+ <p>By default, the system builds the whole list before {@link #open open()} returns.  If {@link #setStreaming streaming} is turned on, the system builds the list in the background instead, and the items are handed out as soon as the system has built them: {@link #getLength getLength()} returns the number of items built so far, {@link #getItems(int,int) getItems(offset, length)} returns the items at the offset that are built so far, and the Enumeration returned by {@link #getItems getItems()} waits for more items until the whole list is built.
  <p>When an OpenList object is no longer needed by the application, {@link #close close()} should be called to free up resources on the system.  If {@link #close close()} is not explicitly called, an attempt will be made to automatically close the list when the OpenList object is {@link #finalize garbage collected}.
  **/
 public abstract class OpenList implements Serializable
@@ -95,6 +98,18 @@ public abstract class OpenList implements Serializable
     private byte[] handle_;
     // If the list info has changed, close the old handle before loading the new one.
     private boolean closeHandle_ = false;
+    // Whether the list is built in the background and handed out as it grows.
+    private boolean streaming_ = false;
+    // Number of calls to QGYGTLE that getItems(int, int) keeps outstanding.
+    private int outstandingRequests_ = ListBlockRetriever.getDefaultOutstandingRequests();
+    // Whether the system has finished building the list.
+    private boolean complete_ = true;
+
+    // The first and the longest wait between the calls that check whether more of a streaming list has been built.
+    private static final long MIN_WAIT_MILLIS = 10;
+    private static final long MAX_WAIT_MILLIS = 1000;
+    // Default for the longest time to wait for a streaming list to grow.
+    private static final int DEFAULT_MAX_WAIT_TIME = 60;
 
     // All the enumerations created for this list.
     private Vector enumerations_;
@@ -175,6 +190,9 @@ public abstract class OpenList implements Serializable
             // informationStatus_ = 0;
             handle_ = null;
             closeHandle_ = false;
+            complete_ = true;
+            // Wake up any enumerations waiting for the list to grow.
+            notifyAll();
         }
     }
 
@@ -247,6 +265,25 @@ public abstract class OpenList implements Serializable
         return enumerationBlockSize_;
     }
 
+    /**
+     Returns the number of calls to the QGYGTLE (Get List Entries) API that {@link #getItems(int,int) getItems(offset, length)} keeps outstanding when it retrieves more items than the {@link #getEnumerationBlockSize enumeration block size}.
+     @return  The number of outstanding requests.  The default is the value of the {@link SystemProperties#LIST_OUTSTANDING_REQUESTS listOutstandingRequests} property, or 1 if it is not set.
+     @see  #setOutstandingRequests
+     **/
+    public int getOutstandingRequests()
+    {
+        return outstandingRequests_;
+    }
+
+    /**
+     Returns the value that subclasses should pass for the "number of records to return" parameter of their Open List API, in {@link #callOpenListAPI callOpenListAPI()}.
+     @return  -1, to have the system build the whole list before the API returns; or 0, to have the system build the list in the background, if this list is {@link #isStreaming streaming}.
+     **/
+    protected int getNumberOfRecordsToReturn()
+    {
+        return streaming_ ? 0 : -1;
+    }
+
     // I don't want to expose this yet, as asynchronous list processing may be added in the future, and the information complete indicator may need to throw exceptions.
     /*
      Returns the information complete indicator, which indicates whether all requested information has been supplied on the most recent call to this Open List API.  Possible values are:
@@ -264,7 +301,7 @@ public abstract class OpenList implements Serializable
     // }
 
     /**
-     Returns the number of items in the list the system has built.  This method implicitly calls {@link #open open()} to instruct the system to build the list if it hasn't been built already.
+     Returns the number of items in the list the system has built.  This method implicitly calls {@link #open open()} to instruct the system to build the list if it hasn't been built already.  If this list is {@link #isStreaming streaming}, this is the number of items the system has built so far; see {@link #isComplete isComplete()}.
      @return  The number of items, or 0 if no list was retrieved.
      @exception  AS400SecurityException  If a security or authority error occurs.
      @exception  ErrorCompletingRequestException  If an error occurs before the request is completed.
@@ -346,14 +383,61 @@ public abstract class OpenList implements Serializable
 
         if (listOffset == -1)
         {
+            if (!complete_) waitForItems(Integer.MAX_VALUE);
             number = length_;
             listOffset = 0;
         }
-        else if (listOffset + number > length_)
+        else
+        {
+            // A streaming list returns what has been built at the offset, once there is something.
+            if (listOffset >= length_ && !complete_) waitForItems(listOffset + 1);
+            if (listOffset + number > length_)
+            {
+                number = length_ - listOffset;
+            }
+        }
+
+        Block[] blocks;
+        if (outstandingRequests_ > 1 && number > enumerationBlockSize_)
+        {
+            blocks = retrieveBlocks(handle_, listOffset, number);
+        }
+        else
+        {
+            blocks = new Block[] { retrieveBlock(handle_, listOffset, number) };
+        }
+
+        Object[][] items = new Object[blocks.length][];
+        int itemCount = 0;
+        for (int i = 0; i < blocks.length; ++i)
         {
-            number = length_ - listOffset;
+            byte[] listInformation = blocks[i].listInformation_;
+            int recordsReturned = BinaryConverter.byteArrayToInt(listInformation, 4);
+            //int totalRecords = BinaryConverter.byteArrayToInt(listInformation, 0);
+            int recordLength = BinaryConverter.byteArrayToInt(listInformation, 12);
+            // informationStatus_ = listInfo[16];
+            // CharConverter conv = new CharConverter(system_.getCcsid(), system_);
+            // creationDate_ = conv.byteArrayToString(listInfo, 17, 13);
+            int listStatusIndicator = listInformation[30] & 0xFF;
+            updateListStatus(listStatusIndicator, BinaryConverter.byteArrayToInt(listInformation, 0));
+
+            items[i] = formatOutputData(blocks[i].data_, recordsReturned, recordLength);
+            itemCount += items[i].length;
         }
+        if (items.length == 1) return items[0];
 
+        // Put the blocks back together, in order.
+        Object[] allItems = new Object[itemCount];
+        for (int i = 0, offset = 0; i < items.length; offset += items[i++].length)
+        {
+            System.arraycopy(items[i], 0, allItems, offset, items[i].length);
+        }
+        return allItems;
+    }
+
+    // Calls QGYGTLE, repeatedly if the receiver variable is too small, to retrieve a block of items.  This does not use any fields but the system, so it can run on several threads at once.
+    private Block retrieveBlock(byte[] handle, int listOffset, int number) throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException
+    {
         int lengthOfReceiverVariable = getBestGuessReceiverSize(number);
         ProgramParameter[] parameters = new ProgramParameter[]
         {
@@ -362,7 +446,7 @@ public abstract class OpenList implements Serializable
             // Length of receiver variable, input, binary(4).
             new ProgramParameter(BinaryConverter.intToByteArray(lengthOfReceiverVariable)),
             // Request handle, input, char(4).
-            new ProgramParameter(handle_),
+            new ProgramParameter(handle),
             // List information, output, char(80).
             new ProgramParameter(80),
             // Number of records to return, input, binary(4).
@@ -401,21 +485,26 @@ public abstract class OpenList implements Serializable
             }
         } while (recordsReturned < number || listInformation == null);
 
-        //int totalRecords = BinaryConverter.byteArrayToInt(listInformation, 0);
-        int recordLength = BinaryConverter.byteArrayToInt(listInformation, 12);
-        // informationStatus_ = listInfo[16];
-        // CharConverter conv = new CharConverter(system_.getCcsid(), system_);
-        // creationDate_ = conv.byteArrayToString(listInfo, 17, 13);
-        int listStatusIndicator = listInformation[30] & 0xFF;
+        return new Block(parameters[0].getOutputData(), listInformation);
+    }
 
-        // '2' means the list has been completely built.
-        if (listStatusIndicator != 0xF2)
-        {
-            if (Trace.isTraceOn()) Trace.log(Trace.ERROR, "Unable to build object list on server, list status indicator:", listStatusIndicator);
-            throw new OpenListException(listStatusIndicator);
-        }
+    // Retrieves the items in blocks of the enumeration block size, with up to the number of outstanding requests calls to QGYGTLE outstanding at a time.  The list belongs to the server job of the remote command server connection of the system, so all of the calls are sent on that connection, from separate threads; the system processes them one at a time, but their round trips overlap.
+    private Block[] retrieveBlocks(final byte[] handle, final int listOffset, final int number) throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException
+    {
+        final int blockSize = enumerationBlockSize_;
+        final Block[] blocks = new Block[(number + blockSize - 1) / blockSize];
+        if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "Retrieving open list in " + blocks.length + " blocks, outstanding requests:", outstandingRequests_);
 
-        return formatOutputData(parameters[0].getOutputData(), recordsReturned, recordLength);
+        ListBlockRetriever retriever = new ListBlockRetriever(blocks.length)
+        {
+            protected void retrieveBlock(int block) throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException
+            {
+                int first = block * blockSize;
+                blocks[block] = OpenList.this.retrieveBlock(handle, listOffset + first, Math.min(blockSize, number - first));
+            }
+        };
+        retriever.retrieve(outstandingRequests_, "OpenList");
+        return blocks;
     }
 
     /**
@@ -427,6 +516,15 @@ public abstract class OpenList implements Serializable
         return system_;
     }
 
+    /**
+     Returns whether the system has finished building the list.  This is always true unless this list is {@link #isStreaming streaming}.
+     @return  true if the list is completely built, or not open; false if the system is still building it.
+     **/
+    public synchronized boolean isComplete()
+    {
+        return complete_;
+    }
+
     /**
      Returns whether or not this list is open.
      @return  true if this list has been either implicitly or explictly {@link #open opened}; false if this list has been {@link #close closed}, or was never opened in the first place, or has had its properties changed such that it no longer accurately represents the list that was built on the system.
@@ -437,7 +535,17 @@ public abstract class OpenList implements Serializable
     }
 
     /**
-     Loads the list of items on the system.  This method instructs the system to build the list of items.  This method blocks until the system returns the total number of items it has compiled.  A subsequent call to {@link #getItems getItems()} will retrieve the actual object information and attributes for each item in the list from the system.
+     Returns whether the list is built in the background and handed out as it grows.
+     @return  true if the list is streamed; false otherwise.  The default is false.
+     @see  #setStreaming
+     **/
+    public boolean isStreaming()
+    {
+        return streaming_;
+    }
+
+    /**
+     Loads the list of items on the system.  This method instructs the system to build the list of items.  This method blocks until the system returns the total number of items it has compiled, or, if this list is {@link #isStreaming streaming}, until the system has started building the list.  A subsequent call to {@link #getItems getItems()} will retrieve the actual object information and attributes for each item in the list from the system.
      <p>This method updates the list length returned by {@link #getLength getLength()}.
      <p>If this list is already open, {@link #close close()} is called implicitly.
      @exception  AS400SecurityException  If a security or authority error occurs.
@@ -463,14 +571,9 @@ public abstract class OpenList implements Serializable
         }
 
         int listStatusIndicator = listInformation[30] & 0xFF;
-        // '2' means the list has been completely built.
-        if (listStatusIndicator != 0xF2)
-        {
-            if (Trace.isTraceOn()) Trace.log(Trace.ERROR, "Unable to build object list on server, list status indicator:", listStatusIndicator);
-            throw new OpenListException(listStatusIndicator);
-        }
+        length_ = 0;
+        updateListStatus(listStatusIndicator, BinaryConverter.byteArrayToInt(listInformation, 0));
 
-        length_ = BinaryConverter.byteArrayToInt(listInformation, 0);
         handle_ = new byte[4];
         System.arraycopy(listInformation, 8, handle_, 0, 4);
         // creationDate_ = conv.byteArrayToString(listInformation, 17, 13);
@@ -482,7 +585,7 @@ public abstract class OpenList implements Serializable
     // Used for Enumerations so they can tell us that they have reached the end.  We remove them from our list so they can get garbage collected.
     void remove(OpenListEnumeration enum1)
     {
-        enumerations_.removeElement(enum1);
+        if (enumerations_ != null) enumerations_.removeElement(enum1);
     }
 
     /**
@@ -496,6 +599,31 @@ public abstract class OpenList implements Serializable
         // informationStatus_ = 0;
     }
 
+    /**
+     Sets the number of calls to the QGYGTLE (Get List Entries) API that {@link #getItems(int,int) getItems(offset, length)} keeps outstanding when it retrieves more items than the {@link #getEnumerationBlockSize enumeration block size}.  The items are then retrieved in blocks of the enumeration block size, and the calls for the following blocks are sent before the reply to the first one has arrived, so that their round trips to the system overlap.  The blocks are put back together in order.  The Enumeration returned by {@link #getItems getItems()} retrieves this many blocks at a time.
+     <p>The list belongs to the server job that built it, so all of the calls are sent on the connection to the remote command server of the system.  Set {@link com.ibm.as400.access.SocketProperties#setTcpNoDelay TCP no delay} in the socket properties of the system; otherwise the calls after the first wait in the client until the system acknowledges the earlier ones.
+     @param  outstandingRequests  The number of outstanding requests.  If a number less than 1 is specified, 1 is used, and the items are retrieved with one call.
+     **/
+    public void setOutstandingRequests(int outstandingRequests)
+    {
+        outstandingRequests_ = outstandingRequests < 1 ? 1 : outstandingRequests;
+    }
+
+    /**
+     Sets whether the list is built in the background and handed out as it grows.  Rather than waiting for the system to build the whole list, the items can then be processed while the rest of the list is built.  The Enumeration returned by {@link #getItems getItems()} waits for the system to build more items, checking again after a few milliseconds and backing off to once a second.  It stops waiting if the list has not grown for the time set by the {@link SystemProperties#LIST_WAIT_TIMEOUT listWaitTimeout} property, or if checking the list fails; nextElement() then throws a NoSuchElementException whose cause is the error, and the Enumeration ends.
+     <p>Changing this property takes effect the next time the list is {@link #open opened}.
+     @param  streaming  true to stream the list; false to have the system build the whole list first.  The default is false.
+     **/
+    public synchronized void setStreaming(boolean streaming)
+    {
+        if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "Setting streaming:", streaming);
+        if (streaming != streaming_)
+        {
+            streaming_ = streaming;
+            resetHandle();
+        }
+    }
+
     /**
      Sets the number of items that Enumerations returned by this OpenList's {@link #getItems getItems()} method will attempt to retrieve from the system and cache.  A larger number will result in fewer calls to the system but will take more memory.
      @param  enumerationBlockSize  The block size.  The default is 1000 items.  If a number less than 1 is specified, the default block size of 1000 is used.
@@ -504,4 +632,129 @@ public abstract class OpenList implements Serializable
     {
         enumerationBlockSize_ = enumerationBlockSize < 1 ? 1000 : enumerationBlockSize;
     }
+
+    // Records the list status indicator and the total records from the list information of the list.
+    private void updateListStatus(int listStatusIndicator, int totalRecords) throws OpenListException
+    {
+        switch (listStatusIndicator)
+        {
+            // '2' means the list has been completely built.
+            case 0xF2:
+                complete_ = true;
+                break;
+            // '0' pending, '1' being built, and '4' primed, are expected while a streaming list is built in the background.
+            case 0xF0:
+            case 0xF1:
+            case 0xF4:
+                if (!streaming_)
+                {
+                    // Otherwise the list should have been completely built.
+                    if (Trace.isTraceOn()) Trace.log(Trace.ERROR, "Unable to build object list on server, list status indicator:", listStatusIndicator);
+                    throw new OpenListException(listStatusIndicator);
+                }
+                complete_ = false;
+                break;
+            default:
+                if (Trace.isTraceOn()) Trace.log(Trace.ERROR, "Unable to build object list on server, list status indicator:", listStatusIndicator);
+                throw new OpenListException(listStatusIndicator);
+        }
+        // The total records of a list being built only grows.
+        if (totalRecords > length_) length_ = totalRecords;
+    }
+
+    // Waits until the system has built the given number of items or the whole list, and returns the number of items built.  Used by getItems() and by OpenListEnumeration for streaming lists.
+    synchronized int waitForItems(int number) throws AS400SecurityException, ErrorCompletingRequestException, InterruptedException, IOException, ObjectDoesNotExistException, OpenListException
+    {
+        ProgramCall pc = null;
+        long waitMillis = MIN_WAIT_MILLIS;
+        long maxWaitMillis = getMaxWaitTime() * 1000L;
+        long lastGrowth = System.currentTimeMillis();
+
+        while (!complete_ && length_ < number && handle_ != null && !closeHandle_)
+        {
+            // Release the list while waiting, so it can be closed.
+            wait(waitMillis);
+            if (handle_ == null || closeHandle_) break;
+
+            if (pc == null)
+            {
+                ProgramParameter[] parameters = new ProgramParameter[]
+                {
+                    // Receiver variable, output, char(*).
+                    new ProgramParameter(8),
+                    // Length of receiver variable, input, binary(4).
+                    new ProgramParameter(BinaryConverter.intToByteArray(8)),
+                    // Request handle, input, char(4).
+                    new ProgramParameter(handle_),
+                    // List information, output, char(80).
+                    new ProgramParameter(80),
+                    // Number of records to return, input, binary(4).
+                    new ProgramParameter(BinaryConverter.intToByteArray(0)),
+                    // Starting record, input, binary(4).  '0' returns the list information immediately.
+                    new ProgramParameter(BinaryConverter.intToByteArray(0)),
+                    // Error code, I/0, char(*).
+                    EMPTY_ERROR_CODE_PARM
+                };
+                pc = new ProgramCall(system_, "/QSYS.LIB/QGY.LIB/QGYGTLE.PGM", parameters);
+            }
+            if (!pc.run())
+            {
+                throw new AS400Exception(pc.getMessageList());
+            }
+            byte[] listInformation = pc.getParameterList()[3].getOutputData();
+
+            int length = length_;
+            updateListStatus(listInformation[30] & 0xFF, BinaryConverter.byteArrayToInt(listInformation, 0));
+            if (length_ > length)
+            {
+                // Check again soon while the list is growing.
+                waitMillis = MIN_WAIT_MILLIS;
+                lastGrowth = System.currentTimeMillis();
+            }
+            else
+            {
+                if (System.currentTimeMillis() - lastGrowth >= maxWaitMillis)
+                {
+                    if (Trace.isTraceOn()) Trace.log(Trace.ERROR, "The list did not grow within the specified time limit of " + (maxWaitMillis / 1000) + " seconds.");
+                    throw new OpenListException(listInformation[30] & 0xFF);
+                }
+                waitMillis = Math.min(waitMillis * 2, MAX_WAIT_MILLIS);
+            }
+        }
+        if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "Waited for open list, length: " + length_ + ", complete:", complete_);
+        return length_;
+    }
+
+    // Returns the maximum number of seconds to wait for a streaming list to grow.
+    private static int getMaxWaitTime()
+    {
+        int listWaitTimeout = DEFAULT_MAX_WAIT_TIME;
+        String propVal = SystemProperties.getProperty(SystemProperties.LIST_WAIT_TIMEOUT);
+        if (propVal != null)
+        {
+            try
+            {
+                listWaitTimeout = Integer.parseInt(propVal);
+                if (listWaitTimeout == 0) listWaitTimeout = Integer.MAX_VALUE; // '0' means "no limit"
+            }
+            catch (Exception e)
+            {
+                if (Trace.isTraceOn()) Trace.log(Trace.WARNING, "Error retrieving listWaitTimeout property value:", e);
+            }
+        }
+        return listWaitTimeout;
+    }
+
+    // The output of a call to QGYGTLE.
+    private static final class Block
+    {
+        final byte[] data_;
+        final byte[] listInformation_;
+
+        Block(byte[] data, byte[] listInformation)
+        {
+            data_ = data;
+            listInformation_ = listInformation;
+        }
+    }
 }
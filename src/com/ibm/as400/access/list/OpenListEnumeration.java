@@ -23,9 +23,9 @@ final class OpenListEnumeration implements Enumeration
 {
     // Reference back to list object.
     private OpenList list_;
-    // Indication if list is closed.
-    private boolean closed_ = false;
-    // Total number of objects in the server list.
+    // Indication if list is closed.  Set by the OpenList without our lock, while we may be waiting for it to grow.
+    private volatile boolean closed_ = false;
+    // Number of objects in the server list, which grows while a streaming list is built.
     private int length_;
     // Position in the server list.
     private int counter_;
@@ -35,6 +35,8 @@ final class OpenListEnumeration implements Enumeration
     private Object[] objectCache_;
     // Current position within the cache.
     private int cachePosition_ = 0;
+    // The error that stopped the wait for a streaming list to grow.
+    private Exception failure_;
 
     OpenListEnumeration(OpenList list, int length)
     {
@@ -43,30 +45,39 @@ final class OpenListEnumeration implements Enumeration
     }
 
     // Called by OpenList when someone closes it.  This invalidates us.
-    synchronized void close()
+    void close()
     {
         if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "OpenList closed enumeration: " + this);
         closed_ = true;
     }
 
-    public boolean hasMoreElements()
+    public synchronized boolean hasMoreElements()
     {
-        return closed_ && counter_ < listOffset_ || !closed_ && counter_ < length_;
+        return closed_ && counter_ < listOffset_ || !closed_ && available();
     }
 
     public synchronized Object nextElement()
     {
         // If we are closed, but we still have objects in the cache, then we might as well return them.
-        if (closed_ && counter_ >= listOffset_ || !closed_ && counter_ >= length_)
+        if (closed_ && counter_ >= listOffset_ || !closed_ && !available())
         {
             throw new NoSuchElementException();
         }
+        // Waiting for a streaming list to grow failed.  Report why, and end.
+        if (counter_ >= length_)
+        {
+            end();
+            NoSuchElementException e = new NoSuchElementException(failure_.toString());
+            e.initCause(failure_);
+            throw e;
+        }
 
         if (objectCache_ == null || cachePosition_ >= objectCache_.length)
         {
             try
             {
-                int blockSize = list_.getEnumerationBlockSize();
+                // Retrieve as many blocks at a time as the list keeps requests outstanding.
+                int blockSize = list_.getEnumerationBlockSize() * list_.getOutstandingRequests();
                 objectCache_ = list_.getItems(listOffset_, blockSize);
                 if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "Loaded next block in OpenListEnumeration: " + objectCache_.length + " messages at offset " + listOffset_ + " out of " + length_ + " total, using block size " + blockSize + ".");
             }
@@ -86,13 +97,42 @@ final class OpenListEnumeration implements Enumeration
         // When we reach the end, our Enumeration is now useless.
         // We "close" ourselves and notify our Open List that we're used up.
         // This aids in garbage collection.
-        if (counter_ >= length_)
+        if (counter_ >= length_ && list_.isComplete())
         {
-            closed_ = true;
-            list_.remove(this);
-            if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "OpenListEnumeration reached last element: " + this);
+            end();
         }
 
         return obj;
     }
+
+    // Returns whether there is another object in the server list, waiting for a streaming list to grow if necessary.
+    private boolean available()
+    {
+        if (counter_ < length_) return true;
+        // nextElement() reports the failure without waiting again.
+        if (failure_ != null) return true;
+        if (!list_.isComplete())
+        {
+            try
+            {
+                length_ = list_.waitForItems(counter_ + 1);
+            }
+            catch (Exception e)
+            {
+                if (Trace.isTraceOn()) Trace.log(Trace.ERROR, "Exception while waiting for OpenList to grow in OpenListEnumeration:", e);
+                failure_ = e;
+                return true;
+            }
+            if (counter_ < length_) return true;
+        }
+        if (!closed_) end();
+        return false;
+    }
+
+    private void end()
+    {
+        closed_ = true;
+        list_.remove(this);
+        if (Trace.isTraceOn()) Trace.log(Trace.DIAGNOSTIC, "OpenListEnumeration reached last element: " + this);
+    }
 }
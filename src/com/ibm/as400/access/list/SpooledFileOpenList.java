@@ -681,7 +681,7 @@ public class SpooledFileOpenList extends OpenList
         // List information, output, char(80).
         parameters[2] = new ProgramParameter(80);
         // Number of records to return, input, binary(4).
-        parameters[3] = new ProgramParameter(new byte[] { (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF } );
+        parameters[3] = new ProgramParameter(BinaryConverter.intToByteArray(getNumberOfRecordsToReturn()));
         // Sort information, input, char(*).
         parameters[4] = new ProgramParameter(sortInformation);
         // Filter information, input, char(*).